@@ -0,0 +1,217 @@
+package com.jreinhal.mercenary.bench;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.springframework.ai.document.Document;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Deterministic synthetic corpora for the JMH benchmarks.
+ *
+ * <p>Everything is derived from a fixed seed so runs are comparable across commits. Text is
+ * drawn from a generated vocabulary plus a small set of domain terms, so keyword, entity and
+ * PII code paths see realistic hit rates without shipping real documents.</p>
+ */
+public final class SyntheticCorpus {
+    public static final long DEFAULT_SEED = 0x5EED_2026L;
+    public static final String[] DEPARTMENTS = {"ENTERPRISE", "MEDICAL", "GOVERNMENT", "FINANCE", "LEGAL"};
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ra", "te", "vo", "shi", "nu", "pe", "dar", "len", "tor", "qui", "bas", "mon", "fel"};
+    private static final String[] DOMAIN_TERMS = {
+            "budget", "report", "quarterly", "revenue", "latency", "throughput", "contract", "vendor", "policy",
+            "compliance", "incident", "deployment", "security", "network", "patient", "clinical", "procurement",
+            "milestone", "risk", "audit", "metrics", "baseline", "forecast", "program", "schedule", "capacity"};
+    private static final String[] PROPER_NAMES = {
+            "Dr. Alice Morgan", "Col. James Porter", "Acme Corporation", "Northwind Agency", "Harbor City",
+            "Contoso University", "Mr. Robert Chen", "Atlas Foundation"};
+    private static final String[] TECH_TERMS = {"API", "JWT", "OAuth", "TLS", "VectorService", "QueryController", "HTTPS"};
+    private static final String[] VOCABULARY = buildVocabulary(4000);
+
+    private SyntheticCorpus() {
+    }
+
+    public static SplittableRandom random(long salt) {
+        return new SplittableRandom(DEFAULT_SEED ^ salt);
+    }
+
+    public static String word(SplittableRandom rng) {
+        if (rng.nextInt(8) == 0) {
+            return DOMAIN_TERMS[rng.nextInt(DOMAIN_TERMS.length)];
+        }
+        return VOCABULARY[rng.nextInt(VOCABULARY.length)];
+    }
+
+    public static String sentence(SplittableRandom rng, int words) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            String w = word(rng);
+            if (i == 0) {
+                sb.append(Character.toUpperCase(w.charAt(0))).append(w, 1, w.length());
+            } else {
+                sb.append(' ').append(w);
+            }
+        }
+        return sb.append('.').toString();
+    }
+
+    /**
+     * Plain prose with paragraph breaks, roughly {@code words} long.
+     */
+    public static String text(SplittableRandom rng, int words) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        int written = 0;
+        int sentencesInParagraph = 0;
+        while (written < words) {
+            int len = 6 + rng.nextInt(14);
+            sb.append(sentence(rng, len));
+            written += len;
+            if (++sentencesInParagraph >= 4 + rng.nextInt(4)) {
+                sb.append("\n\n");
+                sentencesInParagraph = 0;
+            } else {
+                sb.append(' ');
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Prose salted with entities (dates, acronyms, references, names, organizations) for extraction benchmarks.
+     */
+    public static String entityText(SplittableRandom rng, int words) {
+        StringBuilder sb = new StringBuilder(words * 9);
+        int written = 0;
+        while (written < words) {
+            int len = 8 + rng.nextInt(10);
+            sb.append(sentence(rng, len)).append(' ');
+            written += len;
+            switch (rng.nextInt(5)) {
+                case 0 -> sb.append("Signed by ").append(PROPER_NAMES[rng.nextInt(PROPER_NAMES.length)]).append(" on ")
+                        .append(1 + rng.nextInt(12)).append('/').append(1 + rng.nextInt(28)).append("/20").append(10 + rng.nextInt(16)).append(". ");
+                case 1 -> sb.append("See DOC-").append(1000 + rng.nextInt(9000)).append(" and report_").append(rng.nextInt(500)).append(".pdf. ");
+                case 2 -> sb.append("The ").append(TECH_TERMS[rng.nextInt(TECH_TERMS.length)]).append(" rollout closes in Q")
+                        .append(1 + rng.nextInt(4)).append(" 20").append(20 + rng.nextInt(6)).append(". ");
+                case 3 -> sb.append(PROPER_NAMES[rng.nextInt(PROPER_NAMES.length)]).append(" reviewed the findings. ");
+                default -> {
+                }
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Prose with a configurable share of sentences carrying PII (SSNs, emails, phones, cards, addresses).
+     */
+    public static String piiText(SplittableRandom rng, int words, double piiRate) {
+        StringBuilder sb = new StringBuilder(words * 9);
+        int written = 0;
+        while (written < words) {
+            int len = 8 + rng.nextInt(10);
+            sb.append(sentence(rng, len)).append(' ');
+            written += len;
+            if (rng.nextDouble() >= piiRate) {
+                continue;
+            }
+            switch (rng.nextInt(6)) {
+                case 0 -> sb.append("SSN ").append(100 + rng.nextInt(800)).append('-').append(10 + rng.nextInt(89)).append('-')
+                        .append(1000 + rng.nextInt(8999)).append(". ");
+                case 1 -> sb.append("Contact ").append(word(rng)).append('.').append(word(rng)).append("@example.com. ");
+                case 2 -> sb.append("Call (").append(200 + rng.nextInt(700)).append(") ").append(200 + rng.nextInt(700)).append('-')
+                        .append(1000 + rng.nextInt(8999)).append(". ");
+                case 3 -> sb.append("Card 4111 1111 1111 1111 on file. ");
+                case 4 -> sb.append("Patient: ").append("Alice Morgan").append(", DOB 0").append(1 + rng.nextInt(9)).append("/1")
+                        .append(rng.nextInt(9)).append("/1985. ");
+                default -> sb.append("Ship to ").append(10 + rng.nextInt(9000)).append(" Main Street, Springfield, IL 62704. ");
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    public static List<String> texts(int count, int words, long salt) {
+        SplittableRandom rng = random(salt);
+        List<String> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(text(rng, words));
+        }
+        return out;
+    }
+
+    /**
+     * Chunk-like metadata: dept, workspace, source, page, type and a document year.
+     */
+    public static Map<String, Object> metadata(SplittableRandom rng, int index) {
+        Map<String, Object> meta = new HashMap<>(12);
+        meta.put("dept", DEPARTMENTS[rng.nextInt(DEPARTMENTS.length)]);
+        meta.put("workspaceId", "ws-" + rng.nextInt(8));
+        meta.put("source", "doc-" + (index / 20) + ".pdf");
+        meta.put("page_number", 1 + (index % 20));
+        meta.put("type", rng.nextInt(10) == 0 ? "table" : "text");
+        meta.put("documentYear", 2015 + rng.nextInt(11));
+        return meta;
+    }
+
+    public static List<Document> documents(int count, int words, long salt) {
+        SplittableRandom rng = random(salt);
+        List<Document> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(new Document(text(rng, words), metadata(rng, i)));
+        }
+        return out;
+    }
+
+    public static float[] unitVector(SplittableRandom rng, int dimensions) {
+        float[] v = new float[dimensions];
+        double norm = 0.0;
+        for (int i = 0; i < dimensions; i++) {
+            float x = (float) (rng.nextDouble() * 2.0 - 1.0);
+            v[i] = x;
+            norm += (double) x * x;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < dimensions; i++) {
+            v[i] *= scale;
+        }
+        return v;
+    }
+
+    /**
+     * Sparse lexical weights over the generated vocabulary, shaped like BGE-M3 output.
+     */
+    public static Map<String, Float> sparseWeights(SplittableRandom rng, int terms) {
+        Map<String, Float> weights = new HashMap<>(terms * 2);
+        for (int i = 0; i < terms; i++) {
+            weights.put(word(rng), (float) rng.nextDouble());
+        }
+        return weights;
+    }
+
+    /**
+     * Set a private field (usually a {@code @Value} property) on a bean constructed outside Spring.
+     */
+    public static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        if (field == null) {
+            throw new IllegalArgumentException("No field '" + name + "' on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static String[] buildVocabulary(int size) {
+        SplittableRandom rng = new SplittableRandom(DEFAULT_SEED);
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            int parts = 2 + rng.nextInt(3);
+            StringBuilder sb = new StringBuilder();
+            for (int p = 0; p < parts; p++) {
+                sb.append(SYLLABLES[rng.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = sb.toString();
+        }
+        return words;
+    }
+}
@@ -0,0 +1,54 @@
+package com.jreinhal.mercenary.rag.hgmem;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-chunk cost of {@link EntityExtractor#extract(String)} during HGMem indexing, cycling
+ * through entity-dense synthetic chunks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class EntityExtractorBenchmark {
+    @Param({"10000", "100000"})
+    public int corpusSize;
+
+    private EntityExtractor extractor;
+    private String[] chunks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.extractor = new EntityExtractor();
+        SplittableRandom rng = SyntheticCorpus.random(corpusSize);
+        this.chunks = new String[corpusSize];
+        for (int i = 0; i < corpusSize; i++) {
+            this.chunks[i] = SyntheticCorpus.entityText(rng, 180);
+        }
+    }
+
+    @Benchmark
+    public List<EntityExtractor.Entity> extractChunk() {
+        String chunk = this.chunks[this.cursor];
+        this.cursor = this.cursor + 1 == this.chunks.length ? 0 : this.cursor + 1;
+        return this.extractor.extract(chunk);
+    }
+}
@@ -0,0 +1,81 @@
+package com.jreinhal.mercenary.rag.hybridrag;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+
+/**
+ * Reciprocal Rank Fusion in {@link HybridRagService#applyRrfFusion}: several semantic result
+ * lists (one per query variant) plus a keyword list, sampled from a shared chunk pool so the
+ * lists overlap the way multi-query retrieval does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RrfFusionBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int corpusSize;
+    @Param({"50", "500"})
+    public int resultsPerList;
+    @Param({"3"})
+    public int queryVariants;
+
+    private HybridRagService service;
+    private Map<String, List<HybridRagService.RankedDoc>> semanticResults;
+    private List<HybridRagService.RankedDoc> keywordResults;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.service = new HybridRagService(null, null, null, null);
+        SyntheticCorpus.setField(this.service, "rrfK", 60);
+        SyntheticCorpus.setField(this.service, "semanticWeight", 0.6);
+        SyntheticCorpus.setField(this.service, "keywordWeight", 0.4);
+
+        SplittableRandom rng = SyntheticCorpus.random(corpusSize);
+        // Only materialize the chunks that can appear in result lists; the pool size controls overlap.
+        Map<Integer, Document> materialized = new LinkedHashMap<>();
+        this.semanticResults = new LinkedHashMap<>();
+        for (int q = 0; q < queryVariants; q++) {
+            this.semanticResults.put("variant-" + q, sample(rng, materialized, "semantic"));
+        }
+        this.keywordResults = sample(rng, materialized, "keyword");
+    }
+
+    private List<HybridRagService.RankedDoc> sample(SplittableRandom rng, Map<Integer, Document> materialized, String source) {
+        // Skew toward a hot subset so variants share many documents.
+        int hot = Math.max(resultsPerList * 2, corpusSize / 100);
+        List<HybridRagService.RankedDoc> ranked = new ArrayList<>(resultsPerList);
+        for (int rank = 1; rank <= resultsPerList; rank++) {
+            int idx = rng.nextInt(4) == 0 ? rng.nextInt(corpusSize) : rng.nextInt(Math.min(hot, corpusSize));
+            Document doc = materialized.computeIfAbsent(idx,
+                    i -> new Document(SyntheticCorpus.sentence(rng, 60), SyntheticCorpus.metadata(rng, i)));
+            ranked.add(new HybridRagService.RankedDoc(doc, rank, source));
+        }
+        return ranked;
+    }
+
+    @Benchmark
+    public List<Document> fuse() {
+        return this.service.applyRrfFusion(this.semanticResults, this.keywordResults);
+    }
+}
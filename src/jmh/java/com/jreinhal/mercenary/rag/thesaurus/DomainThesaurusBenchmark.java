@@ -0,0 +1,114 @@
+package com.jreinhal.mercenary.rag.thesaurus;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-query cost of {@link DomainThesaurus#expandQuery} against a large department thesaurus, cycling
+ * through synthetic queries that mention a few configured acronyms.
+ *
+ * <p>{@code regexPerEntry} runs each entry's {@code (?i)\b...\b} pattern over the query, which is what
+ * term lookup cost before the per-department automaton; it is the baseline for {@code expandQuery}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class DomainThesaurusBenchmark {
+    private static final String DEPARTMENT = "GOVERNMENT";
+    private static final int QUERIES = 256;
+
+    @Param({"1000", "10000"})
+    public int thesaurusSize;
+
+    private DomainThesaurus thesaurus;
+    private Pattern[] patterns;
+    private String[] queries;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom rng = SyntheticCorpus.random(thesaurusSize);
+        Map<String, List<String>> terms = new LinkedHashMap<>();
+        while (terms.size() < thesaurusSize) {
+            terms.putIfAbsent(acronym(rng), List.of(SyntheticCorpus.sentence(rng, 3)));
+        }
+        Map<String, List<String>> global = new LinkedHashMap<>();
+        global.put("HIPAA", List.of("Health Insurance Portability and Accountability Act"));
+
+        DomainThesaurusProperties props = new DomainThesaurusProperties();
+        props.setEnabled(true);
+        props.setUnitConversionEnabled(false);
+        props.setMaxQueryVariants(8);
+        props.setEntries(Map.of("GLOBAL", global, DEPARTMENT, terms));
+        this.thesaurus = new DomainThesaurus(props, null);
+        this.thesaurus.init();
+
+        List<String> termList = new ArrayList<>(terms.keySet());
+        this.patterns = new Pattern[termList.size()];
+        for (int i = 0; i < this.patterns.length; i++) {
+            this.patterns[i] = Pattern.compile("(?i)\\b" + Pattern.quote(termList.get(i)) + "\\b");
+        }
+        this.queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            StringBuilder query = new StringBuilder(SyntheticCorpus.sentence(rng, 6 + rng.nextInt(10)));
+            int mentions = rng.nextInt(3);
+            for (int m = 0; m < mentions; m++) {
+                query.append(' ').append(termList.get(rng.nextInt(termList.size())));
+            }
+            this.queries[i] = query.toString();
+        }
+    }
+
+    @Benchmark
+    public List<String> expandQuery() {
+        return this.thesaurus.expandQuery(this.nextQuery(), DEPARTMENT, 8);
+    }
+
+    @Benchmark
+    public int regexPerEntry() {
+        String query = this.nextQuery();
+        int matches = 0;
+        for (Pattern pattern : this.patterns) {
+            if (pattern.matcher(query).find()) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private String nextQuery() {
+        String query = this.queries[this.cursor];
+        this.cursor = this.cursor + 1 == this.queries.length ? 0 : this.cursor + 1;
+        return query;
+    }
+
+    private static String acronym(SplittableRandom rng) {
+        int length = 2 + rng.nextInt(4);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('A' + rng.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.jreinhal.mercenary.reporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import com.jreinhal.mercenary.model.AuditEvent;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end serialization throughput of the streaming audit export: {@code eventCount} events written as
+ * CSV or NDJSON, optionally gzip-compressed, to a discarding output stream. Events cycle through a fixed pool
+ * so the heap stays flat however large the export is, as it does when reading from a Mongo cursor.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@State(Scope.Benchmark)
+public class AuditExportBenchmark {
+    private static final int POOL_SIZE = 4096;
+
+    @Param({"10000000"})
+    public int eventCount;
+
+    @Param({"CSV", "NDJSON"})
+    public AuditExportService.StreamFormat format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private AuditExportService service;
+    private AuditEvent[] pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.service = new AuditExportService(null, mapper);
+        SplittableRandom rng = SyntheticCorpus.random(POOL_SIZE);
+        AuditEvent.EventType[] types = AuditEvent.EventType.values();
+        this.pool = new AuditEvent[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            AuditEvent event = AuditEvent.create(types[rng.nextInt(types.length)], "user-" + rng.nextInt(500), SyntheticCorpus.sentence(rng, 4))
+                    .withWorkspace("ws-" + rng.nextInt(8))
+                    .withRequest("10.0." + rng.nextInt(255) + "." + rng.nextInt(255), "bench-agent", "session-" + rng.nextInt(10_000))
+                    .withResource("document", "doc-" + rng.nextInt(100_000) + ".pdf");
+            SyntheticCorpus.setField(event, "id", Long.toHexString(rng.nextLong()));
+            this.pool[i] = event;
+        }
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        DiscardingOutputStream out = new DiscardingOutputStream();
+        this.service.writeEvents(new PoolIterator(this.pool, this.eventCount), this.format, this.gzip, out);
+        return out.bytes;
+    }
+
+    private static final class PoolIterator implements Iterator<AuditEvent> {
+        private final AuditEvent[] pool;
+        private final int total;
+        private int next;
+
+        private PoolIterator(AuditEvent[] pool, int total) {
+            this.pool = pool;
+            this.total = total;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.total;
+        }
+
+        @Override
+        public AuditEvent next() {
+            if (this.next >= this.total) {
+                throw new NoSuchElementException();
+            }
+            return this.pool[this.next++ % this.pool.length];
+        }
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            this.bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.bytes += len;
+        }
+    }
+}
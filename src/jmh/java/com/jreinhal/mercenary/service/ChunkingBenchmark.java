@@ -0,0 +1,93 @@
+package com.jreinhal.mercenary.service;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+
+/**
+ * Ingestion chunking: {@link TokenTextSplitter} with the default ingestion settings followed by
+ * {@link SecureIngestionService#mergeSmallChunks}, plus the merge pass alone over a pre-split
+ * stream of small chunks (many per page, so merging actually happens).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ChunkingBenchmark {
+    // Mirrors the sentinel.ingest.chunking / chunk-merge defaults.
+    private static final int CHUNK_SIZE_TOKENS = 800;
+    private static final int MIN_CHUNK_SIZE_CHARS = 350;
+    private static final int MIN_CHUNK_LENGTH_TO_EMBED = 5;
+    private static final int MAX_NUM_CHUNKS = 10000;
+    private static final int MERGE_MIN_TOKENS = 512;
+    private static final int MERGE_MAX_TOKENS = 2000;
+    private static final int CHUNKS_PER_PAGE = 8;
+
+    @State(Scope.Benchmark)
+    public static class Pages {
+        @Param({"1000", "10000"})
+        public int pages;
+
+        List<Document> sourcePages;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.sourcePages = SyntheticCorpus.documents(pages, 1200, pages);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SmallChunks {
+        @Param({"10000", "100000"})
+        public int chunks;
+
+        List<Document> smallChunks;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SplittableRandom rng = SyntheticCorpus.random(chunks);
+            this.smallChunks = new ArrayList<>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                Map<String, Object> meta = SyntheticCorpus.metadata(rng, i);
+                // Several consecutive chunks per page so the merge pass has work to do.
+                int page = i / CHUNKS_PER_PAGE;
+                meta.put("source", "doc-" + (page / 20) + ".pdf");
+                meta.put("page_number", 1 + (page % 20));
+                meta.put("dept", "ENTERPRISE");
+                meta.put("workspaceId", "ws-0");
+                meta.put("type", "text");
+                this.smallChunks.add(new Document(SyntheticCorpus.text(rng, 40 + rng.nextInt(200)), meta));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Document> splitAndMerge(Pages state) {
+        TokenTextSplitter splitter = new TokenTextSplitter(CHUNK_SIZE_TOKENS, MIN_CHUNK_SIZE_CHARS, MIN_CHUNK_LENGTH_TO_EMBED, MAX_NUM_CHUNKS, true);
+        List<Document> split = splitter.apply(state.sourcePages);
+        return SecureIngestionService.mergeSmallChunks(split, MERGE_MIN_TOKENS, MERGE_MAX_TOKENS);
+    }
+
+    @Benchmark
+    public List<Document> mergeOnly(SmallChunks state) {
+        return SecureIngestionService.mergeSmallChunks(state.smallChunks, MERGE_MIN_TOKENS, MERGE_MAX_TOKENS);
+    }
+}
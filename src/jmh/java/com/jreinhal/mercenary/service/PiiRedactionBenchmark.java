@@ -0,0 +1,66 @@
+package com.jreinhal.mercenary.service;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-chunk cost of {@link PiiRedactionService#redact(String)} in MASK mode with every pattern
+ * enabled, cycling through a synthetic corpus so the JIT sees realistic text variety.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PiiRedactionBenchmark {
+    @Param({"10000", "100000"})
+    public int corpusSize;
+    @Param({"0.0", "0.3"})
+    public double piiRate;
+
+    private PiiRedactionService service;
+    private String[] chunks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.service = new PiiRedactionService(null);
+        for (Field field : PiiRedactionService.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.getType() == boolean.class && field.getName().startsWith("redact")) {
+                SyntheticCorpus.setField(this.service, field.getName(), true);
+            }
+        }
+        SyntheticCorpus.setField(this.service, "enabled", true);
+        SyntheticCorpus.setField(this.service, "mode", "MASK");
+        SyntheticCorpus.setField(this.service, "auditRedactions", false);
+
+        SplittableRandom rng = SyntheticCorpus.random(corpusSize);
+        this.chunks = new String[corpusSize];
+        for (int i = 0; i < corpusSize; i++) {
+            this.chunks[i] = SyntheticCorpus.piiText(rng, 150, piiRate);
+        }
+    }
+
+    @Benchmark
+    public PiiRedactionService.RedactionResult redactChunk() {
+        String chunk = this.chunks[this.cursor];
+        this.cursor = this.cursor + 1 == this.chunks.length ? 0 : this.cursor + 1;
+        return this.service.redact(chunk);
+    }
+}
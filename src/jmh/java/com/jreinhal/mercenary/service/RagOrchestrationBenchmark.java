@@ -0,0 +1,70 @@
+package com.jreinhal.mercenary.service;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Keyword extraction and snippet selection used when building evidence for an answer.
+ * {@code extractSnippet} runs once per retrieved chunk, so it is measured per chunk while
+ * cycling through the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RagOrchestrationBenchmark {
+    private static final String[] QUERIES = {
+            "What was the quarterly revenue forecast in the FY2024 budget report?",
+            "Summarize the security incident timeline and the deployment risk baseline",
+            "Which vendor contract covers network capacity and compliance audit metrics?",
+            "List milestones for the procurement program schedule",
+            "How did clinical throughput and patient latency change after the policy update?"
+    };
+
+    @Param({"10000", "100000"})
+    public int corpusSize;
+
+    private String[] chunks;
+    private List<Set<String>> keywords;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.chunks = SyntheticCorpus.texts(corpusSize, 180, corpusSize).toArray(new String[0]);
+        this.keywords = Arrays.stream(QUERIES).map(RagOrchestrationService::buildQueryKeywords).toList();
+    }
+
+    @Benchmark
+    public int buildQueryKeywords() {
+        int total = 0;
+        for (String query : QUERIES) {
+            total += RagOrchestrationService.buildQueryKeywords(query).size();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public String extractSnippet() {
+        int idx = this.cursor;
+        this.cursor = idx + 1 == this.chunks.length ? 0 : idx + 1;
+        int q = idx % QUERIES.length;
+        return RagOrchestrationService.extractSnippet(this.chunks[idx], this.keywords.get(q), false, 1, QUERIES[q]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.jreinhal.mercenary.vector;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filter parsing and per-chunk evaluation: the interpreted {@link FilterExpressionEvaluator}
+ * against the compiled {@link FilterPlan} predicate used by the vector store scan.
+ *
+ * <p>{@code fullPlan} compiles every condition into the Java predicate (no Mongo prefilter), which is
+ * the like-for-like comparison with the evaluator; {@code residualPlan} only re-checks what Mongo
+ * cannot, as in a real scan.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class FilterExpressionBenchmark {
+    private static final String[] FILTERS = {
+            "dept == 'ENTERPRISE'",
+            "dept == 'ENTERPRISE' && workspaceId == 'ws-3' && type != 'table'",
+            "dept in ['ENTERPRISE', 'MEDICAL'] && documentYear >= 2018 && documentYear <= 2022",
+            "dept == 'FINANCE' || dept == 'LEGAL' && type == 'text'",
+            "Expression[type=EQ, left=Key[key=dept], right=Value[value=ENTERPRISE]]"
+    };
+    private static final Set<String> PREFILTER_KEYS = Set.of("dept", "workspaceId", "type", "documentYear");
+
+    @Param({"10000", "100000", "1000000"})
+    public int corpusSize;
+
+    private List<Map<String, Object>> corpus;
+    private FilterExpressionParser.ParsedFilter parsed;
+    private FilterPlan fullPlan;
+    private FilterPlan residualPlan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom rng = SyntheticCorpus.random(corpusSize);
+        this.corpus = new ArrayList<>(corpusSize);
+        for (int i = 0; i < corpusSize; i++) {
+            this.corpus.add(SyntheticCorpus.metadata(rng, i));
+        }
+        String filter = "dept in ['ENTERPRISE', 'MEDICAL'] && type != 'table' && documentYear >= 2018";
+        this.parsed = FilterExpressionParser.parse(filter);
+        this.fullPlan = FilterPlan.compile(this.parsed, Set.of());
+        this.residualPlan = FilterPlan.compile(this.parsed, PREFILTER_KEYS);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int parseFilters() {
+        int conditions = 0;
+        for (String filter : FILTERS) {
+            FilterExpressionParser.ParsedFilter result = FilterExpressionParser.parse(filter);
+            conditions += result.orGroups().size();
+        }
+        return conditions;
+    }
+
+    @Benchmark
+    public int evaluatorMatchesCorpus() {
+        int matches = 0;
+        for (Map<String, Object> metadata : this.corpus) {
+            if (FilterExpressionEvaluator.matches(metadata, this.parsed)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int fullPlanMatchesCorpus() {
+        return countMatches(this.fullPlan);
+    }
+
+    @Benchmark
+    public int residualPlanMatchesCorpus() {
+        return countMatches(this.residualPlan);
+    }
+
+    private int countMatches(FilterPlan plan) {
+        int matches = 0;
+        for (Map<String, Object> metadata : this.corpus) {
+            if (plan.matches(metadata)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,130 @@
+package com.jreinhal.mercenary.vector;
+
+import com.jreinhal.mercenary.bench.SyntheticCorpus;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * In-memory scoring cost of {@link LocalMongoVectorStore} dense and sparse search.
+ *
+ * <p>Mongo is replaced by a stub that returns the whole synthetic corpus for the candidate scan
+ * and resolves {@code _id $in} lookups for hydration, so the numbers cover filter evaluation,
+ * cosine/sparse scoring, top-k selection and hydration but not network or BSON decoding.
+ * Embeddings are stored as boxed {@code List<Double>} like the persisted documents, which is why
+ * the 1M-chunk run needs a bigger heap ({@code -jvmArgsAppend -Xmx16g}).</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class LocalMongoVectorStoreBenchmark {
+    @Param({"10000", "100000"})
+    public int corpusSize;
+    @Param({"384"})
+    public int dimensions;
+    @Param({"10"})
+    public int topK;
+
+    private LocalMongoVectorStore store;
+    private Map<String, Float> sparseQuery;
+    private SearchRequest unfilteredRequest;
+    private SearchRequest filteredRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom rng = SyntheticCorpus.random(corpusSize);
+        List<LocalMongoVectorStore.MongoDocument> corpus = new ArrayList<>(corpusSize);
+        Map<String, LocalMongoVectorStore.MongoDocument> byId = new HashMap<>(corpusSize * 2);
+        for (int i = 0; i < corpusSize; i++) {
+            float[] vector = SyntheticCorpus.unitVector(rng, dimensions);
+            List<Double> embedding = new ArrayList<>(dimensions);
+            for (float f : vector) {
+                embedding.add((double) f);
+            }
+            LocalMongoVectorStore.MongoDocument md = new LocalMongoVectorStore.MongoDocument();
+            md.setId("chunk-" + i);
+            md.setContent(SyntheticCorpus.sentence(rng, 40));
+            md.setMetadata(SyntheticCorpus.metadata(rng, i));
+            md.setEmbedding(embedding);
+            md.setEmbeddingNorm(1.0);
+            md.setEmbeddingDimensions(dimensions);
+            md.setSparseWeights(SyntheticCorpus.sparseWeights(rng, 48));
+            corpus.add(md);
+            byId.put(md.getId(), md);
+        }
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class, withSettings().stubOnly());
+        when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), eq(LocalMongoVectorStore.COLLECTION_NAME)))
+                .thenAnswer(invocation -> {
+                    Query query = invocation.getArgument(0);
+                    Object idClause = query.getQueryObject().get("_id");
+                    if (idClause instanceof org.bson.Document in && in.get("$in") instanceof Collection<?> ids) {
+                        List<LocalMongoVectorStore.MongoDocument> hits = new ArrayList<>(ids.size());
+                        for (Object id : ids) {
+                            LocalMongoVectorStore.MongoDocument md = byId.get(String.valueOf(id));
+                            if (md != null) {
+                                hits.add(md);
+                            }
+                        }
+                        return hits;
+                    }
+                    return corpus;
+                });
+        float[] queryVector = SyntheticCorpus.unitVector(rng, dimensions);
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class, withSettings().stubOnly());
+        when(embeddingModel.embed(anyString())).thenReturn(queryVector);
+
+        this.store = new LocalMongoVectorStore(mongoTemplate, embeddingModel);
+        this.sparseQuery = SyntheticCorpus.sparseWeights(rng, 24);
+        this.unfilteredRequest = SearchRequest.query("benchmark query").withTopK(topK);
+        // dept/documentYear are prefiltered by Mongo (a no-op in the stub); the type != clause is evaluated in Java.
+        this.filteredRequest = SearchRequest.query("benchmark query").withTopK(topK)
+                .withFilterExpression("dept == 'ENTERPRISE' && type != 'table' && documentYear >= 2018");
+    }
+
+    @Benchmark
+    public List<Document> denseSearch() {
+        return this.store.similaritySearch(this.unfilteredRequest);
+    }
+
+    @Benchmark
+    public List<Document> denseSearchWithFilter() {
+        return this.store.similaritySearch(this.filteredRequest);
+    }
+
+    @Benchmark
+    public List<Document> sparseSearch() {
+        return this.store.sparseSearch(this.sparseQuery, null, topK, 0.0);
+    }
+}
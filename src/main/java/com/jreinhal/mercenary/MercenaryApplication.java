@@ -1,5 +1,6 @@
 package com.jreinhal.mercenary;
 
+import com.jreinhal.mercenary.service.PipelineMetrics;
 import com.jreinhal.mercenary.vector.LocalMongoVectorStore;
 import jakarta.annotation.PostConstruct;
 import java.util.Arrays;
@@ -9,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.MongoDBAtlasVectorStore;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -108,7 +110,7 @@ public class MercenaryApplication {
     }
 
     @Bean
-    public VectorStore vectorStore(MongoTemplate mongoTemplate, EmbeddingModel embeddingModel, @Value("${app.auth-mode:DEV}") String authMode, @Value("${sentinel.embedding.batch-size:128}") int embeddingBatchSize, @Value("${sentinel.embedding.target-dimensions:0}") int targetEmbeddingDimensions, @Value("${sentinel.embedding.multimodal-enabled:false}") boolean multimodalEmbeddingsEnabled) {
+    public VectorStore vectorStore(MongoTemplate mongoTemplate, EmbeddingModel embeddingModel, ObjectProvider<PipelineMetrics> pipelineMetrics, @Value("${app.auth-mode:DEV}") String authMode, @Value("${sentinel.embedding.batch-size:128}") int embeddingBatchSize, @Value("${sentinel.embedding.target-dimensions:0}") int targetEmbeddingDimensions, @Value("${sentinel.embedding.multimodal-enabled:false}") boolean multimodalEmbeddingsEnabled) {
         String mongoUri = this.environment.getProperty("spring.data.mongodb.uri", "");
         boolean forceLocal = Boolean.parseBoolean(this.environment.getProperty("sentinel.vectorstore.force-local", "false"));
         boolean forceAtlas = Boolean.parseBoolean(this.environment.getProperty("sentinel.vectorstore.force-atlas", "false"));
@@ -121,7 +123,9 @@ public class MercenaryApplication {
             if (forceLocal || isLocalMongo) {
                 log.info("Using LocalMongoVectorStore (local MongoDB detected).");
             }
-            return new LocalMongoVectorStore(mongoTemplate, embeddingModel, embeddingBatchSize, targetEmbeddingDimensions, multimodalEmbeddingsEnabled);
+            LocalMongoVectorStore localStore = new LocalMongoVectorStore(mongoTemplate, embeddingModel, embeddingBatchSize, targetEmbeddingDimensions, multimodalEmbeddingsEnabled);
+            pipelineMetrics.ifAvailable(localStore::setPipelineMetrics);
+            return localStore;
         }
         MongoDBAtlasVectorStore.MongoDBVectorStoreConfig config = MongoDBAtlasVectorStore.MongoDBVectorStoreConfig.builder().withCollectionName("vector_store").withVectorIndexName("vector_index").withPathName("embedding").withMetadataFieldsToFilter(List.of("dept", "source")).build();
         return new MongoDBAtlasVectorStore(mongoTemplate, embeddingModel, config, false);
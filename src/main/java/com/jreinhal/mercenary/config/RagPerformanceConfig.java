@@ -1,5 +1,10 @@
 package com.jreinhal.mercenary.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RejectedExecutionHandler;
@@ -10,6 +15,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -44,6 +50,30 @@ public class RagPerformanceConfig {
         return this.buildExecutor("rerank-exec-", threads, threads, Math.max(50, threads * 10));
     }
 
+    /**
+     * Exposes pool size, active/queued tasks and rejection counts for both RAG pools so
+     * saturation shows up on dashboards before requests start degrading.
+     */
+    @Bean
+    public MeterBinder ragExecutorMetrics(
+            @Qualifier("ragExecutor") ThreadPoolExecutor ragExecutor,
+            @Qualifier("rerankerExecutor") ThreadPoolExecutor rerankerExecutor) {
+        return registry -> {
+            bindExecutor(registry, ragExecutor, "ragExecutor");
+            bindExecutor(registry, rerankerExecutor, "rerankerExecutor");
+        };
+    }
+
+    private static void bindExecutor(MeterRegistry registry, ThreadPoolExecutor executor, String name) {
+        new ExecutorServiceMetrics(executor, name, Tags.empty()).bindTo(registry);
+        if (executor.getRejectedExecutionHandler() instanceof MonitoredRejectionHandler handler) {
+            FunctionCounter.builder("sentinel.executor.rejected", handler, MonitoredRejectionHandler::getRejectionCount)
+                    .tag("name", name)
+                    .description("Tasks rejected because the pool queue was full")
+                    .register(registry);
+        }
+    }
+
     private ThreadPoolExecutor buildExecutor(String prefix, int coreThreads, int maxThreads, int queueCapacity) {
         int core = Math.max(1, coreThreads);
         int max = Math.max(core, maxThreads);
@@ -2,7 +2,10 @@ package com.jreinhal.mercenary.config;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.time.Duration;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,6 +16,12 @@ public class SecureDocCacheConfig {
         return Caffeine.newBuilder()
             .maximumSize(100L)
             .expireAfterWrite(Duration.ofHours(1L))
+            .recordStats()
             .build();
     }
+
+    @Bean
+    public MeterBinder secureDocCacheMetrics(@Qualifier("secureDocCache") Cache<String, String> secureDocCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, secureDocCache, "secure.docs");
+    }
 }
@@ -2,7 +2,10 @@ package com.jreinhal.mercenary.config;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.time.Duration;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +21,12 @@ public class SourcePdfCacheConfig {
                 .maximumWeight(Math.max(1L, maxTotalBytes))
                 .weigher((String key, byte[] value) -> value == null ? 0 : value.length)
                 .expireAfterWrite(Duration.ofHours(Math.max(1L, ttlHours)))
+                .recordStats()
                 .build();
     }
+
+    @Bean
+    public MeterBinder sourcePdfCacheMetrics(@Qualifier("sourcePdfCache") Cache<String, byte[]> sourcePdfCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, sourcePdfCache, "source.pdfs");
+    }
 }
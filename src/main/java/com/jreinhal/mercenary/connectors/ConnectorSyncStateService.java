@@ -1,8 +1,10 @@
 package com.jreinhal.mercenary.connectors;
 
 import com.jreinhal.mercenary.Department;
+import com.jreinhal.mercenary.service.SemanticAnswerCache;
 import com.jreinhal.mercenary.service.SourceDocumentService;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import com.jreinhal.mercenary.workspace.WorkspaceUsageService;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -14,6 +16,7 @@ import java.util.Locale;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -33,6 +36,10 @@ public class ConnectorSyncStateService {
 
     @Value("${sentinel.connectors.incremental-sync-enabled:true}")
     private boolean incrementalSyncEnabled;
+    @Autowired(required = false)
+    private SemanticAnswerCache answerCache;
+    @Autowired(required = false)
+    private WorkspaceUsageService workspaceUsageService;
 
     public ConnectorSyncStateService(MongoTemplate mongoTemplate, SourceDocumentService sourceDocumentService) {
         this.mongoTemplate = mongoTemplate;
@@ -107,6 +114,12 @@ public class ConnectorSyncStateService {
         long deleted = this.mongoTemplate.remove(query, VECTOR_COLLECTION).getDeletedCount();
         if (deleted > 0) {
             this.sourceDocumentService.removePdfSource(workspaceId, department, sourceName);
+            if (this.answerCache != null) {
+                this.answerCache.invalidateWorkspace(workspaceId);
+            }
+            if (this.workspaceUsageService != null) {
+                this.workspaceUsageService.markContentChanged(workspaceId);
+            }
         }
         return deleted;
     }
@@ -151,6 +164,12 @@ public class ConnectorSyncStateService {
         long deleted = this.mongoTemplate.remove(query, VECTOR_COLLECTION).getDeletedCount();
         if (deleted > 0) {
             this.sourceDocumentService.removePdfSource(workspaceId, department, sourceName);
+            if (this.answerCache != null) {
+                this.answerCache.invalidateWorkspace(workspaceId);
+            }
+            if (this.workspaceUsageService != null) {
+                this.workspaceUsageService.markContentChanged(workspaceId);
+            }
         }
         return deleted;
     }
@@ -5,6 +5,8 @@ import com.jreinhal.mercenary.model.Feedback;
 import com.jreinhal.mercenary.model.User;
 import com.jreinhal.mercenary.model.UserRole;
 import com.jreinhal.mercenary.service.FeedbackService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -110,17 +113,18 @@ public class FeedbackController {
 
     @GetMapping(value={"/export/training"})
     @PreAuthorize(value="hasRole('ADMIN')")
-    public ResponseEntity<List<FeedbackService.TrainingExample>> exportTrainingData(@RequestParam(required=false) String sector, @RequestParam(defaultValue="POSITIVE") String type) {
+    public void exportTrainingData(@RequestParam(required=false) String sector, @RequestParam(defaultValue="POSITIVE") String type, HttpServletResponse response) throws IOException {
         Feedback.FeedbackType feedbackType;
         try {
             feedbackType = Feedback.FeedbackType.valueOf(type.toUpperCase());
         }
         catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
         }
-        List<FeedbackService.TrainingExample> examples = this.feedbackService.exportTrainingData(sector, feedbackType);
-        log.info("Training data exported: {} examples, type={}, sector={}", new Object[]{examples.size(), feedbackType, sector != null ? sector : "all"});
-        return ResponseEntity.ok(examples);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        long examples = this.feedbackService.writeTrainingData(sector, feedbackType, response.getOutputStream());
+        log.info("Training data exported: {} examples, type={}, sector={}", new Object[]{examples, feedbackType, sector != null ? sector : "all"});
     }
 
     @GetMapping("/categories")
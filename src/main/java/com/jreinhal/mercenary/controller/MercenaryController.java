@@ -33,6 +33,8 @@ import com.jreinhal.mercenary.service.QueryDecompositionService;
 import com.jreinhal.mercenary.service.RagOrchestrationService;
 import com.jreinhal.mercenary.service.SecureIngestionService;
 import com.jreinhal.mercenary.service.SourceDocumentService;
+import com.jreinhal.mercenary.service.StreamingExecutor;
+import com.jreinhal.mercenary.service.LlmGateway;
 import com.jreinhal.mercenary.security.ContentSanitizer;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.util.LogSanitizer;
@@ -52,7 +54,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -70,6 +72,7 @@ import org.springframework.ai.ollama.api.OllamaOptions;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
@@ -92,6 +95,8 @@ public class MercenaryController {
     private static final String DOC_SEPARATOR = "\n\n---\n\n";
     private static final Set<String> BOOST_STOP_WORDS = StopWords.QUERY_BOOST;
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final VectorStore vectorStore;
     private final SecureIngestionService ingestionService;
     private final MongoTemplate mongoTemplate;
@@ -120,6 +125,7 @@ public class MercenaryController {
     private final SourceDocumentService sourceDocumentService;
     private final PageRenderService pageRenderService;
     private final LicenseService licenseService;
+    private final StreamingExecutor streamingExecutor;
     private final AtomicInteger docCount = new AtomicInteger(0);
     private final OllamaOptions llmOptions;
     private static final String NO_RELEVANT_RECORDS = "No relevant records found.";
@@ -140,7 +146,7 @@ public class MercenaryController {
     @Value("${sentinel.rag.max-visual-docs:8}")
     private int maxVisualDocs;
 
-    public MercenaryController(ChatClient.Builder builder, VectorStore vectorStore, SecureIngestionService ingestionService, MongoTemplate mongoTemplate, AuditService auditService, QueryDecompositionService queryDecompositionService, ReasoningTracer reasoningTracer, QuCoRagService quCoRagService, AdaptiveRagService adaptiveRagService, RewriteService rewriteService, RagPartService ragPartService, HybridRagService hybridRagService, HiFiRagService hiFiRagService, MiARagService miARagService, MegaRagService megaRagService, HGMemQueryEngine hgMemQueryEngine, AgenticRagOrchestrator agenticRagOrchestrator, BidirectionalRagService bidirectionalRagService, ModalityRouter modalityRouter, SectorConfig sectorConfig, PromptGuardrailService guardrailService, PiiRedactionService piiRedactionService, ConversationMemoryProvider conversationMemoryService, SessionPersistenceProvider sessionPersistenceService, RagOrchestrationService ragOrchestrationService, Cache<String, String> secureDocCache, SourceDocumentService sourceDocumentService, PageRenderService pageRenderService, LicenseService licenseService,
+    public MercenaryController(ChatClient.Builder builder, VectorStore vectorStore, SecureIngestionService ingestionService, MongoTemplate mongoTemplate, AuditService auditService, QueryDecompositionService queryDecompositionService, ReasoningTracer reasoningTracer, QuCoRagService quCoRagService, AdaptiveRagService adaptiveRagService, RewriteService rewriteService, RagPartService ragPartService, HybridRagService hybridRagService, HiFiRagService hiFiRagService, MiARagService miARagService, MegaRagService megaRagService, HGMemQueryEngine hgMemQueryEngine, AgenticRagOrchestrator agenticRagOrchestrator, BidirectionalRagService bidirectionalRagService, ModalityRouter modalityRouter, SectorConfig sectorConfig, PromptGuardrailService guardrailService, PiiRedactionService piiRedactionService, ConversationMemoryProvider conversationMemoryService, SessionPersistenceProvider sessionPersistenceService, RagOrchestrationService ragOrchestrationService, Cache<String, String> secureDocCache, SourceDocumentService sourceDocumentService, PageRenderService pageRenderService, LicenseService licenseService, StreamingExecutor streamingExecutor,
                                @Value("${spring.ai.ollama.chat.options.model:llama3.1:8b}") String llmModel,
                                @Value("${spring.ai.ollama.chat.options.temperature:0.0}") double llmTemperature,
                                @Value("${spring.ai.ollama.chat.options.num-predict:256}") int llmNumPredict) {
@@ -174,6 +180,7 @@ public class MercenaryController {
         this.sourceDocumentService = sourceDocumentService;
         this.pageRenderService = pageRenderService;
         this.licenseService = licenseService;
+        this.streamingExecutor = streamingExecutor;
         this.llmOptions = OllamaOptions.create()
                 .withModel(llmModel)
                 .withTemperature(llmTemperature)
@@ -515,6 +522,36 @@ public class MercenaryController {
         }
     }
 
+    @GetMapping(value={"/ingest/mindscape"})
+    public ResponseEntity<?> mindscapeStatus(@RequestParam(value="fileName") String fileName, @RequestParam(value="dept") String dept, HttpServletRequest request) {
+        User user = SecurityContext.getCurrentUser();
+        if (user == null) {
+            this.auditService.logAccessDenied(null, "/api/ingest/mindscape", "Unauthenticated access attempt", request);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("ACCESS DENIED: Authentication required.");
+        }
+        Department department;
+        try {
+            department = Department.fromString(dept.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("INVALID SECTOR: unrecognized department value");
+        }
+        if (!user.hasPermission(UserRole.Permission.INGEST)) {
+            this.auditService.logAccessDenied(user, "/api/ingest/mindscape", "Missing INGEST permission", request);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("ACCESS DENIED: Insufficient permissions.");
+        }
+        if (this.sectorConfig.requiresElevatedClearance(department) && !user.canAccessClassification(department.getRequiredClearance())
+                || !user.canAccessSector(department)) {
+            this.auditService.logAccessDenied(user, "/api/ingest/mindscape", "Not authorized for sector " + department.name(), request);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("ACCESS DENIED: Unauthorized sector access.");
+        }
+        MiARagService.MindscapeBuildStatus status = this.miARagService.getBuildStatus(fileName, department.name());
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
     @RequestMapping(value={"/ask"}, method={RequestMethod.GET, RequestMethod.POST})
     public String ask(@RequestParam("q") String query, @RequestParam("dept") String dept, @RequestParam(value="file", required=false) List<String> fileParams, @RequestParam(value="files", required=false) String filesParam, HttpServletRequest request) {
         return this.ragOrchestrationService.ask(query, dept, fileParams, filesParam, request);
@@ -600,152 +637,181 @@ public class MercenaryController {
 
         List<String> activeFiles = this.parseActiveFiles(fileParams, filesParam);
 
-        // Process in background thread
-        CompletableFuture.runAsync(() -> {
-            try {
-                // Send initial connection event
+        StreamingExecutor.StreamHandle stream = this.streamingExecutor.tryAdmit(user);
+        if (stream == null) {
+            sendSseError(emitter, "Too many concurrent streams. Please wait for an active query to finish.");
+            return emitter;
+        }
+        // Client disconnects surface as emitter errors; either way stop retrieval and the LLM stream.
+        emitter.onTimeout(stream::cancel);
+        emitter.onError(e -> stream.cancel());
+
+        try {
+            this.streamingExecutor.execute(stream, () -> this.runAskStream(emitter, stream, query, dept, activeFiles, deepAnalysis));
+        } catch (RejectedExecutionException e) {
+            sendSseError(emitter, "System is busy. Please try again shortly.");
+        }
+
+        return emitter;
+    }
+
+    private void runAskStream(SseEmitter emitter, StreamingExecutor.StreamHandle stream, String query, String dept,
+                              List<String> activeFiles, boolean deepAnalysis) {
+        try {
+            // Send initial connection event
+            emitter.send(SseEmitter.event()
+                .name("connected")
+                .data("{\"status\":\"connected\",\"query\":\"" + escapeJson(query) + "\"}"));
+
+            // Step 1: Security Check
+            sendSseStep(emitter, "security_check", "Security Scan", "Analyzing query for threats...");
+            boolean isInjection = this.isPromptInjection(query);
+            if (isInjection) {
+                sendSseStep(emitter, "security_check", "Security Scan", "BLOCKED: Injection detected");
                 emitter.send(SseEmitter.event()
-                    .name("connected")
-                    .data("{\"status\":\"connected\",\"query\":\"" + escapeJson(query) + "\"}"));
-
-                // Step 1: Security Check
-                sendSseStep(emitter, "security_check", "Security Scan", "Analyzing query for threats...");
-                boolean isInjection = this.isPromptInjection(query);
-                if (isInjection) {
-                    sendSseStep(emitter, "security_check", "Security Scan", "BLOCKED: Injection detected");
-                    emitter.send(SseEmitter.event()
-                        .name("complete")
-                        .data("{\"answer\":\"SECURITY ALERT: Indirect Prompt Injection Detected.\",\"blocked\":true}"));
-                    emitter.complete();
+                    .name("complete")
+                    .data("{\"answer\":\"SECURITY ALERT: Indirect Prompt Injection Detected.\",\"blocked\":true}"));
+                emitter.complete();
+                return;
+            }
+            sendSseStep(emitter, "security_check", "Security Scan", "Query passed security check");
+
+            // Step 2: Query Routing
+            sendSseStep(emitter, "query_routing", "Query Routing", "Analyzing query complexity...");
+
+            AdaptiveRagService.RoutingResult routing = this.adaptiveRagService.route(query);
+            QuCoRagService.UncertaintyResult uncertaintyResult = this.quCoRagService.analyzeQueryUncertainty(query);
+            boolean highUncertainty = this.quCoRagService.shouldTriggerRetrieval(uncertaintyResult.uncertaintyScore());
+
+            // Step 3: Retrieval
+            sendSseStep(emitter, "vector_search", "Retrieval", "Running hybrid retrieval...");
+            RetrievalContext context = this.retrieveContext(query, dept, activeFiles, routing, highUncertainty, deepAnalysis);
+            List<Document> docs = context.textDocuments();
+            List<Document> visualDocs = context.visualDocuments();
+            if (stream.isCancelled()) {
+                return;
+            }
+            sendSseStep(emitter, "vector_search", "Retrieval", "Found " + docs.size() + " text documents and " + visualDocs.size() + " visual documents");
+
+            // Step 4: Context Assembly
+            sendSseStep(emitter, "context_assembly", "Context Assembly", "Building context from documents...");
+            List<Document> topDocs = docs.stream().limit(10).toList();
+            String information = this.buildInformation(topDocs, context.globalContext());
+            String visualInfo = this.buildVisualInformation(visualDocs);
+            if (!visualInfo.isBlank()) {
+                information = information.isBlank() ? visualInfo : information + "\n\n---\n\n" + "=== VISUAL SOURCES ===\n" + visualInfo;
+            }
+            sendSseStep(emitter, "context_assembly", "Context Assembly", "Assembled " + information.length() + " chars from " + topDocs.size() + " docs");
+
+            // Step 5: LLM Generation with Token Streaming
+            sendSseStep(emitter, "llm_generation", "Response Synthesis", "Generating response...");
+
+            String systemMessage = information.isEmpty()
+                ? "You are SENTINEL. No documents found. Respond: 'No relevant records found.'"
+                : String.format("You are SENTINEL, an advanced intelligence analyst for %s sector.\n\n" +
+                    "INSTRUCTIONS:\n" +
+                    "- DIRECTLY ANSWER the user's question with specific facts, figures, and data from the documents\n" +
+                    "- Use the OVERVIEW section (if present) for background only and do NOT cite it\n" +
+                    "- Base your response ONLY on the provided documents\n" +
+                    "- Cite each source using [filename] format after each fact\n" +
+                    "- For visual sources, cite as [IMAGE: filename.ext]\n\n" +
+                    "CONSTRAINTS:\n" +
+                    "- Never fabricate information not in the documents\n" +
+                    "- If information is not found, respond: 'No relevant records found.'\n\n" +
+                    "DOCUMENTS:\n%s", dept, information);
+
+            String sysMsg = systemMessage.replace("{", "[").replace("}", "]");
+            String userQuery = query.replace("{", "[").replace("}", "]");
+
+            // Stream tokens in real-time
+            StringBuilder responseBuilder = new StringBuilder();
+            AtomicBoolean streamComplete = new AtomicBoolean(false);
+            AtomicBoolean hasError = new AtomicBoolean(false);
+            AtomicReference<String> errorMsg = new AtomicReference<>("");
+
+            try {
+                this.llmGateway.call(LlmGateway.Lane.INTERACTIVE, Duration.ofSeconds(llmTimeoutSeconds), () -> this.chatClient.prompt()
+                    .system(sysMsg)
+                    .user(userQuery)
+                    .options((ChatOptions) this.llmOptions)
+                    .stream()
+                    .content()
+                    .doOnNext(token -> {
+                        try {
+                            responseBuilder.append(token);
+                            // Send token to client
+                            emitter.send(SseEmitter.event()
+                                .name("token")
+                                .data("{\"token\":\"" + escapeJson(token) + "\"}"));
+                        } catch (Exception e) {
+                            // Client is gone; interrupting the worker disposes the upstream LLM stream.
+                            log.debug("Error sending token, cancelling stream: {}", e.getMessage());
+                            stream.cancel();
+                        }
+                    })
+                    .doOnComplete(() -> streamComplete.set(true))
+                    .doOnError(e -> {
+                        hasError.set(true);
+                        errorMsg.set(e.getMessage() != null ? e.getMessage() : "");
+                        log.error("Stream error: {}", e.getMessage());
+                    })
+                    .blockLast(Duration.ofSeconds(llmTimeoutSeconds)));
+
+            } catch (Exception e) {
+                if (stream.isCancelled()) {
                     return;
                 }
-                sendSseStep(emitter, "security_check", "Security Scan", "Query passed security check");
-
-                // Step 2: Query Routing
-                sendSseStep(emitter, "query_routing", "Query Routing", "Analyzing query complexity...");
-                Thread.sleep(100); // Small delay for visual feedback
-
-                AdaptiveRagService.RoutingResult routing = this.adaptiveRagService.route(query);
-                QuCoRagService.UncertaintyResult uncertaintyResult = this.quCoRagService.analyzeQueryUncertainty(query);
-                boolean highUncertainty = this.quCoRagService.shouldTriggerRetrieval(uncertaintyResult.uncertaintyScore());
-
-                // Step 3: Retrieval
-                sendSseStep(emitter, "vector_search", "Retrieval", "Running hybrid retrieval...");
-                RetrievalContext context = this.retrieveContext(query, dept, activeFiles, routing, highUncertainty, deepAnalysis);
-                List<Document> docs = context.textDocuments();
-                List<Document> visualDocs = context.visualDocuments();
-                sendSseStep(emitter, "vector_search", "Retrieval", "Found " + docs.size() + " text documents and " + visualDocs.size() + " visual documents");
-
-                // Step 4: Context Assembly
-                sendSseStep(emitter, "context_assembly", "Context Assembly", "Building context from documents...");
-                List<Document> topDocs = docs.stream().limit(10).toList();
-                String information = this.buildInformation(topDocs, context.globalContext());
-                String visualInfo = this.buildVisualInformation(visualDocs);
-                if (!visualInfo.isBlank()) {
-                    information = information.isBlank() ? visualInfo : information + "\n\n---\n\n" + "=== VISUAL SOURCES ===\n" + visualInfo;
-                }
-                sendSseStep(emitter, "context_assembly", "Context Assembly", "Assembled " + information.length() + " chars from " + topDocs.size() + " docs");
-
-                // Step 5: LLM Generation with Token Streaming
-                sendSseStep(emitter, "llm_generation", "Response Synthesis", "Generating response...");
-
-                String systemMessage = information.isEmpty()
-                    ? "You are SENTINEL. No documents found. Respond: 'No relevant records found.'"
-                    : String.format("You are SENTINEL, an advanced intelligence analyst for %s sector.\n\n" +
-                        "INSTRUCTIONS:\n" +
-                        "- DIRECTLY ANSWER the user's question with specific facts, figures, and data from the documents\n" +
-                        "- Use the OVERVIEW section (if present) for background only and do NOT cite it\n" +
-                        "- Base your response ONLY on the provided documents\n" +
-                        "- Cite each source using [filename] format after each fact\n" +
-                        "- For visual sources, cite as [IMAGE: filename.ext]\n\n" +
-                        "CONSTRAINTS:\n" +
-                        "- Never fabricate information not in the documents\n" +
-                        "- If information is not found, respond: 'No relevant records found.'\n\n" +
-                        "DOCUMENTS:\n%s", dept, information);
-
-                String sysMsg = systemMessage.replace("{", "[").replace("}", "]");
-                String userQuery = query.replace("{", "[").replace("}", "]");
-
-                // Stream tokens in real-time
-                StringBuilder responseBuilder = new StringBuilder();
-                AtomicBoolean streamComplete = new AtomicBoolean(false);
-                AtomicBoolean hasError = new AtomicBoolean(false);
-                AtomicReference<String> errorMsg = new AtomicReference<>("");
-
-                try {
-                    this.chatClient.prompt()
-                        .system(sysMsg)
-                        .user(userQuery)
-                        .options((ChatOptions) this.llmOptions)
-                        .stream()
-                        .content()
-                        .doOnNext(token -> {
-                            try {
-                                responseBuilder.append(token);
-                                // Send token to client
-                                emitter.send(SseEmitter.event()
-                                    .name("token")
-                                    .data("{\"token\":\"" + escapeJson(token) + "\"}"));
-                            } catch (Exception e) {
-                                log.warn("Error sending token: {}", e.getMessage());
-                            }
-                        })
-                        .doOnComplete(() -> streamComplete.set(true))
-                        .doOnError(e -> {
-                            hasError.set(true);
-                            errorMsg.set(e.getMessage() != null ? e.getMessage() : "");
-                            log.error("Stream error: {}", e.getMessage());
-                        })
-                        .blockLast(Duration.ofSeconds(llmTimeoutSeconds));
-
-                } catch (Exception e) {
-                    hasError.set(true);
-                    errorMsg.set(e.getMessage() != null ? e.getMessage() : "");
-                    log.error("Streaming failed: {}", e.getMessage());
-                }
+                hasError.set(true);
+                errorMsg.set(e.getMessage() != null ? e.getMessage() : "");
+                log.error("Streaming failed: {}", e.getMessage());
+            }
+            if (stream.isCancelled()) {
+                return;
+            }
 
-                String response;
-                if (hasError.get()) {
-                    String errText = errorMsg.get() != null ? errorMsg.get() : "";
-                    if (errText.contains("timeout") || errText.toLowerCase(java.util.Locale.ROOT).contains("deadline")) {
-                        response = "**Response Timeout**\n\nThe system is taking longer than expected. Please try simplifying your question.";
-                        sendSseStep(emitter, "llm_generation", "Response Synthesis", "Timeout - using fallback response");
-                    } else {
-                        response = "An error occurred generating the response.";
-                        // S3-02: Generic step detail — raw errorMsg may contain internal stack/class info
-                        sendSseStep(emitter, "llm_generation", "Response Synthesis", "Error generating response");
-                    }
+            String response;
+            if (hasError.get()) {
+                String errText = errorMsg.get() != null ? errorMsg.get() : "";
+                if (errText.contains("timeout") || errText.toLowerCase(java.util.Locale.ROOT).contains("deadline")) {
+                    response = "**Response Timeout**\n\nThe system is taking longer than expected. Please try simplifying your question.";
+                    sendSseStep(emitter, "llm_generation", "Response Synthesis", "Timeout - using fallback response");
                 } else {
-                    response = cleanLlmResponse(responseBuilder.toString());
-                    sendSseStep(emitter, "llm_generation", "Response Synthesis", "Response generated successfully");
+                    response = "An error occurred generating the response.";
+                    // S3-02: Generic step detail — raw errorMsg may contain internal stack/class info
+                    sendSseStep(emitter, "llm_generation", "Response Synthesis", "Error generating response");
                 }
+            } else {
+                response = cleanLlmResponse(responseBuilder.toString());
+                sendSseStep(emitter, "llm_generation", "Response Synthesis", "Response generated successfully");
+            }
 
-                // Step 6: Citation Verification
-                sendSseStep(emitter, "citation_verification", "Citation Check", "Verifying citations...");
-                int citationCount = countCitations(response);
-                sendSseStep(emitter, "citation_verification", "Citation Check", "Found " + citationCount + " citations");
+            // Step 6: Citation Verification
+            sendSseStep(emitter, "citation_verification", "Citation Check", "Verifying citations...");
+            int citationCount = countCitations(response);
+            sendSseStep(emitter, "citation_verification", "Citation Check", "Found " + citationCount + " citations");
 
-                // Send final response with sources
-                List<String> sources = topDocs.stream()
-                    .map(d -> (String) d.getMetadata().get("source"))
-                    .filter(s -> s != null)
-                    .distinct()
-                    .toList();
+            // Send final response with sources
+            List<String> sources = topDocs.stream()
+                .map(d -> (String) d.getMetadata().get("source"))
+                .filter(s -> s != null)
+                .distinct()
+                .toList();
 
-                emitter.send(SseEmitter.event()
-                    .name("complete")
-                    .data("{\"answer\":\"" + escapeJson(response) + "\",\"sources\":" + toJsonArray(sources) + ",\"citationCount\":" + citationCount + "}"));
+            emitter.send(SseEmitter.event()
+                .name("complete")
+                .data("{\"answer\":\"" + escapeJson(response) + "\",\"sources\":" + toJsonArray(sources) + ",\"citationCount\":" + citationCount + "}"));
 
-                emitter.complete();
+            emitter.complete();
 
-            } catch (Exception e) {
-                log.error("SSE stream error", e);
-                // S3-02: Generic error via helper — raw e.getMessage() may leak internal details
-                sendSseError(emitter, "An unexpected error occurred. Please try again.");
+        } catch (Exception e) {
+            if (stream.isCancelled()) {
+                log.debug("SSE stream cancelled: {}", e.getMessage());
+                return;
             }
-        });
-
-        return emitter;
+            log.error("SSE stream error", e);
+            // S3-02: Generic error via helper — raw e.getMessage() may leak internal details
+            sendSseError(emitter, "An unexpected error occurred. Please try again.");
+        }
     }
 
     private void sendSseStep(SseEmitter emitter, String type, String label, String detail) {
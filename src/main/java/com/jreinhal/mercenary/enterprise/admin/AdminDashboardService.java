@@ -1,7 +1,9 @@
 package com.jreinhal.mercenary.enterprise.admin;
 
+import com.jreinhal.mercenary.model.AuditEvent;
 import com.jreinhal.mercenary.model.User;
 import com.jreinhal.mercenary.model.UserRole;
+import com.jreinhal.mercenary.reporting.UsageRollupService;
 import com.jreinhal.mercenary.repository.UserRepository;
 import com.jreinhal.mercenary.service.RagOrchestrationService;
 import java.lang.management.ManagementFactory;
@@ -34,22 +36,24 @@ import org.springframework.stereotype.Service;
 public class AdminDashboardService {
     private static final Logger log = LoggerFactory.getLogger(AdminDashboardService.class);
     private static final Instant START_TIME = Instant.now();
-    private static final String CHAT_COLLECTION = "chat_history";
     private static final String VECTOR_COLLECTION = "vector_store";
 
     private final UserRepository userRepository;
     private final MongoTemplate mongoTemplate;
     private final RagOrchestrationService ragOrchestrationService;
+    private final UsageRollupService usageRollupService;
     private final String ollamaBaseUrl;
 
     public AdminDashboardService(
             UserRepository userRepository,
             MongoTemplate mongoTemplate,
             RagOrchestrationService ragOrchestrationService,
+            UsageRollupService usageRollupService,
             @Value("${spring.ai.ollama.base-url:http://localhost:11434}") String ollamaBaseUrl) {
         this.userRepository = userRepository;
         this.mongoTemplate = mongoTemplate;
         this.ragOrchestrationService = ragOrchestrationService;
+        this.usageRollupService = usageRollupService;
         this.ollamaBaseUrl = ollamaBaseUrl;
     }
 
@@ -58,7 +62,7 @@ public class AdminDashboardService {
     }
 
     public List<UserSummary> getPendingApprovals() {
-        return this.userRepository.findAll().stream().filter(User::isPendingApproval).map(this::toUserSummary).toList();
+        return this.userRepository.findByPendingApprovalTrue().stream().map(this::toUserSummary).toList();
     }
 
     private UserSummary toUserSummary(User u) {
@@ -109,12 +113,12 @@ public class AdminDashboardService {
 
     public UsageStats getUsageStats() {
         long totalUsers = this.userRepository.count();
-        long activeUsers = this.userRepository.findAll().stream().filter(User::isActive).count();
+        long activeUsers = this.userRepository.countByActiveTrue();
         long totalQueries = this.ragOrchestrationService.getQueryCount();
-        long queriesLast24h = this.countRecentEntries(CHAT_COLLECTION, "timestamp", 24);
+        long queriesLast24h = this.usageRollupService.countAllSince(AuditEvent.EventType.QUERY_EXECUTED, Instant.now().minus(24L, ChronoUnit.HOURS));
         long totalDocuments = this.countCollection(VECTOR_COLLECTION);
         double avgQueryTime = this.calculateAverageQueryTime();
-        Map<String, Long> queriesByDay = this.getQueriesByDay(7);
+        Map<String, Long> queriesByDay = this.usageRollupService.countAllByDay(AuditEvent.EventType.QUERY_EXECUTED, 7);
         return new UsageStats(totalUsers, activeUsers, totalQueries, queriesLast24h, totalDocuments, avgQueryTime, queriesByDay);
     }
 
@@ -142,26 +146,6 @@ public class AdminDashboardService {
         return (double) this.ragOrchestrationService.getAverageLatencyMs();
     }
 
-    private Map<String, Long> getQueriesByDay(int days) {
-        Map<String, Long> result = new LinkedHashMap<>();
-        for (int i = days - 1; i >= 0; --i) {
-            Instant dayStart = Instant.now().minus(i, ChronoUnit.DAYS).truncatedTo(ChronoUnit.DAYS);
-            Instant dayEnd = dayStart.plus(1L, ChronoUnit.DAYS);
-            try {
-                Query query = new Query();
-                query.addCriteria((CriteriaDefinition)Criteria.where((String)"timestamp").gte(dayStart).lt(dayEnd));
-                long count = this.mongoTemplate.count(query, CHAT_COLLECTION);
-                String dateKey = dayStart.toString().substring(0, 10);
-                result.put(dateKey, count);
-                continue;
-            }
-            catch (Exception exception) {
-                // empty catch block
-            }
-        }
-        return result;
-    }
-
     public HealthStatus getHealthStatus() {
         List<String> warnings = new ArrayList<>();
         boolean mongoConnected = this.checkMongoConnection();
@@ -17,6 +17,9 @@ import com.jreinhal.mercenary.reporting.SlaReport;
 import com.jreinhal.mercenary.reporting.SlaReportService;
 import com.jreinhal.mercenary.service.HipaaPolicy;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeParseException;
@@ -109,6 +112,48 @@ public class ReportingAdminController {
                 .body(content);
     }
 
+    /**
+     * Full audit export streamed from a Mongo cursor, oldest event first, without the row cap of
+     * {@code /audit/export}. Each row carries the event id; pass the last id received as {@code resumeAfter}
+     * (with the same range) to continue an interrupted download.
+     */
+    @GetMapping(value={"/audit/export/stream"})
+    public void streamAuditExport(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "days", required = false) Integer days,
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "until", required = false) String until,
+            @RequestParam(value = "resumeAfter", required = false) String resumeAfter,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        String requestedFormat = format == null ? "" : format.trim();
+        AuditExportService.StreamFormat streamFormat;
+        if ("csv".equalsIgnoreCase(requestedFormat)) {
+            streamFormat = AuditExportService.StreamFormat.CSV;
+        } else if ("ndjson".equalsIgnoreCase(requestedFormat)) {
+            streamFormat = AuditExportService.StreamFormat.NDJSON;
+        } else {
+            // S2-06: Generic message — don't reflect user input in error response
+            writeBadRequest(response, "Unsupported export format; use csv or ndjson");
+            return;
+        }
+        AuditExportService.ExportRange range;
+        try {
+            range = auditExportService.resolveRange(WorkspaceContext.getCurrentWorkspaceId(),
+                    resolveSince(days, since), resolveInstant(until), resumeAfter);
+        } catch (IllegalArgumentException e) {
+            // S2-06: Generic message — don't reflect user input in error response
+            writeBadRequest(response, "Invalid export range");
+            return;
+        }
+        String extension = streamFormat == AuditExportService.StreamFormat.CSV ? "csv" : "ndjson";
+        String filename = "audit_export_" + range.workspaceId() + "." + extension + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip"
+                : streamFormat == AuditExportService.StreamFormat.CSV ? "text/csv; charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
+        auditExportService.streamExport(range, streamFormat, gzip, response.getOutputStream());
+    }
+
     @GetMapping(value={"/hipaa/audit"})
     public ResponseEntity<?> getHipaaAudit(
             @RequestParam(value = "since", required = false) String since,
@@ -235,6 +280,12 @@ public class ReportingAdminController {
         return ResponseEntity.ok(export.get());
     }
 
+    private void writeBadRequest(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"error\": \"" + message + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
     private ReportSchedule.ReportFormat resolveFormat(String format) {
         if (format == null) {
             return ReportSchedule.ReportFormat.JSON;
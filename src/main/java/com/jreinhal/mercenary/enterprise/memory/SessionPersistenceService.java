@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.jreinhal.mercenary.Department;
 import com.jreinhal.mercenary.reasoning.ReasoningTrace;
+import com.jreinhal.mercenary.reporting.LatencyRollupService;
 import com.jreinhal.mercenary.service.ConversationMemoryProvider;
 import com.jreinhal.mercenary.service.HipaaPolicy;
 import com.jreinhal.mercenary.service.IntegritySigner;
@@ -51,6 +52,7 @@ public class SessionPersistenceService implements SessionPersistenceProvider {
     private final ConversationMemoryProvider conversationMemoryService;
     private final HipaaPolicy hipaaPolicy;
     private final com.jreinhal.mercenary.service.IntegritySigner integritySigner;
+    private final LatencyRollupService latencyRollupService;
     private final ObjectMapper objectMapper;
     @Value("${sentinel.sessions.data-dir:${user.home}/.sentinel/sessions}")
     private String sessionDataDir;
@@ -63,11 +65,12 @@ public class SessionPersistenceService implements SessionPersistenceProvider {
     @Value("${sentinel.sessions.max-traces-per-session:100}")
     private int maxTracesPerSession;
 
-    public SessionPersistenceService(MongoTemplate mongoTemplate, ConversationMemoryProvider conversationMemoryService, HipaaPolicy hipaaPolicy, com.jreinhal.mercenary.service.IntegritySigner integritySigner) {
+    public SessionPersistenceService(MongoTemplate mongoTemplate, ConversationMemoryProvider conversationMemoryService, HipaaPolicy hipaaPolicy, com.jreinhal.mercenary.service.IntegritySigner integritySigner, LatencyRollupService latencyRollupService) {
         this.mongoTemplate = mongoTemplate;
         this.conversationMemoryService = conversationMemoryService;
         this.hipaaPolicy = hipaaPolicy;
         this.integritySigner = integritySigner;
+        this.latencyRollupService = latencyRollupService;
         this.objectMapper = new ObjectMapper().registerModule((Module)new JavaTimeModule()).enable(SerializationFeature.INDENT_OUTPUT).enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
@@ -141,13 +144,23 @@ public class SessionPersistenceService implements SessionPersistenceProvider {
         }
         PersistedTrace unsigned = new PersistedTrace(trace.getTraceId(), sessionId, trace.getUserId(), trace.getWorkspaceId(), trace.getDepartment(), trace.getQuery(), trace.getTimestamp(), trace.getTotalDurationMs(), trace.getSteps().size(), trace.getSteps().stream().map(step -> Map.of("type", step.type().name(), "label", step.label(), "detail", step.detail() != null ? step.detail() : "", "durationMs", step.durationMs(), "data", step.data() != null ? step.data() : Map.of())).toList(), trace.getMetrics(), trace.isCompleted(), null, null);
         PersistedTrace persisted = this.attachIntegrity(unsigned);
+        boolean saved = false;
         try {
             this.mongoTemplate.save(persisted, TRACES_COLLECTION);
+            saved = true;
             log.debug("Persisted trace {} to MongoDB", trace.getTraceId());
         }
         catch (Exception e) {
             log.error("Failed to persist trace to MongoDB: {}", e.getMessage());
         }
+        if (saved) {
+            try {
+                this.latencyRollupService.record(persisted.workspaceId(), persisted.timestamp(), persisted.durationMs());
+            }
+            catch (Exception e) {
+                log.warn("Failed to update SLA latency rollup: {}", e.getMessage());
+            }
+        }
         this.updateSessionTraceCount(sessionId, trace.getTraceId());
         if (this.fileBackupEnabled) {
             this.writeTraceToFile(persisted);
@@ -1,5 +1,6 @@
 package com.jreinhal.mercenary.enterprise.rag;
 
+import com.jreinhal.mercenary.service.LlmGateway;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -9,12 +10,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CitationVerificationService {
     private static final Logger log = LoggerFactory.getLogger(CitationVerificationService.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private static final Pattern CITATION_PATTERN = Pattern.compile("\\[(?:Doc(?:ument)?\\s*+)?(\\d+)\\]|\\[Source:\\s*+([^\\]]+)\\]", 2);
     private static final Pattern CONTAINS_DIGIT = Pattern.compile("\\d");
     private static final Pattern CONTAINS_PROPER_NOUN_PAIR = Pattern.compile("[A-Z][a-z]+\\s+[A-Z][a-z]+");
@@ -62,7 +66,7 @@ public class CitationVerificationService {
         String docSource = (String)(doc.getMetadata().getOrDefault("source", "Document " + (docIndex + 1)));
         String prompt = "Verify if this claim is accurately represented in the source document.\n\nCLAIM (from response):\n\"%s\"\n\nSOURCE DOCUMENT:\n%s\n\nRespond in this exact format:\nVERIFIED: [yes/no/partial]\nACCURACY: [0.0-1.0]\nMATCHING_TEXT: [quote the relevant text from the source, or \"none\"]\nEXPLANATION: [brief explanation]\n".formatted(surroundingText, this.truncate(docContent, 2000));
         try {
-            String llmResponse = this.chatClient.prompt().user(prompt).call().content();
+            String llmResponse = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().user(prompt).call().content());
             return this.parseCitationVerification(citation, docIndex, docSource, llmResponse);
         }
         catch (Exception e) {
@@ -172,7 +176,7 @@ public class CitationVerificationService {
     public String addCitations(String response, List<Document> documents) {
         String prompt = "Add proper citations to this response. For each factual claim, add a citation\nin the format [Doc N] where N is the document number (1-based).\n\nDocuments available:\n%s\n\nResponse to cite:\n%s\n\nReturn the response with citations added. Do not change the content, only add citations.\n".formatted(this.formatDocuments(documents), response);
         try {
-            return this.chatClient.prompt().user(prompt).call().content();
+            return this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().user(prompt).call().content());
         }
         catch (Exception e) {
             log.error("Error adding citations: {}", e.getMessage());
@@ -2,6 +2,7 @@ package com.jreinhal.mercenary.enterprise.rag;
 
 import com.jreinhal.mercenary.enterprise.rag.sparse.SparseEmbeddingService;
 import com.jreinhal.mercenary.util.LogSanitizer;
+import com.jreinhal.mercenary.util.TopKCollector;
 import com.jreinhal.mercenary.vector.LocalMongoVectorStore;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -55,8 +56,7 @@ public class HybridSearchService {
         log.debug("Hybrid search: query={}, topK={}, weights=[vector={}, lexical={}]", LogSanitizer.querySummary(query), topK, vectorWeight, lexicalWeight);
         List<Document> vectorResults = this.performVectorSearch(query, topK * 2);
         List<Document> lexicalResults = this.performBm25Search(query, topK * 2, filterExpression);
-        List<HybridResult> fusedResults = this.fuseResults(vectorResults, lexicalResults, vectorWeight, lexicalWeight);
-        return fusedResults.stream().limit(topK).toList();
+        return this.fuseResults(vectorResults, lexicalResults, vectorWeight, lexicalWeight, topK);
     }
 
     private List<Document> performVectorSearch(String query, int limit) {
@@ -79,13 +79,11 @@ public class HybridSearchService {
         // Fallback: hand-coded BM25
         try {
             List<Document> candidates = this.performVectorSearch(query, limit * 3);
-            ArrayList<Map.Entry<Document, Double>> scored = new ArrayList<Map.Entry<Document, Double>>();
+            TopKCollector<Document> scored = new TopKCollector<>(limit);
             for (Document doc : candidates) {
-                double score = this.calculateBm25Score(query, doc.getContent());
-                scored.add(Map.entry(doc, score));
+                scored.offer(doc, this.calculateBm25Score(query, doc.getContent()));
             }
-            scored.sort((a, b) -> Double.compare((Double)b.getValue(), (Double)a.getValue()));
-            return scored.stream().limit(limit).map(Map.Entry::getKey).toList();
+            return scored.toSortedList();
         }
         catch (Exception e) {
             log.error("BM25 search failed: {}", e.getMessage());
@@ -146,7 +144,7 @@ public class HybridSearchService {
         return Arrays.stream(text.toLowerCase().replaceAll("[^a-z0-9\\s]", " ").split("\\s+")).filter(t -> t.length() > 2).collect(Collectors.toSet());
     }
 
-    private List<HybridResult> fuseResults(List<Document> vectorResults, List<Document> lexicalResults, double vectorWeight, double lexicalWeight) {
+    private List<HybridResult> fuseResults(List<Document> vectorResults, List<Document> lexicalResults, double vectorWeight, double lexicalWeight, int topK) {
         HashMap<String, Integer> vectorRanks = new HashMap<String, Integer>();
         HashMap<String, Double> vectorScores = new HashMap<String, Double>();
         for (int i = 0; i < vectorResults.size(); ++i) {
@@ -168,7 +166,7 @@ public class HybridSearchService {
         for (Document doc : lexicalResults) {
             allDocs.put(this.getDocumentId(doc), doc);
         }
-        ArrayList<HybridResult> results = new ArrayList<HybridResult>();
+        TopKCollector<HybridResult> results = new TopKCollector<>(topK);
         for (Map.Entry<String, Document> entry : allDocs.entrySet()) {
             String docId = entry.getKey();
             Document doc = entry.getValue();
@@ -179,10 +177,9 @@ public class HybridSearchService {
             double rrfVector = vRank < Integer.MAX_VALUE ? 1.0 / (double)(60 + vRank) : 0.0;
             double rrfLexical = lRank < Integer.MAX_VALUE ? 1.0 / (double)(60 + lRank) : 0.0;
             double combinedScore = vectorWeight * rrfVector + lexicalWeight * rrfLexical;
-            results.add(new HybridResult(doc, combinedScore, vScore, lScore, vRank, lRank));
+            results.offer(new HybridResult(doc, combinedScore, vScore, lScore, vRank, lRank), combinedScore);
         }
-        results.sort((a, b) -> Double.compare(b.combinedScore(), a.combinedScore()));
-        return results;
+        return results.toSortedList();
     }
 
     private String getDocumentId(Document doc) {
@@ -1,5 +1,6 @@
 package com.jreinhal.mercenary.enterprise.rag;
 
+import com.jreinhal.mercenary.service.LlmGateway;
 import com.jreinhal.mercenary.util.LogSanitizer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -8,12 +9,15 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service(value="enterpriseQueryDecompositionService")
 public class QueryDecompositionService {
     private static final Logger log = LoggerFactory.getLogger(QueryDecompositionService.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
 
     public QueryDecompositionService(ChatClient.Builder chatClientBuilder) {
         this.chatClient = chatClientBuilder.build();
@@ -59,7 +63,7 @@ public class QueryDecompositionService {
     private List<SubQuery> performDecomposition(String query, DecompositionStrategy strategy) {
         String prompt = this.buildDecompositionPrompt(query, strategy);
         try {
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            String response = this.llmGateway.call(LlmGateway.Lane.CONTROL, () -> this.chatClient.prompt().user(prompt).call().content());
             return this.parseSubQueries(response, strategy);
         }
         catch (Exception e) {
@@ -146,7 +150,7 @@ public class QueryDecompositionService {
             prompt = prompt.replace("[ANSWER_" + String.valueOf(entry.getKey()) + "]", entry.getValue());
         }
         try {
-            return this.chatClient.prompt().user(prompt).call().content();
+            return this.llmGateway.call(LlmGateway.Lane.CONTROL, () -> this.chatClient.prompt().user(prompt).call().content());
         }
         catch (Exception e) {
             log.error("Error synthesizing answers: {}", e.getMessage());
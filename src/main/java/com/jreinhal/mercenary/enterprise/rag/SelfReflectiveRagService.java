@@ -1,19 +1,30 @@
 package com.jreinhal.mercenary.enterprise.rag;
 
+import com.jreinhal.mercenary.service.LlmGateway;
 import com.jreinhal.mercenary.util.LogSanitizer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SelfReflectiveRagService {
     private static final Logger log = LoggerFactory.getLogger(SelfReflectiveRagService.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
+    @Value("${sentinel.llm.timeout-seconds:60}")
+    private int llmTimeoutSeconds = 60;
     private static final double CONFIDENCE_THRESHOLD = 0.75;
     private static final int MAX_REFLECTIONS = 3;
 
@@ -56,8 +67,15 @@ public class SelfReflectiveRagService {
             systemPrompt.append("\nPlease revise your answer to remove or qualify these claims.");
         }
         String userPrompt = "Context:\n" + context + "\n\nQuestion: " + query;
+        Future<String> future = null;
         try {
-            return this.chatClient.prompt().system(systemPrompt.toString()).user(userPrompt).call().content();
+            future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.INTERACTIVE, Duration.ofSeconds(this.llmTimeoutSeconds), () -> this.chatClient.prompt().system(systemPrompt.toString()).user(userPrompt).call().content()));
+            return future.get(this.llmTimeoutSeconds, TimeUnit.SECONDS);
+        }
+        catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Answer generation timed out after {}s", this.llmTimeoutSeconds);
+            return "Unable to generate answer. The language model is temporarily unavailable.";
         }
         catch (Exception e) {
             log.error("Error generating answer: {}", e.getMessage());
@@ -78,7 +96,7 @@ public class SelfReflectiveRagService {
     private List<String> extractClaims(String answer) {
         String prompt = "Extract the main factual claims from this text. Return each claim on a separate line.\nOnly extract objective, verifiable statements. Skip opinions or hedged statements.\n\nText:\n%s\n\nClaims (one per line):\n".formatted(answer);
         try {
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            String response = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().user(prompt).call().content());
             return response.lines().map(String::trim).filter(line -> !line.isEmpty()).filter(line -> !line.startsWith("-")).map(line -> line.replaceFirst("^\\d+\\.\\s*", "")).toList();
         }
         catch (Exception e) {
@@ -94,7 +112,7 @@ public class SelfReflectiveRagService {
         }
         String prompt = "Verify if this claim is supported by the provided documents.\n\nClaim: \"%s\"\n\nDocuments:\n%s\n\nRespond in this exact format:\nSUPPORTED: [yes/no/partial]\nCONFIDENCE: [0.0-1.0]\nSOURCE: [document number or \"none\"]\nEXPLANATION: [brief explanation]\n".formatted(claim, docContext);
         try {
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            String response = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().user(prompt).call().content());
             return this.parseVerificationResponse(claim, response);
         }
         catch (Exception e) {
@@ -2,19 +2,19 @@ package com.jreinhal.mercenary.enterprise.rag.sparse;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jreinhal.mercenary.service.SidecarHttpClients;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -26,18 +26,24 @@ import java.util.Map;
  *
  * Follows the same SSRF-hardened RestTemplate pattern as {@code LightOnOcrService}:
  * no-redirect following, graceful degradation on failure, configurable timeouts.
+ * Connections come from the shared {@link SidecarHttpClients} pool, so query-time
+ * {@code embedQuery} calls reuse a kept-alive connection.
  *
  * Configuration:
  *   sentinel.sparse-embedding.enabled: true/false
  *   sentinel.sparse-embedding.service-url: http://localhost:8091
  *   sentinel.sparse-embedding.timeout-seconds: 30
+ *   sentinel.sparse-embedding.max-connections: 16
  */
 @Component
 public class SparseEmbeddingClient {
     private static final Logger log = LoggerFactory.getLogger(SparseEmbeddingClient.class);
 
+    static final String SIDECAR = "sparse-embedding";
+
     private org.springframework.web.client.RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final SidecarHttpClients httpClients;
 
     @Value("${sentinel.sparse-embedding.enabled:false}")
     private boolean enabled;
@@ -48,7 +54,16 @@ public class SparseEmbeddingClient {
     @Value("${sentinel.sparse-embedding.timeout-seconds:30}")
     private int timeoutSeconds;
 
+    @Value("${sentinel.sparse-embedding.max-connections:16}")
+    private int maxConnections = 16;
+
     public SparseEmbeddingClient() {
+        this(SidecarHttpClients.defaults());
+    }
+
+    @Autowired
+    public SparseEmbeddingClient(SidecarHttpClients httpClients) {
+        this.httpClients = httpClients;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -58,24 +73,11 @@ public class SparseEmbeddingClient {
      */
     @PostConstruct
     void init() {
-        this.restTemplate = createNoRedirectRestTemplate(timeoutSeconds);
-        log.info("Sparse embedding client initialised (enabled={}, url={}, timeout={}s)",
-                enabled, serviceUrl, timeoutSeconds);
-    }
-
-    // R-04: Disable automatic redirect following to prevent SSRF bypass via 3xx redirects
-    private static org.springframework.web.client.RestTemplate createNoRedirectRestTemplate(int timeoutSecs) {
-        int timeoutMs = timeoutSecs * 1000;
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory() {
-            @Override
-            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
-                super.prepareConnection(connection, httpMethod);
-                connection.setInstanceFollowRedirects(false);
-            }
-        };
-        factory.setConnectTimeout(timeoutMs);
-        factory.setReadTimeout(timeoutMs);
-        return new org.springframework.web.client.RestTemplate(factory);
+        // R-04: the pooled client never follows redirects
+        Duration timeout = Duration.ofSeconds(timeoutSeconds);
+        this.restTemplate = httpClients.restTemplate(SIDECAR, maxConnections, timeout, timeout);
+        log.info("Sparse embedding client initialised (enabled={}, url={}, timeout={}s, maxConnections={})",
+                enabled, serviceUrl, timeoutSeconds, maxConnections);
     }
 
     public boolean isEnabled() {
@@ -10,7 +10,7 @@ import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection="feedback")
-@CompoundIndexes(value={@CompoundIndex(name="sector_type_idx", def="{'sector': 1, 'feedbackType': 1}"), @CompoundIndex(name="user_time_idx", def="{'userId': 1, 'timestamp': -1}")})
+@CompoundIndexes(value={@CompoundIndex(name="sector_type_idx", def="{'sector': 1, 'feedbackType': 1}"), @CompoundIndex(name="user_time_idx", def="{'userId': 1, 'timestamp': -1}"), @CompoundIndex(name="workspace_time_idx", def="{'workspaceId': 1, 'timestamp': -1}"), @CompoundIndex(name="workspace_sector_time_idx", def="{'workspaceId': 1, 'sector': 1, 'timestamp': -1}"), @CompoundIndex(name="workspace_type_time_idx", def="{'workspaceId': 1, 'feedbackType': 1, 'timestamp': -1}")})
 public class Feedback {
     @Id
     private String id;
@@ -2,17 +2,21 @@ package com.jreinhal.mercenary.rag.adaptiverag;
 
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.service.LlmCallCoalescer;
+import com.jreinhal.mercenary.service.LlmGateway;
 import jakarta.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -30,6 +34,8 @@ public class AdaptiveRagService {
     private int chunkTopK;
     @Value(value="${sentinel.adaptiverag.document-top-k:3}")
     private int documentTopK;
+    @Autowired(required = false)
+    private LlmCallCoalescer llmCallCoalescer = LlmCallCoalescer.passthrough();
     private static final List<Pattern> CONVERSATIONAL_PATTERNS = List.of(Pattern.compile("^(hi|hello|hey|greetings|good\\s+(morning|afternoon|evening))\\b", 2), Pattern.compile("^(thanks|thank\\s+you|thx)\\b", 2), Pattern.compile("^(bye|goodbye|see\\s+you|later)\\b", 2), Pattern.compile("^(yes|no|ok|okay|sure|fine|great|good)\\s*[.!?]?$", 2), Pattern.compile("^(what|who)\\s+(are|is)\\s+you\\b", 2), Pattern.compile("^can\\s+you\\s+(help|assist)\\b", 2), Pattern.compile("^(please\\s+)?(clarify|explain\\s+yourself|what\\s+do\\s+you\\s+mean)", 2));
     private static final List<Pattern> DOCUMENT_PATTERNS = List.of(Pattern.compile("\\b(summarize|summary|overview|abstract)\\b", 2), Pattern.compile("\\b(compare|contrast|difference|similarities)\\b", 2), Pattern.compile("\\b(analyze|analysis|evaluate|assessment)\\b", 2), Pattern.compile("\\b(explain|describe|elaborate)\\s+(in\\s+detail|thoroughly|comprehensively)", 2), Pattern.compile("\\b(overall|big\\s+picture|holistic|comprehensive)\\b", 2), Pattern.compile("\\b(relationship|connection|correlation)\\s+between\\b", 2), Pattern.compile("\\b(how\\s+does|how\\s+do)\\s+.{5,}\\s+(work|function|operate|relate)", 2), Pattern.compile("\\b(impact|effect|consequence|implication)s?\\s+of\\b", 2), Pattern.compile("\\b(pros?\\s+and\\s+cons?|advantages?\\s+and\\s+disadvantages?)\\b", 2), Pattern.compile("\\b(timeline|history|evolution|progression)\\b", 2), Pattern.compile("\\b(strategy|approach|methodology|framework)\\b", 2));
     private static final List<Pattern> CHUNK_PATTERNS = List.of(Pattern.compile("^what\\s+is\\s+\\w+", 2), Pattern.compile("\\b(what\\s+is|what's)\\s+(the|a)\\s+\\w+\\b", 2), Pattern.compile("\\b(when\\s+(did|was|is|will))\\b", 2), Pattern.compile("\\b(where\\s+(is|are|was|were))\\b", 2), Pattern.compile("\\b(who\\s+(is|was|are|were))\\b", 2), Pattern.compile("\\b(how\\s+much|how\\s+many|how\\s+long|how\\s+often)\\b", 2), Pattern.compile("\\b(define|definition\\s+of)\\b", 2), Pattern.compile("\\b(list|name|enumerate)\\s+(the|all|some)\\b", 2), Pattern.compile("\\b(find|locate|identify)\\s+(the|a|any)\\b", 2), Pattern.compile("\\b\\d{4}\\b", 2), Pattern.compile("\\$[\\d,.]+|\\d+%|\\d+\\s*(million|billion|thousand)", 2));
@@ -37,6 +43,8 @@ public class AdaptiveRagService {
     private static final List<Pattern> HYDE_PATTERNS = List.of(Pattern.compile("\\b(that\\s+one|the\\s+thing|something\\s+about)\\b", 2), Pattern.compile("\\b(concept|idea|approach)\\s+(like|similar|related)\\b", 2), Pattern.compile("\\b(remember|recall|forgot)\\s+(the|a|about)\\b", 2));
     private static final List<Pattern> MULTI_HOP_PATTERNS = List.of(Pattern.compile("\\b(how\\s+does?)\\s+.+?\\s+(affect|impact|influence|cause)\\b", 2), Pattern.compile("\\brelationship\\s+between\\b", 2), Pattern.compile("\\b(chain|cascade|sequence)\\s+of\\b", 2), Pattern.compile("\\b(who|what|where|when)\\b.+\\band\\s+(what|who|how|its|their|the)\\b", 2), Pattern.compile("\\bcompare\\b.+\\b(with|to|and)\\b", 2));
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private static final String ROUTER_SYSTEM_PROMPT = "You are an expert query router for a RAG system.\nClassify the USER QUERY into one of these categories:\n\n1. NO_RETRIEVAL: ONLY for greetings (hi, thanks, bye) or meta-questions about the assistant itself.\n   NEVER use this for definitional questions like \"What is X?\" - those need retrieval!\n2. CHUNK: Specific factual questions, definitions, looking up terms, numbers, dates, or entities.\n   Examples: \"What is RAG?\", \"What does X mean?\", \"Define Y\", \"Who is Z?\"\n3. DOCUMENT: Complex analysis, summarization, comparisons, or broad \"how does X work\" questions.\n\nIMPORTANT: When in doubt between NO_RETRIEVAL and CHUNK, choose CHUNK.\nDefinitional questions (What is X?) should ALWAYS be CHUNK, never NO_RETRIEVAL.\n\nReturn ONLY the category name. Do not explain.\n";
 
     public AdaptiveRagService(ReasoningTracer reasoningTracer, ChatClient.Builder chatClientBuilder) {
@@ -90,12 +98,14 @@ public class AdaptiveRagService {
             signals.put("semanticRouter", "disabled");
         }
         if (this.semanticRouterEnabled) {
-            CompletableFuture<String> future = null;
+            Future<String> future = null;
             try {
                 String reason2;
                 RoutingDecision decision2;
                 long llmStart = System.currentTimeMillis();
-                future = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().system(ROUTER_SYSTEM_PROMPT).user(normalizedQuery).call().content());
+                LlmCallCoalescer.Key callKey = this.llmCallCoalescer.key(LlmCallCoalescer.CALL_ROUTER, null, ROUTER_SYSTEM_PROMPT, normalizedQuery);
+                Duration maxWait = Duration.ofMillis(this.semanticRouterTimeoutMs);
+                future = this.llmGateway.submit(() -> this.llmCallCoalescer.execute(callKey, () -> this.llmGateway.call(LlmGateway.Lane.CONTROL, maxWait, () -> this.chatClient.prompt().system(ROUTER_SYSTEM_PROMPT).user(normalizedQuery).call().content())));
                 String classification = future.get(this.semanticRouterTimeoutMs, TimeUnit.MILLISECONDS).trim().toUpperCase();
                 long llmDuration = System.currentTimeMillis() - llmStart;
                 signals.put("llmDuration", llmDuration);
@@ -1,11 +1,13 @@
 package com.jreinhal.mercenary.rag.birag;
 
 import com.jreinhal.mercenary.rag.birag.BidirectionalRagService;
+import com.jreinhal.mercenary.service.LlmGateway;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
@@ -15,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -22,6 +25,8 @@ import org.springframework.stereotype.Component;
 public class GroundingVerifier {
     private static final Logger log = LoggerFactory.getLogger(GroundingVerifier.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     @Value(value="${sentinel.birag.use-llm-verification:true}")
     private boolean useLlmVerification;
     @Value(value="${sentinel.birag.llm-timeout-ms:4000}")
@@ -99,7 +104,7 @@ public class GroundingVerifier {
         try {
             String truncatedEvidence = evidence.length() > 3000 ? evidence.substring(0, 3000) + "..." : evidence;
             String prompt = ENTAILMENT_PROMPT.formatted(truncatedEvidence, statement);
-            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().user(prompt).call().content());
+            Future<String> future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.RERANK, Duration.ofMillis(this.llmTimeoutMs), () -> this.chatClient.prompt().user(prompt).call().content()));
             String response;
             try {
                 response = future.get(this.llmTimeoutMs, TimeUnit.MILLISECONDS);
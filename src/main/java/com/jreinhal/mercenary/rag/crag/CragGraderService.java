@@ -2,6 +2,7 @@ package com.jreinhal.mercenary.rag.crag;
 
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.service.LlmGateway;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -13,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -20,6 +22,8 @@ import org.springframework.stereotype.Service;
 public class CragGraderService {
     private static final Logger log = LoggerFactory.getLogger(CragGraderService.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final ReasoningTracer reasoningTracer;
     @Value(value="${sentinel.crag.enabled:true}")
     private boolean enabled;
@@ -103,7 +107,7 @@ public class CragGraderService {
             DocumentGrade grade;
             String content = this.truncateContent(document.getContent(), 500);
             String prompt = String.format("USER QUERY: %s\n\nDOCUMENT:\n%s", query, content);
-            String response = this.chatClient.prompt().system(GRADER_SYSTEM_PROMPT).user(prompt).call().content().trim().toUpperCase();
+            String response = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().system(GRADER_SYSTEM_PROMPT).user(prompt).call().content()).trim().toUpperCase();
             if (response.contains("CORRECT")) {
                 grade = DocumentGrade.CORRECT;
                 score = 0.9;
@@ -2,6 +2,7 @@ package com.jreinhal.mercenary.rag.grapho1;
 
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.service.LlmGateway;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,6 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -21,6 +23,8 @@ import org.springframework.stereotype.Service;
 public class GraphO1Service {
     private static final Logger log = LoggerFactory.getLogger(GraphO1Service.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final ReasoningTracer reasoningTracer;
     @Value(value="${sentinel.grapho1.enabled:true}")
     private boolean enabled;
@@ -135,7 +139,7 @@ public class GraphO1Service {
         }
         try {
             String prompt = String.format("Rate how well these documents, in this order, help answer the query.\nConsider: relevance, logical flow, completeness.\n\nQuery: %s\n\nDocument Path:\n%s\n\nOutput only a number from 0.0 to 1.0 representing the quality score.\n", query, pathContext);
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            String response = this.llmGateway.call(LlmGateway.Lane.CONTROL, () -> this.chatClient.prompt().user(prompt).call().content());
             return this.parseScore(response);
         }
         catch (Exception e) {
@@ -5,13 +5,13 @@ import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.util.LogSanitizer;
+import com.jreinhal.mercenary.util.TopKCollector;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
@@ -96,7 +96,11 @@ public class HGMemQueryEngine {
             double score = this.graphWeight * 0.8;
             combinedDocs.put(docId, new ScoredDocument(graphDoc, score, "graph"));
         }
-        List<Document> finalResults = combinedDocs.values().stream().sorted((a, b) -> Double.compare(b.score(), a.score())).limit(this.topK).map(ScoredDocument::document).collect(Collectors.toList());
+        TopKCollector<Document> top = new TopKCollector<>(this.topK);
+        for (ScoredDocument scored : combinedDocs.values()) {
+            top.offer(scored.document(), scored.score());
+        }
+        List<Document> finalResults = top.toSortedList();
         long totalTime = System.currentTimeMillis() - startTime;
         this.reasoningTracer.addStep(ReasoningStep.StepType.RETRIEVAL, "HGMem Hybrid Query", String.format("Vector: %d docs (%dms), Graph: %d nodes (%dms), Final: %d docs", vectorResults.size(), vectorTime, graphResult.nodesTraversed(), graphTime, finalResults.size()), totalTime, Map.of("vectorResults", vectorResults.size(), "graphNodes", graphResult.nodesTraversed(), "matchedEntities", graphResult.matchedEntities(), "finalResults", finalResults.size(), "vectorTimeMs", vectorTime, "graphTimeMs", graphTime));
         log.info("HGMem: Hybrid query completed in {}ms, returning {} documents", totalTime, finalResults.size());
@@ -4,6 +4,8 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jreinhal.mercenary.rag.hifirag.HiFiRagService;
 import com.jreinhal.mercenary.constant.StopWords;
+import com.jreinhal.mercenary.service.LlmGateway;
+import com.jreinhal.mercenary.service.PipelineMetrics;
 import jakarta.annotation.PostConstruct;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -23,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.lang.Nullable;
@@ -32,8 +35,12 @@ import org.springframework.stereotype.Component;
 public class CrossEncoderReranker {
     private static final Logger log = LoggerFactory.getLogger(CrossEncoderReranker.class);
     private static final Pattern SCORE_PATTERN = Pattern.compile("(0\\.\\d+|1\\.0|0|1)");
+    private static final Pattern GROUP_SCORE_PATTERN = Pattern.compile("^\\s*\\[?(\\d{1,3})\\]?\\s*[:=.)\\-]?\\s*(0(?:\\.\\d+)?|1(?:\\.0+)?|\\.\\d+)\\b", Pattern.MULTILINE);
+    private static final int GROUP_PASSAGE_CHARS = 800;
     private static final Set<String> STOP_WORDS = StopWords.RERANKER;
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final ExecutorService executor;
     private final EmbeddingModel embeddingModel;
     @Value("${sentinel.hifirag.reranker.batch-size:5}")
@@ -48,7 +55,15 @@ public class CrossEncoderReranker {
     private int cacheSize;
     @Value("${sentinel.hifirag.reranker.cache-ttl-seconds:900}")
     private long cacheTtlSeconds;
+    @Value("${sentinel.hifirag.reranker.llm-strategy:batch}")
+    private String llmStrategy;
+    @Value("${sentinel.hifirag.reranker.llm-group-size:8}")
+    private int llmGroupSize;
     private Cache<String, Double> scoreCache;
+    @Autowired(required = false)
+    private OnnxCrossEncoder onnxCrossEncoder;
+    @Autowired(required = false)
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
 
     public CrossEncoderReranker(ChatClient.Builder builder, @Qualifier("rerankerExecutor") ExecutorService executor, @Nullable EmbeddingModel embeddingModel) {
         this.chatClient = builder.build();
@@ -62,11 +77,13 @@ public class CrossEncoderReranker {
             this.scoreCache = Caffeine.newBuilder()
                     .maximumSize(this.cacheSize)
                     .expireAfterWrite(Duration.ofSeconds(this.cacheTtlSeconds))
+                    .recordStats()
                     .build();
+            this.pipelineMetrics.monitorCache("hifirag.reranker.scores", this.scoreCache);
         }
         if (log.isInfoEnabled()) {
-            log.info("Cross-Encoder Reranker initialized (mode={}, useLlmFallback={}, embeddingModel={})",
-                    this.rerankerMode, this.useLlm, this.embeddingModel != null);
+            log.info("Cross-Encoder Reranker initialized (mode={}, useLlmFallback={}, embeddingModel={}, llmStrategy={})",
+                    this.rerankerMode, this.useLlm, this.embeddingModel != null, this.llmStrategy);
         }
     }
 
@@ -77,7 +94,7 @@ public class CrossEncoderReranker {
         if (log.isDebugEnabled()) {
             log.debug("Cross-encoder reranking {} documents", documents.size());
         }
-        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         List<HiFiRagService.ScoredDocument> scored = List.of();
         RerankerMode mode = this.resolveRerankerMode();
         switch (mode) {
@@ -87,14 +104,24 @@ public class CrossEncoderReranker {
                     scored = this.useLlm ? this.rerankWithLlm(query, documents) : this.rerankWithKeywords(query, documents);
                 }
             }
+            case ONNX -> {
+                scored = this.rerankWithOnnx(query, documents);
+                if (scored.isEmpty()) {
+                    scored = this.useLlm ? this.rerankWithLlm(query, documents) : this.rerankWithKeywords(query, documents);
+                }
+            }
             case LLM -> scored = this.rerankWithLlm(query, documents);
             case KEYWORD -> scored = this.rerankWithKeywords(query, documents);
         }
         if (scored.isEmpty() && !documents.isEmpty()) {
             scored = this.rerankWithKeywords(query, documents);
         }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Object dept = documents.get(0).getMetadata().get("dept");
+        this.pipelineMetrics.record(PipelineMetrics.STAGE_RERANK, dept != null ? dept.toString() : null,
+                mode.name().toLowerCase(Locale.ROOT), elapsedNanos, true);
         if (log.isDebugEnabled()) {
-            log.debug("Reranking completed in {}ms", System.currentTimeMillis() - startTime);
+            log.debug("Reranking completed in {}ms", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
         }
         return scored.stream().sorted((a, b) -> Double.compare(b.score(), a.score())).collect(Collectors.toList());
     }
@@ -113,6 +140,159 @@ public class CrossEncoderReranker {
     }
 
     private List<HiFiRagService.ScoredDocument> rerankWithLlm(String query, List<Document> documents) {
+        if ("pointwise".equalsIgnoreCase(this.llmStrategy != null ? this.llmStrategy.trim() : "")) {
+            return this.rerankWithLlmPointwise(query, documents);
+        }
+        return this.rerankWithLlmGroups(query, documents);
+    }
+
+    /**
+     * Batch-pointwise LLM reranking: one prompt scores a whole group of passages.
+     * Cached documents are answered from {@code scoreCache}; any document whose score could not be
+     * parsed from the group response (or whose group failed) is re-scored with the per-document prompt.
+     * All groups share one {@code timeoutSeconds} budget, and a group still running when it is spent keeps
+     * uncached keyword scores instead, so a slow model is not asked again one document at a time.
+     */
+    private List<HiFiRagService.ScoredDocument> rerankWithLlmGroups(String query, List<Document> documents) {
+        List<HiFiRagService.ScoredDocument> results = new ArrayList<HiFiRagService.ScoredDocument>();
+        List<Document> uncached = new ArrayList<Document>();
+        for (Document document : documents) {
+            Double cachedScore = this.scoreCache != null ? this.scoreCache.getIfPresent(this.buildCacheKey(query, document)) : null;
+            if (cachedScore != null) {
+                results.add(new HiFiRagService.ScoredDocument(document, cachedScore.doubleValue()));
+            } else {
+                uncached.add(document);
+            }
+        }
+        int groupSize = Math.max(2, this.llmGroupSize);
+        if (uncached.size() < 2) {
+            results.addAll(this.rerankWithLlmPointwise(query, uncached));
+            return results;
+        }
+        List<List<Document>> groups = new ArrayList<List<Document>>();
+        List<Future<List<HiFiRagService.ScoredDocument>>> futures = new ArrayList<Future<List<HiFiRagService.ScoredDocument>>>();
+        for (int i = 0; i < uncached.size(); i += groupSize) {
+            List<Document> group = uncached.subList(i, Math.min(i + groupSize, uncached.size()));
+            try {
+                futures.add(this.executor.submit(() -> this.scoreGroup(query, group)));
+                groups.add(group);
+            } catch (RejectedExecutionException e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Reranker thread pool overloaded; skipping group scoring: {}", e.getMessage());
+                }
+                break;
+            }
+        }
+        List<Document> unscored = new ArrayList<Document>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.timeoutSeconds);
+        for (int g = 0; g < futures.size(); g++) {
+            List<Document> group = groups.get(g);
+            List<HiFiRagService.ScoredDocument> groupScores = List.of();
+            try {
+                groupScores = futures.get(g).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                futures.get(g).cancel(true);
+                if (log.isWarnEnabled()) {
+                    log.warn("Group reranking timed out ({} documents); keeping keyword scores for the group", group.size());
+                }
+                for (Document document : group) {
+                    results.add(new HiFiRagService.ScoredDocument(document, this.keywordScore(query, document)));
+                }
+                continue;
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) {
+                    log.warn("Group reranking failed: {}", e.getMessage());
+                }
+            }
+            results.addAll(groupScores);
+            for (int i = groupScores.size(); i < group.size(); i++) {
+                // scoreGroup returns either every document of the group or none
+                unscored.add(group.get(i));
+            }
+        }
+        if (!unscored.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("Group reranking fell back to per-document scoring for {} documents", unscored.size());
+            }
+            results.addAll(this.rerankWithLlmPointwise(query, unscored));
+        }
+        return results;
+    }
+
+    /**
+     * Score a group of passages with a single LLM call. Returns scores in group order, or an empty
+     * list when the response does not contain a parseable score for every passage.
+     */
+    private List<HiFiRagService.ScoredDocument> scoreGroup(String query, List<Document> group) {
+        StringBuilder passages = new StringBuilder();
+        for (int i = 0; i < group.size(); i++) {
+            String content = group.get(i).getContent() != null ? group.get(i).getContent() : "";
+            if (content.length() > GROUP_PASSAGE_CHARS) {
+                content = content.substring(0, GROUP_PASSAGE_CHARS) + "...";
+            }
+            passages.append('[').append(i + 1).append("]\n").append(content).append("\n\n");
+        }
+        String promptText = String.format("Rate the relevance of each passage to the query on a scale of 0.0 to 1.0.\n\nQUERY: %s\n\nPASSAGES:\n%s"
+                + "Respond with ONLY one line per passage in the form [n] score, for all %d passages, nothing else.\n"
+                + "0.0 = completely irrelevant\n0.5 = somewhat relevant\n1.0 = highly relevant\n\nScores:", query, passages, group.size());
+        String response;
+        try {
+            response = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().user(promptText).call().content());
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("LLM group scoring failed: {}", e.getMessage());
+            }
+            return List.of();
+        }
+        double[] scores = this.parseGroupScores(response, group.size());
+        if (scores == null) {
+            return List.of();
+        }
+        List<HiFiRagService.ScoredDocument> scored = new ArrayList<HiFiRagService.ScoredDocument>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            Document doc = group.get(i);
+            if (this.scoreCache != null) {
+                this.scoreCache.put(this.buildCacheKey(query, doc), scores[i]);
+            }
+            scored.add(new HiFiRagService.ScoredDocument(doc, scores[i]));
+        }
+        return scored;
+    }
+
+    private double[] parseGroupScores(String response, int expected) {
+        if (response == null || response.isBlank()) {
+            return null;
+        }
+        double[] scores = new double[expected];
+        boolean[] seen = new boolean[expected];
+        int found = 0;
+        Matcher matcher = GROUP_SCORE_PATTERN.matcher(response);
+        while (matcher.find()) {
+            int index;
+            double score;
+            try {
+                index = Integer.parseInt(matcher.group(1)) - 1;
+                score = Double.parseDouble(matcher.group(2));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (index < 0 || index >= expected || seen[index]) {
+                continue;
+            }
+            seen[index] = true;
+            scores[index] = Math.max(0.0, Math.min(1.0, score));
+            found++;
+        }
+        if (found != expected) {
+            if (log.isDebugEnabled()) {
+                log.debug("Group rerank response had {} of {} scores; falling back", found, expected);
+            }
+            return null;
+        }
+        return scores;
+    }
+
+    private List<HiFiRagService.ScoredDocument> rerankWithLlmPointwise(String query, List<Document> documents) {
         List<HiFiRagService.ScoredDocument> results = new ArrayList<HiFiRagService.ScoredDocument>();
         boolean poolExhausted = false;
         for (int i = 0; i < documents.size(); i += this.batchSize) {
@@ -154,6 +334,51 @@ public class CrossEncoderReranker {
         return results;
     }
 
+    /**
+     * True cross-encoder scoring through the local ONNX model. Cached pairs are served from
+     * {@code scoreCache}; the rest are scored in batches of query/passage pairs. Returns an empty
+     * list if the model is unavailable or inference fails so the caller can fall back.
+     */
+    private List<HiFiRagService.ScoredDocument> rerankWithOnnx(String query, List<Document> documents) {
+        if (this.onnxCrossEncoder == null || !this.onnxCrossEncoder.isAvailable()) {
+            if (log.isWarnEnabled()) {
+                log.warn("ONNX reranker mode requested but the ONNX cross-encoder is not available");
+            }
+            return List.of();
+        }
+        List<HiFiRagService.ScoredDocument> results = new ArrayList<HiFiRagService.ScoredDocument>(documents.size());
+        List<Document> uncached = new ArrayList<Document>();
+        for (Document document : documents) {
+            Double cachedScore = this.scoreCache != null ? this.scoreCache.getIfPresent(this.buildCacheKey(query, document)) : null;
+            if (cachedScore != null) {
+                results.add(new HiFiRagService.ScoredDocument(document, cachedScore.doubleValue()));
+            } else {
+                uncached.add(document);
+            }
+        }
+        int onnxBatch = this.onnxCrossEncoder.getBatchSize();
+        try {
+            for (int i = 0; i < uncached.size(); i += onnxBatch) {
+                List<Document> batch = uncached.subList(i, Math.min(i + onnxBatch, uncached.size()));
+                List<String> passages = batch.stream().map(doc -> doc.getContent() != null ? doc.getContent() : "").toList();
+                double[] scores = this.onnxCrossEncoder.score(query, passages);
+                for (int j = 0; j < batch.size(); j++) {
+                    Document doc = batch.get(j);
+                    if (this.scoreCache != null) {
+                        this.scoreCache.put(this.buildCacheKey(query, doc), scores[j]);
+                    }
+                    results.add(new HiFiRagService.ScoredDocument(doc, scores[j]));
+                }
+            }
+        } catch (Exception e) {
+            if (log.isWarnEnabled()) {
+                log.warn("ONNX cross-encoder scoring failed; falling back: {}", e.getMessage());
+            }
+            return List.of();
+        }
+        return results;
+    }
+
     private List<HiFiRagService.ScoredDocument> rerankWithDedicatedModel(String query, List<Document> documents) {
         if (this.embeddingModel == null) {
             if (log.isWarnEnabled()) {
@@ -225,7 +450,7 @@ public class CrossEncoderReranker {
                 content = content.substring(0, 1000) + "...";
             }
             String promptText = String.format("Rate the relevance of this document to the query on a scale of 0.0 to 1.0.\n\nQUERY: %s\n\nDOCUMENT:\n%s\n\nRespond with ONLY a number between 0.0 and 1.0, nothing else.\n0.0 = completely irrelevant\n0.5 = somewhat relevant\n1.0 = highly relevant\n\nScore:", query, content);
-            String response = this.chatClient.prompt().user(promptText).call().content();
+            String response = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().user(promptText).call().content());
             double score = this.parseScore(response);
             if (this.scoreCache != null) {
                 this.scoreCache.put(cacheKey, score);
@@ -286,6 +511,14 @@ public class CrossEncoderReranker {
                 return new HiFiRagService.ScoredDocument(doc, cachedScore.doubleValue());
             }
         }
+        double score = this.keywordScore(query, doc);
+        if (this.scoreCache != null) {
+            this.scoreCache.put(cacheKey, score);
+        }
+        return new HiFiRagService.ScoredDocument(doc, score);
+    }
+
+    private double keywordScore(String query, Document doc) {
         String lowerQuery = query.toLowerCase();
         String lowerContent = doc.getContent() != null ? doc.getContent().toLowerCase() : "";
         Set<String> stopWords = STOP_WORDS;
@@ -307,10 +540,7 @@ public class CrossEncoderReranker {
                 score = Math.min(1.0, score + 0.1);
             }
         }
-        if (this.scoreCache != null) {
-            this.scoreCache.put(cacheKey, score);
-        }
-        return new HiFiRagService.ScoredDocument(doc, score);
+        return score;
     }
 
     private double calculateCosineSimilarity(float[] a, float[] b) {
@@ -344,6 +574,7 @@ public class CrossEncoderReranker {
 
     private enum RerankerMode {
         DEDICATED,
+        ONNX,
         LLM,
         KEYWORD
     }
@@ -0,0 +1,206 @@
+package com.jreinhal.mercenary.rag.hifirag;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OnnxValue;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process cross-encoder scorer backed by ONNX Runtime on CPU.
+ *
+ * <p>Loads a BERT/MiniLM-family reranker exported to ONNX (e.g. ms-marco-MiniLM-L-6-v2) plus its
+ * WordPiece {@code vocab.txt} from local paths, so scoring stays fully air-gapped. The session is
+ * created lazily on first use; if the model or vocabulary cannot be loaded the scorer reports itself
+ * unavailable and {@link CrossEncoderReranker} falls back to its other modes.</p>
+ */
+@Component
+public class OnnxCrossEncoder {
+    private static final Logger log = LoggerFactory.getLogger(OnnxCrossEncoder.class);
+    private static final String INPUT_IDS = "input_ids";
+    private static final String ATTENTION_MASK = "attention_mask";
+    private static final String TOKEN_TYPE_IDS = "token_type_ids";
+
+    @Value("${sentinel.hifirag.reranker.onnx.model-path:}")
+    private String modelPath;
+    @Value("${sentinel.hifirag.reranker.onnx.vocab-path:}")
+    private String vocabPath;
+    @Value("${sentinel.hifirag.reranker.onnx.lower-case:true}")
+    private boolean lowerCase;
+    @Value("${sentinel.hifirag.reranker.onnx.max-length:256}")
+    private int maxLength;
+    @Value("${sentinel.hifirag.reranker.onnx.batch-size:16}")
+    private int batchSize;
+    @Value("${sentinel.hifirag.reranker.onnx.intra-op-threads:2}")
+    private int intraOpThreads;
+
+    private volatile OrtSession session;
+    private volatile WordPieceTokenizer tokenizer;
+    private volatile boolean initFailed;
+    private boolean acceptsTokenTypes;
+
+    public boolean isAvailable() {
+        return this.ensureLoaded();
+    }
+
+    public int getBatchSize() {
+        return Math.max(1, this.batchSize);
+    }
+
+    /**
+     * Score query/passage pairs in one forward pass. Returns relevance probabilities in [0, 1],
+     * aligned with {@code passages}.
+     */
+    public double[] score(String query, List<String> passages) {
+        if (passages.isEmpty()) {
+            return new double[0];
+        }
+        if (!this.ensureLoaded()) {
+            throw new IllegalStateException("ONNX cross-encoder is not available");
+        }
+        int rows = passages.size();
+        WordPieceTokenizer.EncodedPair[] encoded = new WordPieceTokenizer.EncodedPair[rows];
+        int width = 0;
+        for (int i = 0; i < rows; i++) {
+            encoded[i] = this.tokenizer.encodePair(query, passages.get(i), Math.max(8, this.maxLength));
+            width = Math.max(width, encoded[i].inputIds().length);
+        }
+        long[][] inputIds = new long[rows][width];
+        long[][] attentionMask = new long[rows][width];
+        long[][] tokenTypeIds = new long[rows][width];
+        for (int i = 0; i < rows; i++) {
+            long[] ids = encoded[i].inputIds();
+            System.arraycopy(ids, 0, inputIds[i], 0, ids.length);
+            System.arraycopy(encoded[i].tokenTypeIds(), 0, tokenTypeIds[i], 0, ids.length);
+            for (int j = 0; j < ids.length; j++) {
+                attentionMask[i][j] = 1L;
+            }
+        }
+        OrtEnvironment env = OrtEnvironment.getEnvironment();
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        try {
+            inputs.put(INPUT_IDS, OnnxTensor.createTensor(env, inputIds));
+            inputs.put(ATTENTION_MASK, OnnxTensor.createTensor(env, attentionMask));
+            if (this.acceptsTokenTypes) {
+                inputs.put(TOKEN_TYPE_IDS, OnnxTensor.createTensor(env, tokenTypeIds));
+            }
+            try (OrtSession.Result result = this.session.run(inputs)) {
+                OnnxValue output = result.get(0);
+                return toProbabilities(output.getValue(), rows);
+            }
+        } catch (OrtException e) {
+            throw new IllegalStateException("ONNX cross-encoder inference failed: " + e.getMessage(), e);
+        } finally {
+            for (OnnxTensor tensor : inputs.values()) {
+                tensor.close();
+            }
+        }
+    }
+
+    private boolean ensureLoaded() {
+        if (this.session != null) {
+            return true;
+        }
+        if (this.initFailed) {
+            return false;
+        }
+        synchronized (this) {
+            if (this.session != null) {
+                return true;
+            }
+            if (this.initFailed) {
+                return false;
+            }
+            try {
+                if (this.modelPath == null || this.modelPath.isBlank() || this.vocabPath == null || this.vocabPath.isBlank()) {
+                    throw new IllegalStateException("sentinel.hifirag.reranker.onnx.model-path and vocab-path must be set");
+                }
+                Path model = Path.of(this.modelPath);
+                Path vocab = Path.of(this.vocabPath);
+                if (!Files.isReadable(model) || !Files.isReadable(vocab)) {
+                    throw new IllegalStateException("ONNX reranker model or vocabulary file is not readable");
+                }
+                this.tokenizer = WordPieceTokenizer.fromVocabFile(vocab, this.lowerCase);
+                OrtEnvironment env = OrtEnvironment.getEnvironment();
+                OrtSession created;
+                try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+                    options.setIntraOpNumThreads(Math.max(1, this.intraOpThreads));
+                    options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+                    created = env.createSession(model.toString(), options);
+                }
+                Set<String> inputNames = created.getInputNames();
+                if (!inputNames.contains(INPUT_IDS) || !inputNames.contains(ATTENTION_MASK)) {
+                    created.close();
+                    throw new IllegalStateException("ONNX reranker model must accept input_ids and attention_mask, found " + inputNames);
+                }
+                this.acceptsTokenTypes = inputNames.contains(TOKEN_TYPE_IDS);
+                this.session = created;
+                if (log.isInfoEnabled()) {
+                    log.info("ONNX cross-encoder loaded (maxLength={}, batchSize={}, threads={})",
+                            this.maxLength, this.getBatchSize(), this.intraOpThreads);
+                }
+                return true;
+            } catch (Exception | LinkageError e) {
+                this.initFailed = true;
+                if (log.isWarnEnabled()) {
+                    log.warn("ONNX cross-encoder unavailable; reranker will fall back: {}", e.getMessage());
+                }
+                return false;
+            }
+        }
+    }
+
+    private static double[] toProbabilities(Object value, int rows) {
+        double[] scores = new double[rows];
+        if (value instanceof float[][] logits) {
+            for (int i = 0; i < rows; i++) {
+                float[] row = logits[i];
+                if (row.length == 1) {
+                    scores[i] = sigmoid(row[0]);
+                } else if (row.length >= 2) {
+                    // Two-class heads: probability of the "relevant" class.
+                    double max = Math.max(row[0], row[1]);
+                    double e0 = Math.exp(row[0] - max);
+                    double e1 = Math.exp(row[1] - max);
+                    scores[i] = e1 / (e0 + e1);
+                }
+            }
+            return scores;
+        }
+        if (value instanceof float[] flat) {
+            for (int i = 0; i < rows && i < flat.length; i++) {
+                scores[i] = sigmoid(flat[i]);
+            }
+            return scores;
+        }
+        throw new IllegalStateException("Unexpected ONNX reranker output type");
+    }
+
+    private static double sigmoid(double logit) {
+        return 1.0 / (1.0 + Math.exp(-logit));
+    }
+
+    @PreDestroy
+    public void close() {
+        OrtSession current = this.session;
+        this.session = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (OrtException e) {
+                log.debug("Failed to close ONNX session: {}", e.getMessage());
+            }
+        }
+    }
+}
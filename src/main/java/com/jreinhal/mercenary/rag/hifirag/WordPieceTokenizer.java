@@ -0,0 +1,221 @@
+package com.jreinhal.mercenary.rag.hifirag;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal BERT WordPiece tokenizer for local cross-encoder inference.
+ *
+ * <p>Implements the basic tokenizer (cleanup, optional lower-casing with accent stripping,
+ * CJK and punctuation splitting) followed by greedy longest-match WordPiece, which is what
+ * BERT/MiniLM-family rerankers expect. SentencePiece models (e.g. XLM-R based rerankers)
+ * are not supported.</p>
+ */
+final class WordPieceTokenizer {
+    private static final String UNK = "[UNK]";
+    private static final String CLS = "[CLS]";
+    private static final String SEP = "[SEP]";
+    private static final int MAX_CHARS_PER_WORD = 100;
+
+    private final Map<String, Integer> vocab;
+    private final boolean lowerCase;
+    private final int unkId;
+    private final int clsId;
+    private final int sepId;
+
+    WordPieceTokenizer(Map<String, Integer> vocab, boolean lowerCase) {
+        this.vocab = vocab;
+        this.lowerCase = lowerCase;
+        this.unkId = this.requireId(UNK);
+        this.clsId = this.requireId(CLS);
+        this.sepId = this.requireId(SEP);
+    }
+
+    static WordPieceTokenizer fromVocabFile(Path vocabPath, boolean lowerCase) throws IOException {
+        List<String> lines = Files.readAllLines(vocabPath, StandardCharsets.UTF_8);
+        Map<String, Integer> vocab = new HashMap<>(lines.size() * 2);
+        for (int i = 0; i < lines.size(); i++) {
+            String token = lines.get(i).strip();
+            if (!token.isEmpty()) {
+                vocab.putIfAbsent(token, i);
+            }
+        }
+        return new WordPieceTokenizer(vocab, lowerCase);
+    }
+
+    /**
+     * Encode a query/passage pair as {@code [CLS] query [SEP] passage [SEP]}, truncating the longer
+     * segment first so the result fits in {@code maxLength} tokens.
+     */
+    EncodedPair encodePair(String query, String passage, int maxLength) {
+        List<Integer> queryIds = this.tokenize(query);
+        List<Integer> passageIds = this.tokenize(passage);
+        int budget = Math.max(2, maxLength - 3);
+        int queryLen = queryIds.size();
+        int passageLen = passageIds.size();
+        if (queryLen + passageLen > budget) {
+            int half = budget / 2;
+            if (queryLen <= half) {
+                passageLen = budget - queryLen;
+            } else if (passageLen <= budget - half) {
+                queryLen = budget - passageLen;
+            } else {
+                queryLen = half;
+                passageLen = budget - half;
+            }
+        }
+        int length = queryLen + passageLen + 3;
+        long[] inputIds = new long[length];
+        long[] tokenTypes = new long[length];
+        int pos = 0;
+        inputIds[pos++] = this.clsId;
+        for (int i = 0; i < queryLen; i++) {
+            inputIds[pos++] = queryIds.get(i);
+        }
+        inputIds[pos++] = this.sepId;
+        int secondSegmentStart = pos;
+        for (int i = 0; i < passageLen; i++) {
+            inputIds[pos++] = passageIds.get(i);
+        }
+        inputIds[pos++] = this.sepId;
+        for (int i = secondSegmentStart; i < length; i++) {
+            tokenTypes[i] = 1L;
+        }
+        return new EncodedPair(inputIds, tokenTypes);
+    }
+
+    List<Integer> tokenize(String text) {
+        List<Integer> ids = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return ids;
+        }
+        for (String word : this.basicTokenize(text)) {
+            this.wordPiece(word, ids);
+        }
+        return ids;
+    }
+
+    private List<String> basicTokenize(String text) {
+        StringBuilder cleaned = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (cp == 0 || cp == 0xFFFD || isControl(cp)) {
+                continue;
+            }
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp)) {
+                cleaned.append(' ');
+            } else if (isCjk(cp)) {
+                cleaned.append(' ').appendCodePoint(cp).append(' ');
+            } else {
+                cleaned.appendCodePoint(cp);
+            }
+        }
+        String normalized = cleaned.toString();
+        if (this.lowerCase) {
+            normalized = Normalizer.normalize(normalized.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            if (this.lowerCase && Character.getType(cp) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (cp == ' ') {
+                flush(current, words);
+            } else if (isPunctuation(cp)) {
+                flush(current, words);
+                words.add(new String(Character.toChars(cp)));
+            } else {
+                current.appendCodePoint(cp);
+            }
+        }
+        flush(current, words);
+        return words;
+    }
+
+    private void wordPiece(String word, List<Integer> out) {
+        if (word.length() > MAX_CHARS_PER_WORD) {
+            out.add(this.unkId);
+            return;
+        }
+        int start = 0;
+        int mark = out.size();
+        while (start < word.length()) {
+            int end = word.length();
+            Integer match = null;
+            while (start < end) {
+                String piece = start > 0 ? "##" + word.substring(start, end) : word.substring(start, end);
+                match = this.vocab.get(piece);
+                if (match != null) {
+                    break;
+                }
+                end--;
+            }
+            if (match == null) {
+                // Whole word becomes [UNK] if any sub-piece is unknown, as in the reference tokenizer.
+                while (out.size() > mark) {
+                    out.remove(out.size() - 1);
+                }
+                out.add(this.unkId);
+                return;
+            }
+            out.add(match);
+            start = end;
+        }
+    }
+
+    private int requireId(String token) {
+        Integer id = this.vocab.get(token);
+        if (id == null) {
+            throw new IllegalArgumentException("Vocabulary is missing required token " + token);
+        }
+        return id;
+    }
+
+    private static void flush(StringBuilder current, List<String> words) {
+        if (current.length() > 0) {
+            words.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static boolean isControl(int cp) {
+        if (cp == '\t' || cp == '\n' || cp == '\r') {
+            return false;
+        }
+        int type = Character.getType(cp);
+        return type == Character.CONTROL || type == Character.FORMAT;
+    }
+
+    private static boolean isPunctuation(int cp) {
+        if ((cp >= 33 && cp <= 47) || (cp >= 58 && cp <= 64) || (cp >= 91 && cp <= 96) || (cp >= 123 && cp <= 126)) {
+            return true;
+        }
+        return switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION, Character.DASH_PUNCTUATION, Character.START_PUNCTUATION,
+                 Character.END_PUNCTUATION, Character.INITIAL_QUOTE_PUNCTUATION, Character.FINAL_QUOTE_PUNCTUATION,
+                 Character.OTHER_PUNCTUATION -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isCjk(int cp) {
+        return (cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF) || (cp >= 0x20000 && cp <= 0x2A6DF)
+                || (cp >= 0x2A700 && cp <= 0x2B73F) || (cp >= 0x2B740 && cp <= 0x2B81F) || (cp >= 0x2B820 && cp <= 0x2CEAF)
+                || (cp >= 0xF900 && cp <= 0xFAFF) || (cp >= 0x2F800 && cp <= 0x2FA1F);
+    }
+
+    record EncodedPair(long[] inputIds, long[] tokenTypeIds) {
+    }
+}
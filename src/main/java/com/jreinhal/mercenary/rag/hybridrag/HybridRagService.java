@@ -5,6 +5,7 @@ import com.jreinhal.mercenary.enterprise.rag.sparse.SparseEmbeddingService;
 import com.jreinhal.mercenary.rag.hybridrag.QueryExpander;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.util.TemporalQueryConstraints;
+import com.jreinhal.mercenary.util.TopKCollector;
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
 import com.jreinhal.mercenary.vector.LocalMongoVectorStore;
@@ -78,6 +79,14 @@ public class HybridRagService {
     }
 
     public HybridRetrievalResult retrieve(String query, String department) {
+        return this.retrieve(query, department, true);
+    }
+
+    /**
+     * Hybrid retrieval; with {@code expandQuery} false only the original query is searched, so no model call
+     * sees it.
+     */
+    public HybridRetrievalResult retrieve(String query, String department, boolean expandQuery) {
         String normalizedDept = this.normalizeDepartment(department);
         if (normalizedDept == null) {
             log.warn("HybridRAG: Invalid department '{}'", department);
@@ -90,7 +99,7 @@ public class HybridRagService {
             return new HybridRetrievalResult(docs, Map.of("mode", "fallback"));
         }
         long startTime = System.currentTimeMillis();
-        List<String> queryVariants = this.generateQueryVariants(query, normalizedDept);
+        List<String> queryVariants = expandQuery ? this.generateQueryVariants(query, normalizedDept) : List.of(query);
         Map<String, List<RankedDoc>> semanticResults = new LinkedHashMap<String, List<RankedDoc>>();
         Map<String, CompletableFuture<List<RankedDoc>>> futures = new LinkedHashMap<>();
         for (String variant : queryVariants) {
@@ -254,7 +263,7 @@ public class HybridRagService {
         return variants;
     }
 
-    private List<Document> applyRrfFusion(Map<String, List<RankedDoc>> semanticResults, List<RankedDoc> keywordResults) {
+    List<Document> applyRrfFusion(Map<String, List<RankedDoc>> semanticResults, List<RankedDoc> keywordResults) {
         HashMap<String, Double> rrfScores = new HashMap<String, Double>();
         HashMap<String, Document> docMap = new HashMap<String, Document>();
         for (List<RankedDoc> results : semanticResults.values()) {
@@ -271,9 +280,11 @@ public class HybridRagService {
             rrfScores.merge(docId, rrfContribution, Double::sum);
             docMap.putIfAbsent(docId, rd.document);
         }
-        ArrayList<Map.Entry<String, Double>> sorted = new ArrayList<>(rrfScores.entrySet());
-        sorted.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
-        return sorted.stream().limit(15L).map(e -> docMap.get(e.getKey())).filter(Objects::nonNull).collect(Collectors.toList());
+        TopKCollector<String> top = new TopKCollector<>(15);
+        for (Map.Entry<String, Double> entry : rrfScores.entrySet()) {
+            top.offer(entry.getKey(), entry.getValue());
+        }
+        return top.toSortedList().stream().map(docMap::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     private String getDocId(Document doc) {
@@ -313,7 +324,7 @@ public class HybridRagService {
     public record HybridRetrievalResult(List<Document> documents, Map<String, Object> metadata) {
     }
 
-    private record RankedDoc(Document document, int rank, String source, int keywordScore) {
+    record RankedDoc(Document document, int rank, String source, int keywordScore) {
         RankedDoc(Document document, int rank, String source) {
             this(document, rank, source, 0);
         }
@@ -3,6 +3,9 @@ package com.jreinhal.mercenary.rag.hybridrag;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jreinhal.mercenary.rag.thesaurus.DomainThesaurus;
+import com.jreinhal.mercenary.service.LlmCallCoalescer;
+import com.jreinhal.mercenary.service.LlmGateway;
+import com.jreinhal.mercenary.service.PipelineMetrics;
 import com.jreinhal.mercenary.util.LogSanitizer;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import jakarta.annotation.PostConstruct;
@@ -16,6 +19,7 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
@@ -24,6 +28,8 @@ import org.springframework.stereotype.Component;
 public class QueryExpander {
     private static final Logger log = LoggerFactory.getLogger(QueryExpander.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     @Nullable
     private final DomainThesaurus domainThesaurus;
     @Value(value="${sentinel.hybridrag.llm-expansion:false}")
@@ -33,6 +39,10 @@ public class QueryExpander {
     @Value(value="${sentinel.hybridrag.query-expansion-cache-ttl-seconds:900}")
     private long cacheTtlSeconds;
     private Cache<String, List<String>> expansionCache;
+    @Autowired(required = false)
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+    @Autowired(required = false)
+    private LlmCallCoalescer llmCallCoalescer = LlmCallCoalescer.passthrough();
     private static final Pattern VARIANT_PATTERN = Pattern.compile("^\\s*[-*\\d.)]?\\s*(.+?)\\s*$", 8);
     private static final String EXPANSION_PROMPT = "Generate %d alternative ways to ask this question. Each variant should:\n- Preserve the original meaning\n- Use different words or phrasing\n- Be a complete question or search query\n\nOutput each variant on a new line, numbered 1-N.\n\nOriginal query: %s\n";
     private static final Map<String, List<String>> SYNONYMS = Map.ofEntries(Map.entry("find", List.of("search", "locate", "discover", "identify")), Map.entry("show", List.of("display", "present", "reveal", "list")), Map.entry("explain", List.of("describe", "clarify", "elaborate", "detail")), Map.entry("create", List.of("make", "generate", "build", "produce")), Map.entry("delete", List.of("remove", "erase", "eliminate", "clear")), Map.entry("update", List.of("modify", "change", "edit", "revise")), Map.entry("error", List.of("issue", "problem", "bug", "fault")), Map.entry("security", List.of("protection", "safety", "defense", "safeguard")), Map.entry("data", List.of("information", "records", "content", "details")), Map.entry("user", List.of("person", "individual", "account", "member")), Map.entry("system", List.of("platform", "application", "software", "service")), Map.entry("access", List.of("permission", "authorization", "entry", "rights")));
@@ -48,7 +58,9 @@ public class QueryExpander {
             this.expansionCache = Caffeine.newBuilder()
                     .maximumSize(this.cacheSize)
                     .expireAfterWrite(Duration.ofSeconds(this.cacheTtlSeconds))
+                    .recordStats()
                     .build();
+            this.pipelineMetrics.monitorCache("hybridrag.query.expansions", this.expansionCache);
         }
     }
 
@@ -144,7 +156,8 @@ public class QueryExpander {
     private List<String> generateLlmVariants(String query, int count) {
         try {
             String prompt = EXPANSION_PROMPT.formatted(count, query);
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            LlmCallCoalescer.Key callKey = this.llmCallCoalescer.key(LlmCallCoalescer.CALL_QUERY_EXPANSION, null, prompt);
+            String response = this.llmCallCoalescer.execute(callKey, () -> this.llmGateway.call(LlmGateway.Lane.CONTROL, () -> this.chatClient.prompt().user(prompt).call().content()));
             return this.parseLlmVariants(response);
         }
         catch (Exception e) {
@@ -2,6 +2,8 @@ package com.jreinhal.mercenary.rag.hyde;
 
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.service.LlmCallCoalescer;
+import com.jreinhal.mercenary.service.LlmGateway;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import jakarta.annotation.PostConstruct;
@@ -15,6 +17,7 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +25,8 @@ import org.springframework.stereotype.Service;
 public class HydeService {
     private static final Logger log = LoggerFactory.getLogger(HydeService.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final VectorStore vectorStore;
     private final ReasoningTracer reasoningTracer;
     @Value(value="${sentinel.hyde.enabled:true}")
@@ -32,6 +37,8 @@ public class HydeService {
     private double similarityThreshold;
     @Value(value="${sentinel.hyde.hypothetical-length:150}")
     private int hypotheticalLength;
+    @Autowired(required = false)
+    private LlmCallCoalescer llmCallCoalescer = LlmCallCoalescer.passthrough();
     private static final String HYDE_SYSTEM_PROMPT = "You are an expert knowledge assistant. Given a user question,\ngenerate a hypothetical answer that an ideal document would contain.\n\nRules:\n1. Write as if you are the document being searched for\n2. Use domain-specific terminology that would appear in authoritative sources\n3. Be factual in tone, even if you're making up the answer\n4. Keep the response to 2-3 sentences\n5. Do NOT say \"I don't know\" - generate a plausible answer\n\nThis hypothetical answer will be used for semantic search, so include\nkeywords and concepts that would appear in real documents.\n";
 
     public HydeService(ChatClient.Builder chatClientBuilder, VectorStore vectorStore, ReasoningTracer reasoningTracer) {
@@ -75,7 +82,9 @@ public class HydeService {
 
     public String generateHypothetical(String query) {
         try {
-            String response = this.chatClient.prompt().system(HYDE_SYSTEM_PROMPT).user("Question: " + query + "\n\nHypothetical document content:").call().content().trim();
+            String userPrompt = "Question: " + query + "\n\nHypothetical document content:";
+            LlmCallCoalescer.Key callKey = this.llmCallCoalescer.key(LlmCallCoalescer.CALL_HYDE, null, HYDE_SYSTEM_PROMPT, userPrompt);
+            String response = this.llmCallCoalescer.execute(callKey, () -> this.llmGateway.call(LlmGateway.Lane.CONTROL, () -> this.chatClient.prompt().system(HYDE_SYSTEM_PROMPT).user(userPrompt).call().content())).trim();
             if (response.length() > this.hypotheticalLength * 2) {
                 response = response.substring(0, this.hypotheticalLength * 2);
             }
@@ -12,16 +12,20 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.ChatOptionsBuilder;
 import org.springframework.ai.model.Media;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MimeType;
 import org.springframework.util.MimeTypeUtils;
+import com.jreinhal.mercenary.service.LlmGateway;
 
 @Component
 public class ImageAnalyzer {
     private static final Logger log = LoggerFactory.getLogger(ImageAnalyzer.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     @Value(value="${sentinel.megarag.vision-model:llava}")
     private String visionModel;
     @Value(value="${sentinel.megarag.analysis-timeout-ms:30000}")
@@ -152,12 +156,12 @@ public class ImageAnalyzer {
             MimeType mimeType = this.detectImageMimeType(imageBytes);
             String model = (this.visionModel == null || this.visionModel.isBlank()) ? "llava" : this.visionModel;
             ChatOptions options = ChatOptionsBuilder.builder().withModel(model).build();
-            String response = this.chatClient
+            String response = this.llmGateway.call(LlmGateway.Lane.BACKGROUND, () -> this.chatClient
                     .prompt()
                     .options(options)
                     .user(u -> u.text(prompt).media(new Media(mimeType, new ByteArrayResource(imageBytes))))
                     .call()
-                    .content();
+                    .content());
             return response != null ? response : "";
         }
         catch (Exception e) {
@@ -2,12 +2,14 @@ package com.jreinhal.mercenary.rag.megarag;
 
 import com.jreinhal.mercenary.rag.megarag.ImageAnalyzer;
 import com.jreinhal.mercenary.rag.megarag.VisualEntityLinker;
+import com.jreinhal.mercenary.service.LlmGateway;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import jakarta.annotation.PostConstruct;
 import java.net.URLConnection;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +18,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -27,6 +30,7 @@ import org.springframework.ai.document.Document;
 import org.springframework.ai.model.Media;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ByteArrayResource;
@@ -45,6 +49,8 @@ public class MegaRagService {
     private final VectorStore vectorStore;
     private final MongoTemplate mongoTemplate;
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final ImageAnalyzer imageAnalyzer;
     private final VisualEntityLinker visualEntityLinker;
     private final ReasoningTracer reasoningTracer;
@@ -59,6 +65,8 @@ public class MegaRagService {
     private double crossModalThreshold;
     @Value("${sentinel.performance.rag-future-timeout-seconds:8}")
     private int futureTimeoutSeconds;
+    @Value("${sentinel.llm.timeout-seconds:60}")
+    private int llmTimeoutSeconds = 60;
     @Value("${sentinel.megarag.multimodal-embeddings-enabled:false}")
     private boolean multimodalEmbeddingsEnabled;
     @Value("${sentinel.megarag.multimodal-query-prefix:vision query: }")
@@ -277,10 +285,17 @@ public class MegaRagService {
             }
         }
         String prompt = "You are SENTINEL with multimodal intelligence capabilities.\n\nYou have access to both TEXT and VISUAL sources. When answering:\n1. Cite text sources as [filename.ext]\n2. Cite visual sources as [IMAGE: filename.ext]\n3. If information comes from a chart/diagram, describe what it shows\n4. Combine insights from both modalities when relevant\n\nCONTEXT:\n%s\n\nQUERY: %s\n".formatted(context.toString(), query);
+        Future<String> future = null;
         try {
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.INTERACTIVE, Duration.ofSeconds(this.llmTimeoutSeconds), () -> this.chatClient.prompt().user(prompt).call().content()));
+            String response = future.get(this.llmTimeoutSeconds, TimeUnit.SECONDS);
             return response;
         }
+        catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("MegaRAG: Generation timed out after {}s", this.llmTimeoutSeconds);
+            return null;
+        }
         catch (Exception e) {
             log.error("MegaRAG: Generation failed: {}", e.getMessage());
             return null;
@@ -3,14 +3,33 @@ package com.jreinhal.mercenary.rag.miarag;
 import com.jreinhal.mercenary.rag.miarag.MindscapeBuilder;
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.service.LlmGateway;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,19 +37,41 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.CriteriaDefinition;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+/**
+ * MiA-RAG: hierarchical document summaries ("mindscapes") used as global context at retrieval time.
+ *
+ * <p>Ingestion only queues a mindscape build; {@code sentinel.miarag.max-concurrent-builds} builds run in the
+ * background while the upload returns. A build stores its mindscape as soon as it is queued and pushes each
+ * finished level, so {@link #getBuildStatus} can report progress and retrieval can use the highest level built
+ * so far for documents whose mindscape is not complete yet. Queued and running builds are kept alive by a
+ * heartbeat; builds whose node stopped (restart, redeploy) are marked FAILED once the heartbeat is older than
+ * {@code sentinel.miarag.stale-build-minutes}, and the next ingest of the file rebuilds them.</p>
+ *
+ * <p>Every node of the tree carries a content hash (chunk text at level 0, level plus child hashes above).
+ * Re-ingesting a document reuses the stored summary of every subtree whose hash is unchanged, so only the
+ * changed chunk groups and their ancestors go to the LLM; level 0 stores chunk ids rather than chunk text.</p>
+ */
 @Service
 public class MiARagService {
     private static final Logger log = LoggerFactory.getLogger(MiARagService.class);
     private final VectorStore vectorStore;
     private final MongoTemplate mongoTemplate;
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final MindscapeBuilder mindscapeBuilder;
     private final ReasoningTracer reasoningTracer;
     @Value(value="${sentinel.miarag.enabled:true}")
@@ -41,7 +82,21 @@ public class MiARagService {
     private double globalContextWeight;
     @Value(value="${sentinel.miarag.local-context-weight:0.7}")
     private double localContextWeight;
+    @Value(value="${sentinel.miarag.background-build:true}")
+    private boolean backgroundBuild = true;
+    @Value(value="${sentinel.miarag.max-concurrent-builds:2}")
+    private int maxConcurrentBuilds = 2;
+    @Value(value="${sentinel.miarag.stale-build-minutes:10}")
+    private long staleBuildMinutes = 10L;
+    @Value(value="${sentinel.llm.timeout-seconds:60}")
+    private int llmTimeoutSeconds = 60;
     private static final String MINDSCAPE_COLLECTION = "miarag_mindscapes";
+    private static final int MAX_PARTIAL_SUMMARY_CHARS = 2000;
+    private static final int MAX_PARTIAL_MINDSCAPES = 3;
+    private final Map<String, AtomicInteger> activeBuilds = new ConcurrentHashMap<>();
+    // Builds queued or running on this node; their heartbeat keeps other nodes from failing them as stale.
+    private final Set<String> trackedBuilds = ConcurrentHashMap.newKeySet();
+    private ExecutorService buildExecutor;
 
     public MiARagService(VectorStore vectorStore, MongoTemplate mongoTemplate, ChatClient.Builder chatClientBuilder, MindscapeBuilder mindscapeBuilder, ReasoningTracer reasoningTracer) {
         this.vectorStore = vectorStore;
@@ -53,47 +108,317 @@ public class MiARagService {
 
     @PostConstruct
     public void init() {
-        log.info("MiA-RAG Service initialized (enabled={}, levels={}, globalWeight={})", new Object[]{this.enabled, this.hierarchyLevels, this.globalContextWeight});
+        this.buildExecutor = Executors.newFixedThreadPool(Math.max(1, this.maxConcurrentBuilds), Thread.ofVirtual().name("mindscape-build-", 0L).factory());
+        log.info("MiA-RAG Service initialized (enabled={}, levels={}, globalWeight={}, backgroundBuild={})", new Object[]{this.enabled, this.hierarchyLevels, this.globalContextWeight, this.backgroundBuild});
     }
 
-    public Mindscape buildMindscape(List<String> chunks, String filename, String department) {
+    @PreDestroy
+    public void shutdown() {
+        if (this.buildExecutor != null) {
+            this.buildExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a mindscape build for the current workspace and return without waiting for the LLM calls.
+     * Runs inline when background building is disabled.
+     */
+    public void submitMindscapeBuild(List<Document> chunks, String filename, String department) {
+        if (!this.enabled || chunks == null || chunks.isEmpty()) {
+            return;
+        }
+        if (!this.backgroundBuild || this.buildExecutor == null) {
+            this.buildMindscape(chunks, filename, department);
+            return;
+        }
+        String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
+        Mindscape queued;
+        BuildPlan plan;
+        try {
+            plan = this.plan(List.copyOf(chunks), filename, department, workspaceId);
+            if (plan.unchanged()) {
+                this.keepUnchanged(plan);
+                return;
+            }
+            queued = this.createMindscape(plan, filename, department, workspaceId, MindscapeStatus.QUEUED);
+        }
+        catch (Exception e) {
+            log.error("MiA-RAG: Failed to queue mindscape for '{}': {}", filename, e.getMessage());
+            return;
+        }
+        try {
+            this.buildExecutor.execute(() -> {
+                WorkspaceContext.setCurrentWorkspaceId(workspaceId);
+                try {
+                    this.build(queued, plan);
+                }
+                finally {
+                    WorkspaceContext.clear();
+                }
+            });
+            log.info("MiA-RAG: Queued mindscape build for '{}' ({} chunks, {} summaries to run)", new Object[]{filename, chunks.size(), plan.summariesToRun()});
+        }
+        catch (RejectedExecutionException e) {
+            log.warn("MiA-RAG: Mindscape build for '{}' rejected (shutting down)", filename);
+            this.trackedBuilds.remove(queued.id());
+            this.markStatus(queued.id(), MindscapeStatus.FAILED);
+        }
+    }
+
+    public Mindscape buildMindscape(List<Document> chunks, String filename, String department) {
         if (!this.enabled || chunks.isEmpty()) {
             return null;
         }
-        long startTime = System.currentTimeMillis();
-        log.info("MiA-RAG: Building mindscape for '{}' with {} chunks", filename, chunks.size());
         try {
             String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
+            BuildPlan plan = this.plan(chunks, filename, department, workspaceId);
+            if (plan.unchanged()) {
+                return this.keepUnchanged(plan);
+            }
+            Mindscape pending = this.createMindscape(plan, filename, department, workspaceId, MindscapeStatus.BUILDING);
+            return this.build(pending, plan);
+        }
+        catch (Exception e) {
+            log.error("MiA-RAG: Failed to build mindscape for '{}': {}", new Object[]{filename, e.getMessage(), e});
+            return null;
+        }
+    }
+
+    // Hash every node of the summary tree up front: a chunk by its content, a summary by its level and the
+    // hashes it combines. A summary whose hash appears in the previous mindscape of the file is reused.
+    private BuildPlan plan(List<Document> chunks, String filename, String department, String workspaceId) {
+        List<String> chunkIds = chunks.stream().map(Document::getId).toList();
+        List<String> contents = chunks.stream().map(Document::getContent).toList();
+        ArrayList<List<String>> nodeHashes = new ArrayList<List<String>>();
+        List<String> current = contents.stream().map(MiARagService::sha256).toList();
+        nodeHashes.add(current);
+        for (int level = 1; level <= this.hierarchyLevels; ++level) {
+            int summaryLevel = level;
+            current = this.mindscapeBuilder.groups(current).stream().map(group -> sha256(summaryLevel + ":" + String.join(",", group))).toList();
+            nodeHashes.add(current);
+            if (current.size() <= 1) break;
+        }
+        Mindscape previous = this.findPrevious(filename, department, workspaceId);
+        Map<String, String> reusable = reusableSummaries(previous);
+        int toRun = 1;
+        for (int level = 1; level < nodeHashes.size(); ++level) {
+            for (String hash : nodeHashes.get(level)) {
+                if (!reusable.containsKey(hash)) {
+                    ++toRun;
+                }
+            }
+        }
+        boolean unchanged = previous != null && toRun == 1 && previous.nodeHashes().equals(nodeHashes);
+        return new BuildPlan(chunkIds, contents, nodeHashes, reusable, previous, unchanged ? 0 : toRun);
+    }
+
+    private Mindscape findPrevious(String filename, String department, String workspaceId) {
+        Query query = new Query((CriteriaDefinition)Criteria.where("filename").is(filename).and("department").is(department).and("workspaceId").is(workspaceId).and("status").is(MindscapeStatus.COMPLETE).and("nodeHashes").exists(true));
+        query.with(Sort.by(Sort.Direction.DESC, "timestamp"));
+        return (Mindscape)this.mongoTemplate.findOne(query, Mindscape.class, MINDSCAPE_COLLECTION);
+    }
+
+    private static Map<String, String> reusableSummaries(Mindscape previous) {
+        HashMap<String, String> reusable = new HashMap<String, String>();
+        if (previous == null || previous.nodeHashes() == null || previous.hierarchy() == null) {
+            return reusable;
+        }
+        int levels = Math.min(previous.nodeHashes().size(), previous.hierarchy().size());
+        for (int level = 1; level < levels; ++level) {
+            List<String> hashes = previous.nodeHashes().get(level);
+            List<String> summaries = previous.hierarchy().get(level);
+            for (int i = 0; i < Math.min(hashes.size(), summaries.size()); ++i) {
+                String summary = summaries.get(i);
+                if (summary != null && !summary.isBlank()) {
+                    reusable.put(hashes.get(i), summary);
+                }
+            }
+        }
+        return reusable;
+    }
+
+    // Same content as the stored mindscape: only the chunk ids it references change.
+    private Mindscape keepUnchanged(BuildPlan plan) {
+        Mindscape previous = plan.previous();
+        this.mongoTemplate.updateFirst(new Query((CriteriaDefinition)Criteria.where("_id").is(previous.id())), new Update().set("hierarchy.0", plan.chunkIds()), MINDSCAPE_COLLECTION);
+        log.info("MiA-RAG: Mindscape for '{}' unchanged; no summaries rebuilt", previous.filename());
+        return previous;
+    }
+
+    private Mindscape createMindscape(BuildPlan plan, String filename, String department, String workspaceId, MindscapeStatus status) {
+        ArrayList<List<String>> hierarchy = new ArrayList<List<String>>();
+        hierarchy.add(plan.chunkIds());
+        Mindscape mindscape = new Mindscape(UUID.randomUUID().toString(), filename, department, workspaceId, "", hierarchy, plan.nodeHashes(), List.of(), plan.chunkIds().size(), System.currentTimeMillis(), status, 0, plan.summariesToRun());
+        this.trackedBuilds.add(mindscape.id());
+        this.mongoTemplate.save(mindscape, MINDSCAPE_COLLECTION);
+        return mindscape;
+    }
+
+    private Mindscape build(Mindscape pending, BuildPlan plan) {
+        String filename = pending.filename();
+        long startTime = System.currentTimeMillis();
+        log.info("MiA-RAG: Building mindscape for '{}' with {} chunks", filename, plan.contents().size());
+        AtomicInteger done = new AtomicInteger();
+        this.activeBuilds.put(pending.id(), done);
+        try {
+            Query byId = new Query((CriteriaDefinition)Criteria.where("_id").is(pending.id()));
+            this.mongoTemplate.updateFirst(byId, new Update().set("status", MindscapeStatus.BUILDING), MINDSCAPE_COLLECTION);
+            // Schedule the whole tree up front; each summary starts once its own inputs are summarized, and
+            // summaries whose subtree did not change are taken from the previous mindscape.
+            ArrayList<List<CompletableFuture<String>>> pendingLevels = new ArrayList<List<CompletableFuture<String>>>();
+            List<CompletableFuture<String>> scheduled = plan.contents().stream().map(CompletableFuture::completedFuture).toList();
+            for (int level = 1; level < plan.nodeHashes().size(); ++level) {
+                List<List<CompletableFuture<String>>> groups = this.mindscapeBuilder.groups(scheduled);
+                List<String> hashes = plan.nodeHashes().get(level);
+                ArrayList<CompletableFuture<String>> next = new ArrayList<CompletableFuture<String>>(groups.size());
+                for (int i = 0; i < groups.size(); ++i) {
+                    String reused = plan.reusable().get(hashes.get(i));
+                    next.add(reused != null ? CompletableFuture.completedFuture(reused) : this.mindscapeBuilder.summarizeAsync(groups.get(i), level, done::incrementAndGet));
+                }
+                pendingLevels.add(next);
+                scheduled = next;
+            }
             ArrayList<List<String>> hierarchy = new ArrayList<List<String>>();
-            hierarchy.add(chunks);
-            List<String> currentLevel = chunks;
-            for (int level = 1; level <= this.hierarchyLevels; ++level) {
-                List<String> summaries = this.mindscapeBuilder.summarizeLevel(currentLevel, level);
+            hierarchy.add(plan.chunkIds());
+            List<String> currentLevel = plan.contents();
+            for (List<CompletableFuture<String>> pendingLevel : pendingLevels) {
+                List<String> summaries = pendingLevel.stream().map(CompletableFuture::join).toList();
                 hierarchy.add(summaries);
                 currentLevel = summaries;
-                log.debug("Level {}: {} summaries", level, summaries.size());
-                if (summaries.size() <= 1) break;
+                // Each finished level is visible to retrieval and progress reporting right away.
+                this.mongoTemplate.updateFirst(byId, new Update().push("hierarchy", summaries).set("summariesDone", done.get()), MINDSCAPE_COLLECTION);
+                log.debug("Level {}: {} summaries", hierarchy.size() - 1, summaries.size());
             }
             String documentMindscape = currentLevel.isEmpty() ? "" : currentLevel.get(0);
             List<String> keyConcepts = this.mindscapeBuilder.extractKeyConcepts(documentMindscape);
-            Mindscape mindscape = new Mindscape(UUID.randomUUID().toString(), filename, department, workspaceId, documentMindscape, hierarchy, keyConcepts, chunks.size(), System.currentTimeMillis());
+            done.incrementAndGet();
+            if (this.isSuperseded(pending)) {
+                // A newer ingest of the file is building or built its own mindscape; this one is stale.
+                this.mongoTemplate.remove(byId, MINDSCAPE_COLLECTION);
+                log.info("MiA-RAG: Discarded mindscape for '{}' superseded by a newer build", filename);
+                return null;
+            }
+            Mindscape mindscape = new Mindscape(pending.id(), filename, pending.department(), pending.workspaceId(), documentMindscape, hierarchy, plan.nodeHashes(), keyConcepts, plan.chunkIds().size(), pending.timestamp(), MindscapeStatus.COMPLETE, done.get(), plan.summariesToRun());
             this.mongoTemplate.save(mindscape, MINDSCAPE_COLLECTION);
-            Document mindscapeDoc = new Document(documentMindscape);
-            mindscapeDoc.getMetadata().put("source", filename);
-            mindscapeDoc.getMetadata().put("dept", department);
-            mindscapeDoc.getMetadata().put("workspaceId", workspaceId);
-            mindscapeDoc.getMetadata().put("type", "mindscape");
-            mindscapeDoc.getMetadata().put("mindscapeId", mindscape.id());
-            mindscapeDoc.getMetadata().put("keyConcepts", String.join((CharSequence)", ", keyConcepts));
-            this.vectorStore.add(List.of(mindscapeDoc));
+            String department = pending.department();
+            String workspaceId = pending.workspaceId();
+            HashMap<String, Object> metadata = new HashMap<String, Object>();
+            metadata.put("source", filename);
+            metadata.put("dept", department);
+            metadata.put("workspaceId", workspaceId);
+            metadata.put("type", "mindscape");
+            metadata.put("mindscapeId", mindscape.id());
+            metadata.put("keyConcepts", String.join((CharSequence)", ", keyConcepts));
+            // The vector shares the mindscape id so it can be removed when the mindscape is replaced.
+            this.vectorStore.add(List.of(new Document(mindscape.id(), documentMindscape, metadata)));
+            this.retireOlderMindscapes(mindscape);
             long elapsed = System.currentTimeMillis() - startTime;
-            log.info("MiA-RAG: Built mindscape for '{}' with {} levels in {}ms", new Object[]{filename, hierarchy.size(), elapsed});
+            log.info("MiA-RAG: Built mindscape for '{}' with {} levels in {}ms ({} of {} summaries reused)", new Object[]{filename, hierarchy.size(), elapsed, plan.summaryCount() - (plan.summariesToRun() - 1), plan.summaryCount()});
             return mindscape;
         }
         catch (Exception e) {
             log.error("MiA-RAG: Failed to build mindscape for '{}': {}", new Object[]{filename, e.getMessage(), e});
+            this.markStatus(pending.id(), MindscapeStatus.FAILED);
             return null;
         }
+        finally {
+            this.activeBuilds.remove(pending.id());
+            this.trackedBuilds.remove(pending.id());
+        }
+    }
+
+    private boolean isSuperseded(Mindscape pending) {
+        Query newer = new Query((CriteriaDefinition)Criteria.where("filename").is(pending.filename()).and("department").is(pending.department()).and("workspaceId").is(pending.workspaceId()).and("_id").ne(pending.id()).and("timestamp").gt(pending.timestamp()).and("status").ne(MindscapeStatus.FAILED));
+        return this.mongoTemplate.exists(newer, Mindscape.class, MINDSCAPE_COLLECTION);
+    }
+
+    // Drop earlier finished mindscapes of the same file and their vectors once the new one is complete. Older
+    // builds still queued or running are left alone; they discard themselves when they finish (isSuperseded).
+    private void retireOlderMindscapes(Mindscape current) {
+        try {
+            Criteria finished = new Criteria().orOperator(Criteria.where("status").in(MindscapeStatus.COMPLETE, MindscapeStatus.FAILED), Criteria.where("status").is(null));
+            Query older = new Query((CriteriaDefinition)Criteria.where("filename").is(current.filename()).and("department").is(current.department()).and("workspaceId").is(current.workspaceId()).and("_id").ne(current.id()).and("timestamp").lt(current.timestamp()).andOperator(finished));
+            List<Mindscape> retired = this.mongoTemplate.findAllAndRemove(older, Mindscape.class, MINDSCAPE_COLLECTION);
+            if (!retired.isEmpty()) {
+                this.vectorStore.delete(retired.stream().map(Mindscape::id).toList());
+            }
+        }
+        catch (Exception e) {
+            log.warn("MiA-RAG: Failed to remove older mindscapes for '{}': {}", current.filename(), e.getMessage());
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString="${sentinel.miarag.build-heartbeat-ms:60000}")
+    public void heartbeatBuilds() {
+        if (!this.enabled) {
+            return;
+        }
+        try {
+            if (!this.trackedBuilds.isEmpty()) {
+                this.mongoTemplate.updateMulti(new Query((CriteriaDefinition)Criteria.where("_id").in(this.trackedBuilds)), new Update().set("heartbeatAt", System.currentTimeMillis()), MINDSCAPE_COLLECTION);
+            }
+        }
+        catch (Exception e) {
+            log.warn("MiA-RAG: Failed to update mindscape build heartbeats: {}", e.getMessage());
+        }
+        this.recoverStaleBuilds();
+    }
+
+    /**
+     * Mark QUEUED/BUILDING mindscapes whose build is no longer running anywhere as FAILED, so status checks and
+     * retrieval stop treating them as in progress. Runs at startup and with every heartbeat.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverStaleBuilds() {
+        if (!this.enabled) {
+            return;
+        }
+        try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(Math.max(1L, this.staleBuildMinutes));
+            Criteria noRecentHeartbeat = new Criteria().orOperator(Criteria.where("heartbeatAt").exists(false), Criteria.where("heartbeatAt").lt(cutoff));
+            Query stale = new Query((CriteriaDefinition)Criteria.where("status").in(MindscapeStatus.QUEUED, MindscapeStatus.BUILDING).and("timestamp").lt(cutoff).and("_id").nin(this.trackedBuilds).andOperator(noRecentHeartbeat));
+            long failed = this.mongoTemplate.updateMulti(stale, new Update().set("status", MindscapeStatus.FAILED), MINDSCAPE_COLLECTION).getModifiedCount();
+            if (failed > 0L) {
+                log.warn("MiA-RAG: Marked {} abandoned mindscape builds as FAILED", failed);
+            }
+        }
+        catch (Exception e) {
+            log.warn("MiA-RAG: Failed to recover stale mindscape builds: {}", e.getMessage());
+        }
+    }
+
+    private void markStatus(String mindscapeId, MindscapeStatus status) {
+        try {
+            this.mongoTemplate.updateFirst(new Query((CriteriaDefinition)Criteria.where("_id").is(mindscapeId)), new Update().set("status", status), MINDSCAPE_COLLECTION);
+        }
+        catch (Exception e) {
+            log.warn("MiA-RAG: Failed to mark mindscape {} as {}: {}", new Object[]{mindscapeId, status, e.getMessage()});
+        }
+    }
+
+    /**
+     * Progress of the latest mindscape for {@code filename} in the current workspace, or null if none exists.
+     */
+    public MindscapeBuildStatus getBuildStatus(String filename, String department) {
+        Mindscape mindscape = this.getMindscape(filename, department);
+        if (mindscape == null) {
+            return null;
+        }
+        AtomicInteger live = this.activeBuilds.get(mindscape.id());
+        int done = live != null ? live.get() : mindscape.summariesDone();
+        MindscapeStatus status = mindscape.status() != null ? mindscape.status() : MindscapeStatus.COMPLETE;
+        int levelsBuilt = mindscape.hierarchy() != null ? Math.max(0, mindscape.hierarchy().size() - 1) : 0;
+        return new MindscapeBuildStatus(mindscape.filename(), status, levelsBuilt, done, mindscape.summariesTotal());
     }
 
     public MindscapeRetrievalResult retrieve(String query, String department) {
@@ -113,9 +438,14 @@ public class MiARagService {
             if (mindscapeId == null || (ms = (Mindscape)this.mongoTemplate.findOne(q = new Query((CriteriaDefinition)Criteria.where((String)"id").is(mindscapeId).and("workspaceId").is(workspaceId)), Mindscape.class, MINDSCAPE_COLLECTION)) == null) continue;
             relevantMindscapes.add(ms);
         }
-        String globalContext = this.buildGlobalContext(relevantMindscapes);
-        Set<String> relevantSources = relevantMindscapes.stream().map(Mindscape::filename).collect(Collectors.toSet());
+        Set<String> relevantSources = relevantMindscapes.stream().map(Mindscape::filename).collect(Collectors.toCollection(HashSet::new));
         List<Document> localDocs = this.vectorStore.similaritySearch(SearchRequest.query((String)query).withTopK(15).withSimilarityThreshold(0.25).withFilterExpression(FilterExpressionBuilder.forDepartmentAndWorkspaceExcludingType(department, workspaceId, "mindscape")));
+        // Documents whose mindscape is still being built have no mindscape vector yet; use their partial hierarchy.
+        for (Mindscape partial : this.findPartialMindscapes(localDocs, relevantSources, department, workspaceId)) {
+            relevantMindscapes.add(partial);
+            relevantSources.add(partial.filename());
+        }
+        String globalContext = this.buildGlobalContext(relevantMindscapes);
         ArrayList<ScoredChunk> scoredChunks = new ArrayList<ScoredChunk>();
         for (int i = 0; i < localDocs.size(); ++i) {
             Document doc = localDocs.get(i);
@@ -151,16 +481,65 @@ public class MiARagService {
             context.append(doc.getContent()).append("\n\n");
         }
         String prompt = "You are SENTINEL with enhanced long-document understanding.\n\nYou have access to:\n1. DOCUMENT OVERVIEW: High-level summary providing global context\n2. DETAILED SOURCES: Specific passages with precise information\n\nWhen answering:\n- Use the overview to understand the big picture\n- Cite specific sources with [filename.ext]\n- Ensure your answer is coherent with the overall document context\n- Connect local details to the broader narrative when relevant\n\nCONTEXT:\n%s\n\nQUERY: %s\n".formatted(context.toString(), query);
+        Future<String> future = null;
         try {
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.INTERACTIVE, Duration.ofSeconds(this.llmTimeoutSeconds), () -> this.chatClient.prompt().user(prompt).call().content()));
+            String response = future.get(this.llmTimeoutSeconds, TimeUnit.SECONDS);
             return response;
         }
+        catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("MiA-RAG: Generation timed out after {}s", this.llmTimeoutSeconds);
+            return null;
+        }
         catch (Exception e) {
             log.error("MiA-RAG: Generation failed: {}", e.getMessage());
             return null;
         }
     }
 
+    private List<Mindscape> findPartialMindscapes(List<Document> localDocs, Set<String> covered, String department, String workspaceId) {
+        Set<String> sources = new HashSet<String>();
+        for (Document doc : localDocs) {
+            Object source = doc.getMetadata().get("source");
+            if (source instanceof String name && !covered.contains(name)) {
+                sources.add(name);
+            }
+        }
+        if (sources.isEmpty()) {
+            return List.of();
+        }
+        try {
+            Query query = new Query((CriteriaDefinition)Criteria.where("filename").in(sources).and("department").is(department).and("workspaceId").is(workspaceId).and("status").in(MindscapeStatus.QUEUED, MindscapeStatus.BUILDING).and("hierarchy.1").exists(true));
+            // summaryOf only needs the highest finished level; the last two levels keep it at index size - 1.
+            query.fields().include("filename", "department", "workspaceId", "documentSummary", "chunkCount", "timestamp", "status", "summariesDone", "summariesTotal").slice("hierarchy", -2);
+            // One partial mindscape per source, most recently started first.
+            LinkedHashMap<String, Mindscape> bySource = new LinkedHashMap<String, Mindscape>();
+            for (Mindscape ms : this.mongoTemplate.find(query.with(Sort.by(Sort.Direction.DESC, "timestamp")), Mindscape.class, MINDSCAPE_COLLECTION)) {
+                bySource.putIfAbsent(ms.filename(), ms);
+                if (bySource.size() >= MAX_PARTIAL_MINDSCAPES) break;
+            }
+            return new ArrayList<Mindscape>(bySource.values());
+        }
+        catch (Exception e) {
+            log.debug("MiA-RAG: Partial mindscape lookup failed: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    // The document summary, or for a mindscape still being built, its highest finished level.
+    private static String summaryOf(Mindscape ms) {
+        if (ms.documentSummary() != null && !ms.documentSummary().isBlank()) {
+            return ms.documentSummary();
+        }
+        List<List<String>> hierarchy = ms.hierarchy();
+        if (hierarchy == null || hierarchy.size() < 2) {
+            return "";
+        }
+        String top = String.join((CharSequence)"\n", hierarchy.get(hierarchy.size() - 1));
+        return top.length() > MAX_PARTIAL_SUMMARY_CHARS ? top.substring(0, MAX_PARTIAL_SUMMARY_CHARS) : top;
+    }
+
     private String buildGlobalContext(List<Mindscape> mindscapes) {
         if (mindscapes.isEmpty()) {
             return "";
@@ -168,8 +547,8 @@ public class MiARagService {
         StringBuilder sb = new StringBuilder();
         for (Mindscape ms : mindscapes) {
             sb.append("Document: ").append(ms.filename()).append("\n");
-            sb.append("Summary: ").append(ms.documentSummary()).append("\n");
-            if (!ms.keyConcepts().isEmpty()) {
+            sb.append("Summary: ").append(summaryOf(ms)).append("\n");
+            if (ms.keyConcepts() != null && !ms.keyConcepts().isEmpty()) {
                 sb.append("Key Concepts: ").append(String.join((CharSequence)", ", ms.keyConcepts())).append("\n");
             }
             sb.append("\n");
@@ -179,6 +558,7 @@ public class MiARagService {
 
     public Mindscape getMindscape(String filename, String department) {
         Query query = new Query((CriteriaDefinition)Criteria.where((String)"filename").is(filename).and("department").is(department).and("workspaceId").is(WorkspaceContext.getCurrentWorkspaceId()));
+        query.with(Sort.by(Sort.Direction.DESC, "timestamp"));
         return (Mindscape)this.mongoTemplate.findOne(query, Mindscape.class, MINDSCAPE_COLLECTION);
     }
 
@@ -186,7 +566,33 @@ public class MiARagService {
         return this.enabled;
     }
 
-    public record Mindscape(String id, String filename, String department, String workspaceId, String documentSummary, List<List<String>> hierarchy, List<String> keyConcepts, int chunkCount, long timestamp) {
+    public enum MindscapeStatus {
+        QUEUED,
+        BUILDING,
+        COMPLETE,
+        FAILED
+    }
+
+    /**
+     * {@code status} is null for mindscapes stored before background building, which were always complete.
+     * {@code hierarchy.get(0)} holds the chunk ids the tree was built from (chunk text in older mindscapes) and
+     * {@code nodeHashes} mirrors {@code hierarchy} with a content hash per node; it is null in older mindscapes,
+     * which are rebuilt in full on the next ingest.
+     */
+    public record Mindscape(String id, String filename, String department, String workspaceId, String documentSummary, List<List<String>> hierarchy, List<List<String>> nodeHashes, List<String> keyConcepts, int chunkCount, long timestamp, MindscapeStatus status, int summariesDone, int summariesTotal) {
+    }
+
+    private record BuildPlan(List<String> chunkIds, List<String> contents, List<List<String>> nodeHashes, Map<String, String> reusable, Mindscape previous, int summariesToRun) {
+        boolean unchanged() {
+            return this.summariesToRun == 0;
+        }
+
+        int summaryCount() {
+            return this.nodeHashes.stream().skip(1L).mapToInt(List::size).sum();
+        }
+    }
+
+    public record MindscapeBuildStatus(String filename, MindscapeStatus status, int levelsBuilt, int summariesDone, int summariesTotal) {
     }
 
     public record MindscapeRetrievalResult(List<Document> localDocs, String globalContext, List<Mindscape> mindscapes) {
@@ -1,48 +1,103 @@
 package com.jreinhal.mercenary.rag.miarag;
 
+import com.jreinhal.mercenary.service.LlmGateway;
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * LLM summarization for MiA-RAG mindscapes.
+ *
+ * <p>Groups are summarized concurrently on virtual threads as a tree: a group's summary starts once the
+ * summaries it combines are done, independent of the rest of its level. At most
+ * {@code sentinel.miarag.summary-concurrency} summaries run at once across all mindscape builds, so a large
+ * document never floods the gateway's background lane (whose queue sheds and times out).</p>
+ */
 @Component
 public class MindscapeBuilder {
     private static final Logger log = LoggerFactory.getLogger(MindscapeBuilder.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     @Value(value="${sentinel.miarag.chunks-per-summary:5}")
-    private int chunksPerSummary;
+    private int chunksPerSummary = 5;
     @Value(value="${sentinel.miarag.summary-max-tokens:200}")
-    private int summaryMaxTokens;
+    private int summaryMaxTokens = 200;
+    private final Semaphore summaryPermits;
+    private final ExecutorService summaryExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mindscape-summary-", 0L).factory());
     private static final String LEVEL_1_PROMPT = "Summarize the following text passages into a cohesive paragraph.\nPreserve key facts, entities, and relationships.\nKeep the summary under %d words.\n\nPassages:\n%s\n\nSummary:\n";
     private static final String LEVEL_2_PROMPT = "Combine these section summaries into a higher-level overview.\nFocus on main themes, key findings, and important connections.\nKeep the summary under %d words.\n\nSection Summaries:\n%s\n\nCombined Summary:\n";
     private static final String LEVEL_3_PROMPT = "Create a comprehensive document summary from these section overviews.\nThis summary should capture:\n1. The document's main purpose/topic\n2. Key findings or conclusions\n3. Important entities and relationships\n4. The overall narrative structure\n\nKeep the summary under %d words.\n\nSection Overviews:\n%s\n\nDocument Summary:\n";
     private static final String CONCEPT_EXTRACTION_PROMPT = "Extract the 5-10 most important concepts from this document summary.\nThese should be key topics, entities, or themes that would help someone\nfind this document.\n\nFormat as a comma-separated list.\n\nSummary:\n%s\n\nKey Concepts:\n";
 
-    public MindscapeBuilder(ChatClient.Builder chatClientBuilder) {
+    public MindscapeBuilder(ChatClient.Builder chatClientBuilder, @Value(value="${sentinel.miarag.summary-concurrency:4}") int summaryConcurrency) {
         this.chatClient = chatClientBuilder.build();
+        this.summaryPermits = new Semaphore(Math.max(1, summaryConcurrency), true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.summaryExecutor.shutdownNow();
     }
 
     public List<String> summarizeLevel(List<String> inputs, int level) {
-        if (inputs.isEmpty()) {
-            return List.of();
-        }
-        if (inputs.size() == 1) {
-            String summary = this.summarizeSingle(inputs.get(0), level);
-            return List.of(summary);
-        }
-        ArrayList<String> summaries = new ArrayList<String>();
-        List<List<String>> groups = this.partition(inputs, this.chunksPerSummary);
-        for (List<String> group : groups) {
-            String combinedInput = String.join((CharSequence)"\n\n---\n\n", group);
-            String summary = this.summarizeGroup(combinedInput, level);
-            summaries.add(summary);
+        List<CompletableFuture<String>> ready = inputs.stream().map(CompletableFuture::completedFuture).toList();
+        return this.summarizeLevelAsync(ready, level, () -> {}).stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Schedule the summaries of one level over inputs that may still be in progress. Each group starts as soon
+     * as its own inputs are done, so a higher level does not wait for the whole level below. Futures keep the
+     * order of their groups; {@code onSummary} runs as each one finishes.
+     */
+    public List<CompletableFuture<String>> summarizeLevelAsync(List<CompletableFuture<String>> inputs, int level, Runnable onSummary) {
+        ArrayList<CompletableFuture<String>> summaries = new ArrayList<CompletableFuture<String>>();
+        for (List<CompletableFuture<String>> group : this.groups(inputs)) {
+            summaries.add(this.summarizeAsync(group, level, onSummary));
         }
         return summaries;
     }
 
+    /**
+     * The groups one level summarizes: runs of {@code chunks-per-summary} inputs, or the single input on its own.
+     */
+    public <T> List<List<T>> groups(List<T> inputs) {
+        if (inputs.size() <= 1) {
+            return inputs.isEmpty() ? List.of() : List.of(inputs);
+        }
+        return this.partition(inputs, this.chunksPerSummary);
+    }
+
+    /**
+     * Summarize one group once all of its inputs are done.
+     */
+    public CompletableFuture<String> summarizeAsync(List<CompletableFuture<String>> group, int level, Runnable onSummary) {
+        return CompletableFuture.allOf(group.toArray(new CompletableFuture[0])).thenApplyAsync(ignored -> {
+            String summary;
+            if (group.size() == 1) {
+                String input = group.get(0).join();
+                summary = this.withPermit(() -> this.summarizeSingle(input, level));
+            } else {
+                String combinedInput = group.stream().map(CompletableFuture::join).collect(Collectors.joining("\n\n---\n\n"));
+                summary = this.withPermit(() -> this.summarizeGroup(combinedInput, level));
+            }
+            onSummary.run();
+            return summary;
+        }, this.summaryExecutor);
+    }
+
     private String summarizeSingle(String input, int level) {
         String prompt = switch (level) {
             case 1 -> LEVEL_1_PROMPT.formatted(this.summaryMaxTokens, input);
@@ -79,9 +134,23 @@ public class MindscapeBuilder {
         return concepts.stream().limit(10L).toList();
     }
 
+    private String withPermit(Supplier<String> summary) {
+        try {
+            this.summaryPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+        try {
+            return summary.get();
+        } finally {
+            this.summaryPermits.release();
+        }
+    }
+
     private String callLLM(String prompt) {
         try {
-            String response = this.chatClient.prompt().user(prompt).call().content();
+            String response = this.llmGateway.call(LlmGateway.Lane.BACKGROUND, () -> this.chatClient.prompt().user(prompt).call().content());
             return response != null ? response.trim() : "";
         }
         catch (Exception e) {
@@ -91,6 +160,7 @@ public class MindscapeBuilder {
     }
 
     private <T> List<List<T>> partition(List<T> list, int size) {
+        size = Math.max(1, size);
         ArrayList<List<T>> partitions = new ArrayList<List<T>>();
         for (int i = 0; i < list.size(); i += size) {
             partitions.add(list.subList(i, Math.min(i + size, list.size())));
@@ -1,5 +1,6 @@
 package com.jreinhal.mercenary.rag.qucorag;
 
+import com.jreinhal.mercenary.service.SidecarHttpClients;
 import com.jreinhal.mercenary.util.LogSanitizer;
 import jakarta.annotation.PostConstruct;
 import java.time.Duration;
@@ -8,7 +9,6 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.core.env.Environment;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -21,6 +21,7 @@ import org.springframework.web.client.RestTemplate;
 public class InfiniGramClient {
     private static final Logger log = LoggerFactory.getLogger(InfiniGramClient.class);
     private static final String API_URL = "https://api.infini-gram.io/";
+    static final String SIDECAR = "infini-gram";
     private static final String DEFAULT_INDEX = "v4_olmo-2-0325-32b-instruct_llama";
     @Value(value="${sentinel.qucorag.infini-gram-enabled:false}")
     private boolean enabled;
@@ -30,13 +31,11 @@ public class InfiniGramClient {
     private final RestTemplate restTemplate;
     private final int timeoutMs;
 
-    public InfiniGramClient(RestTemplateBuilder restTemplateBuilder, Environment environment, @Value("${sentinel.qucorag.infini-gram-timeout-ms:5000}") int timeoutMs) {
+    public InfiniGramClient(SidecarHttpClients httpClients, Environment environment, @Value("${sentinel.qucorag.infini-gram-timeout-ms:5000}") int timeoutMs, @Value("${sentinel.qucorag.infini-gram-max-connections:8}") int maxConnections) {
         this.environment = environment;
         this.timeoutMs = timeoutMs;
-        this.restTemplate = restTemplateBuilder
-                .connectTimeout(Duration.ofMillis(timeoutMs))
-                .readTimeout(Duration.ofMillis(timeoutMs))
-                .build();
+        // R-04: the pooled client never follows redirects
+        this.restTemplate = httpClients.restTemplate(SIDECAR, maxConnections, Duration.ofMillis(timeoutMs), Duration.ofMillis(timeoutMs));
     }
 
     @PostConstruct
@@ -88,6 +87,10 @@ public class InfiniGramClient {
             Map<String, String> payload = Map.of("index", this.indexName, "query_type", queryType, "query", query);
             HttpEntity<Map<String, String>> request = new HttpEntity<>(payload, headers);
             ResponseEntity<Map> response = this.restTemplate.postForEntity(API_URL, request, Map.class, new Object[0]);
+            if (response.getStatusCode().is3xxRedirection()) {
+                log.warn("Infini-gram API returned redirect; not following");
+                return -1L;
+            }
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map body = (Map)response.getBody();
                 if (body.containsKey("error")) {
@@ -1,11 +1,13 @@
 package com.jreinhal.mercenary.rag.qucorag;
 
 import com.jreinhal.mercenary.rag.qucorag.EntityExtractor;
+import com.jreinhal.mercenary.service.LlmGateway;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
@@ -13,6 +15,7 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -20,6 +23,8 @@ import org.springframework.stereotype.Component;
 public class LlmEntityExtractor {
     private static final Logger log = LoggerFactory.getLogger(LlmEntityExtractor.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final EntityExtractor patternExtractor;
     @Value(value="${sentinel.qucorag.llm-extraction-enabled:false}")
     private boolean enabled;
@@ -45,7 +50,7 @@ public class LlmEntityExtractor {
             long startTime = System.currentTimeMillis();
             String truncatedText = text.length() > 2000 ? text.substring(0, 2000) + "..." : text;
             String prompt = EXTRACTION_PROMPT.formatted(truncatedText);
-            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().user(prompt).call().content());
+            Future<String> future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.CONTROL, Duration.ofMillis(this.timeoutMs), () -> this.chatClient.prompt().user(prompt).call().content()));
             String response;
             try {
                 response = future.get(this.timeoutMs, TimeUnit.MILLISECONDS);
@@ -75,7 +80,7 @@ public class LlmEntityExtractor {
         try {
             String truncatedText = text.length() > 2000 ? text.substring(0, 2000) + "..." : text;
             String prompt = EXTRACTION_PROMPT.formatted(truncatedText);
-            CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().user(prompt).call().content());
+            Future<String> future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.CONTROL, Duration.ofMillis(this.timeoutMs), () -> this.chatClient.prompt().user(prompt).call().content()));
             String response;
             try {
                 response = future.get(this.timeoutMs, TimeUnit.MILLISECONDS);
@@ -2,16 +2,23 @@ package com.jreinhal.mercenary.rag.selfrag;
 
 import com.jreinhal.mercenary.reasoning.ReasoningStep;
 import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.service.LlmGateway;
 import jakarta.annotation.PostConstruct;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -19,6 +26,8 @@ import org.springframework.stereotype.Service;
 public class SelfRagService {
     private static final Logger log = LoggerFactory.getLogger(SelfRagService.class);
     private final ChatClient chatClient;
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
     private final ReasoningTracer reasoningTracer;
     @Value(value="${sentinel.selfrag.enabled:true}")
     private boolean enabled;
@@ -26,6 +35,8 @@ public class SelfRagService {
     private int maxUncertainClaims;
     @Value(value="${sentinel.selfrag.re-retrieve-on-uncertain:true}")
     private boolean reRetrieveOnUncertain;
+    @Value(value="${sentinel.llm.timeout-seconds:60}")
+    private int llmTimeoutSeconds = 60;
     private static final Pattern SUPPORTED_PATTERN = Pattern.compile("\\[SUPPORTED\\]\\s*([^\\[]+)", 2);
     private static final Pattern INFERRED_PATTERN = Pattern.compile("\\[INFERRED\\]\\s*([^\\[]+)", 2);
     private static final Pattern UNCERTAIN_PATTERN = Pattern.compile("\\[UNCERTAIN\\]\\s*([^\\[]+)", 2);
@@ -52,7 +63,7 @@ public class SelfRagService {
         }
         String contextStr = this.buildContextString(context);
         try {
-            rawResponse = this.chatClient.prompt().system(SELF_RAG_SYSTEM_PROMPT).user(this.buildUserPrompt(query, contextStr)).call().content();
+            rawResponse = this.callInteractive(() -> this.chatClient.prompt().system(SELF_RAG_SYSTEM_PROMPT).user(this.buildUserPrompt(query, contextStr)).call().content());
         }
         catch (Exception e) {
             log.error("Self-RAG generation failed: {}", e.getMessage());
@@ -75,7 +86,7 @@ public class SelfRagService {
         String contextStr = this.buildContextString(context);
         String verificationPrompt = "Analyze this response and verify each claim against the provided context.\nMark each claim with: [SUPPORTED], [INFERRED], [UNCERTAIN], or [UNSUPPORTED].\n\nRESPONSE TO VERIFY:\n%s\n\nCONTEXT:\n%s\n\nProvide the response with reflection tokens added:\n".formatted(response, contextStr);
         try {
-            String verifiedResponse = this.chatClient.prompt().system("You verify claims against provided context.").user(verificationPrompt).call().content();
+            String verifiedResponse = this.llmGateway.call(LlmGateway.Lane.RERANK, () -> this.chatClient.prompt().system("You verify claims against provided context.").user(verificationPrompt).call().content());
             List<ReflectedClaim> claims = this.parseReflectionTokens(verifiedResponse);
             List<String> uncertainClaims = claims.stream().filter(c -> c.token() == ReflectionToken.UNCERTAIN || c.token() == ReflectionToken.UNSUPPORTED).map(ReflectedClaim::claim).toList();
             double confidence = this.calculateConfidence(claims);
@@ -134,6 +145,18 @@ public class SelfRagService {
         return sb.toString();
     }
 
+    // Bounded by the LLM timeout, lane queueing included; a call that misses it is cancelled so it frees its slot.
+    private String callInteractive(Supplier<String> call) throws Exception {
+        Future<String> future = this.llmGateway.submit(() -> this.llmGateway.call(LlmGateway.Lane.INTERACTIVE, Duration.ofSeconds(this.llmTimeoutSeconds), call));
+        try {
+            return future.get(this.llmTimeoutSeconds, TimeUnit.SECONDS);
+        }
+        catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
     private String buildUserPrompt(String query, String context) {
         return "CONTEXT:\n%s\n\nQUESTION: %s\n\nAnswer the question using the context. Mark each claim with reflection tokens.\n".formatted(context, query);
     }
@@ -141,7 +164,7 @@ public class SelfRagService {
     private SelfRagResult standardGeneration(String query, List<Document> context, long startTime) {
         String contextStr = this.buildContextString(context);
         try {
-            String response = this.chatClient.prompt().user("Context: " + contextStr + "\n\nQuestion: " + query).call().content();
+            String response = this.callInteractive(() -> this.chatClient.prompt().user("Context: " + contextStr + "\n\nQuestion: " + query).call().content());
             long elapsed = System.currentTimeMillis() - startTime;
             return new SelfRagResult(response, response, List.of(), false, List.of(), 0.7, Map.of("mode", "standard", "elapsed", elapsed));
         }
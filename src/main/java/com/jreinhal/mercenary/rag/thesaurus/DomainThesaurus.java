@@ -2,12 +2,14 @@ package com.jreinhal.mercenary.rag.thesaurus;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jreinhal.mercenary.util.AhoCorasick;
 import com.jreinhal.mercenary.util.FilterExpressionBuilder;
 import com.jreinhal.mercenary.util.LogSanitizer;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import jakarta.annotation.PostConstruct;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -35,6 +37,10 @@ import org.springframework.stereotype.Service;
  * - expansions are bounded and deduplicated
  * - unit conversions are opt-in via config
  * - vector indexing of entries is opt-in via config and uses {@code metadata.type=thesaurus}
+ *
+ * Term lookup uses one Aho-Corasick automaton per department (GLOBAL entries plus the department's own),
+ * built in {@link #rebuildIndex()}, so a query is scanned once regardless of thesaurus size. Matches are
+ * the same as each entry's {@code (?i)\b...\b} pattern would find.
  */
 @Service
 public class DomainThesaurus {
@@ -51,8 +57,8 @@ public class DomainThesaurus {
     @Nullable
     private final VectorStore vectorStore;
 
-    private List<Entry> globalEntries = List.of();
-    private Map<String, List<Entry>> deptEntries = Map.of();
+    private TermIndex globalIndex = TermIndex.EMPTY;
+    private Map<String, TermIndex> deptIndexes = Map.of();
 
     private Cache<String, Boolean> indexedCache;
     private final ConcurrentMap<String, Object> indexLocks = new ConcurrentHashMap<>();
@@ -86,16 +92,16 @@ public class DomainThesaurus {
         }
         int cap = Math.min(Math.max(1, maxVariants), Math.max(1, this.props.getMaxQueryVariants()));
 
-        List<Entry> entries = this.entriesFor(department);
+        TermIndex index = this.indexFor(department);
+        BitSet matched = index.matching(query);
         LinkedHashSet<String> variants = new LinkedHashSet<>();
 
-        for (Entry entry : entries) {
+        // Entry order (GLOBAL first) decides which variants survive the cap.
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
             if (variants.size() >= cap) {
                 break;
             }
-            if (!entry.matches(query)) {
-                continue;
-            }
+            Entry entry = index.entries().get(i);
             for (String expansion : entry.expansions()) {
                 if (variants.size() >= cap) {
                     break;
@@ -190,7 +196,7 @@ public class DomainThesaurus {
 
     private List<ThesaurusMatch> lexicalSearch(String term, @Nullable String department, int topK) {
         String needle = term.trim().toLowerCase(Locale.ROOT);
-        List<Entry> entries = this.entriesFor(department);
+        List<Entry> entries = this.indexFor(department).entries();
         ArrayList<ScoredMatch> matches = new ArrayList<>();
         for (Entry entry : entries) {
             int score = entry.lexicalScore(needle);
@@ -224,7 +230,7 @@ public class DomainThesaurus {
                 if (this.indexedCache != null && Boolean.TRUE.equals(this.indexedCache.getIfPresent(cacheKey))) {
                     return;
                 }
-                List<Entry> entries = this.entriesFor(dept);
+                List<Entry> entries = this.indexFor(dept).entries();
                 if (entries.isEmpty()) {
                     if (this.indexedCache != null) {
                         this.indexedCache.put(cacheKey, Boolean.TRUE);
@@ -258,14 +264,12 @@ public class DomainThesaurus {
         }
     }
 
-    private List<Entry> entriesFor(@Nullable String department) {
+    private TermIndex indexFor(@Nullable String department) {
         String dept = normalizeDept(department);
-        List<Entry> out = new ArrayList<>();
-        out.addAll(this.globalEntries);
-        if (dept != null) {
-            out.addAll(this.deptEntries.getOrDefault(dept, List.of()));
+        if (dept == null) {
+            return this.globalIndex;
         }
-        return out;
+        return this.deptIndexes.getOrDefault(dept, this.globalIndex);
     }
 
     private static String normalizeDept(@Nullable String department) {
@@ -296,8 +300,8 @@ public class DomainThesaurus {
     private void rebuildIndex() {
         Map<String, Map<String, List<String>>> raw = props != null ? props.getEntries() : Map.of();
         if (raw == null || raw.isEmpty()) {
-            this.globalEntries = List.of();
-            this.deptEntries = Map.of();
+            this.globalIndex = TermIndex.EMPTY;
+            this.deptIndexes = Map.of();
             return;
         }
 
@@ -332,12 +336,15 @@ public class DomainThesaurus {
             }
         }
 
-        this.globalEntries = Collections.unmodifiableList(globals);
-        java.util.HashMap<String, List<Entry>> frozen = new java.util.HashMap<>();
+        java.util.HashMap<String, TermIndex> indexes = new java.util.HashMap<>();
         for (Map.Entry<String, List<Entry>> e : byDept.entrySet()) {
-            frozen.put(e.getKey(), Collections.unmodifiableList(e.getValue()));
+            List<Entry> combined = new ArrayList<>(globals.size() + e.getValue().size());
+            combined.addAll(globals);
+            combined.addAll(e.getValue());
+            indexes.put(e.getKey(), new TermIndex(combined));
         }
-        this.deptEntries = Collections.unmodifiableMap(frozen);
+        this.globalIndex = new TermIndex(globals);
+        this.deptIndexes = Collections.unmodifiableMap(indexes);
     }
 
     private static List<String> unitConversionVariants(String query, int cap) {
@@ -400,18 +407,77 @@ public class DomainThesaurus {
 
     public record ThesaurusMatch(String term, List<String> expansions, String department, String source) {}
 
-    private record Entry(String dept, String term, List<String> expansions, Pattern pattern, String termLower) {
+    /**
+     * Entries visible to one department, in lookup order, with a case-insensitive automaton over their terms.
+     */
+    private static final class TermIndex {
+        static final TermIndex EMPTY = new TermIndex(List.of());
+
+        private final List<Entry> entries;
+        private final AhoCorasick terms;
+
+        TermIndex(List<Entry> entries) {
+            this.entries = Collections.unmodifiableList(entries);
+            // ASCII-only folding, the same as the entries' (?i) patterns.
+            this.terms = AhoCorasick.of(entries.stream().map(Entry::term).toList(), true);
+        }
+
+        List<Entry> entries() {
+            return this.entries;
+        }
+
+        /**
+         * Indices of the entries whose term occurs in {@code query}, honoring word boundaries where the entry uses them.
+         */
+        BitSet matching(String query) {
+            BitSet found = new BitSet(this.entries.size());
+            this.terms.scan(query, (keyword, start, end) -> {
+                if (!found.get(keyword)
+                        && (!this.entries.get(keyword).wordBoundaries() || isWordBounded(query, start, end))) {
+                    found.set(keyword);
+                }
+                return true;
+            });
+            return found;
+        }
+
+        // Same test as \b on both sides of a word-character term: ASCII word characters, and a non-spacing
+        // mark counts as part of the word when it follows a letter or digit.
+        private static boolean isWordBounded(String text, int start, int end) {
+            return !(start > 0 && isWordSide(text, start - 1)) && !(end < text.length() && isWordSide(text, end));
+        }
+
+        private static boolean isWordSide(String text, int index) {
+            char c = text.charAt(index);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+                return true;
+            }
+            if (Character.getType(Character.codePointAt(text, index)) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+            for (int i = index; i >= 0; --i) {
+                int cp = Character.codePointAt(text, i);
+                if (Character.isLetterOrDigit(cp)) {
+                    return true;
+                }
+                if (Character.getType(cp) != Character.NON_SPACING_MARK) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Entry(String dept, String term, List<String> expansions, Pattern pattern, boolean wordBoundaries,
+                         String termLower, List<String> expansionsLower) {
         static Entry of(String dept, String term, List<String> expansions) {
             boolean wordBoundaries = term.matches("[A-Za-z0-9_]{2,}");
             String regex = wordBoundaries
                     ? "(?i)\\b" + Pattern.quote(term) + "\\b"
                     : "(?i)" + Pattern.quote(term);
             Pattern pattern = Pattern.compile(regex);
-            return new Entry(dept, term, expansions, pattern, term.toLowerCase(Locale.ROOT));
-        }
-
-        boolean matches(String query) {
-            return pattern.matcher(query).find();
+            List<String> expansionsLower = expansions.stream().map(e -> e.toLowerCase(Locale.ROOT)).toList();
+            return new Entry(dept, term, expansions, pattern, wordBoundaries, term.toLowerCase(Locale.ROOT), expansionsLower);
         }
 
         String replace(String query, String replacement) {
@@ -425,11 +491,7 @@ public class DomainThesaurus {
             if (termLower.contains(needleLower) || needleLower.contains(termLower)) {
                 return 60;
             }
-            for (String e : expansions) {
-                if (e == null) {
-                    continue;
-                }
-                String lower = e.toLowerCase(Locale.ROOT);
+            for (String lower : expansionsLower) {
                 if (lower.equals(needleLower)) {
                     return 90;
                 }
@@ -74,6 +74,67 @@ public class ReasoningTracer {
         return trace;
     }
 
+    /**
+     * Bind a scratch trace to the current thread for work fanned out from a traced request. Steps the
+     * worker records land in the scratch trace and are merged back by the request thread with
+     * {@link #mergeScratchTrace}, so step order does not depend on thread scheduling.
+     */
+    public ReasoningTrace bindScratchTrace(ReasoningTrace parent) {
+        if (parent == null || !this.enabled) {
+            return null;
+        }
+        ReasoningTrace scratch = new ReasoningTrace(parent.getQuery(), parent.getDepartment(), parent.getUserId(), parent.getWorkspaceId());
+        this.currentTrace.set(scratch);
+        return scratch;
+    }
+
+    public void unbindScratchTrace() {
+        this.currentTrace.remove();
+    }
+
+    /**
+     * Append a scratch trace's steps and metrics to the current trace, suffixing step labels.
+     */
+    public void mergeScratchTrace(ReasoningTrace scratch, String labelSuffix) {
+        ReasoningTrace trace = this.currentTrace.get();
+        if (trace == null || scratch == null) {
+            return;
+        }
+        String suffix = labelSuffix != null ? labelSuffix : "";
+        for (ReasoningStep step : scratch.getSteps()) {
+            trace.addStep(ReasoningStep.of(step.type(), step.label() + suffix, step.detail(), step.durationMs(), step.data()));
+        }
+        scratch.getMetrics().forEach(trace::addMetric);
+    }
+
+    /**
+     * Divert steps recorded on this thread into a scratch trace until {@link #closeSandbox} is called.
+     * Used for speculative work whose steps must not appear in the request trace unless it is kept.
+     */
+    public Sandbox openSandbox() {
+        ReasoningTrace parent = this.currentTrace.get();
+        if (parent == null || !this.enabled) {
+            return null;
+        }
+        ReasoningTrace scratch = new ReasoningTrace(parent.getQuery(), parent.getDepartment(), parent.getUserId(), parent.getWorkspaceId());
+        this.currentTrace.set(scratch);
+        return new Sandbox(parent, scratch);
+    }
+
+    /**
+     * Rebind the request trace that was current when {@code sandbox} was opened, appending the sandboxed
+     * steps when {@code keep} is true and discarding them otherwise.
+     */
+    public void closeSandbox(Sandbox sandbox, boolean keep) {
+        if (sandbox == null) {
+            return;
+        }
+        this.currentTrace.set(sandbox.parent());
+        if (keep) {
+            this.mergeScratchTrace(sandbox.scratch(), "");
+        }
+    }
+
     public ReasoningTrace getTrace(String traceId) {
         return this.traceCache.get(traceId);
     }
@@ -128,4 +189,7 @@ public class ReasoningTracer {
             return new TimedResult<T>(result, detail, data);
         }
     }
+
+    public record Sandbox(ReasoningTrace parent, ReasoningTrace scratch) {
+    }
 }
@@ -1,27 +1,67 @@
 package com.jreinhal.mercenary.reporting;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.jreinhal.mercenary.model.AuditEvent;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuditExportService {
+    private static final Logger log = LoggerFactory.getLogger(AuditExportService.class);
     private static final int MAX_LIMIT = 5000;
+    private static final String AUDIT_COLLECTION = "audit_log";
+    private static final String CSV_HEADER = "timestamp,eventType,userId,username,workspaceId,action,resourceType,resourceId,outcome,outcomeReason,sourceIp,sessionId";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
     private final MongoTemplate mongoTemplate;
     private final ObjectMapper objectMapper;
 
+    @Value("${sentinel.reporting.audit-stream.cursor-batch-size:1000}")
+    private int cursorBatchSize = 1000;
+
     public AuditExportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
         this.mongoTemplate = mongoTemplate;
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Create the index that serves {@link #streamExport}: its workspace filter, timestamp range and
+     * (timestamp, id) order, so the cursor walks the index instead of sorting the workspace's events in memory.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            this.mongoTemplate.indexOps(AUDIT_COLLECTION).ensureIndex(new Index()
+                    .on("workspaceId", Sort.Direction.ASC)
+                    .on("timestamp", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC));
+        } catch (Exception e) {
+            log.warn("Failed to ensure audit export index: {}", e.getMessage());
+        }
+    }
+
     public AuditExportResult buildExport(Instant since, Instant until, int limit) {
         String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
         Query query = new Query(Criteria.where("workspaceId").is(workspaceId));
@@ -39,19 +79,114 @@ public class AuditExportService {
         if (limit > 0) {
             query.limit(Math.min(limit, MAX_LIMIT));
         }
-        List<AuditEvent> events = mongoTemplate.find(query, AuditEvent.class, "audit_log");
+        List<AuditEvent> events = mongoTemplate.find(query, AuditEvent.class, AUDIT_COLLECTION);
         return new AuditExportResult(workspaceId, events);
     }
 
+    /**
+     * Resolve a streaming export range. {@code resumeAfter} is the id of the last event a client received from an
+     * interrupted export of the same range; the export then continues with the event after it.
+     *
+     * @throws IllegalArgumentException if {@code resumeAfter} is not an event in the workspace
+     */
+    public ExportRange resolveRange(String workspaceId, @Nullable Instant since, @Nullable Instant until,
+                                    @Nullable String resumeAfter) {
+        if (resumeAfter == null || resumeAfter.isBlank()) {
+            return new ExportRange(workspaceId, since, until, null, null);
+        }
+        Query lookup = new Query(Criteria.where("id").is(resumeAfter.trim()).and("workspaceId").is(workspaceId));
+        lookup.fields().include("timestamp");
+        AuditEvent last = mongoTemplate.findOne(lookup, AuditEvent.class, AUDIT_COLLECTION);
+        if (last == null || last.getTimestamp() == null) {
+            throw new IllegalArgumentException("Unknown resume position");
+        }
+        return new ExportRange(workspaceId, since, until, last.getTimestamp(), last.getId());
+    }
+
+    /**
+     * Write every event in {@code range} to {@code out}, oldest first, reading from a Mongo cursor so memory use
+     * does not depend on the number of events. Rows carry the event id so an interrupted download can be
+     * resumed with {@link #resolveRange}. {@code out} is not closed.
+     *
+     * @return number of events written
+     */
+    public long streamExport(ExportRange range, StreamFormat format, boolean gzip, OutputStream out) throws IOException {
+        Query query = new Query(Criteria.where("workspaceId").is(range.workspaceId()));
+        if (range.since() != null || range.until() != null) {
+            Criteria tsCriteria = Criteria.where("timestamp");
+            if (range.since() != null) {
+                tsCriteria = tsCriteria.gte(range.since());
+            }
+            if (range.until() != null) {
+                tsCriteria = tsCriteria.lte(range.until());
+            }
+            query.addCriteria(tsCriteria);
+        }
+        if (range.afterTimestamp() != null) {
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("timestamp").gt(range.afterTimestamp()),
+                    Criteria.where("timestamp").is(range.afterTimestamp()).and("id").gt(range.afterId())));
+        }
+        // (timestamp, id) is a total order, which is what makes resuming after an id exact.
+        query.with(Sort.by(Sort.Direction.ASC, "timestamp").and(Sort.by(Sort.Direction.ASC, "id")));
+        query.cursorBatchSize(Math.max(1, this.cursorBatchSize));
+        long written;
+        try (Stream<AuditEvent> events = mongoTemplate.stream(query, AuditEvent.class, AUDIT_COLLECTION)) {
+            written = this.writeEvents(events.iterator(), format, gzip, out);
+        }
+        log.info("Streamed {} audit events for workspace {}", written, range.workspaceId());
+        return written;
+    }
+
+    /**
+     * Serialize {@code events} as CSV (with a header) or NDJSON. Exposed for streaming sources other than Mongo.
+     */
+    public long writeEvents(Iterator<AuditEvent> events, StreamFormat format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(new NonClosingOutputStream(out), WRITE_BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : new NonClosingOutputStream(out),
+                StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        ObjectWriter json = format == StreamFormat.NDJSON ? objectMapper.writer() : null;
+        StringBuilder row = new StringBuilder(256);
+        long written = 0L;
+        try (writer) {
+            if (format == StreamFormat.CSV) {
+                writer.write("id,");
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            while (events.hasNext()) {
+                AuditEvent event = events.next();
+                if (json != null) {
+                    writer.write(json.writeValueAsString(event));
+                } else {
+                    row.setLength(0);
+                    row.append(csv(event.getId())).append(',');
+                    appendCsvRow(row, event);
+                    writer.append(row);
+                }
+                writer.write('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
     public String toJson(List<AuditEvent> events) throws Exception {
         return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(events);
     }
 
     public String toCsv(List<AuditEvent> events) {
         StringBuilder sb = new StringBuilder();
-        sb.append("timestamp,eventType,userId,username,workspaceId,action,resourceType,resourceId,outcome,outcomeReason,sourceIp,sessionId\n");
+        sb.append(CSV_HEADER).append('\n');
         for (AuditEvent event : events) {
-            sb.append(csv(event.getTimestamp() != null ? event.getTimestamp().toString() : ""))
+            appendCsvRow(sb, event);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void appendCsvRow(StringBuilder sb, AuditEvent event) {
+        sb.append(csv(event.getTimestamp() != null ? event.getTimestamp().toString() : ""))
               .append(',')
               .append(csv(event.getEventType() != null ? event.getEventType().name() : ""))
               .append(',')
@@ -73,10 +208,7 @@ public class AuditExportService {
               .append(',')
               .append(csv(event.getSourceIp()))
               .append(',')
-              .append(csv(event.getSessionId()))
-              .append('\n');
-        }
-        return sb.toString();
+              .append(csv(event.getSessionId()));
     }
 
     private String csv(String value) {
@@ -93,4 +225,30 @@ public class AuditExportService {
 
     public record AuditExportResult(String workspaceId, List<AuditEvent> events) {
     }
+
+    public enum StreamFormat {
+        CSV,
+        NDJSON
+    }
+
+    public record ExportRange(String workspaceId, @Nullable Instant since, @Nullable Instant until,
+                              @Nullable Instant afterTimestamp, @Nullable String afterId) {
+    }
+
+    // Lets the writers close (and gzip finish) without closing the caller's stream.
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
 }
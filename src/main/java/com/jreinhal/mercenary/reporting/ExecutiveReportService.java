@@ -4,14 +4,13 @@ import com.jreinhal.mercenary.connectors.ConnectorPolicy;
 import com.jreinhal.mercenary.connectors.ConnectorService;
 import com.jreinhal.mercenary.core.license.LicenseService;
 import com.jreinhal.mercenary.model.AuditEvent;
-import com.jreinhal.mercenary.model.Feedback;
-import com.jreinhal.mercenary.repository.FeedbackRepository;
+import com.jreinhal.mercenary.service.FeedbackService;
 import com.jreinhal.mercenary.service.HipaaPolicy;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 import com.jreinhal.mercenary.workspace.WorkspacePolicy;
+import com.jreinhal.mercenary.workspace.WorkspaceUsageService;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -21,34 +20,38 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class ExecutiveReportService {
-    private static final String AUDIT_COLLECTION = "audit_log";
     private static final String HIPAA_AUDIT_COLLECTION = "hipaa_audit_log";
-    private static final String VECTOR_COLLECTION = "vector_store";
     private static final String ACTIVE_SESSIONS_COLLECTION = "active_sessions";
     private static final String TRACES_COLLECTION = "reasoning_traces";
 
     private final MongoTemplate mongoTemplate;
-    private final FeedbackRepository feedbackRepository;
+    private final FeedbackService feedbackService;
     private final LicenseService licenseService;
     private final ConnectorService connectorService;
     private final ConnectorPolicy connectorPolicy;
     private final WorkspacePolicy workspacePolicy;
     private final HipaaPolicy hipaaPolicy;
+    private final UsageRollupService usageRollupService;
+    private final WorkspaceUsageService workspaceUsageService;
 
     public ExecutiveReportService(MongoTemplate mongoTemplate,
-                                  FeedbackRepository feedbackRepository,
+                                  FeedbackService feedbackService,
                                   LicenseService licenseService,
                                   ConnectorService connectorService,
                                   ConnectorPolicy connectorPolicy,
                                   WorkspacePolicy workspacePolicy,
-                                  HipaaPolicy hipaaPolicy) {
+                                  HipaaPolicy hipaaPolicy,
+                                  UsageRollupService usageRollupService,
+                                  WorkspaceUsageService workspaceUsageService) {
         this.mongoTemplate = mongoTemplate;
-        this.feedbackRepository = feedbackRepository;
+        this.feedbackService = feedbackService;
         this.licenseService = licenseService;
         this.connectorService = connectorService;
         this.connectorPolicy = connectorPolicy;
         this.workspacePolicy = workspacePolicy;
         this.hipaaPolicy = hipaaPolicy;
+        this.usageRollupService = usageRollupService;
+        this.workspaceUsageService = workspaceUsageService;
     }
 
     public ExecutiveReport buildExecutiveReport(int days) {
@@ -58,7 +61,7 @@ public class ExecutiveReportService {
         String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
         LicenseService.Edition edition = licenseService.getEdition();
 
-        long documents = countVectorDocs(workspaceId);
+        long documents = workspaceUsageService.getContentTotals(workspaceId).chunks();
         long activeSessions = countCollection(ACTIVE_SESSIONS_COLLECTION, workspaceId);
         long traces = countCollection(TRACES_COLLECTION, workspaceId);
         long queries = countAuditEvents(AuditEvent.EventType.QUERY_EXECUTED, workspaceId, since);
@@ -87,18 +90,6 @@ public class ExecutiveReportService {
         return new ExecutiveReport(workspaceId, edition.name(), now, windowDays, usage, security, feedback, connectors, system);
     }
 
-    private long countVectorDocs(String workspaceId) {
-        try {
-            if (!mongoTemplate.collectionExists(VECTOR_COLLECTION)) {
-                return 0L;
-            }
-            Query query = new Query(Criteria.where("metadata.workspaceId").is(workspaceId));
-            return mongoTemplate.count(query, VECTOR_COLLECTION);
-        } catch (Exception e) {
-            return 0L;
-        }
-    }
-
     private long countCollection(String collection, String workspaceId) {
         try {
             if (!mongoTemplate.collectionExists(collection)) {
@@ -112,17 +103,7 @@ public class ExecutiveReportService {
     }
 
     private long countAuditEvents(AuditEvent.EventType type, String workspaceId, Instant since) {
-        try {
-            if (!mongoTemplate.collectionExists(AUDIT_COLLECTION)) {
-                return 0L;
-            }
-            Query query = new Query(Criteria.where("eventType").is(type)
-                    .and("workspaceId").is(workspaceId)
-                    .and("timestamp").gte(since));
-            return mongoTemplate.count(query, AUDIT_COLLECTION);
-        } catch (Exception e) {
-            return 0L;
-        }
+        return usageRollupService.countSince(workspaceId, type, since);
     }
 
     private long countHipaaEvents(String workspaceId, Instant since) {
@@ -161,15 +142,9 @@ public class ExecutiveReportService {
         if (!enabled) {
             return new ExecutiveReport.FeedbackStats(0L, 0L, 0L, 0.0, Map.of(), 0L, false);
         }
-        List<Feedback> recent = feedbackRepository.findByTimestampBetweenAndWorkspaceId(since, Instant.now(), workspaceId);
-        long positive = recent.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.POSITIVE).count();
-        long negative = recent.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.NEGATIVE).count();
-        long total = positive + negative;
-        double satisfaction = total > 0 ? (double) positive / (double) total * 100.0 : 0.0;
-        Map<String, Long> categories = recent.stream()
-                .filter(f -> f.getFeedbackType() == Feedback.FeedbackType.NEGATIVE && f.getCategory() != null)
-                .collect(Collectors.groupingBy(f -> f.getCategory().name(), Collectors.counting()));
-        long openIssues = recent.stream().filter(f -> f.getResolutionStatus() == Feedback.ResolutionStatus.OPEN).count();
-        return new ExecutiveReport.FeedbackStats(total, positive, negative, satisfaction, categories, openIssues, true);
+        FeedbackService.FeedbackSummary summary = feedbackService.summarize(workspaceId, null, since, Instant.now());
+        Map<String, Long> categories = summary.categoryBreakdown().entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().name(), Map.Entry::getValue));
+        return new ExecutiveReport.FeedbackStats(summary.total(), summary.positive(), summary.negative(), summary.satisfactionRate(), categories, summary.openIssues(), true);
     }
 }
@@ -0,0 +1,266 @@
+package com.jreinhal.mercenary.reporting;
+
+import com.mongodb.client.result.DeleteResult;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hourly per-workspace latency rollups for SLA reporting.
+ *
+ * <p>Each completed trace adds its duration to the {@link LatencySketch} bucket counts of its hour with a single
+ * atomic upsert, so SLA percentiles for any window are computed by merging at most 24 documents per day
+ * instead of loading every trace. Rollups outlive the raw traces (which are purged after
+ * {@code sentinel.sessions.trace-retention-hours}) and are kept for
+ * {@code sentinel.reporting.sla.rollup-retention-days}.</p>
+ *
+ * <p>Live recording starts when the rollup state is first created. Traces persisted before that and still
+ * retained are folded in once by {@link #backfill()}, under the same lease-and-completion scheme as
+ * {@link UsageRollupService}. Backfilled sketches are set (not incremented) under {@code backfill} on each hour,
+ * apart from the live counts, so a redone backfill is harmless.</p>
+ */
+@Service
+public class LatencyRollupService {
+    private static final Logger log = LoggerFactory.getLogger(LatencyRollupService.class);
+    static final String ROLLUP_COLLECTION = "sla_latency_rollups";
+    static final String STATE_COLLECTION = "sla_latency_rollup_state";
+    static final String TRACES_COLLECTION = "reasoning_traces";
+    private static final String STATE_ID = "traces";
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final Duration BACKFILL_LEASE = Duration.ofMinutes(10L);
+
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${sentinel.reporting.sla.rollup-retention-days:400}")
+    private int rollupRetentionDays = 400;
+    @Value("${sentinel.reporting.sla.backfill-enabled:true}")
+    private boolean backfillEnabled = true;
+
+    // Traces at or after this instant are recorded live; earlier ones are covered by the backfill.
+    private volatile Instant countingSince = Instant.EPOCH;
+
+    public LatencyRollupService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            this.mongoTemplate.indexOps(ROLLUP_COLLECTION)
+                    .ensureIndex(new Index().on("workspaceId", Sort.Direction.ASC).on("hour", Sort.Direction.ASC));
+            Document state = this.mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(STATE_ID)),
+                    new Update().setOnInsert("countingSince", Date.from(Instant.now())),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, STATE_COLLECTION);
+            if (state != null && state.get("countingSince") instanceof Date since) {
+                this.countingSince = since.toInstant();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to initialize SLA latency rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add one trace duration to its workspace's rollup for the hour containing {@code timestamp}.
+     */
+    public void record(String workspaceId, Instant timestamp, long durationMs) {
+        if (workspaceId == null || workspaceId.isBlank()) {
+            return;
+        }
+        Instant at = timestamp != null ? timestamp : Instant.now();
+        if (at.isBefore(this.countingSince)) {
+            return;
+        }
+        Instant hour = at.truncatedTo(ChronoUnit.HOURS);
+        long value = Math.max(0L, durationMs);
+        Update update = hourUpdate(workspaceId, hour)
+                .inc("count", 1L)
+                .inc("sumMs", value)
+                .max("maxMs", value)
+                .inc("buckets." + LatencySketch.bucketIndex(value), 1L);
+        this.mongoTemplate.upsert(hourQuery(workspaceId, hour), update, ROLLUP_COLLECTION);
+    }
+
+    /**
+     * Merged latency for the workspace from the hour containing {@code since} onward.
+     */
+    public LatencySketch load(String workspaceId, Instant since) {
+        Query query = new Query(Criteria.where("workspaceId").is(workspaceId)
+                .and("hour").gte(Date.from(since.truncatedTo(ChronoUnit.HOURS))));
+        query.fields().include("sumMs").include("maxMs").include("buckets").include("backfill");
+        LatencySketch sketch = new LatencySketch();
+        for (Document doc : this.mongoTemplate.find(query, Document.class, ROLLUP_COLLECTION)) {
+            mergeInto(sketch, doc);
+            if (doc.get("backfill") instanceof Document backfilled) {
+                mergeInto(sketch, backfilled);
+            }
+        }
+        return sketch;
+    }
+
+    /**
+     * Fold traces persisted before live recording started into the rollups, until one run completes. The node
+     * that takes the lease runs it; the rest skip unless the lease expires without the backfill completing.
+     * Hours are grouped in memory, which is bounded by the trace retention window.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!this.backfillEnabled) {
+            return;
+        }
+        boolean claimed = false;
+        try {
+            claimed = this.claimBackfill();
+            if (!claimed) {
+                return;
+            }
+            Instant before = this.countingSince;
+            Query traces = new Query(Criteria.where("timestamp").lt(Date.from(before)).and("workspaceId").ne(null));
+            traces.fields().include("workspaceId").include("timestamp").include("durationMs");
+            Map<String, LatencySketch> hours = new HashMap<>();
+            try (Stream<Document> rows = this.mongoTemplate.stream(traces, Document.class, TRACES_COLLECTION)) {
+                for (Document row : (Iterable<Document>) rows::iterator) {
+                    String workspaceId = row.getString("workspaceId");
+                    if (workspaceId == null || workspaceId.isBlank() || !(row.get("timestamp") instanceof Date timestamp)) {
+                        continue;
+                    }
+                    Instant hour = timestamp.toInstant().truncatedTo(ChronoUnit.HOURS);
+                    hours.computeIfAbsent(workspaceId + "|" + hour.toEpochMilli(), key -> new LatencySketch())
+                            .record(asLong(row.get("durationMs")));
+                }
+            }
+            BulkOperations bulk = null;
+            int pending = 0;
+            for (Map.Entry<String, LatencySketch> entry : hours.entrySet()) {
+                int separator = entry.getKey().lastIndexOf('|');
+                String workspaceId = entry.getKey().substring(0, separator);
+                Instant hour = Instant.ofEpochMilli(Long.parseLong(entry.getKey().substring(separator + 1)));
+                LatencySketch sketch = entry.getValue();
+                Document buckets = new Document();
+                sketch.buckets().forEach((bucket, count) -> buckets.append(String.valueOf(bucket), count));
+                if (bulk == null) {
+                    bulk = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ROLLUP_COLLECTION);
+                }
+                bulk.upsert(hourQuery(workspaceId, hour), hourUpdate(workspaceId, hour).set("backfill",
+                        new Document("sumMs", sketch.sum()).append("maxMs", sketch.max()).append("buckets", buckets)));
+                if (++pending >= BACKFILL_BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                    this.renewBackfillLease();
+                }
+            }
+            if (bulk != null) {
+                bulk.execute();
+            }
+            this.mongoTemplate.updateFirst(this.leaseHolderQuery(),
+                    new Update().set("backfilledAt", new Date()).unset("backfillLeaseUntil").unset("backfillOwner"),
+                    STATE_COLLECTION);
+            log.info("Backfilled {} SLA latency rollup hours from traces before {}", hours.size(), before);
+        } catch (Exception e) {
+            log.error("SLA latency rollup backfill failed; it will be retried on the next startup: {}", e.getMessage());
+            if (claimed) {
+                this.releaseBackfillLease();
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 30 2 * * *")
+    public void purgeOldRollups() {
+        Instant cutoff = Instant.now().minus(Math.max(1, this.rollupRetentionDays), ChronoUnit.DAYS);
+        try {
+            DeleteResult result = this.mongoTemplate.remove(new Query(Criteria.where("hour").lt(Date.from(cutoff))), ROLLUP_COLLECTION);
+            if (result.getDeletedCount() > 0L) {
+                log.info("Purged {} SLA latency rollups older than {} days", result.getDeletedCount(), this.rollupRetentionDays);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge SLA latency rollups: {}", e.getMessage());
+        }
+    }
+
+    private boolean claimBackfill() {
+        Date now = new Date();
+        Criteria unclaimed = new Criteria().orOperator(
+                Criteria.where("backfillLeaseUntil").exists(false),
+                Criteria.where("backfillLeaseUntil").lt(now));
+        Document claimed = this.mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(STATE_ID).and("backfilledAt").exists(false).andOperator(unclaimed)),
+                new Update().set("backfillLeaseUntil", Date.from(now.toInstant().plus(BACKFILL_LEASE)))
+                        .set("backfillOwner", this.instanceId),
+                Document.class, STATE_COLLECTION);
+        return claimed != null;
+    }
+
+    private void renewBackfillLease() {
+        this.mongoTemplate.updateFirst(this.leaseHolderQuery(),
+                new Update().set("backfillLeaseUntil", Date.from(Instant.now().plus(BACKFILL_LEASE))), STATE_COLLECTION);
+    }
+
+    private void releaseBackfillLease() {
+        try {
+            this.mongoTemplate.updateFirst(this.leaseHolderQuery(),
+                    new Update().unset("backfillLeaseUntil").unset("backfillOwner"), STATE_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Failed to release SLA latency rollup backfill lease: {}", e.getMessage());
+        }
+    }
+
+    private Query leaseHolderQuery() {
+        return new Query(Criteria.where("_id").is(STATE_ID).and("backfillOwner").is(this.instanceId));
+    }
+
+    private static Query hourQuery(String workspaceId, Instant hour) {
+        return new Query(Criteria.where("_id").is(workspaceId + "|" + hour.toEpochMilli()));
+    }
+
+    private static Update hourUpdate(String workspaceId, Instant hour) {
+        return new Update()
+                .setOnInsert("workspaceId", workspaceId)
+                .setOnInsert("hour", Date.from(hour));
+    }
+
+    // Adds the buckets, sumMs and maxMs stored on one rollup part (the live fields or the backfill sub-document).
+    private static void mergeInto(LatencySketch sketch, Document part) {
+        if (!(part.get("buckets") instanceof Map<?, ?> stored)) {
+            return;
+        }
+        Map<Integer, Long> buckets = new HashMap<>(stored.size() * 2);
+        for (Map.Entry<?, ?> bucket : stored.entrySet()) {
+            if (bucket.getValue() instanceof Number n) {
+                try {
+                    buckets.put(Integer.parseInt(String.valueOf(bucket.getKey())), n.longValue());
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        sketch.merge(buckets, asLong(part.get("sumMs")), asLong(part.get("maxMs")));
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+}
@@ -0,0 +1,111 @@
+package com.jreinhal.mercenary.reporting;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mergeable latency quantile sketch with logarithmic buckets.
+ *
+ * <p>Bucket {@code i >= 1} holds durations in {@code (GAMMA^(i-2), GAMMA^(i-1)]} milliseconds and bucket 0 holds
+ * zero, so every reported quantile is within {@value #RELATIVE_ACCURACY} relative error of the exact
+ * nearest-rank value regardless of the distribution. Bucket counts and sums combine by addition and the
+ * maximum by {@code max}, so hourly rollups can be written with atomic {@code $inc}/{@code $max} updates and
+ * merged for any window without keeping raw samples.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class LatencySketch {
+    public static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1.0 + RELATIVE_ACCURACY) / (1.0 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final TreeMap<Integer, Long> buckets = new TreeMap<>();
+    private long count;
+    private long sumMs;
+    private long maxMs;
+
+    /**
+     * Bucket holding {@code durationMs}; negative durations are treated as zero.
+     */
+    public static int bucketIndex(long durationMs) {
+        if (durationMs <= 0L) {
+            return 0;
+        }
+        return 1 + (int) Math.ceil(Math.log(durationMs) / LOG_GAMMA);
+    }
+
+    public void record(long durationMs) {
+        long value = Math.max(0L, durationMs);
+        this.buckets.merge(bucketIndex(value), 1L, Long::sum);
+        this.count++;
+        this.sumMs += value;
+        this.maxMs = Math.max(this.maxMs, value);
+    }
+
+    /**
+     * Add pre-aggregated data, e.g. one rollup document. {@code buckets} maps bucket index to count.
+     */
+    public void merge(Map<Integer, Long> buckets, long sumMs, long maxMs) {
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            long n = bucket.getValue() == null ? 0L : bucket.getValue();
+            if (n <= 0L || bucket.getKey() == null || bucket.getKey() < 0) {
+                continue;
+            }
+            this.buckets.merge(bucket.getKey(), n, Long::sum);
+            this.count += n;
+        }
+        this.sumMs += Math.max(0L, sumMs);
+        this.maxMs = Math.max(this.maxMs, maxMs);
+    }
+
+    public void merge(LatencySketch other) {
+        this.merge(other.buckets, other.sumMs, other.maxMs);
+    }
+
+    public long count() {
+        return this.count;
+    }
+
+    public long sum() {
+        return this.sumMs;
+    }
+
+    public double mean() {
+        return this.count == 0L ? 0.0 : (double) this.sumMs / this.count;
+    }
+
+    public long max() {
+        return this.maxMs;
+    }
+
+    /**
+     * Nearest-rank percentile ({@code 0 < percentile <= 1}) within {@link #RELATIVE_ACCURACY}, never above {@link #max()}.
+     */
+    public long percentile(double percentile) {
+        if (this.count == 0L) {
+            return 0L;
+        }
+        long rank = Math.min(this.count, Math.max(1L, (long) Math.ceil(percentile * this.count)));
+        long seen = 0L;
+        for (Map.Entry<Integer, Long> bucket : this.buckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen >= rank) {
+                return Math.min(this.maxMs, representative(bucket.getKey()));
+            }
+        }
+        return this.maxMs;
+    }
+
+    public Map<Integer, Long> buckets() {
+        return Collections.unmodifiableMap(this.buckets);
+    }
+
+    // Midpoint (in relative terms) of the bucket's range, which bounds the relative error by RELATIVE_ACCURACY.
+    private static long representative(int bucket) {
+        if (bucket == 0) {
+            return 0L;
+        }
+        return Math.round(2.0 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1.0));
+    }
+}
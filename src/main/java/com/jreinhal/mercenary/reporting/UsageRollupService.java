@@ -0,0 +1,330 @@
+package com.jreinhal.mercenary.reporting;
+
+import com.jreinhal.mercenary.model.AuditEvent;
+import com.mongodb.client.result.DeleteResult;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Daily per-workspace, per-department audit event counters for dashboards and reports.
+ *
+ * <p>Every persisted {@link AuditEvent} increments {@code events.<EVENT_TYPE>} on the bucket for its UTC day,
+ * workspace and department (the event's {@code sector} metadata) with one atomic upsert, so "how many queries /
+ * ingestions / auth failures since X" reads O(days) rollup documents instead of counting {@code audit_log}.
+ * When a window starts mid-day, that first partial day is counted from {@code audit_log} directly (a bounded,
+ * timestamp-indexed count) so results match the live count exactly.</p>
+ *
+ * <p>Counting starts when the rollup state is first created; events older than that are aggregated into the
+ * rollups by {@link #backfill()}. One node at a time holds a renewable lease on the backfill, and completion is
+ * recorded separately, so a backfill that fails or whose node dies is redone by the next startup. The backfill
+ * sets counts rather than incrementing them ({@code events.<EVENT_TYPE>} for days before counting started,
+ * {@code backfill.<EVENT_TYPE>} for the day it started, which also holds live counts), so redoing it is
+ * harmless.</p>
+ */
+@Service
+public class UsageRollupService {
+    private static final Logger log = LoggerFactory.getLogger(UsageRollupService.class);
+    static final String ROLLUP_COLLECTION = "usage_rollups";
+    static final String STATE_COLLECTION = "usage_rollup_state";
+    private static final String AUDIT_COLLECTION = "audit_log";
+    private static final String STATE_ID = "audit";
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final Duration BACKFILL_LEASE = Duration.ofMinutes(10L);
+
+    private final MongoTemplate mongoTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${sentinel.reporting.usage-rollups.retention-days:400}")
+    private int retentionDays = 400;
+    @Value("${sentinel.reporting.usage-rollups.backfill-enabled:true}")
+    private boolean backfillEnabled = true;
+
+    // Events at or after this instant are counted live; earlier ones are covered by the backfill.
+    private volatile Instant countingSince = Instant.EPOCH;
+
+    public UsageRollupService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            this.mongoTemplate.indexOps(ROLLUP_COLLECTION)
+                    .ensureIndex(new Index().on("workspaceId", Sort.Direction.ASC).on("day", Sort.Direction.ASC));
+            this.mongoTemplate.indexOps(ROLLUP_COLLECTION)
+                    .ensureIndex(new Index().on("day", Sort.Direction.ASC));
+            Document state = this.mongoTemplate.findAndModify(
+                    new Query(Criteria.where("_id").is(STATE_ID)),
+                    new Update().setOnInsert("countingSince", Date.from(Instant.now())),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, STATE_COLLECTION);
+            if (state != null && state.get("countingSince") instanceof Date since) {
+                this.countingSince = since.toInstant();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to initialize usage rollups: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Count one persisted audit event. Never throws; a failed increment only under-reports.
+     */
+    public void record(AuditEvent event) {
+        if (event == null || event.getEventType() == null) {
+            return;
+        }
+        Instant timestamp = event.getTimestamp() != null ? event.getTimestamp() : Instant.now();
+        if (timestamp.isBefore(this.countingSince)) {
+            return;
+        }
+        String department = department(event);
+        try {
+            this.mongoTemplate.upsert(bucketQuery(event.getWorkspaceId(), department, timestamp),
+                    bucketUpdate(event.getWorkspaceId(), department, timestamp)
+                            .inc("events." + event.getEventType().name(), 1L),
+                    ROLLUP_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Failed to update usage rollup for {}: {}", event.getEventType(), e.getMessage());
+        }
+    }
+
+    /**
+     * Events of {@code type} in the workspace from {@code since} until now.
+     */
+    public long countSince(String workspaceId, AuditEvent.EventType type, Instant since) {
+        return this.count(false, workspaceId, type, since);
+    }
+
+    /**
+     * Events of {@code type} across all workspaces from {@code since} until now.
+     */
+    public long countAllSince(AuditEvent.EventType type, Instant since) {
+        return this.count(true, null, type, since);
+    }
+
+    /**
+     * Events of {@code type} across all workspaces per UTC day ({@code yyyy-MM-dd}), oldest first, for the last
+     * {@code days} days including today.
+     */
+    public Map<String, Long> countAllByDay(AuditEvent.EventType type, int days) {
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        Instant first = today.minus(Math.max(1, days) - 1L, ChronoUnit.DAYS);
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Instant day = first; !day.isAfter(today); day = day.plus(1L, ChronoUnit.DAYS)) {
+            result.put(dayKey(day), 0L);
+        }
+        try {
+            String field = "events." + type.name();
+            Query query = new Query(Criteria.where("day").gte(Date.from(first)));
+            query.fields().include("day").include(field).include("backfill." + type.name());
+            for (Document doc : this.mongoTemplate.find(query, Document.class, ROLLUP_COLLECTION)) {
+                if (doc.get("day") instanceof Date day) {
+                    result.computeIfPresent(dayKey(day.toInstant()), (k, v) -> v + eventCount(doc, type));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read usage rollups: {}", e.getMessage());
+        }
+        return result;
+    }
+
+    private long count(boolean allWorkspaces, String workspaceId, AuditEvent.EventType type, Instant since) {
+        Instant firstDay = since.truncatedTo(ChronoUnit.DAYS);
+        Instant rollupFrom = firstDay;
+        long total = 0L;
+        try {
+            if (since.isAfter(firstDay)) {
+                rollupFrom = firstDay.plus(1L, ChronoUnit.DAYS);
+                Criteria partialDay = Criteria.where("eventType").is(type).and("timestamp").gte(since).lt(rollupFrom);
+                if (!allWorkspaces) {
+                    partialDay.and("workspaceId").is(workspaceId);
+                }
+                total += this.mongoTemplate.count(new Query(partialDay), AUDIT_COLLECTION);
+            }
+            if (!rollupFrom.isAfter(Instant.now())) {
+                Criteria rollups = Criteria.where("day").gte(Date.from(rollupFrom));
+                if (!allWorkspaces) {
+                    rollups.and("workspaceId").is(workspaceId);
+                }
+                Query query = new Query(rollups);
+                query.fields().include("events." + type.name()).include("backfill." + type.name());
+                for (Document doc : this.mongoTemplate.find(query, Document.class, ROLLUP_COLLECTION)) {
+                    total += eventCount(doc, type);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to count {} from usage rollups: {}", type, e.getMessage());
+        }
+        return total;
+    }
+
+    /**
+     * Aggregation of audit events recorded before live counting started, until one run completes. The node that
+     * takes the lease runs it; the rest skip unless the lease expires without the backfill completing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!this.backfillEnabled) {
+            return;
+        }
+        boolean claimed = false;
+        try {
+            claimed = this.claimBackfill();
+            if (!claimed) {
+                return;
+            }
+            Instant before = this.countingSince;
+            Instant liveDay = before.truncatedTo(ChronoUnit.DAYS);
+            Aggregation aggregation = Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("timestamp").lt(Date.from(before))),
+                    Aggregation.project("workspaceId", "eventType")
+                            .and("metadata.sector").as("department")
+                            .and(DateOperators.DateToString.dateOf("timestamp").toString("%Y-%m-%d")).as("day"),
+                    Aggregation.group("workspaceId", "department", "day", "eventType").count().as("count"))
+                    .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+            long buckets = 0L;
+            BulkOperations bulk = null;
+            int pending = 0;
+            try (Stream<Document> rows = this.mongoTemplate.aggregateStream(aggregation, AUDIT_COLLECTION, Document.class)) {
+                for (Document row : (Iterable<Document>) rows::iterator) {
+                    Document key = row.get("_id", Document.class);
+                    if (key == null || key.getString("day") == null || key.getString("eventType") == null) {
+                        continue;
+                    }
+                    Instant day = Instant.parse(key.getString("day") + "T00:00:00Z");
+                    String workspaceId = key.getString("workspaceId");
+                    String department = key.get("department") != null ? String.valueOf(key.get("department")) : null;
+                    // Days before live counting hold only backfilled counts; the day counting started also has
+                    // live increments in events.*, so its backfilled part is kept apart.
+                    String field = (day.isBefore(liveDay) ? "events." : "backfill.") + key.getString("eventType");
+                    if (bulk == null) {
+                        bulk = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ROLLUP_COLLECTION);
+                    }
+                    bulk.upsert(bucketQuery(workspaceId, department, day),
+                            bucketUpdate(workspaceId, department, day).set(field, asLong(row.get("count"))));
+                    buckets++;
+                    if (++pending >= BACKFILL_BATCH_SIZE) {
+                        bulk.execute();
+                        bulk = null;
+                        pending = 0;
+                        this.renewBackfillLease();
+                    }
+                }
+            }
+            if (bulk != null) {
+                bulk.execute();
+            }
+            this.mongoTemplate.updateFirst(this.leaseHolderQuery(),
+                    new Update().set("backfilledAt", new Date()).unset("backfillLeaseUntil").unset("backfillOwner"),
+                    STATE_COLLECTION);
+            log.info("Backfilled {} usage rollup buckets from audit events before {}", buckets, before);
+        } catch (Exception e) {
+            log.error("Usage rollup backfill failed; it will be retried on the next startup: {}", e.getMessage());
+            if (claimed) {
+                this.releaseBackfillLease();
+            }
+        }
+    }
+
+    private boolean claimBackfill() {
+        Date now = new Date();
+        Criteria unclaimed = new Criteria().orOperator(
+                Criteria.where("backfillLeaseUntil").exists(false),
+                Criteria.where("backfillLeaseUntil").lt(now));
+        Document claimed = this.mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(STATE_ID).and("backfilledAt").exists(false).andOperator(unclaimed)),
+                new Update().set("backfillLeaseUntil", Date.from(now.toInstant().plus(BACKFILL_LEASE)))
+                        .set("backfillOwner", this.instanceId),
+                Document.class, STATE_COLLECTION);
+        return claimed != null;
+    }
+
+    private void renewBackfillLease() {
+        this.mongoTemplate.updateFirst(this.leaseHolderQuery(),
+                new Update().set("backfillLeaseUntil", Date.from(Instant.now().plus(BACKFILL_LEASE))), STATE_COLLECTION);
+    }
+
+    private void releaseBackfillLease() {
+        try {
+            this.mongoTemplate.updateFirst(this.leaseHolderQuery(),
+                    new Update().unset("backfillLeaseUntil").unset("backfillOwner"), STATE_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Failed to release usage rollup backfill lease: {}", e.getMessage());
+        }
+    }
+
+    private Query leaseHolderQuery() {
+        return new Query(Criteria.where("_id").is(STATE_ID).and("backfillOwner").is(this.instanceId));
+    }
+
+    @Scheduled(cron = "0 40 2 * * *")
+    public void purgeOldRollups() {
+        Instant cutoff = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(Math.max(1, this.retentionDays), ChronoUnit.DAYS);
+        try {
+            DeleteResult result = this.mongoTemplate.remove(new Query(Criteria.where("day").lt(Date.from(cutoff))), ROLLUP_COLLECTION);
+            if (result.getDeletedCount() > 0L) {
+                log.info("Purged {} usage rollups older than {} days", result.getDeletedCount(), this.retentionDays);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge usage rollups: {}", e.getMessage());
+        }
+    }
+
+    private static Query bucketQuery(String workspaceId, String department, Instant timestamp) {
+        String id = (workspaceId != null ? workspaceId : "") + "|" + (department != null ? department : "")
+                + "|" + dayKey(timestamp);
+        return new Query(Criteria.where("_id").is(id));
+    }
+
+    private static Update bucketUpdate(String workspaceId, String department, Instant timestamp) {
+        return new Update()
+                .setOnInsert("workspaceId", workspaceId)
+                .setOnInsert("department", department)
+                .setOnInsert("day", Date.from(timestamp.truncatedTo(ChronoUnit.DAYS)));
+    }
+
+    private static String department(AuditEvent event) {
+        Object sector = event.getMetadata() != null ? event.getMetadata().get("sector") : null;
+        return sector != null ? String.valueOf(sector) : null;
+    }
+
+    private static String dayKey(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.DAYS).toString().substring(0, 10);
+    }
+
+    private static long eventCount(Document doc, AuditEvent.EventType type) {
+        long live = doc.get("events") instanceof Document events ? asLong(events.get(type.name())) : 0L;
+        long backfilled = doc.get("backfill") instanceof Document backfill ? asLong(backfill.get(type.name())) : 0L;
+        return live + backfilled;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+}
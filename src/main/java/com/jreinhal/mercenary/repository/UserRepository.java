@@ -17,6 +17,10 @@ extends MongoRepository<User, String> {
 
     public List<User> findByActiveTrue();
 
+    public long countByActiveTrue();
+
+    public List<User> findByPendingApprovalTrue();
+
     public List<User> findByWorkspaceIdsContaining(String var1);
 
     public long countByWorkspaceIdsContaining(String var1);
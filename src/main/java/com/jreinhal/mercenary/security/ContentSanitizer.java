@@ -1,7 +1,6 @@
 package com.jreinhal.mercenary.security;
 
 import java.text.Normalizer;
-import java.util.regex.Pattern;
 
 /**
  * Shared utility for sanitizing retrieved content against indirect prompt injection.
@@ -34,13 +33,7 @@ public final class ContentSanitizer {
         StringBuilder sb = new StringBuilder(content.length());
         for (String line : lines) {
             String normalized = Normalizer.normalize(line, Normalizer.Form.NFKC);
-            boolean hit = false;
-            for (Pattern pattern : PromptInjectionPatterns.getPatterns()) {
-                if (pattern.matcher(normalized).find()) {
-                    hit = true;
-                    break;
-                }
-            }
+            boolean hit = PromptInjectionMatcher.getDefault().matches(normalized);
             sb.append(hit ? REDACTION_MARKER : line).append('\n');
         }
         return sb.toString();
@@ -0,0 +1,77 @@
+package com.jreinhal.mercenary.security;
+
+import com.jreinhal.mercenary.util.AhoCorasick;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Combined matcher for the prompt-injection rules.
+ *
+ * <p>One Aho-Corasick pass over the text finds which rule anchors occur; only rules with a present anchor
+ * have their regex run to confirm. {@link #findFirst} returns the same pattern as trying every rule's regex
+ * in order, but ordinary queries that contain no anchor never touch a regex.</p>
+ */
+public final class PromptInjectionMatcher {
+    private static final PromptInjectionMatcher DEFAULT_MATCHER = compile(PromptInjectionPatterns.getRules());
+
+    private final List<PromptInjectionPatterns.InjectionRule> rules;
+    private final AhoCorasick anchors;
+    // Rule index for each anchor keyword.
+    private final int[] anchorRule;
+
+    private PromptInjectionMatcher(List<PromptInjectionPatterns.InjectionRule> rules) {
+        this.rules = List.copyOf(rules);
+        List<String> keywords = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int r = 0; r < this.rules.size(); ++r) {
+            List<String> ruleAnchors = this.rules.get(r).anchors();
+            if (ruleAnchors.isEmpty()) {
+                throw new IllegalArgumentException("Injection rule needs at least one anchor: " + this.rules.get(r).pattern());
+            }
+            for (String anchor : ruleAnchors) {
+                keywords.add(anchor);
+                owners.add(r);
+            }
+        }
+        this.anchors = AhoCorasick.of(keywords, true);
+        this.anchorRule = owners.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static PromptInjectionMatcher compile(List<PromptInjectionPatterns.InjectionRule> rules) {
+        return new PromptInjectionMatcher(rules);
+    }
+
+    /**
+     * Matcher over {@link PromptInjectionPatterns#getRules()}.
+     */
+    public static PromptInjectionMatcher getDefault() {
+        return DEFAULT_MATCHER;
+    }
+
+    /**
+     * First rule pattern, in rule order, that matches {@code text}; {@code null} if none does.
+     */
+    public Pattern findFirst(CharSequence text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        BitSet candidates = new BitSet(this.rules.size());
+        this.anchors.scan(text, (keyword, start, end) -> {
+            candidates.set(this.anchorRule[keyword]);
+            return true;
+        });
+        for (int rule = candidates.nextSetBit(0); rule >= 0; rule = candidates.nextSetBit(rule + 1)) {
+            Pattern pattern = this.rules.get(rule).pattern();
+            if (pattern.matcher(text).find()) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    public boolean matches(CharSequence text) {
+        return this.findFirst(text) != null;
+    }
+}
@@ -4,31 +4,35 @@ import java.util.List;
 import java.util.regex.Pattern;
 
 public final class PromptInjectionPatterns {
-    private static final List<Pattern> PATTERNS = List.of(
-            Pattern.compile("ignore\\s+(all\\s+)?(previous|prior|above)\\s+(instructions?|prompts?|rules?)", 2),
-            Pattern.compile("ignore\\s+(all\\s+)?instructions?", 2),
-            Pattern.compile("disregard\\s+(all\\s+)?(previous|prior|above|instructions?)", 2),
-            Pattern.compile("forget\\s+(all\\s+)?(previous|prior|your)\\s+(instructions?|context|rules?)", 2),
-            Pattern.compile("(show|reveal|display|print|output)\\s+(me\\s+)?(the\\s+)?(system|initial)\\s+prompt", 2),
-            Pattern.compile("what\\s+(is|are)\\s+your\\s+(system\\s+)?(instructions?|rules?|prompt)", 2),
-            Pattern.compile("you\\s+are\\s+now\\s+(a|an|in)\\s+", 2),
-            Pattern.compile("act\\s+as\\s+(if|though)\\s+you", 2),
-            Pattern.compile("pretend\\s+(to\\s+be|you\\s+are)", 2),
-            Pattern.compile("roleplay\\s+as", 2),
-            Pattern.compile("\\bDAN\\b.*mode", 2),
-            Pattern.compile("developer\\s+mode\\s+(enabled|on|activated)", 2),
-            Pattern.compile("bypass\\s+(your\\s+)?(safety|security|restrictions?|filters?)", 2),
-            Pattern.compile("```\\s*(system|assistant)\\s*:", 2),
-            Pattern.compile("\\[INST\\]|\\[/INST\\]|<<SYS>>|<</SYS>>", 2),
-            Pattern.compile("</?\\s*(system|instruction|prompt|assistant|user|admin|root)\\s*/?>", 2),
-            Pattern.compile("(start|begin)\\s+(your\\s+)?response\\s+with", 2),
-            Pattern.compile("(what|tell|show|reveal|repeat|print|display).{0,15}(your|system|internal|hidden).{0,10}(prompt|instructions?|directives?|rules|guidelines)", 2),
-            Pattern.compile("(what|how).{0,10}(are|were).{0,10}you.{0,10}(programmed|instructed|told|prompted)", 2),
-            Pattern.compile("(ignore|forget|disregard).{0,20}(previous|above|prior|all).{0,20}(instructions?|prompt|rules|context)", 2),
-            Pattern.compile("(repeat|echo|output).{0,15}(everything|all).{0,10}(above|before|prior)", 2),
-            Pattern.compile("new\\s+(instructions?|rules?|prompt)\\s*:", 2),
-            Pattern.compile("override\\s+(previous|system|all)\\s+(instructions?|rules?|prompt)", 2)
+    // Each rule lists anchors: lower-case literals of which at least one must occur in any text the pattern
+    // matches. PromptInjectionMatcher only runs a pattern's regex when one of its anchors is present, so an
+    // anchor that is not truly required would let injections through. Keep them in sync when editing a regex.
+    private static final List<InjectionRule> RULES = List.of(
+            rule("ignore\\s+(all\\s+)?(previous|prior|above)\\s+(instructions?|prompts?|rules?)", "ignore"),
+            rule("ignore\\s+(all\\s+)?instructions?", "ignore"),
+            rule("disregard\\s+(all\\s+)?(previous|prior|above|instructions?)", "disregard"),
+            rule("forget\\s+(all\\s+)?(previous|prior|your)\\s+(instructions?|context|rules?)", "forget"),
+            rule("(show|reveal|display|print|output)\\s+(me\\s+)?(the\\s+)?(system|initial)\\s+prompt", "prompt"),
+            rule("what\\s+(is|are)\\s+your\\s+(system\\s+)?(instructions?|rules?|prompt)", "your"),
+            rule("you\\s+are\\s+now\\s+(a|an|in)\\s+", "now"),
+            rule("act\\s+as\\s+(if|though)\\s+you", "act"),
+            rule("pretend\\s+(to\\s+be|you\\s+are)", "pretend"),
+            rule("roleplay\\s+as", "roleplay"),
+            rule("\\bDAN\\b.*mode", "dan"),
+            rule("developer\\s+mode\\s+(enabled|on|activated)", "developer"),
+            rule("bypass\\s+(your\\s+)?(safety|security|restrictions?|filters?)", "bypass"),
+            rule("```\\s*(system|assistant)\\s*:", "```"),
+            rule("\\[INST\\]|\\[/INST\\]|<<SYS>>|<</SYS>>", "[inst]", "[/inst]", "<<sys>>", "<</sys>>"),
+            rule("</?\\s*(system|instruction|prompt|assistant|user|admin|root)\\s*/?>", "<"),
+            rule("(start|begin)\\s+(your\\s+)?response\\s+with", "response"),
+            rule("(what|tell|show|reveal|repeat|print|display).{0,15}(your|system|internal|hidden).{0,10}(prompt|instructions?|directives?|rules|guidelines)", "prompt", "instruction", "directive", "rules", "guidelines"),
+            rule("(what|how).{0,10}(are|were).{0,10}you.{0,10}(programmed|instructed|told|prompted)", "programmed", "instructed", "told", "prompted"),
+            rule("(ignore|forget|disregard).{0,20}(previous|above|prior|all).{0,20}(instructions?|prompt|rules|context)", "ignore", "forget", "disregard"),
+            rule("(repeat|echo|output).{0,15}(everything|all).{0,10}(above|before|prior)", "repeat", "echo", "output"),
+            rule("new\\s+(instructions?|rules?|prompt)\\s*:", "new"),
+            rule("override\\s+(previous|system|all)\\s+(instructions?|rules?|prompt)", "override")
     );
+    private static final List<Pattern> PATTERNS = RULES.stream().map(InjectionRule::pattern).toList();
 
     private PromptInjectionPatterns() {
     }
@@ -36,4 +40,18 @@ public final class PromptInjectionPatterns {
     public static List<Pattern> getPatterns() {
         return PATTERNS;
     }
+
+    public static List<InjectionRule> getRules() {
+        return RULES;
+    }
+
+    private static InjectionRule rule(String regex, String... anchors) {
+        return new InjectionRule(Pattern.compile(regex, Pattern.CASE_INSENSITIVE), List.of(anchors));
+    }
+
+    /**
+     * An injection regex and the literals (ASCII, case-insensitive) that any match must contain.
+     */
+    public record InjectionRule(Pattern pattern, List<String> anchors) {
+    }
 }
@@ -3,14 +3,17 @@ package com.jreinhal.mercenary.service;
 import com.jreinhal.mercenary.Department;
 import com.jreinhal.mercenary.model.AuditEvent;
 import com.jreinhal.mercenary.model.User;
+import com.jreinhal.mercenary.reporting.UsageRollupService;
 import com.jreinhal.mercenary.security.ClientIpResolver;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import com.jreinhal.mercenary.workspace.WorkspaceQuotaService;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import java.util.Arrays;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -26,15 +29,19 @@ public class AuditService {
     private final Environment environment;
     private final HipaaPolicy hipaaPolicy;
     private final PiiRedactionService piiRedactionService;
+    private final UsageRollupService usageRollupService;
+    @Autowired(required = false)
+    private WorkspaceQuotaService workspaceQuotaService;
     @Value(value="${app.audit.fail-closed:false}")
     private boolean failClosed;
 
-    public AuditService(MongoTemplate mongoTemplate, ClientIpResolver clientIpResolver, Environment environment, HipaaPolicy hipaaPolicy, PiiRedactionService piiRedactionService) {
+    public AuditService(MongoTemplate mongoTemplate, ClientIpResolver clientIpResolver, Environment environment, HipaaPolicy hipaaPolicy, PiiRedactionService piiRedactionService, UsageRollupService usageRollupService) {
         this.mongoTemplate = mongoTemplate;
         this.clientIpResolver = clientIpResolver;
         this.environment = environment;
         this.hipaaPolicy = hipaaPolicy;
         this.piiRedactionService = piiRedactionService;
+        this.usageRollupService = usageRollupService;
     }
 
     @PostConstruct
@@ -58,6 +65,10 @@ public class AuditService {
                     event.withWorkspace(WorkspaceContext.getCurrentWorkspaceId());
                 }
                 this.mongoTemplate.save(event, "audit_log");
+                this.usageRollupService.record(event);
+                if (event.getEventType() == AuditEvent.EventType.QUERY_EXECUTED && this.workspaceQuotaService != null) {
+                    this.workspaceQuotaService.recordAuditedQuery(event.getWorkspaceId());
+                }
                 log.debug("Audit event logged: {} - {} - {}", new Object[]{event.getEventType(), event.getUserId(), event.getAction()});
             }
             catch (Exception e) {
@@ -1,37 +1,80 @@
 package com.jreinhal.mercenary.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.jreinhal.mercenary.model.Feedback;
 import com.jreinhal.mercenary.repository.FeedbackRepository;
 import com.jreinhal.mercenary.service.AuditService;
 import com.jreinhal.mercenary.util.LogSanitizer;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 @Service
 public class FeedbackService {
     private static final Logger log = LoggerFactory.getLogger(FeedbackService.class);
+    private static final String FEEDBACK_COLLECTION = "feedback";
+    private static final int TOP_ISSUE_QUERIES = 10;
+    private static final int EXPORT_CURSOR_BATCH_SIZE = 500;
     private final FeedbackRepository feedbackRepository;
     private final AuditService auditService;
     private final HipaaPolicy hipaaPolicy;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
 
-    public FeedbackService(FeedbackRepository feedbackRepository, AuditService auditService, HipaaPolicy hipaaPolicy) {
+    public FeedbackService(FeedbackRepository feedbackRepository, AuditService auditService, HipaaPolicy hipaaPolicy, MongoTemplate mongoTemplate, ObjectMapper objectMapper) {
         this.feedbackRepository = feedbackRepository;
         this.auditService = auditService;
         this.hipaaPolicy = hipaaPolicy;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Create the indexes declared on {@link Feedback}; the analytics and export pipelines below rely on the
+     * workspace-leading compound ones, and automatic index creation is off.
+     */
+    @PostConstruct
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = this.mongoTemplate.indexOps(Feedback.class);
+            new MongoPersistentEntityIndexResolver(this.mongoTemplate.getConverter().getMappingContext())
+                    .resolveIndexFor(Feedback.class)
+                    .forEach(indexOps::ensureIndex);
+        } catch (Exception e) {
+            log.warn("Failed to ensure feedback indexes: {}", e.getMessage());
+        }
     }
 
     public FeedbackResult submitPositiveFeedback(String userId, String username, String sector, String messageId, String query, String response, Map<String, Object> ragMetadata) {
@@ -94,23 +137,41 @@ public class FeedbackService {
         if (this.hipaaPolicy.shouldDisableFeedback(sector)) {
             return new FeedbackAnalytics(0L, 0L, 0L, 0.0, Map.of(), 0L, 0.0, 0.0, List.of(), days, sector);
         }
-        Instant since = Instant.now().minus(days, ChronoUnit.DAYS);
-        String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
-        List<Feedback> recentFeedback = sector != null
-                ? this.feedbackRepository.findBySectorAndTimestampBetweenAndWorkspaceId(sector, since, Instant.now(), workspaceId)
-                : this.feedbackRepository.findByTimestampBetweenAndWorkspaceId(since, Instant.now(), workspaceId);
-        long positive = recentFeedback.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.POSITIVE).count();
-        long negative = recentFeedback.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.NEGATIVE).count();
-        long total = positive + negative;
-        double satisfactionRate = total > 0L ? (double)positive / (double)total * 100.0 : 0.0;
-        Map<Feedback.FeedbackCategory, Long> categoryBreakdown = recentFeedback.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.NEGATIVE && f.getCategory() != null).collect(Collectors.groupingBy(Feedback::getCategory, Collectors.counting()));
-        long openIssues = recentFeedback.stream().filter(f -> f.getResolutionStatus() == Feedback.ResolutionStatus.OPEN).count();
-        double avgResponseTimePositive = recentFeedback.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.POSITIVE && f.getResponseTimeMs() > 0L).mapToLong(Feedback::getResponseTimeMs).average().orElse(0.0);
-        double avgResponseTimeNegative = recentFeedback.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.NEGATIVE && f.getResponseTimeMs() > 0L).mapToLong(Feedback::getResponseTimeMs).average().orElse(0.0);
-        List<String> topIssueQueries = recentFeedback.stream().filter(f -> f.getFeedbackType() == Feedback.FeedbackType.NEGATIVE).sorted((a, b) -> b.getTimestamp().compareTo(a.getTimestamp())).limit(10L).map(Feedback::getQuery).filter(Objects::nonNull).collect(Collectors.toList());
-        return new FeedbackAnalytics(total, positive, negative, satisfactionRate, categoryBreakdown, openIssues, avgResponseTimePositive, avgResponseTimeNegative, topIssueQueries, days, sector);
+        Instant now = Instant.now();
+        Instant since = now.minus(days, ChronoUnit.DAYS);
+        FeedbackSummary summary = this.summarize(WorkspaceContext.getCurrentWorkspaceId(), sector, since, now);
+        return new FeedbackAnalytics(summary.total(), summary.positive(), summary.negative(), summary.satisfactionRate(), summary.categoryBreakdown(), summary.openIssues(), summary.avgResponseTimePositive(), summary.avgResponseTimeNegative(), summary.topIssueQueries(), days, sector);
     }
 
+    /**
+     * Feedback counts for the workspace (and sector, if given) with timestamps strictly between {@code since}
+     * and {@code until}, computed by one {@code $facet} aggregation so no feedback documents are loaded.
+     */
+    public FeedbackSummary summarize(String workspaceId, String sector, Instant since, Instant until) {
+        Criteria window = Criteria.where("workspaceId").is(workspaceId);
+        if (sector != null) {
+            window.and("sector").is(sector);
+        }
+        window.and("timestamp").gt(Date.from(since)).lt(Date.from(until));
+        Criteria timed = Criteria.where("responseTimeMs").gt(0);
+        AggregationExpression timedMs = ConditionalOperators.when(timed).thenValueOf("responseTimeMs").otherwise(0);
+        AggregationExpression timedCount = ConditionalOperators.when(timed).then(1).otherwise(0);
+        String negative = Feedback.FeedbackType.NEGATIVE.name();
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(window),
+                Aggregation.facet(Aggregation.group("feedbackType").count().as("count")
+                                .sum(timedMs).as("timedMs").sum(timedCount).as("timed")).as("byType")
+                        .and(Aggregation.match(Criteria.where("feedbackType").is(negative).and("category").ne(null)),
+                                Aggregation.group("category").count().as("count")).as("categories")
+                        .and(Aggregation.match(Criteria.where("resolutionStatus").is(Feedback.ResolutionStatus.OPEN.name())),
+                                Aggregation.count().as("count")).as("open")
+                        .and(Aggregation.match(Criteria.where("feedbackType").is(negative)),
+                                Aggregation.sort(Sort.Direction.DESC, "timestamp"),
+                                Aggregation.limit(TOP_ISSUE_QUERIES),
+                                Aggregation.project("query")).as("topIssues"));
+        Document result = this.mongoTemplate.aggregate(aggregation, FEEDBACK_COLLECTION, Document.class).getUniqueMappedResult();
+        return FeedbackSummary.from(result);
+    }
     public Page<Feedback> getOpenIssues(int page, int size) {
         String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
         return this.feedbackRepository.findByFeedbackTypeAndResolutionStatusAndWorkspaceId(
@@ -140,15 +201,41 @@ public class FeedbackService {
         return (Feedback)this.feedbackRepository.save(feedback);
     }
 
-    public List<TrainingExample> exportTrainingData(String sector, Feedback.FeedbackType type) {
-        if (this.hipaaPolicy.shouldDisableFeedback(sector) || (sector == null && this.hipaaPolicy.isStrict("MEDICAL"))) {
-            return List.of();
+    /**
+     * Write the workspace's training examples as a JSON array, newest first, reading feedback through a Mongo
+     * cursor so the export never holds more than one cursor batch in memory. Returns the number written.
+     */
+    public long writeTrainingData(String sector, Feedback.FeedbackType type, OutputStream out) throws IOException {
+        JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long written = 0L;
+        try (generator) {
+            generator.writeStartArray();
+            if (!this.hipaaPolicy.shouldDisableFeedback(sector) && (sector != null || !this.hipaaPolicy.isStrict("MEDICAL"))) {
+                Criteria criteria = Criteria.where("workspaceId").is(WorkspaceContext.getCurrentWorkspaceId())
+                        .and("feedbackType").is(type);
+                if (sector != null) {
+                    criteria.and("sector").is(sector);
+                }
+                Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "timestamp"));
+                query.fields().include("query").include("response").include("sector").include("sourceDocuments").include("feedbackType");
+                query.cursorBatchSize(EXPORT_CURSOR_BATCH_SIZE);
+                ObjectWriter writer = this.objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                try (Stream<Feedback> feedback = this.mongoTemplate.stream(query, Feedback.class, FEEDBACK_COLLECTION)) {
+                    Iterator<Feedback> it = feedback.iterator();
+                    while (it.hasNext()) {
+                        Feedback f = it.next();
+                        if (f.getQuery() == null || f.getResponse() == null) {
+                            continue;
+                        }
+                        writer.writeValue(generator, new TrainingExample(f.getQuery(), f.getResponse(), f.getSector(), f.getSourceDocuments(), f.getFeedbackType() == Feedback.FeedbackType.POSITIVE ? 1.0 : 0.0));
+                        written++;
+                    }
+                }
+            }
+            generator.writeEndArray();
         }
-        String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
-        List<Feedback> feedback = sector != null
-                ? this.feedbackRepository.findByFeedbackTypeAndSectorAndWorkspaceId(type, sector, workspaceId)
-                : this.feedbackRepository.findByFeedbackTypeAndWorkspaceIdOrderByTimestampDesc(type, workspaceId);
-        return feedback.stream().filter(f -> f.getQuery() != null && f.getResponse() != null).map(f -> new TrainingExample(f.getQuery(), f.getResponse(), f.getSector(), f.getSourceDocuments(), f.getFeedbackType() == Feedback.FeedbackType.POSITIVE ? 1.0 : 0.0)).collect(Collectors.toList());
+        return written;
     }
 
     private List<String> castToStringList(Object obj) {
@@ -204,6 +291,61 @@ public class FeedbackService {
         return def;
     }
 
+    public record FeedbackSummary(long positive, long negative, Map<Feedback.FeedbackCategory, Long> categoryBreakdown, long openIssues, double avgResponseTimePositive, double avgResponseTimeNegative, List<String> topIssueQueries) {
+        public long total() {
+            return this.positive + this.negative;
+        }
+
+        public double satisfactionRate() {
+            long total = this.total();
+            return total > 0L ? (double)this.positive / (double)total * 100.0 : 0.0;
+        }
+
+        static FeedbackSummary from(Document facets) {
+            long positive = 0L;
+            long negative = 0L;
+            double avgPositive = 0.0;
+            double avgNegative = 0.0;
+            Map<Feedback.FeedbackCategory, Long> categories = new EnumMap<>(Feedback.FeedbackCategory.class);
+            long open = 0L;
+            List<String> topIssues = new ArrayList<>();
+            if (facets == null) {
+                return new FeedbackSummary(0L, 0L, categories, 0L, 0.0, 0.0, topIssues);
+            }
+            for (Document row : facets.getList("byType", Document.class, List.of())) {
+                long count = asLong(row.get("count"));
+                long timed = asLong(row.get("timed"));
+                double avg = timed > 0L ? (double)asLong(row.get("timedMs")) / (double)timed : 0.0;
+                if (Feedback.FeedbackType.POSITIVE.name().equals(String.valueOf(row.get("_id")))) {
+                    positive = count;
+                    avgPositive = avg;
+                } else if (Feedback.FeedbackType.NEGATIVE.name().equals(String.valueOf(row.get("_id")))) {
+                    negative = count;
+                    avgNegative = avg;
+                }
+            }
+            for (Document row : facets.getList("categories", Document.class, List.of())) {
+                try {
+                    categories.put(Feedback.FeedbackCategory.valueOf(String.valueOf(row.get("_id"))), asLong(row.get("count")));
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+            for (Document row : facets.getList("open", Document.class, List.of())) {
+                open = asLong(row.get("count"));
+            }
+            for (Document row : facets.getList("topIssues", Document.class, List.of())) {
+                if (row.getString("query") != null) {
+                    topIssues.add(row.getString("query"));
+                }
+            }
+            return new FeedbackSummary(positive, negative, categories, open, avgPositive, avgNegative, topIssues);
+        }
+
+        private static long asLong(Object value) {
+            return value instanceof Number n ? n.longValue() : 0L;
+        }
+    }
+
     public static class FeedbackResult {
         private final boolean success;
         private final String feedbackId;
@@ -2,6 +2,7 @@ package com.jreinhal.mercenary.service;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,14 +11,12 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.time.Duration;
 import java.util.Base64;
 import java.util.List;
 
@@ -31,13 +30,17 @@ import java.util.List;
  *   sentinel.ocr.enabled: true/false
  *   sentinel.ocr.service-url: http://localhost:8090
  *   sentinel.ocr.timeout-seconds: 60
+ *   sentinel.ocr.max-connections: 4
  */
 @Service
 public class LightOnOcrService {
     private static final Logger log = LoggerFactory.getLogger(LightOnOcrService.class);
 
-    private final RestTemplate restTemplate;
+    static final String SIDECAR = "ocr";
+
+    private RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final SidecarHttpClients httpClients;
 
     @Value("${sentinel.ocr.enabled:false}")
     private boolean enabled;
@@ -48,27 +51,29 @@ public class LightOnOcrService {
     @Value("${sentinel.ocr.timeout-seconds:60}")
     private int timeoutSeconds;
 
+    @Value("${sentinel.ocr.max-connections:4}")
+    private int maxConnections = 4;
+
     @Value("${sentinel.ocr.max-tokens-per-page:2048}")
     private int maxTokensPerPage;
 
     @Value("${sentinel.ocr.max-pages:50}")
     private int maxPages;
 
-    // R-04: Disable automatic redirect following to prevent SSRF bypass via 3xx redirects
-    private static RestTemplate createNoRedirectRestTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory() {
-            @Override
-            protected void prepareConnection(HttpURLConnection connection, String httpMethod) throws IOException {
-                super.prepareConnection(connection, httpMethod);
-                connection.setInstanceFollowRedirects(false);
-            }
-        };
-        return new RestTemplate(factory);
+    public LightOnOcrService(SidecarHttpClients httpClients) {
+        this.httpClients = httpClients;
+        this.objectMapper = new ObjectMapper();
     }
 
-    public LightOnOcrService() {
-        this.restTemplate = createNoRedirectRestTemplate();
-        this.objectMapper = new ObjectMapper();
+    /**
+     * Build the RestTemplate once the @Value fields are injected so timeout-seconds
+     * applies to both connect and read.
+     */
+    @PostConstruct
+    void init() {
+        // R-04: the pooled client never follows redirects
+        Duration timeout = Duration.ofSeconds(timeoutSeconds);
+        this.restTemplate = httpClients.restTemplate(SIDECAR, maxConnections, timeout, timeout);
     }
 
     /**
@@ -0,0 +1,159 @@
+package com.jreinhal.mercenary.service;
+
+import com.jreinhal.mercenary.filter.SecurityContext;
+import com.jreinhal.mercenary.model.User;
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight layer for blocking LLM calls.
+ *
+ * <p>Concurrent calls with the same {@link Key} share one upstream request: the first caller runs the
+ * call on its own thread and every caller that arrives while it is in flight waits for that result. Nothing
+ * is retained after the call completes, so this is coalescing, not caching.</p>
+ *
+ * <p>A key covers the call site, the full prompt text and generation options, and the caller's security
+ * scope (workspace, sector, clearance). Keys must be built on the request thread with {@link #key}, because
+ * the workspace and user contexts are thread-local and the call itself usually runs on a pool thread.</p>
+ *
+ * <p>Coalesced calls are counted on {@value #COALESCED_COUNTER}, tagged by {@code call}.</p>
+ */
+@Component
+public class LlmCallCoalescer {
+    public static final String COALESCED_COUNTER = "sentinel.llm.coalesced";
+    public static final String CALL_ROUTER = "router";
+    public static final String CALL_QUERY_EXPANSION = "query_expansion";
+    public static final String CALL_HYDE = "hyde";
+    public static final String CALL_ANSWER = "answer";
+    public static final String CALL_DIRECT = "direct";
+    private static final LlmCallCoalescer PASSTHROUGH = new LlmCallCoalescer(false, (MeterRegistry) null);
+
+    private final boolean enabled;
+    @Nullable
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    @Autowired
+    public LlmCallCoalescer(@Value("${sentinel.performance.llm-coalescing-enabled:true}") boolean enabled,
+                            ObjectProvider<MeterRegistry> registryProvider) {
+        this(enabled, registryProvider.getIfAvailable());
+    }
+
+    public LlmCallCoalescer(boolean enabled, @Nullable MeterRegistry registry) {
+        this.enabled = enabled;
+        this.registry = registry;
+    }
+
+    /**
+     * Coalescer that always runs the call directly; the default for components built outside Spring.
+     */
+    public static LlmCallCoalescer passthrough() {
+        return PASSTHROUGH;
+    }
+
+    /**
+     * Build the coalescing key for a call from the current request context. {@code promptParts} should
+     * include every input that changes the model output: system prompt, user prompt and options.
+     */
+    public Key key(String call, @Nullable String department, Object... promptParts) {
+        User user = SecurityContext.getCurrentUser();
+        String scope = WorkspaceContext.getCurrentWorkspaceId()
+                + "|" + Objects.toString(department, "")
+                + "|" + (user != null && user.getClearance() != null ? user.getClearance().name() : "");
+        return new Key(call, scope, digest(promptParts));
+    }
+
+    /**
+     * Run {@code call}, or wait for an identical call that is already in flight and return its result.
+     * Failures of the shared call are rethrown to every waiting caller.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Key key, Supplier<T> call) {
+        if (!this.enabled || key == null) {
+            return call.get();
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = this.inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            this.coalesced.incrementAndGet();
+            if (this.registry != null) {
+                Counter.builder(COALESCED_COUNTER)
+                        .description("LLM calls served by an identical in-flight call")
+                        .tag("call", key.call())
+                        .register(this.registry)
+                        .increment();
+            }
+            return (T) await(existing);
+        }
+        try {
+            T result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlight.remove(key, mine);
+        }
+    }
+
+    public long getCoalescedCount() {
+        return this.coalesced.get();
+    }
+
+    int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> shared) {
+        try {
+            // get() rather than join() so a waiting caller stays interruptible.
+            return shared.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shared LLM call", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Shared LLM call failed", cause);
+        }
+    }
+
+    private static String digest(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(Objects.toString(part, "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Key(String call, String scope, String promptHash) {
+    }
+}
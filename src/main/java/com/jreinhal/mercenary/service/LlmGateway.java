@@ -0,0 +1,277 @@
+package com.jreinhal.mercenary.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Central admission point for calls to the model server.
+ *
+ * <p>At most {@code sentinel.llm.gateway.max-concurrent} calls run at once. Callers that cannot start
+ * immediately queue in one of four {@link Lane}s; a freed slot always goes to the highest-priority
+ * non-empty lane, FIFO within a lane, so ingest-time summarization never delays an interactive answer.
+ * A lane whose queue is full sheds new calls, and a queued call that is not admitted within the queue
+ * timeout fails; both surface as {@link LlmGatewayRejectedException}, which callers treat like any other
+ * LLM failure (each already has a fallback path).</p>
+ *
+ * <p>Callers that stop waiting after their own timeout pass it as the call's maximum queue wait, so an
+ * abandoned call is never admitted after its caller gave up, and run the call through {@link #submit} rather
+ * than the common pool; cancelling the returned future withdraws a call that is still queued.</p>
+ *
+ * <p>Queue wait is recorded per lane on {@code sentinel.llm.gateway.queue.wait}.</p>
+ */
+@Component
+public class LlmGateway implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(LlmGateway.class);
+    private static final LlmGateway UNBOUNDED = new LlmGateway(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE / 2);
+
+    /**
+     * Priority lanes, highest first.
+     */
+    public enum Lane {
+        /** User-facing answer generation. */
+        INTERACTIVE,
+        /** Guardrails, routing and query understanding on the request path. */
+        CONTROL,
+        /** Reranking, relevance grading and answer verification. */
+        RERANK,
+        /** Ingest-time and offline work such as Mindscape summarization. */
+        BACKGROUND;
+
+        String tag() {
+            return this.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final int maxConcurrent;
+    private final int maxQueuedPerLane;
+    private final long queueTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Lane, ArrayDeque<Waiter>> queues = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicLong> shed = new EnumMap<>(Lane.class);
+    private final Map<Lane, AtomicLong> timedOut = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final ExecutorService callerExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("llm-gateway-caller-", 0L).factory());
+    private int available;
+
+    public LlmGateway(
+            @Value("${sentinel.llm.gateway.max-concurrent:4}") int maxConcurrent,
+            @Value("${sentinel.llm.gateway.max-queued-per-lane:64}") int maxQueuedPerLane,
+            @Value("${sentinel.llm.gateway.queue-timeout-ms:30000}") long queueTimeoutMs) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueuedPerLane = Math.max(0, maxQueuedPerLane);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, queueTimeoutMs));
+        this.available = this.maxConcurrent;
+        for (Lane lane : Lane.values()) {
+            this.queues.put(lane, new ArrayDeque<>());
+            this.shed.put(lane, new AtomicLong());
+            this.timedOut.put(lane, new AtomicLong());
+        }
+        if (maxConcurrent < Integer.MAX_VALUE) {
+            log.info("LLM gateway initialized: maxConcurrent={}, maxQueuedPerLane={}, queueTimeoutMs={}",
+                    this.maxConcurrent, this.maxQueuedPerLane, queueTimeoutMs);
+        }
+    }
+
+    /**
+     * Gateway without limits; the default for components built outside Spring.
+     */
+    public static LlmGateway unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Run {@code call} once a model-server slot is available for {@code lane}.
+     *
+     * @throws LlmGatewayRejectedException if the lane queue is full or the queue timeout elapses
+     */
+    public <T> T call(Lane lane, Supplier<T> call) {
+        return this.call(lane, null, call);
+    }
+
+    /**
+     * Variant of {@link #call(Lane, Supplier)} that gives up queueing after {@code maxWait} (or the queue timeout,
+     * whichever is shorter), for callers that only wait that long for the result.
+     */
+    public <T> T call(Lane lane, Duration maxWait, Supplier<T> call) {
+        this.acquire(lane, maxWait);
+        try {
+            return call.get();
+        } finally {
+            this.release();
+        }
+    }
+
+    /**
+     * Run {@code task}, which makes gateway calls, on a dedicated virtual thread so the caller can wait with a
+     * timeout. Cancelling the returned future with interruption withdraws a call still queued in the gateway.
+     */
+    public <T> Future<T> submit(Supplier<T> task) {
+        return this.callerExecutor.submit(task::get);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.callerExecutor.shutdownNow();
+    }
+
+    /**
+     * Variant of {@link #call(Lane, Supplier)} for work that throws checked exceptions.
+     */
+    public <T> T callChecked(Lane lane, Callable<T> call) throws Exception {
+        this.acquire(lane, null);
+        try {
+            return call.call();
+        } finally {
+            this.release();
+        }
+    }
+
+    public int getInFlight() {
+        this.lock.lock();
+        try {
+            return this.maxConcurrent - this.available;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getQueued(Lane lane) {
+        this.lock.lock();
+        try {
+            return this.queues.get(lane).size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sentinel.llm.gateway.in_flight", this, LlmGateway::getInFlight)
+                .description("LLM calls currently running against the model server")
+                .register(registry);
+        for (Lane lane : Lane.values()) {
+            Gauge.builder("sentinel.llm.gateway.queued", this, self -> self.getQueued(lane))
+                    .description("LLM calls waiting for a model-server slot")
+                    .tag("lane", lane.tag())
+                    .register(registry);
+            FunctionCounter.builder("sentinel.llm.gateway.rejected", this.shed.get(lane), AtomicLong::get)
+                    .tag("lane", lane.tag()).tag("reason", "shed").register(registry);
+            FunctionCounter.builder("sentinel.llm.gateway.rejected", this.timedOut.get(lane), AtomicLong::get)
+                    .tag("lane", lane.tag()).tag("reason", "timeout").register(registry);
+            Timer timer = Timer.builder("sentinel.llm.gateway.queue.wait")
+                    .description("Time LLM calls spend queued before reaching the model server")
+                    .tag("lane", lane.tag())
+                    .register(registry);
+            this.waitTimers.put(lane, timer);
+        }
+    }
+
+    private void acquire(Lane lane, Duration maxWait) {
+        long start = System.nanoTime();
+        long remaining = this.queueTimeoutNanos;
+        if (maxWait != null) {
+            if (maxWait.isZero() || maxWait.isNegative()) {
+                this.timedOut.get(lane).incrementAndGet();
+                throw new LlmGatewayRejectedException("LLM gateway caller deadline passed for lane " + lane.tag());
+            }
+            remaining = Math.min(remaining, maxWait.toNanos());
+        }
+        this.lock.lock();
+        try {
+            if (this.available > 0) {
+                this.available--;
+                this.recordWait(lane, 0L);
+                return;
+            }
+            ArrayDeque<Waiter> queue = this.queues.get(lane);
+            if (queue.size() >= this.maxQueuedPerLane) {
+                this.shed.get(lane).incrementAndGet();
+                throw new LlmGatewayRejectedException("LLM gateway queue full for lane " + lane.tag());
+            }
+            Waiter waiter = new Waiter(this.lock.newCondition());
+            queue.addLast(waiter);
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0L) {
+                        queue.remove(waiter);
+                        this.timedOut.get(lane).incrementAndGet();
+                        throw new LlmGatewayRejectedException("LLM gateway queue timeout for lane " + lane.tag());
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.granted) {
+                    // The slot was handed over just before the interrupt; pass it on.
+                    this.releaseLocked();
+                } else {
+                    queue.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new LlmGatewayRejectedException("Interrupted while queued for LLM gateway", e);
+            }
+            this.recordWait(lane, System.nanoTime() - start);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void release() {
+        this.lock.lock();
+        try {
+            this.releaseLocked();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void releaseLocked() {
+        for (Lane lane : Lane.values()) {
+            Waiter next = this.queues.get(lane).pollFirst();
+            if (next != null) {
+                next.granted = true;
+                next.condition.signal();
+                return;
+            }
+        }
+        this.available++;
+    }
+
+    private void recordWait(Lane lane, long nanos) {
+        Timer timer = this.waitTimers.get(lane);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
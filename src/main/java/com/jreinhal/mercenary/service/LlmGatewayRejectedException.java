@@ -0,0 +1,11 @@
+package com.jreinhal.mercenary.service;
+
+public class LlmGatewayRejectedException extends RuntimeException {
+    public LlmGatewayRejectedException(String message) {
+        super(message);
+    }
+
+    public LlmGatewayRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -96,6 +96,21 @@ public class PiiRedactionService {
         this.tokenizationVault = tokenizationVault;
     }
 
+    /**
+     * Buffer tokenization-vault writes from {@link #redact} on this thread; see {@link TokenizationVault#beginBatch()}.
+     */
+    public void beginTokenBatch() {
+        this.tokenizationVault.beginBatch();
+    }
+
+    public void flushTokenBatch() {
+        this.tokenizationVault.flushBatch();
+    }
+
+    public void endTokenBatch() {
+        this.tokenizationVault.endBatch();
+    }
+
     public RedactionResult redact(String content) {
         return this.redact(content, null);
     }
@@ -0,0 +1,105 @@
+package com.jreinhal.mercenary.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.jreinhal.mercenary.Department;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer instrumentation for the RAG pipeline.
+ *
+ * <p>Every stage is recorded on one timer, {@value #STAGE_TIMER}, tagged with {@code stage},
+ * {@code department}, {@code strategy} and {@code outcome}, so p99 contributors can be isolated per
+ * retrieval engine and sector from the Prometheus histogram buckets. Department values are limited
+ * to {@link Department} names to keep tag cardinality bounded.</p>
+ *
+ * <p>Without a {@link MeterRegistry} (plain unit tests) every method simply runs the work; components
+ * that are built outside Spring default to {@link #noop()}.</p>
+ */
+@Component
+public class PipelineMetrics {
+    public static final String STAGE_TIMER = "sentinel.pipeline.stage";
+    public static final String STAGE_RETRIEVAL = "retrieval";
+    public static final String STAGE_EMBEDDING = "embedding";
+    public static final String STAGE_VECTOR_SCAN = "vector_scan";
+    public static final String STAGE_HYDRATE = "hydrate";
+    public static final String STAGE_RERANK = "rerank";
+    public static final String STAGE_REDACTION = "redaction";
+    public static final String STAGE_LLM = "llm";
+    /** Department tag for stages that run below the point where the sector is known (e.g. inside the vector store). */
+    public static final String UNSCOPED = "none";
+    private static final PipelineMetrics NOOP = new PipelineMetrics((MeterRegistry) null);
+
+    @Nullable
+    private final MeterRegistry registry;
+
+    @Autowired
+    public PipelineMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this(registryProvider.getIfAvailable());
+    }
+
+    public PipelineMetrics(@Nullable MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static PipelineMetrics noop() {
+        return NOOP;
+    }
+
+    public <T> T time(String stage, String department, String strategy, Supplier<T> work) {
+        if (this.registry == null) {
+            return work.get();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            this.record(stage, department, strategy, System.nanoTime() - start, success);
+        }
+    }
+
+    public void record(String stage, String department, String strategy, long elapsedNanos, boolean success) {
+        if (this.registry == null) {
+            return;
+        }
+        Timer.builder(STAGE_TIMER)
+                .description("Latency of RAG pipeline stages")
+                .tag("stage", stage)
+                .tag("department", normalizeDepartment(department))
+                .tag("strategy", strategy != null && !strategy.isBlank() ? strategy : UNSCOPED)
+                .tag("outcome", success ? "success" : "error")
+                .register(this.registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publish hit/miss/eviction metrics for a Caffeine cache. The cache must be built with
+     * {@code recordStats()} for the hit ratio to be non-zero.
+     */
+    public void monitorCache(String name, @Nullable Cache<?, ?> cache) {
+        if (this.registry != null && cache != null) {
+            CaffeineCacheMetrics.monitor(this.registry, cache, name);
+        }
+    }
+
+    static String normalizeDepartment(@Nullable String department) {
+        if (department == null || department.isBlank()) {
+            return UNSCOPED;
+        }
+        try {
+            return Department.fromString(department).name();
+        } catch (IllegalArgumentException e) {
+            return "OTHER";
+        }
+    }
+}
@@ -31,8 +31,10 @@ import com.jreinhal.mercenary.util.RagEvidenceFormatter;
 import com.jreinhal.mercenary.util.TemporalQueryConstraints;
 import com.jreinhal.mercenary.util.DocumentMetadataUtils;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import java.text.Normalizer;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
@@ -45,22 +47,28 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.ollama.api.OllamaOptions;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.stereotype.Service;
@@ -106,6 +114,9 @@ public class RagOrchestrationService {
     private final int llmNumCtx;
     private final OllamaOptions llmOptions;
     private static final String NO_RELEVANT_RECORDS = "No relevant records found.";
+    private static final String DIRECT_SYSTEM_PROMPT = "You are SENTINEL, an intelligence assistant. Respond helpfully and concisely.";
+    private static final AdaptiveRagService.RoutingResult ROUTING_TIMED_OUT = new AdaptiveRagService.RoutingResult(AdaptiveRagService.RoutingDecision.CHUNK, "Routing timed out", 0.0, Map.of());
+    private static final QuCoRagService.UncertaintyResult UNCERTAINTY_TIMED_OUT = new QuCoRagService.UncertaintyResult(0.0, List.of(), "Uncertainty analysis timed out");
     private static final Pattern STRICT_CITATION_PATTERN = Pattern.compile("\\[(?:Citation:\\s*)?(?:IMAGE:\\s*)?[^\\]]+\\.(pdf|txt|md|csv|xlsx|xls|doc|docx|pptx|html?|json|ndjson|log|png|jpg|jpeg|gif|tif|tiff|bmp)\\]", 2);
     private static final Pattern STRICT_CITATION_FILENAME_PATTERN = Pattern.compile("\\[(?:Citation:\\s*)?(?:IMAGE:\\s*)?([^\\]]+\\.(pdf|txt|md|csv|xlsx|xls|doc|docx|pptx|html?|json|ndjson|log|png|jpg|jpeg|gif|tif|tiff|bmp))\\]", 2);
     private static final Pattern METRIC_HINT_PATTERN = Pattern.compile("\\b(metric|metrics|performance|availability|uptime|latency|sla|kpi|mttd|mttr|throughput|error rate|response time|accuracy|precision|recall|f1|cost|risk|budget|revenue|expense|income|profit|loss|spend|spending|amount|total|price|value|rate|percentage|count|number|quantity|allocation|funding|compliance)\\b", 2);
@@ -155,6 +166,24 @@ public class RagOrchestrationService {
     private int chunkMaxTokens;
     @Value("${sentinel.token-budget.chunk.num-ctx:4096}")
     private int chunkNumCtx;
+    @Value("${sentinel.rag.sub-query-timeout-seconds:30}")
+    private int subQueryTimeoutSeconds = 30;
+    @Value("${sentinel.rag.query-understanding-timeout-seconds:15}")
+    private int queryUnderstandingTimeoutSeconds = 15;
+    @Value("${app.guardrails.speculative-retrieval:false}")
+    private boolean speculativeRetrieval;
+    @Autowired(required = false)
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+    @Autowired(required = false)
+    private SemanticAnswerCache answerCache;
+    @Autowired(required = false)
+    private LlmCallCoalescer llmCallCoalescer = LlmCallCoalescer.passthrough();
+    @Autowired(required = false)
+    private LlmGateway llmGateway = LlmGateway.unbounded();
+    // Sub-query workers only wait on ragExecutor tasks, so they must not run on ragExecutor themselves.
+    private final ExecutorService subQueryExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rag-subquery-", 0L).factory());
+    // Routing and uncertainty analysis run here while the request thread runs the guardrail check.
+    private final ExecutorService queryUnderstandingExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rag-understand-", 0L).factory());
 
     public RagOrchestrationService(ChatClient.Builder builder, VectorStore vectorStore, AuditService auditService, QueryDecompositionService queryDecompositionService, ReasoningTracer reasoningTracer, QuCoRagService quCoRagService, AdaptiveRagService adaptiveRagService, RewriteService rewriteService, RagPartService ragPartService, HybridRagService hybridRagService, HiFiRagService hiFiRagService, MiARagService miARagService, MegaRagService megaRagService, HGMemQueryEngine hgMemQueryEngine, AgenticRagOrchestrator agenticRagOrchestrator, BidirectionalRagService bidirectionalRagService, ModalityRouter modalityRouter, SectorConfig sectorConfig, PromptGuardrailService guardrailService, @org.springframework.lang.Nullable ConversationMemoryProvider conversationMemoryService, @org.springframework.lang.Nullable SessionPersistenceProvider sessionPersistenceService, LicenseService licenseService, PiiRedactionService piiRedactionService, HipaaPolicy hipaaPolicy, @org.springframework.lang.Nullable HipaaAuditProvider hipaaAuditService, Cache<String, String> secureDocCache, com.jreinhal.mercenary.workspace.WorkspaceQuotaService workspaceQuotaService,
                                   @Value(value="${spring.ai.ollama.chat.options.model:llama3.1:8b}") String llmModel,
@@ -251,11 +280,24 @@ public class RagOrchestrationService {
             // S2-05: Use safe quota type label instead of raw exception message
             return "ACCESS DENIED: " + e.getQuotaType() + " limit reached for this workspace.";
         }
+        String quotaWorkspaceId = com.jreinhal.mercenary.workspace.WorkspaceContext.getCurrentWorkspaceId();
+        try {
+            return this.askAdmitted(query, dept, department, user, fileParams, filesParam, request);
+        }
+        finally {
+            this.workspaceQuotaService.releaseQuery(quotaWorkspaceId);
+        }
+    }
+
+    private String askAdmitted(String query, String dept, Department department, User user, List<String> fileParams, String filesParam, HttpServletRequest request) {
         boolean hipaaStrict = this.hipaaPolicy.isStrict(department);
         List<String> activeFiles = this.parseActiveFiles(fileParams, filesParam);
         // Fix #3: Redact PII from user query BEFORE any pipeline processing.
         // All downstream stages (guardrail, routing, retrieval, LLM, audit) use the redacted query.
-        query = this.piiRedactionService.redact(query, hipaaStrict ? Boolean.TRUE : null).getRedactedContent();
+        String rawQuery = query;
+        query = this.pipelineMetrics.time(PipelineMetrics.STAGE_REDACTION, dept, "query",
+                () -> this.piiRedactionService.redact(rawQuery, hipaaStrict ? Boolean.TRUE : null)).getRedactedContent();
+        QueryUnderstanding understanding = QueryUnderstanding.NONE;
         try {
             String rescued;
             String response;
@@ -263,13 +305,16 @@ public class RagOrchestrationService {
             boolean isCompoundQuery;
             long start = System.currentTimeMillis();
             ResponsePolicy responsePolicy = responsePolicyForEdition(this.licenseService.getEdition());
+            boolean timeQuery = this.isTimeQuery(query);
+            understanding = timeQuery ? QueryUnderstanding.NONE : this.startQueryUnderstanding(query);
             if (this.isPromptInjection(query)) {
+                understanding.cancel();
                 if (user != null) {
                     this.auditService.logPromptInjection(user, query, request);
                 }
                 return "SECURITY ALERT: Indirect Prompt Injection Detected. Access Denied.";
             }
-            if (this.isTimeQuery(query)) {
+            if (timeQuery) {
                 String response2 = this.buildSystemTimeResponse();
                 long timeTaken = System.currentTimeMillis() - start;
                 this.totalLatencyMs.addAndGet(timeTaken);
@@ -279,12 +324,16 @@ public class RagOrchestrationService {
                 }
                 return response2;
             }
-            QuCoRagService.UncertaintyResult uncertaintyResult = this.quCoRagService.analyzeQueryUncertainty(query);
+            Traced<QuCoRagService.UncertaintyResult> uncertainty = this.awaitUnderstanding(understanding.uncertainty(), understanding, UNCERTAINTY_TIMED_OUT);
+            this.reasoningTracer.mergeScratchTrace(uncertainty.trace(), "");
+            QuCoRagService.UncertaintyResult uncertaintyResult = uncertainty.value();
             boolean highUncertainty = this.quCoRagService.shouldTriggerRetrieval(uncertaintyResult.uncertaintyScore());
             if (highUncertainty) {
                 log.info("QuCo-RAG: High uncertainty detected ({}), expanding retrieval", String.format("%.3f", uncertaintyResult.uncertaintyScore()));
             }
-            AdaptiveRagService.RoutingResult routing = this.adaptiveRagService.route(query);
+            Traced<AdaptiveRagService.RoutingResult> routed = this.awaitUnderstanding(understanding.routing(), understanding, ROUTING_TIMED_OUT);
+            this.reasoningTracer.mergeScratchTrace(routed.trace(), "");
+            AdaptiveRagService.RoutingResult routing = routed.value();
             responsePolicy = adjustForComplexity(responsePolicy, routing.decision());
             boolean bl = isCompoundQuery = (subQueries = this.queryDecompositionService.decompose(query)).size() > 1;
             if (isCompoundQuery) {
@@ -295,16 +344,11 @@ public class RagOrchestrationService {
             ArrayList<MegaRagService.CrossModalEdge> crossModalEdges = new ArrayList<>();
             ArrayList<String> globalContexts = new ArrayList<>();
             ArrayList<String> retrievalStrategies = new ArrayList<>();
-            for (String subQuery : subQueries) {
-                RetrievalContext context = this.retrieveContext(subQuery, dept, activeFiles, routing, highUncertainty, false);
-                if (context.textDocuments().isEmpty() && context.visualDocuments().isEmpty()) {
-                    log.info("CRAG: Retrieval failed for '{}'. Initiating Corrective Loop.", subQuery);
-                    String rewritten = this.rewriteService.rewriteQuery(subQuery);
-                    if (!rewritten.equals(subQuery)) {
-                        context = this.retrieveContext(rewritten, dept, activeFiles, routing, highUncertainty, false);
-                        log.info("CRAG: Retry with '{}' found {} docs.", rewritten, context.textDocuments().size());
-                    }
-                }
+            List<SubQueryRetrieval> subQueryRetrievals = this.retrieveSubQueries(subQueries, dept, activeFiles, routing, highUncertainty, false, RetrievalOverrides.DEFAULTS);
+            for (int i = 0; i < subQueryRetrievals.size(); ++i) {
+                SubQueryRetrieval retrieval = subQueryRetrievals.get(i);
+                RetrievalContext context = retrieval.context();
+                this.reasoningTracer.mergeScratchTrace(retrieval.trace(), isCompoundQuery ? " [" + (i + 1) + "/" + subQueries.size() + "]" : "");
                 allDocs.addAll(context.textDocuments());
                 visualDocs.addAll(context.visualDocuments());
                 crossModalEdges.addAll(context.crossModalEdges());
@@ -348,7 +392,8 @@ public class RagOrchestrationService {
                      String sysMsg = systemMessage.replace("{", "[").replace("}", "]");
                      String userQuery = query.replace("{", "[").replace("}", "]");
                      ChatOptions options = optionsForPolicy(responsePolicy);
-                     String rawResponse = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().system(sysMsg).user(userQuery).options(options).call().content()).get(llmTimeoutSeconds, TimeUnit.SECONDS);
+                     LlmCallCoalescer.Key callKey = this.llmCallCoalescer.key(LlmCallCoalescer.CALL_ANSWER, dept, sysMsg, userQuery, optionsKey(responsePolicy));
+                     String rawResponse = this.callInteractive(callKey, llmTimeoutSeconds, () -> this.pipelineMetrics.time(PipelineMetrics.STAGE_LLM, dept, "answer", () -> this.chatClient.prompt().system(sysMsg).user(userQuery).options(options).call().content()));
                     // Never log raw model output; it may contain sensitive data.
                     if (log.isDebugEnabled()) {
                         log.debug("LLM response received for /ask (len={})", rawResponse != null ? rawResponse.length() : 0);
@@ -479,7 +524,7 @@ public class RagOrchestrationService {
                             String sysMsg = retrySystemMessage.replace("{", "[").replace("}", "]");
                             String userQuery = query.replace("{", "[").replace("}", "]");
                             ChatOptions options = optionsForPolicy(responsePolicy);
-                            String rawRetry = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().system(sysMsg).user(userQuery).options(options).call().content()).get(llmTimeoutSeconds, TimeUnit.SECONDS);
+                            String rawRetry = this.callInteractive(null, llmTimeoutSeconds, () -> this.pipelineMetrics.time(PipelineMetrics.STAGE_LLM, dept, "retry", () -> this.chatClient.prompt().system(sysMsg).user(userQuery).options(options).call().content()));
                             response = cleanLlmResponse(rawRetry);
                             citationCount = RagOrchestrationService.countCitations(response);
                             if (citationCount == 0 && responsePolicy != null && responsePolicy.enforceCitations()) {
@@ -517,13 +562,28 @@ public class RagOrchestrationService {
             log.error("Error in /ask endpoint", (Throwable)e);
             throw e;
         }
+        finally {
+            understanding.cancel();
+        }
     }
     /**
      * Fix #9: Accept per-request RAG engine overrides from frontend settings toggles.
      * When null, the server-side default (from application.yaml / env vars) is used.
      */
-    public record RetrievalOverrides(Boolean useHyde, Boolean useGraphRag, Boolean useReranking) {
+    public record RetrievalOverrides(Boolean useHyde, Boolean useGraphRag, Boolean useReranking, boolean embeddingOnly) {
         static final RetrievalOverrides DEFAULTS = new RetrievalOverrides(null, null, null);
+
+        public RetrievalOverrides(Boolean useHyde, Boolean useGraphRag, Boolean useReranking) {
+            this(useHyde, useGraphRag, useReranking, false);
+        }
+
+        /**
+         * The same overrides with every strategy that puts the query in a model prompt (HyDE, query expansion,
+         * LLM reranking, agentic retrieval, CRAG rewrite) switched off, leaving embedding and keyword search.
+         */
+        RetrievalOverrides withoutModelCalls() {
+            return new RetrievalOverrides(this.useHyde, this.useGraphRag, this.useReranking, true);
+        }
     }
 
     public EnhancedAskResponse askEnhanced(String query, String dept, List<String> fileParams, String filesParam, String sessionId, boolean deepAnalysis, Boolean useHyde, Boolean useGraphRag, Boolean useReranking, HttpServletRequest request) {
@@ -567,10 +627,22 @@ public class RagOrchestrationService {
             return new EnhancedAskResponse("ACCESS DENIED: " + e.getQuotaType() + " limit reached for this workspace.", List.of(), List.of(),
                     Map.of("error", "WORKSPACE_QUOTA", "quota", e.getQuotaType()), null);
         }
+        String quotaWorkspaceId = com.jreinhal.mercenary.workspace.WorkspaceContext.getCurrentWorkspaceId();
+        try {
+            return this.askEnhancedAdmitted(query, dept, department, user, fileParams, filesParam, sessionId, deepAnalysis, overrides, request);
+        }
+        finally {
+            this.workspaceQuotaService.releaseQuery(quotaWorkspaceId);
+        }
+    }
+
+    private EnhancedAskResponse askEnhancedAdmitted(String query, String dept, Department department, User user, List<String> fileParams, String filesParam, String sessionId, boolean deepAnalysis, RetrievalOverrides overrides, HttpServletRequest request) {
         boolean hipaaStrict = this.hipaaPolicy.isStrict(department);
         List<String> activeFiles = this.parseActiveFiles(fileParams, filesParam);
         // Fix #3: Redact PII from user query BEFORE any pipeline processing.
-        query = this.piiRedactionService.redact(query, hipaaStrict ? Boolean.TRUE : null).getRedactedContent();
+        String rawQuery = query;
+        query = this.pipelineMetrics.time(PipelineMetrics.STAGE_REDACTION, dept, "query",
+                () -> this.piiRedactionService.redact(rawQuery, hipaaStrict ? Boolean.TRUE : null)).getRedactedContent();
         String effectiveSessionId = sessionId;
         if (sessionId != null && !sessionId.isBlank()) {
             try {
@@ -599,21 +671,30 @@ public class RagOrchestrationService {
         }
         String traceQuery = hipaaStrict ? this.piiRedactionService.redact(query, Boolean.TRUE).getRedactedContent() : query;
         ReasoningTrace trace = this.reasoningTracer.startTrace(traceQuery, dept);
+        QueryUnderstanding understanding = QueryUnderstanding.NONE;
+        GuardrailGate guardrail = null;
         try {
             Object source;
             String rescued;
             String response;
             long start = System.currentTimeMillis();
             ResponsePolicy responsePolicy = responsePolicyForEdition(this.licenseService.getEdition());
+            boolean timeQuery = this.isTimeQuery(query);
+            understanding = timeQuery ? QueryUnderstanding.NONE : this.startQueryUnderstanding(query);
             long stepStart = System.currentTimeMillis();
-            if (this.isPromptInjection(query)) {
-                this.reasoningTracer.addStep(ReasoningStep.StepType.SECURITY_CHECK, "Security Scan", "BLOCKED: Prompt injection detected", System.currentTimeMillis() - stepStart, Map.of("blocked", true, "reason", "injection_detected"));
-                this.auditService.logPromptInjection(user, query, request);
-                ReasoningTrace completed = this.reasoningTracer.endTrace();
-                return new EnhancedAskResponse("SECURITY ALERT: Indirect Prompt Injection Detected.", completed != null ? completed.getStepsAsMaps() : List.of(), List.of(), Map.of(), completed != null ? completed.getTraceId() : null);
-            }
-            this.reasoningTracer.addStep(ReasoningStep.StepType.SECURITY_CHECK, "Security Scan", "Query passed injection detection", System.currentTimeMillis() - stepStart, Map.of("blocked", false));
-            if (this.isTimeQuery(query)) {
+            guardrail = new GuardrailGate(this.startGuardrail(query, timeQuery), stepStart);
+            // An unvetted query must not reach a model prompt, so speculative retrieval is embedding-only.
+            RetrievalOverrides retrievalOverrides = guardrail.isSpeculative() ? overrides.withoutModelCalls() : overrides;
+            EnhancedAskResponse blockedResponse;
+            // Without speculation the verdict is already final; otherwise work continues in a trace sandbox
+            // and every path below resolves the gate before producing output.
+            if (guardrail.isDone() && (blockedResponse = this.blockedByGuardrail(guardrail, understanding, user, query, request)) != null) {
+                return blockedResponse;
+            }
+            if (timeQuery) {
+                if ((blockedResponse = this.blockedByGuardrail(guardrail, understanding, user, query, request)) != null) {
+                    return blockedResponse;
+                }
                 stepStart = System.currentTimeMillis();
                 String response2 = this.buildSystemTimeResponse();
                 this.reasoningTracer.addStep(ReasoningStep.StepType.QUERY_ANALYSIS, "System Time", "Answered using local system clock", System.currentTimeMillis() - stepStart, Map.of("timezone", ZonedDateTime.now().getZone().toString()));
@@ -624,17 +705,49 @@ public class RagOrchestrationService {
                 this.auditService.logQuery(user, query, department, response2, request);
                 return new EnhancedAskResponse(response2, completedTrace != null ? completedTrace.getStepsAsMaps() : List.of(), List.of(), Map.of("latencyMs", timeTaken, "routingDecision", "SYSTEM_TIME", "routingReason", "Local system clock", "documentsRetrieved", 0, "subQueries", 1, "activeFileCount", activeFiles.size()), completedTrace != null ? completedTrace.getTraceId() : null);
             }
-            stepStart = System.currentTimeMillis();
-            AdaptiveRagService.RoutingResult routingResult = this.adaptiveRagService.route(query);
+            SemanticAnswerCache.Lookup cacheLookup = null;
+            if (this.answerCache != null && this.answerCache.isEnabled() && !hipaaStrict) {
+                stepStart = System.currentTimeMillis();
+                SemanticAnswerCache.Scope cacheScope = SemanticAnswerCache.scope(WorkspaceContext.getCurrentWorkspaceId(), department, user.getClearance(), activeFiles, deepAnalysis + "|" + retrievalOverrides);
+                cacheLookup = this.answerCache.lookup(cacheScope, query);
+                if (cacheLookup.isHit()) {
+                    if ((blockedResponse = this.blockedByGuardrail(guardrail, understanding, user, query, request)) != null) {
+                        return blockedResponse;
+                    }
+                    SemanticAnswerCache.CachedAnswer cached = cacheLookup.hit();
+                    this.reasoningTracer.addStep(ReasoningStep.StepType.CACHE_OPERATION, "Answer Cache", String.format(Locale.ROOT, "Served cached answer (similarity %.3f)", cacheLookup.similarity()), System.currentTimeMillis() - stepStart, Map.of("hit", true, "similarity", cacheLookup.similarity()));
+                    long timeTaken = System.currentTimeMillis() - start;
+                    this.totalLatencyMs.addAndGet(timeTaken);
+                    this.queryCount.incrementAndGet();
+                    this.reasoningTracer.addMetric("totalLatencyMs", timeTaken);
+                    ReasoningTrace completedTrace = this.reasoningTracer.endTrace();
+                    this.auditService.logQuery(user, query, department, cached.response(), request);
+                    LinkedHashMap<String, Object> metrics = new LinkedHashMap<String, Object>(cached.metrics());
+                    metrics.put("latencyMs", timeTaken);
+                    metrics.put("answerCacheHit", true);
+                    metrics.put("answerCacheSimilarity", cacheLookup.similarity());
+                    this.persistAssistantTurn(user, effectiveSessionId, department, cached.response(), cached.sources(), completedTrace);
+                    return new EnhancedAskResponse(cached.response(), completedTrace != null ? completedTrace.getStepsAsMaps() : List.of(), cached.sources(), metrics, completedTrace != null ? completedTrace.getTraceId() : null);
+                }
+                this.reasoningTracer.addStep(ReasoningStep.StepType.CACHE_OPERATION, "Answer Cache", "No cached answer for this scope", System.currentTimeMillis() - stepStart, Map.of("hit", false));
+            }
+            Traced<AdaptiveRagService.RoutingResult> routing = this.awaitUnderstanding(understanding.routing(), understanding, ROUTING_TIMED_OUT);
+            this.reasoningTracer.mergeScratchTrace(routing.trace(), "");
+            AdaptiveRagService.RoutingResult routingResult = routing.value();
             AdaptiveRagService.RoutingDecision routingDecision = routingResult.decision();
             responsePolicy = adjustForComplexity(responsePolicy, routingDecision);
             if (this.adaptiveRagService.shouldSkipRetrieval(routingDecision)) {
+                understanding.cancel();
+                if ((blockedResponse = this.blockedByGuardrail(guardrail, understanding, user, query, request)) != null) {
+                    return blockedResponse;
+                }
                 String directResponse;
                 log.info("AdaptiveRAG: ZeroHop path - skipping retrieval for conversational query");
                 try {
                     String userQuery = query.replace("{", "[").replace("}", "]");
                     ChatOptions options = optionsForPolicy(responsePolicy);
-                    String rawResponse = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().system("You are SENTINEL, an intelligence assistant. Respond helpfully and concisely.").user(userQuery).options(options).call().content()).get(llmTimeoutSeconds, TimeUnit.SECONDS);
+                    LlmCallCoalescer.Key callKey = this.llmCallCoalescer.key(LlmCallCoalescer.CALL_DIRECT, dept, DIRECT_SYSTEM_PROMPT, userQuery, optionsKey(responsePolicy));
+                    String rawResponse = this.callInteractive(callKey, llmTimeoutSeconds, () -> this.pipelineMetrics.time(PipelineMetrics.STAGE_LLM, dept, "direct", () -> this.chatClient.prompt().system(DIRECT_SYSTEM_PROMPT).user(userQuery).options(options).call().content()));
                     directResponse = cleanLlmResponse(rawResponse);
                 }
                 catch (TimeoutException te) {
@@ -666,33 +779,35 @@ public class RagOrchestrationService {
             stepStart = System.currentTimeMillis();
             String scopeDetail = activeFiles.isEmpty() ? "No file scope filter applied" : "Restricting retrieval to " + activeFiles.size() + " uploaded file(s)";
             this.reasoningTracer.addStep(ReasoningStep.StepType.FILTERING, "Scope Filter", scopeDetail, System.currentTimeMillis() - stepStart, Map.of("activeFiles", activeFiles, "fileCount", activeFiles.size()));
-            stepStart = System.currentTimeMillis();
-            QuCoRagService.UncertaintyResult uncertaintyResult = this.quCoRagService.analyzeQueryUncertainty(query);
+            Traced<QuCoRagService.UncertaintyResult> uncertainty = this.awaitUnderstanding(understanding.uncertainty(), understanding, UNCERTAINTY_TIMED_OUT);
+            this.reasoningTracer.mergeScratchTrace(uncertainty.trace(), "");
+            QuCoRagService.UncertaintyResult uncertaintyResult = uncertainty.value();
             boolean highUncertainty = this.quCoRagService.shouldTriggerRetrieval(uncertaintyResult.uncertaintyScore());
-            this.reasoningTracer.addStep(ReasoningStep.StepType.UNCERTAINTY_ANALYSIS, "QuCo-RAG Uncertainty", highUncertainty ? "High uncertainty; expanding retrieval" : "Low uncertainty", System.currentTimeMillis() - stepStart, Map.of("uncertaintyScore", uncertaintyResult.uncertaintyScore(), "highUncertainty", highUncertainty));
+            this.reasoningTracer.addStep(ReasoningStep.StepType.UNCERTAINTY_ANALYSIS, "QuCo-RAG Uncertainty", highUncertainty ? "High uncertainty; expanding retrieval" : "Low uncertainty", uncertainty.elapsedMs(), Map.of("uncertaintyScore", uncertaintyResult.uncertaintyScore(), "highUncertainty", highUncertainty));
 
             LinkedHashSet<Document> allDocs = new LinkedHashSet<>();
             ArrayList<Document> visualDocs = new ArrayList<>();
             ArrayList<String> globalContexts = new ArrayList<>();
             ArrayList<String> retrievalStrategies = new ArrayList<>();
-            for (int i = 0; i < subQueries.size(); ++i) {
-                String subQuery = subQueries.get(i);
-                stepStart = System.currentTimeMillis();
-                RetrievalContext context = this.retrieveContext(subQuery, dept, activeFiles, routingResult, highUncertainty, deepAnalysis, overrides);
-                if (context.textDocuments().isEmpty() && context.visualDocuments().isEmpty()) {
-                    log.info("CRAG: Retrieval failed for '{}'. Initiating Corrective Loop.", subQuery);
-                    String rewritten = this.rewriteService.rewriteQuery(subQuery);
-                    if (!rewritten.equals(subQuery)) {
-                        context = this.retrieveContext(rewritten, dept, activeFiles, routingResult, highUncertainty, deepAnalysis, overrides);
-                    }
-                }
+            List<SubQueryRetrieval> subQueryRetrievals = this.retrieveSubQueries(subQueries, dept, activeFiles, routingResult, highUncertainty, deepAnalysis, retrievalOverrides);
+            for (int i = 0; i < subQueryRetrievals.size(); ++i) {
+                SubQueryRetrieval retrieval = subQueryRetrievals.get(i);
+                String subQuery = retrieval.subQuery();
+                RetrievalContext context = retrieval.context();
+                String position = isCompoundQuery ? " [" + (i + 1) + "/" + subQueries.size() + "]" : "";
+                this.reasoningTracer.mergeScratchTrace(retrieval.trace(), position);
                 allDocs.addAll(context.textDocuments());
                 visualDocs.addAll(context.visualDocuments());
                 if (context.globalContext() != null && !context.globalContext().isBlank()) {
                     globalContexts.add(context.globalContext());
                 }
                 retrievalStrategies.addAll(context.strategies());
-                this.reasoningTracer.addStep(ReasoningStep.StepType.RETRIEVAL, "Retrieval" + (String)(isCompoundQuery ? " [" + (i + 1) + "/" + subQueries.size() + "]" : ""), "Retrieved " + context.textDocuments().size() + " text docs and " + context.visualDocuments().size() + " visual docs", System.currentTimeMillis() - stepStart, Map.of("query", subQuery, "textDocs", context.textDocuments().size(), "visualDocs", context.visualDocuments().size(), "strategies", context.strategies()));
+                String retrievalDetail = retrieval.timedOut() ? "Timed out after " + retrieval.elapsedMs() + "ms; no documents used" : "Retrieved " + context.textDocuments().size() + " text docs and " + context.visualDocuments().size() + " visual docs";
+                this.reasoningTracer.addStep(ReasoningStep.StepType.RETRIEVAL, "Retrieval" + position, retrievalDetail, retrieval.elapsedMs(), Map.of("query", subQuery, "textDocs", context.textDocuments().size(), "visualDocs", context.visualDocuments().size(), "strategies", context.strategies(), "timedOut", retrieval.timedOut()));
+            }
+            // Speculatively retrieved documents stay local until the guardrail passes.
+            if ((blockedResponse = this.blockedByGuardrail(guardrail, understanding, user, query, request)) != null) {
+                return blockedResponse;
             }
             ArrayList<Document> rawDocs = new ArrayList<Document>(allDocs);
             stepStart = System.currentTimeMillis();
@@ -743,7 +858,8 @@ public class RagOrchestrationService {
                     String sysMsg = systemMessage.replace("{", "[").replace("}", "]");
                     String userQuery = query.replace("{", "[").replace("}", "]");
                     ChatOptions options = optionsForPolicy(responsePolicy);
-                    String rawResponse = CompletableFuture.supplyAsync(() -> this.chatClient.prompt().system(sysMsg).user(userQuery).options(options).call().content()).get(llmTimeoutSeconds, TimeUnit.SECONDS);
+                    LlmCallCoalescer.Key callKey = this.llmCallCoalescer.key(LlmCallCoalescer.CALL_ANSWER, dept, sysMsg, userQuery, optionsKey(responsePolicy));
+                    String rawResponse = this.callInteractive(callKey, llmTimeoutSeconds, () -> this.pipelineMetrics.time(PipelineMetrics.STAGE_LLM, dept, "answer", () -> this.chatClient.prompt().system(sysMsg).user(userQuery).options(options).call().content()));
                     response = cleanLlmResponse(rawResponse);
                 }
             }
@@ -958,30 +1074,28 @@ public class RagOrchestrationService {
                 metrics.put("editionAppendEvidenceOnNoCitations", responsePolicy.appendEvidenceWhenNoCitations());
             }
             metrics.put("retrievalStrategies", retrievalStrategies);
-            // Fix #8: Persist conversation memory (assistant response, message count, reasoning trace)
-            if (effectiveSessionId != null && !this.hipaaPolicy.shouldDisableSessionMemory(department)
-                    && this.conversationMemoryService != null
-                    && this.sessionPersistenceService != null) {
-                try {
-                    List<String> responseSources = sources;
-                    this.conversationMemoryService.saveAssistantMessage(user.getId(), effectiveSessionId, response, responseSources);
-                    this.sessionPersistenceService.incrementMessageCount(effectiveSessionId);
-                    if (completedTrace != null) {
-                        this.sessionPersistenceService.persistTrace(completedTrace, effectiveSessionId);
-                    }
-                } catch (Exception memEx) {
-                    if (log.isWarnEnabled()) {
-                        log.warn("Session persistence failed (non-fatal): {}", memEx.getMessage());
-                    }
-                }
+            if (cacheLookup != null && llmSuccess && answerable && !isTimeoutResponse && !hasHallucinationRisk) {
+                LinkedHashMap<String, Object> cachedMetrics = new LinkedHashMap<String, Object>(metrics);
+                cachedMetrics.remove("latencyMs");
+                this.answerCache.store(cacheLookup, new SemanticAnswerCache.CachedAnswer(response, sources, cachedMetrics));
             }
+            this.persistAssistantTurn(user, effectiveSessionId, department, response, sources, completedTrace);
             return new EnhancedAskResponse(response, completedTrace != null ? completedTrace.getStepsAsMaps() : List.of(), sources, metrics, completedTrace != null ? completedTrace.getTraceId() : null);
         }
         catch (Exception e) {
             log.error("Error in /ask/enhanced endpoint", (Throwable)e);
+            if (guardrail != null) {
+                guardrail.abandon();
+            }
             ReasoningTrace errorTrace = this.reasoningTracer.endTrace();
             return new EnhancedAskResponse("An error occurred processing your query. Please try again or contact support. [ERR-1002]", errorTrace != null ? errorTrace.getStepsAsMaps() : List.of(), List.of(), Map.of("errorCode", "ERR-1002"), errorTrace != null ? errorTrace.getTraceId() : null);
         }
+        finally {
+            understanding.cancel();
+            if (guardrail != null) {
+                guardrail.abandon();
+            }
+        }
     }
 
     record ResponsePolicy(LicenseService.Edition edition,
@@ -1034,6 +1148,13 @@ public class RagOrchestrationService {
                 .withNumCtx(Integer.valueOf(ctx));
     }
 
+    // Mirrors optionsForPolicy; identifies the generation options in LLM coalescing keys.
+    private String optionsKey(ResponsePolicy policy) {
+        int tokens = policy != null ? policy.maxTokens() : this.llmNumPredict;
+        int ctx = policy != null ? policy.numCtx() : this.llmNumCtx;
+        return this.llmModel + "|" + this.llmTemperature + "|" + tokens + "|" + ctx;
+    }
+
     private ChatOptions optionsForCitationRepair(ResponsePolicy policy) {
         int tokens = policy != null ? Math.max(256, policy.maxTokens()) : this.llmNumPredict;
         // Citation repair needs full context window regardless of complexity tier.
@@ -1092,9 +1213,7 @@ public class RagOrchestrationService {
             String userMsg = repairUser.replace("{", "[").replace("}", "]");
             long timeout = Math.max(5L, Math.min(llmTimeoutSeconds, 90L));
             ChatOptions options = optionsForCitationRepair(policy);
-            String raw = CompletableFuture
-                    .supplyAsync(() -> this.chatClient.prompt().system(sysMsg).user(userMsg).options(options).call().content())
-                    .get(timeout, TimeUnit.SECONDS);
+            String raw = this.callInteractive(null, timeout, () -> this.pipelineMetrics.time(PipelineMetrics.STAGE_LLM, department != null ? department.name() : null, "citation_repair", () -> this.chatClient.prompt().system(sysMsg).user(userMsg).options(options).call().content()));
 
             if (raw == null || raw.isBlank()) {
                 return draft;
@@ -1663,7 +1782,7 @@ public class RagOrchestrationService {
         }).toList();
     }
 
-    private static String extractSnippet(String content, Set<String> keywords, boolean wantsMetrics, int minKeywordHits, String query) {
+    static String extractSnippet(String content, Set<String> keywords, boolean wantsMetrics, int minKeywordHits, String query) {
         if (content == null) {
             return "";
         }
@@ -2344,7 +2463,7 @@ public class RagOrchestrationService {
         return cleaned.trim();
     }
 
-    private static Set<String> buildQueryKeywords(String query) {
+    static Set<String> buildQueryKeywords(String query) {
         if (query == null || query.isBlank()) {
             return Set.of();
         }
@@ -2380,6 +2499,10 @@ public class RagOrchestrationService {
     }
 
     private List<Document> performHybridReranking(String query, String dept, double threshold, List<String> activeFiles) {
+        return this.performHybridReranking(query, dept, threshold, activeFiles, true);
+    }
+
+    private List<Document> performHybridReranking(String query, String dept, double threshold, List<String> activeFiles, boolean expandQuery) {
         String normalizedDept = dept != null ? dept.toUpperCase(java.util.Locale.ROOT) : "";
         if (!Set.of("GOVERNMENT", "MEDICAL", "ENTERPRISE").contains(normalizedDept)) {
             if (log.isWarnEnabled()) {
@@ -2391,7 +2514,7 @@ public class RagOrchestrationService {
         Set<String> queryKeywords = RagOrchestrationService.buildQueryKeywords(query);
         if (this.hybridRagService != null && this.hybridRagService.isEnabled()) {
             try {
-                HybridRagService.HybridRetrievalResult result = this.hybridRagService.retrieve(query, dept);
+                HybridRagService.HybridRetrievalResult result = this.hybridRagService.retrieve(query, dept, expandQuery);
                 List<Document> scoped = this.filterDocumentsByFiles(result.documents(), activeFiles);
                 if (!scoped.isEmpty()) {
                     return this.sortDocumentsDeterministically(new ArrayList<>(scoped));
@@ -2585,6 +2708,178 @@ public class RagOrchestrationService {
         return this.sortDocumentsDeterministically(filtered);
     }
 
+    /**
+     * Retrieve every decomposed sub-query under one shared deadline. With more than one sub-query the
+     * retrievals run concurrently on virtual threads carrying the caller's user, workspace, logging context
+     * and a scratch trace; results are returned in sub-query order so downstream merging stays deterministic. A
+     * sub-query that misses the deadline is cancelled and contributes no documents.
+     */
+    private List<SubQueryRetrieval> retrieveSubQueries(List<String> subQueries, String dept, List<String> activeFiles, AdaptiveRagService.RoutingResult routing, boolean highUncertainty, boolean deepAnalysis, RetrievalOverrides overrides) {
+        ArrayList<SubQueryRetrieval> results = new ArrayList<>(subQueries.size());
+        if (subQueries.size() <= 1) {
+            for (String subQuery : subQueries) {
+                long startNanos = System.nanoTime();
+                RetrievalContext context = this.retrieveWithCorrection(subQuery, dept, activeFiles, routing, highUncertainty, deepAnalysis, overrides);
+                results.add(new SubQueryRetrieval(subQuery, context, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), null, false));
+            }
+            return results;
+        }
+        User user = SecurityContext.getCurrentUser();
+        String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
+        ReasoningTrace parentTrace = this.reasoningTracer.getCurrentTrace();
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+        long startNanos = System.nanoTime();
+        ArrayList<Future<SubQueryRetrieval>> futures = new ArrayList<>(subQueries.size());
+        for (String subQuery : subQueries) {
+            futures.add(this.subQueryExecutor.submit(() -> {
+                SecurityContext.setCurrentUser(user);
+                WorkspaceContext.setCurrentWorkspaceId(workspaceId);
+                if (logContext != null) {
+                    MDC.setContextMap(logContext);
+                }
+                ReasoningTrace scratch = this.reasoningTracer.bindScratchTrace(parentTrace);
+                long taskStart = System.nanoTime();
+                try {
+                    RetrievalContext context = this.retrieveWithCorrection(subQuery, dept, activeFiles, routing, highUncertainty, deepAnalysis, overrides);
+                    return new SubQueryRetrieval(subQuery, context, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - taskStart), scratch, false);
+                } finally {
+                    MDC.clear();
+                    this.reasoningTracer.unbindScratchTrace();
+                    WorkspaceContext.clear();
+                    SecurityContext.clear();
+                }
+            }));
+        }
+        long deadline = startNanos + TimeUnit.SECONDS.toNanos(Math.max(1, this.subQueryTimeoutSeconds));
+        try {
+            for (int i = 0; i < futures.size(); ++i) {
+                Future<SubQueryRetrieval> future = futures.get(i);
+                try {
+                    results.add(future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    if (log.isWarnEnabled()) {
+                        log.warn("Sub-query {}/{} missed the {}s retrieval deadline; continuing without it", i + 1, futures.size(), this.subQueryTimeoutSeconds);
+                    }
+                    results.add(new SubQueryRetrieval(subQueries.get(i), RetrievalContext.empty(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), null, true));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new IllegalStateException("Interrupted while retrieving sub-queries", e);
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Sub-query retrieval failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Run an INTERACTIVE-lane model call, coalesced on {@code callKey} when one is given, for at most
+     * {@code timeoutSeconds} including the wait for a lane slot. A call that misses the deadline is cancelled,
+     * which withdraws it from the lane queue or interrupts it, so an abandoned request does not run anyway.
+     */
+    private String callInteractive(LlmCallCoalescer.Key callKey, long timeoutSeconds, Supplier<String> call) throws InterruptedException, ExecutionException, TimeoutException {
+        Duration maxWait = Duration.ofSeconds(timeoutSeconds);
+        Future<String> future = this.llmGateway.submit(() -> this.llmCallCoalescer.execute(callKey, () -> this.llmGateway.call(LlmGateway.Lane.INTERACTIVE, maxWait, call)));
+        boolean completed = false;
+        try {
+            String response = future.get(timeoutSeconds, TimeUnit.SECONDS);
+            completed = true;
+            return response;
+        } finally {
+            if (!completed) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Start routing and query-uncertainty analysis for {@code query} on worker threads. Neither depends on
+     * the guardrail verdict, so both run while the request thread performs the guardrail check; callers
+     * {@link QueryUnderstanding#cancel() cancel} them when the guardrail blocks or the request is answered
+     * without retrieval.
+     */
+    private QueryUnderstanding startQueryUnderstanding(String query) {
+        User user = SecurityContext.getCurrentUser();
+        String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+        ReasoningTrace parentTrace = this.reasoningTracer.getCurrentTrace();
+        return new QueryUnderstanding(
+                this.submitUnderstanding(user, workspaceId, logContext, parentTrace, () -> this.adaptiveRagService.route(query)),
+                this.submitUnderstanding(user, workspaceId, logContext, parentTrace, () -> this.quCoRagService.analyzeQueryUncertainty(query)),
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(1, this.queryUnderstandingTimeoutSeconds)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.subQueryExecutor.shutdownNow();
+        this.queryUnderstandingExecutor.shutdownNow();
+    }
+
+    private <T> Future<Traced<T>> submitUnderstanding(User user, String workspaceId, Map<String, String> logContext, ReasoningTrace parentTrace, Supplier<T> task) {
+        return this.queryUnderstandingExecutor.submit(() -> {
+            SecurityContext.setCurrentUser(user);
+            WorkspaceContext.setCurrentWorkspaceId(workspaceId);
+            if (logContext != null) {
+                MDC.setContextMap(logContext);
+            }
+            ReasoningTrace scratch = this.reasoningTracer.bindScratchTrace(parentTrace);
+            long startNanos = System.nanoTime();
+            try {
+                return new Traced<>(task.get(), scratch, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            } finally {
+                MDC.clear();
+                this.reasoningTracer.unbindScratchTrace();
+                WorkspaceContext.clear();
+                SecurityContext.clear();
+            }
+        });
+    }
+
+    /**
+     * Wait for one understanding result until the stage deadline. A stage that misses it is cancelled and
+     * the request continues with {@code fallback}, which keeps the default retrieval path.
+     */
+    private <T> Traced<T> awaitUnderstanding(Future<Traced<T>> future, QueryUnderstanding understanding, T fallback) {
+        try {
+            return future.get(Math.max(0L, understanding.deadlineNanos() - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            understanding.cancel();
+            if (log.isWarnEnabled()) {
+                log.warn("Query analysis missed the {}s deadline; continuing with default routing", this.queryUnderstandingTimeoutSeconds);
+            }
+            return new Traced<>(fallback, null, TimeUnit.SECONDS.toMillis(Math.max(1, this.queryUnderstandingTimeoutSeconds)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            understanding.cancel();
+            throw new IllegalStateException("Interrupted during query analysis", e);
+        } catch (ExecutionException e) {
+            understanding.cancel();
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Query analysis failed", e.getCause());
+        }
+    }
+
+    private RetrievalContext retrieveWithCorrection(String subQuery, String dept, List<String> activeFiles, AdaptiveRagService.RoutingResult routing, boolean highUncertainty, boolean deepAnalysis, RetrievalOverrides overrides) {
+        RetrievalContext context = this.retrieveContext(subQuery, dept, activeFiles, routing, highUncertainty, deepAnalysis, overrides);
+        if (context.textDocuments().isEmpty() && context.visualDocuments().isEmpty() && !overrides.embeddingOnly()) {
+            log.info("CRAG: Retrieval failed for '{}'. Initiating Corrective Loop.", subQuery);
+            String rewritten = this.rewriteService.rewriteQuery(subQuery);
+            if (!rewritten.equals(subQuery)) {
+                context = this.retrieveContext(rewritten, dept, activeFiles, routing, highUncertainty, deepAnalysis, overrides);
+                log.info("CRAG: Retry with '{}' found {} docs.", rewritten, context.textDocuments().size());
+            }
+        }
+        return context;
+    }
+
     private RetrievalContext retrieveContext(String query, String dept, List<String> activeFiles, AdaptiveRagService.RoutingResult routing, boolean highUncertainty, boolean deepAnalysis) {
         return retrieveContext(query, dept, activeFiles, routing, highUncertainty, deepAnalysis, RetrievalOverrides.DEFAULTS);
     }
@@ -2595,6 +2890,7 @@ public class RagOrchestrationService {
         boolean hydeAllowed = overrides.useHyde() == null || overrides.useHyde();
         boolean graphRagAllowed = overrides.useGraphRag() == null || overrides.useGraphRag();
         boolean rerankingAllowed = overrides.useReranking() == null || overrides.useReranking();
+        boolean modelCallsAllowed = !overrides.embeddingOnly();
         boolean complexQuery = routing != null && routing.decision() == AdaptiveRagService.RoutingDecision.DOCUMENT;
         boolean relationshipQuery = RELATIONSHIP_PATTERN.matcher(query).find();
         boolean longQuery = query.split("\\s+").length > 15;
@@ -2624,7 +2920,7 @@ public class RagOrchestrationService {
         }
 
         if (this.ragPartService != null && this.ragPartService.isEnabled()) {
-            ragPartResult = this.ragPartService.retrieve(query, dept);
+            ragPartResult = this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "RAGPart", () -> this.ragPartService.retrieve(query, dept));
             if (!ragPartResult.verifiedDocuments().isEmpty()) {
                 textDocs.addAll(ragPartResult.verifiedDocuments());
                 strategies.add("RAGPart");
@@ -2632,7 +2928,7 @@ public class RagOrchestrationService {
         }
 
         if (textDocs.isEmpty() && this.miARagService != null && this.miARagService.isEnabled() && advancedNeeded) {
-            MiARagService.MindscapeRetrievalResult mindscapeResult = this.miARagService.retrieve(query, dept);
+            MiARagService.MindscapeRetrievalResult mindscapeResult = this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "MiA-RAG", () -> this.miARagService.retrieve(query, dept));
             textDocs.addAll(mindscapeResult.localDocs());
             globalContext = mindscapeResult.globalContext();
             if (!mindscapeResult.mindscapes().isEmpty()) {
@@ -2640,15 +2936,15 @@ public class RagOrchestrationService {
             }
         }
 
-        if (textDocs.isEmpty() && this.hiFiRagService != null && this.hiFiRagService.isEnabled() && advancedNeeded) {
-            textDocs.addAll(this.hiFiRagService.retrieve(query, dept));
+        if (textDocs.isEmpty() && modelCallsAllowed && this.hiFiRagService != null && this.hiFiRagService.isEnabled() && advancedNeeded) {
+            textDocs.addAll(this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "HiFi-RAG", () -> this.hiFiRagService.retrieve(query, dept)));
             if (!textDocs.isEmpty()) {
                 strategies.add("HiFi-RAG");
             }
         }
 
         if (textDocs.isEmpty() && this.hybridRagService != null && this.hybridRagService.isEnabled()) {
-            HybridRagService.HybridRetrievalResult hybridResult = this.hybridRagService.retrieve(query, dept);
+            HybridRagService.HybridRetrievalResult hybridResult = this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "HybridRAG", () -> this.hybridRagService.retrieve(query, dept, modelCallsAllowed));
             textDocs.addAll(hybridResult.documents());
             if (!textDocs.isEmpty()) {
                 strategies.add("HybridRAG");
@@ -2656,7 +2952,7 @@ public class RagOrchestrationService {
         }
 
         if (textDocs.isEmpty() && rerankingAllowed) {
-            textDocs.addAll(this.performHybridRerankingTracked(query, dept, activeFiles));
+            textDocs.addAll(this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "FallbackRerank", () -> this.performHybridReranking(query, dept, 0.15, activeFiles, modelCallsAllowed)));
             if (!textDocs.isEmpty()) {
                 strategies.add("FallbackRerank");
             }
@@ -2665,15 +2961,15 @@ public class RagOrchestrationService {
         // HGMem (GraphRAG): use deepAnalysis param or fallback to advancedNeeded heuristic
         // Fix #9: respect per-request graphRagAllowed override from frontend toggle
         if (graphRagAllowed && this.hgMemQueryEngine != null && (deepAnalysis || advancedNeeded)) {
-            HGMemQueryEngine.HGMemResult hgResult = this.hgMemQueryEngine.query(query, dept, deepAnalysis);
+            HGMemQueryEngine.HGMemResult hgResult = this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, deepAnalysis ? "HGMem-Deep" : "HGMem", () -> this.hgMemQueryEngine.query(query, dept, deepAnalysis));
             if (!hgResult.documents().isEmpty()) {
                 textDocs.addAll(hgResult.documents());
                 strategies.add(deepAnalysis ? "HGMem-Deep" : "HGMem");
             }
         }
 
-        if (this.agenticRagOrchestrator != null && this.agenticRagOrchestrator.isEnabled() && advancedNeeded) {
-            AgenticRagOrchestrator.AgenticResult agenticResult = this.agenticRagOrchestrator.process(query, dept, hydeAllowed);
+        if (modelCallsAllowed && this.agenticRagOrchestrator != null && this.agenticRagOrchestrator.isEnabled() && advancedNeeded) {
+            AgenticRagOrchestrator.AgenticResult agenticResult = this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "Agentic", () -> this.agenticRagOrchestrator.process(query, dept, hydeAllowed));
             if (agenticResult.sources() != null && !agenticResult.sources().isEmpty()) {
                 textDocs.addAll(agenticResult.sources());
                 strategies.add("Agentic");
@@ -2683,7 +2979,7 @@ public class RagOrchestrationService {
         ArrayList<Document> visualDocs = new ArrayList<>();
         ArrayList<MegaRagService.CrossModalEdge> edges = new ArrayList<>();
         if (allowVisual && this.megaRagService != null && this.megaRagService.isEnabled() && (modalities.contains(ModalityRouter.ModalityTarget.VISUAL) || modalities.contains(ModalityRouter.ModalityTarget.CROSS_MODAL))) {
-            MegaRagService.CrossModalRetrievalResult crossModal = this.megaRagService.retrieve(query, dept);
+            MegaRagService.CrossModalRetrievalResult crossModal = this.pipelineMetrics.time(PipelineMetrics.STAGE_RETRIEVAL, dept, "MegaRAG", () -> this.megaRagService.retrieve(query, dept));
             edges.addAll(crossModal.crossModalEdges());
             visualDocs.addAll(crossModal.visualDocs());
             List<Document> mergedText = crossModal.mergedResults().stream().filter(doc -> !this.isVisualDoc(doc)).toList();
@@ -3132,6 +3428,26 @@ public class RagOrchestrationService {
         return false;
     }
 
+    // Fix #8: Persist conversation memory (assistant response, message count, reasoning trace)
+    private void persistAssistantTurn(User user, String sessionId, Department department, String response, List<String> sources, ReasoningTrace completedTrace) {
+        if (sessionId == null || this.hipaaPolicy.shouldDisableSessionMemory(department)
+                || this.conversationMemoryService == null
+                || this.sessionPersistenceService == null) {
+            return;
+        }
+        try {
+            this.conversationMemoryService.saveAssistantMessage(user.getId(), sessionId, response, sources);
+            this.sessionPersistenceService.incrementMessageCount(sessionId);
+            if (completedTrace != null) {
+                this.sessionPersistenceService.persistTrace(completedTrace, sessionId);
+            }
+        } catch (Exception memEx) {
+            if (log.isWarnEnabled()) {
+                log.warn("Session persistence failed (non-fatal): {}", memEx.getMessage());
+            }
+        }
+    }
+
     private boolean isTimeQuery(String query) {
         if (query == null) {
             return false;
@@ -3150,6 +3466,32 @@ public class RagOrchestrationService {
         return DocumentMetadataUtils.apiKeyMatch(targetName, meta);
     }
 
+    /**
+     * Start the guardrail check for askEnhanced. With speculative retrieval enabled only the pattern and
+     * keyword layers run here; the LLM layer runs on a worker while retrieval proceeds. Time queries do no
+     * retrieval, so there is nothing to overlap and they are checked synchronously.
+     */
+    private PromptGuardrailService.PendingGuardrail startGuardrail(String query, boolean timeQuery) {
+        if (this.speculativeRetrieval && !timeQuery) {
+            return this.guardrailService.analyzeAsync(query, this.queryUnderstandingExecutor);
+        }
+        return PromptGuardrailService.PendingGuardrail.completed(this.guardrailService.analyze(query));
+    }
+
+    /**
+     * Resolve the guardrail verdict. Returns the security response when the query is blocked, or
+     * {@code null} when it may proceed.
+     */
+    private EnhancedAskResponse blockedByGuardrail(GuardrailGate guardrail, QueryUnderstanding understanding, User user, String query, HttpServletRequest request) {
+        if (!guardrail.resolve().blocked()) {
+            return null;
+        }
+        understanding.cancel();
+        this.auditService.logPromptInjection(user, query, request);
+        ReasoningTrace completed = this.reasoningTracer.endTrace();
+        return new EnhancedAskResponse("SECURITY ALERT: Indirect Prompt Injection Detected.", completed != null ? completed.getStepsAsMaps() : List.of(), List.of(), Map.of(), completed != null ? completed.getTraceId() : null);
+    }
+
     private boolean isPromptInjection(String query) {
         if (query == null || query.isBlank()) {
             return false;
@@ -3159,8 +3501,92 @@ public class RagOrchestrationService {
     }
 
     private record RetrievalContext(List<Document> textDocuments, String globalContext, List<Document> visualDocuments, List<MegaRagService.CrossModalEdge> crossModalEdges, List<String> strategies, Set<ModalityRouter.ModalityTarget> modalities) {
+        static RetrievalContext empty() {
+            return new RetrievalContext(List.of(), "", List.of(), List.of(), List.of(), Set.of());
+        }
+
         boolean hasEvidence() {
             return (this.textDocuments != null && !this.textDocuments.isEmpty()) || (this.visualDocuments != null && !this.visualDocuments.isEmpty());
         }
     }
+
+    private record SubQueryRetrieval(String subQuery, RetrievalContext context, long elapsedMs, ReasoningTrace trace, boolean timedOut) {
+    }
+
+    private record Traced<T>(T value, ReasoningTrace trace, long elapsedMs) {
+    }
+
+    /**
+     * Guardrail verdict for one askEnhanced request. While the verdict is pending, trace steps recorded on
+     * the request thread go to a sandbox; resolving records the Security Scan step and keeps the sandboxed
+     * steps only if the query passed.
+     */
+    private final class GuardrailGate {
+        private final PromptGuardrailService.PendingGuardrail pending;
+        private final long startMillis;
+        private final boolean speculative;
+        private ReasoningTracer.Sandbox sandbox;
+        private PromptGuardrailService.GuardrailResult result;
+
+        GuardrailGate(PromptGuardrailService.PendingGuardrail pending, long startMillis) {
+            this.pending = pending;
+            this.startMillis = startMillis;
+            this.speculative = !pending.isDone();
+            if (this.speculative) {
+                this.sandbox = RagOrchestrationService.this.reasoningTracer.openSandbox();
+            }
+        }
+
+        boolean isDone() {
+            return this.pending.isDone();
+        }
+
+        boolean isSpeculative() {
+            return this.speculative;
+        }
+
+        PromptGuardrailService.GuardrailResult resolve() {
+            if (this.result != null) {
+                return this.result;
+            }
+            this.result = this.pending.await();
+            ReasoningTracer tracer = RagOrchestrationService.this.reasoningTracer;
+            tracer.closeSandbox(this.sandbox, false);
+            long elapsed = System.currentTimeMillis() - this.startMillis;
+            if (this.result.blocked()) {
+                tracer.addStep(ReasoningStep.StepType.SECURITY_CHECK, "Security Scan", "BLOCKED: Prompt injection detected", elapsed, Map.of("blocked", true, "reason", "injection_detected", "speculative", this.speculative));
+                if (this.speculative) {
+                    log.info("Guardrail blocked query during speculative retrieval; discarding speculative results");
+                }
+            } else {
+                tracer.addStep(ReasoningStep.StepType.SECURITY_CHECK, "Security Scan", "Query passed injection detection", elapsed, Map.of("blocked", false, "speculative", this.speculative));
+                if (this.sandbox != null) {
+                    tracer.mergeScratchTrace(this.sandbox.scratch(), "");
+                }
+            }
+            this.sandbox = null;
+            return this.result;
+        }
+
+        void abandon() {
+            this.pending.cancel();
+            if (this.result == null && this.sandbox != null) {
+                RagOrchestrationService.this.reasoningTracer.closeSandbox(this.sandbox, false);
+                this.sandbox = null;
+            }
+        }
+    }
+
+    private record QueryUnderstanding(Future<Traced<AdaptiveRagService.RoutingResult>> routing, Future<Traced<QuCoRagService.UncertaintyResult>> uncertainty, long deadlineNanos) {
+        static final QueryUnderstanding NONE = new QueryUnderstanding(null, null, 0L);
+
+        void cancel() {
+            if (this.routing != null) {
+                this.routing.cancel(true);
+            }
+            if (this.uncertainty != null) {
+                this.uncertainty.cancel(true);
+            }
+        }
+    }
 }
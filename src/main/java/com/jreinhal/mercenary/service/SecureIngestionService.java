@@ -85,6 +85,12 @@ public class SecureIngestionService {
     private final Tika tika;
     @Autowired(required = false)
     private SparseEmbeddingService sparseEmbeddingService;
+    @Autowired(required = false)
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
+    @Autowired(required = false)
+    private SemanticAnswerCache answerCache;
+    @Autowired(required = false)
+    private com.jreinhal.mercenary.workspace.WorkspaceUsageService workspaceUsageService;
     private static final String PDF_MIME_TYPE = "application/pdf";
     private static final Set<String> BLOCKED_MIME_TYPES = Set.of(
         "application/x-executable", "application/x-msdos-program", "application/x-msdownload",
@@ -319,7 +325,7 @@ public class SecureIngestionService {
             TokenTextSplitter splitter = new TokenTextSplitter(this.chunkSizeTokens, this.minChunkSizeChars, this.minChunkLengthToEmbed, this.maxNumChunks, this.keepSeparator);
             List<Document> splitDocuments = splitter.apply(splitCandidates);
             if (this.chunkMergeEnabled) {
-                splitDocuments = this.mergeSmallChunks(splitDocuments, this.chunkMergeMinTokens, this.chunkMergeMaxTokens);
+                splitDocuments = SecureIngestionService.mergeSmallChunks(splitDocuments, this.chunkMergeMinTokens, this.chunkMergeMaxTokens);
             }
             if (!atomicDocs.isEmpty()) {
                 // Keep table docs atomic (no splitter, no merge).
@@ -331,17 +337,32 @@ public class SecureIngestionService {
             this.assignChunkIndices(splitDocuments);
             List<Document> finalDocuments = new ArrayList<>();
             int totalRedactions = 0;
-            for (Document doc : splitDocuments) {
-                PiiRedactionService.RedactionResult result = this.piiRedactionService.redact(doc.getContent(), hipaaStrict ? Boolean.TRUE : null);
-                Document redactedDoc = new Document(result.getRedactedContent(), doc.getMetadata());
-                totalRedactions += result.getTotalRedactions();
-                finalDocuments.add(redactedDoc);
+            this.piiRedactionService.beginTokenBatch();
+            try {
+                for (Document doc : splitDocuments) {
+                    PiiRedactionService.RedactionResult result = this.pipelineMetrics.time(PipelineMetrics.STAGE_REDACTION, dept.name(), "ingest",
+                            () -> this.piiRedactionService.redact(doc.getContent(), hipaaStrict ? Boolean.TRUE : null));
+                    Document redactedDoc = new Document(result.getRedactedContent(), doc.getMetadata());
+                    totalRedactions += result.getTotalRedactions();
+                    finalDocuments.add(redactedDoc);
+                }
+                // Vault entries must exist before any chunk referencing their tokens becomes searchable.
+                this.piiRedactionService.flushTokenBatch();
+            } finally {
+                this.piiRedactionService.endTokenBatch();
             }
             boolean vectorStoreWritten = false;
             try {
                 this.partitionAssigner.assignBatch(finalDocuments);
                 this.vectorStore.add(finalDocuments);
                 vectorStoreWritten = true;
+                if (this.answerCache != null) {
+                    this.answerCache.invalidateWorkspace(workspaceId);
+                }
+                if (this.workspaceUsageService != null) {
+                    this.workspaceUsageService.markContentChanged(workspaceId);
+                }
+                this.workspaceQuotaService.recordIngestion(workspaceId, fileBytes.length);
                 // Compute and store sparse (lexical) weights from BGE-M3 sidecar if available
                 if (this.sparseEmbeddingService != null && this.sparseEmbeddingService.isEnabled()) {
                     try {
@@ -356,8 +377,7 @@ public class SecureIngestionService {
                     }
                 }
                 if (this.miARagService != null && this.miARagService.isEnabled() && finalDocuments.size() >= this.minChunksForMindscape) {
-                    List<String> chunks = finalDocuments.stream().map(Document::getContent).toList();
-                    this.miARagService.buildMindscape(chunks, filename, dept.name());
+                    this.miARagService.submitMindscapeBuild(finalDocuments, filename, dept.name());
                 }
             } catch (RuntimeException e) {
                 if (vectorStoreWritten) {
@@ -374,26 +394,26 @@ public class SecureIngestionService {
         }
     }
 
-    private List<Document> mergeSmallChunks(List<Document> docs, int minTokens, int maxTokens) {
+    static List<Document> mergeSmallChunks(List<Document> docs, int minTokens, int maxTokens) {
         if (docs == null || docs.size() < 2) {
             return docs;
         }
         List<Integer> tokenCounts = new ArrayList<>(docs.size());
         for (Document doc : docs) {
-            tokenCounts.add(this.countTokens(doc.getContent()));
+            tokenCounts.add(SecureIngestionService.countTokens(doc.getContent()));
         }
 
         List<Document> merged = new ArrayList<>();
         int i = 0;
         while (i < docs.size()) {
             Document base = docs.get(i);
-            String groupKey = this.chunkGroupKey(base);
+            String groupKey = SecureIngestionService.chunkGroupKey(base);
             StringBuilder content = new StringBuilder(Objects.toString(base.getContent(), ""));
             Map<String, Object> meta = new HashMap<>(base.getMetadata());
             int tokens = tokenCounts.get(i);
 
             int j = i + 1;
-            while (tokens < minTokens && j < docs.size() && groupKey.equals(this.chunkGroupKey(docs.get(j)))) {
+            while (tokens < minTokens && j < docs.size() && groupKey.equals(SecureIngestionService.chunkGroupKey(docs.get(j)))) {
                 int nextTokens = tokenCounts.get(j);
                 if (tokens + nextTokens > maxTokens) {
                     break;
@@ -403,10 +423,10 @@ public class SecureIngestionService {
                 j++;
             }
 
-            boolean atGroupEnd = j >= docs.size() || !groupKey.equals(this.chunkGroupKey(docs.get(j)));
-            if (tokens < minTokens && atGroupEnd && !merged.isEmpty() && groupKey.equals(this.chunkGroupKey(merged.get(merged.size() - 1)))) {
+            boolean atGroupEnd = j >= docs.size() || !groupKey.equals(SecureIngestionService.chunkGroupKey(docs.get(j)));
+            if (tokens < minTokens && atGroupEnd && !merged.isEmpty() && groupKey.equals(SecureIngestionService.chunkGroupKey(merged.get(merged.size() - 1)))) {
                 Document prev = merged.remove(merged.size() - 1);
-                int prevTokens = this.countTokens(prev.getContent());
+                int prevTokens = SecureIngestionService.countTokens(prev.getContent());
                 if (prevTokens + tokens <= maxTokens) {
                     String combined = Objects.toString(prev.getContent(), "") + "\n\n" + content;
                     merged.add(new Document(combined, new HashMap<>(prev.getMetadata())));
@@ -434,14 +454,14 @@ public class SecureIngestionService {
         return type != null && "table".equalsIgnoreCase(type.toString());
     }
 
-    private int countTokens(String text) {
+    private static int countTokens(String text) {
         if (text == null || text.isBlank()) {
             return 0;
         }
         return TOKEN_ENCODING.encode(text).size();
     }
 
-    private String chunkGroupKey(Document doc) {
+    private static String chunkGroupKey(Document doc) {
         if (doc == null) {
             return "";
         }
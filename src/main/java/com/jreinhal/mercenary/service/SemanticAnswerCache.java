@@ -0,0 +1,366 @@
+package com.jreinhal.mercenary.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jreinhal.mercenary.Department;
+import com.jreinhal.mercenary.model.ClearanceLevel;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in cache of final answers for repeated questions ({@code sentinel.answer-cache.enabled}).
+ *
+ * <p>Entries are partitioned by {@link Scope}: workspace, sector, caller clearance, active-file scope and
+ * request variant. A lookup never crosses scopes, so an answer built from one sector or clearance level is
+ * never served to another. Within a scope a normalized-text match is tried first; otherwise the query
+ * embedding is compared by cosine similarity against cached entries and must reach
+ * {@code sentinel.answer-cache.similarity-threshold}.</p>
+ *
+ * <p>Any change to a workspace corpus calls {@link #invalidateWorkspace(String)} on the node that made it. That
+ * drops the node's scopes for the workspace and bumps the workspace generation, which is kept in Mongo
+ * ({@value #GENERATIONS_COLLECTION}) so every node sees it. Each scope is tagged with the generation its answers
+ * were computed under, and a lookup reads the current generation and discards scopes tagged with an older one,
+ * so other nodes stop serving answers from before the change on their next lookup rather than at TTL expiry.
+ * A lookup that cannot read the generation is a miss, and its answer is not stored. Without a
+ * {@link MongoTemplate} the generation is node-local, which is only correct for a single node. Callers are
+ * responsible for skipping the cache under HIPAA strict mode.</p>
+ */
+@Component
+public class SemanticAnswerCache {
+    private static final Logger log = LoggerFactory.getLogger(SemanticAnswerCache.class);
+    static final String GENERATIONS_COLLECTION = "answer_cache_generations";
+    private static final long UNKNOWN_GENERATION = -1L;
+
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int maxEntriesPerScope;
+    private final long ttlMillis;
+    @Nullable
+    private final EmbeddingModel embeddingModel;
+    @Nullable
+    private final MongoTemplate mongoTemplate;
+    private final Cache<Scope, ScopeEntries> scopes;
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public SemanticAnswerCache(
+            @Value("${sentinel.answer-cache.enabled:false}") boolean enabled,
+            @Value("${sentinel.answer-cache.similarity-threshold:0.95}") double similarityThreshold,
+            @Value("${sentinel.answer-cache.max-scopes:1000}") long maxScopes,
+            @Value("${sentinel.answer-cache.max-entries-per-scope:128}") int maxEntriesPerScope,
+            @Value("${sentinel.answer-cache.ttl-minutes:60}") long ttlMinutes,
+            @Nullable EmbeddingModel embeddingModel,
+            @Nullable MongoTemplate mongoTemplate) {
+        this.enabled = enabled;
+        this.similarityThreshold = Math.min(1.0, Math.max(0.0, similarityThreshold));
+        this.maxEntriesPerScope = Math.max(1, maxEntriesPerScope);
+        this.ttlMillis = Duration.ofMinutes(Math.max(1L, ttlMinutes)).toMillis();
+        this.embeddingModel = embeddingModel;
+        this.mongoTemplate = mongoTemplate;
+        this.scopes = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, maxScopes))
+                .expireAfterAccess(Duration.ofMillis(this.ttlMillis))
+                .recordStats()
+                .build();
+        if (enabled) {
+            log.info("Semantic answer cache enabled: threshold={}, maxEntriesPerScope={}, ttl={}m, embeddings={}",
+                    this.similarityThreshold, this.maxEntriesPerScope, Math.max(1L, ttlMinutes), embeddingModel != null);
+            if (mongoTemplate == null) {
+                log.warn("Semantic answer cache has no MongoTemplate; invalidation is local to this node");
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    Cache<Scope, ScopeEntries> getScopes() {
+        return this.scopes;
+    }
+
+    /**
+     * Build the partition key for a request. {@code variant} captures request options that change the answer
+     * (deep analysis, per-request RAG overrides).
+     */
+    public static Scope scope(String workspaceId, Department department, ClearanceLevel clearance,
+                              List<String> activeFiles, String variant) {
+        String files = activeFiles == null || activeFiles.isEmpty()
+                ? ""
+                : String.join("\u001f", activeFiles.stream().sorted().distinct().toList());
+        return new Scope(
+                Objects.toString(workspaceId, ""),
+                department != null ? department.name() : "",
+                clearance != null ? clearance.name() : "",
+                files,
+                Objects.toString(variant, ""));
+    }
+
+    /**
+     * Look up a cached answer. The returned {@link Lookup} must be passed back to
+     * {@link #store(Lookup, CachedAnswer)} so the query embedding is computed at most once per request.
+     */
+    public Lookup lookup(Scope scope, String query) {
+        String normalized = normalize(query);
+        if (!this.enabled || normalized.isEmpty()) {
+            return new Lookup(scope, normalized, null, UNKNOWN_GENERATION, null, 0.0);
+        }
+        long generation = this.generation(scope.workspaceId());
+        if (generation == UNKNOWN_GENERATION) {
+            return new Lookup(scope, normalized, null, generation, null, 0.0);
+        }
+        ScopeEntries entries = this.scopes.getIfPresent(scope);
+        if (entries != null && entries.generation() != generation) {
+            // Computed before a corpus change, possibly one made on another node.
+            this.scopes.asMap().remove(scope, entries);
+            entries = null;
+        }
+        long now = System.currentTimeMillis();
+        if (entries != null) {
+            CachedAnswer exact = entries.findExact(normalized, now, this.ttlMillis);
+            if (exact != null) {
+                return new Lookup(scope, normalized, null, generation, exact, 1.0);
+            }
+        }
+        float[] embedding = this.embed(normalized);
+        if (entries != null && embedding != null) {
+            ScopeEntries.Match match = entries.findNearest(embedding, now, this.ttlMillis);
+            if (match != null && match.similarity() >= this.similarityThreshold) {
+                return new Lookup(scope, normalized, embedding, generation, match.answer(), match.similarity());
+            }
+        }
+        return new Lookup(scope, normalized, embedding, generation, null, 0.0);
+    }
+
+    /**
+     * Store the answer for a previous miss. Dropped silently if the workspace corpus changed since the lookup.
+     * An invalidation that lands after the check still wins: the entry keeps the lookup's generation, which
+     * the next lookup no longer accepts.
+     */
+    public void store(Lookup lookup, CachedAnswer answer) {
+        if (!this.enabled || lookup == null || answer == null || lookup.normalizedQuery().isEmpty()
+                || lookup.generation() == UNKNOWN_GENERATION) {
+            return;
+        }
+        if (this.generation(lookup.scope().workspaceId()) != lookup.generation()) {
+            log.debug("Answer cache store skipped: workspace corpus changed during request");
+            return;
+        }
+        Entry entry = new Entry(lookup.normalizedQuery(), lookup.embedding(), answer, System.currentTimeMillis());
+        this.scopes.asMap().compute(lookup.scope(), (scope, entries) -> {
+            if (entries == null || entries.generation() < lookup.generation()) {
+                entries = new ScopeEntries(this.maxEntriesPerScope, lookup.generation());
+            }
+            if (entries.generation() == lookup.generation()) {
+                entries.put(entry);
+            }
+            return entries;
+        });
+    }
+
+    /**
+     * Drop every cached answer for a workspace after its corpus changed.
+     */
+    public void invalidateWorkspace(String workspaceId) {
+        if (!this.enabled) {
+            return;
+        }
+        String key = Objects.toString(workspaceId, "");
+        if (this.mongoTemplate != null) {
+            try {
+                this.mongoTemplate.upsert(new Query(Criteria.where("_id").is(key)), new Update().inc("generation", 1L),
+                        GENERATIONS_COLLECTION);
+            } catch (RuntimeException e) {
+                log.warn("Failed to publish answer cache invalidation for workspace {}; other nodes keep serving until TTL: {}",
+                        key, e.getMessage());
+            }
+        } else {
+            this.generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        }
+        this.scopes.asMap().keySet().removeIf(scope -> scope.workspaceId().equals(key));
+    }
+
+    // Current corpus generation of the workspace, or UNKNOWN_GENERATION if the shared value cannot be read.
+    private long generation(String workspaceId) {
+        String key = Objects.toString(workspaceId, "");
+        if (this.mongoTemplate == null) {
+            AtomicLong generation = this.generations.get(key);
+            return generation != null ? generation.get() : 0L;
+        }
+        try {
+            Query query = new Query(Criteria.where("_id").is(key));
+            query.fields().include("generation");
+            Document doc = this.mongoTemplate.findOne(query, Document.class, GENERATIONS_COLLECTION);
+            return doc != null && doc.get("generation") instanceof Number n ? n.longValue() : 0L;
+        } catch (RuntimeException e) {
+            log.debug("Answer cache generation unavailable for workspace {}; bypassing cache: {}", key, e.getMessage());
+            return UNKNOWN_GENERATION;
+        }
+    }
+
+    @Nullable
+    private float[] embed(String normalized) {
+        if (this.embeddingModel == null) {
+            return null;
+        }
+        try {
+            return unitVector(this.embeddingModel.embed(normalized));
+        } catch (RuntimeException e) {
+            log.debug("Answer cache embedding failed; falling back to exact match only: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String collapsed = query.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        return collapsed.replaceAll("[\\s?.!]+$", "");
+    }
+
+    @Nullable
+    static float[] unitVector(float[] vector) {
+        if (vector == null || vector.length == 0) {
+            return null;
+        }
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += (double) v * v;
+        }
+        if (norm == 0.0) {
+            return null;
+        }
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        float[] unit = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            unit[i] = vector[i] * scale;
+        }
+        return unit;
+    }
+
+    static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return -1.0;
+        }
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += (double) a[i] * b[i];
+        }
+        return sum;
+    }
+
+    public record Scope(String workspaceId, String department, String clearance, String fileScope, String variant) {
+    }
+
+    /**
+     * Final answer as returned to the caller; {@code metrics} excludes per-request values such as latency.
+     */
+    public record CachedAnswer(String response, List<String> sources, Map<String, Object> metrics) {
+        public CachedAnswer {
+            sources = sources == null ? List.of() : List.copyOf(sources);
+            metrics = metrics == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(metrics));
+        }
+    }
+
+    public record Lookup(Scope scope, String normalizedQuery, float[] embedding, long generation,
+                         CachedAnswer hit, double similarity) {
+        public boolean isHit() {
+            return this.hit != null;
+        }
+    }
+
+    record Entry(String normalizedQuery, float[] embedding, CachedAnswer answer, long createdAtMillis) {
+        boolean isExpired(long now, long ttlMillis) {
+            return now - this.createdAtMillis > ttlMillis;
+        }
+    }
+
+    /**
+     * Bounded, insertion-ordered entries for one scope, all computed under workspace generation
+     * {@code generation}. Scopes hold at most a few hundred entries, so a linear scan over unit vectors is
+     * cheaper than maintaining an index.
+     */
+    static final class ScopeEntries {
+        private final int maxEntries;
+        private final long generation;
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+        ScopeEntries(int maxEntries, long generation) {
+            this.maxEntries = maxEntries;
+            this.generation = generation;
+        }
+
+        long generation() {
+            return this.generation;
+        }
+
+        synchronized int size() {
+            return this.entries.size();
+        }
+
+        synchronized void put(Entry entry) {
+            this.entries.removeIf(existing -> existing.normalizedQuery().equals(entry.normalizedQuery()));
+            while (this.entries.size() >= this.maxEntries) {
+                this.entries.pollFirst();
+            }
+            this.entries.addLast(entry);
+        }
+
+        synchronized CachedAnswer findExact(String normalizedQuery, long now, long ttlMillis) {
+            this.evictExpired(now, ttlMillis);
+            for (Entry entry : this.entries) {
+                if (entry.normalizedQuery().equals(normalizedQuery)) {
+                    return entry.answer();
+                }
+            }
+            return null;
+        }
+
+        synchronized Match findNearest(float[] embedding, long now, long ttlMillis) {
+            this.evictExpired(now, ttlMillis);
+            Match best = null;
+            for (Entry entry : this.entries) {
+                if (entry.embedding() == null) {
+                    continue;
+                }
+                double similarity = dot(embedding, entry.embedding());
+                if (best == null || similarity > best.similarity()) {
+                    best = new Match(entry.answer(), similarity);
+                }
+            }
+            return best;
+        }
+
+        private void evictExpired(long now, long ttlMillis) {
+            Iterator<Entry> it = this.entries.iterator();
+            while (it.hasNext()) {
+                if (it.next().isExpired(now, ttlMillis)) {
+                    it.remove();
+                }
+            }
+        }
+
+        record Match(CachedAnswer answer, double similarity) {
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.jreinhal.mercenary.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Pooled HTTP clients for the sidecar services (sparse embedding, OCR, Infini-gram).
+ *
+ * <p>Each sidecar gets its own JDK {@link HttpClient}, which keeps idle connections alive and reuses them,
+ * so a query-time call does not pay TCP (and TLS) setup to the sidecar. Redirects are never followed (R-04):
+ * a 3xx reaches the caller as a plain response, as it did with the old {@code HttpURLConnection} clients.</p>
+ *
+ * <p>At most {@code maxConnections} requests per sidecar are in flight at once; further callers wait up to
+ * {@code sentinel.sidecar-http.acquire-timeout-ms} and then fail with an {@link IOException}, which the
+ * sidecar clients already treat as "sidecar unavailable". A slot is held until the response is closed, so
+ * with HTTP/1.1 the limit is also the number of open connections. Latency is recorded per sidecar on
+ * {@value #REQUEST_TIMER}.</p>
+ */
+@Component
+public class SidecarHttpClients {
+    private static final Logger log = LoggerFactory.getLogger(SidecarHttpClients.class);
+    public static final String REQUEST_TIMER = "sentinel.sidecar.request";
+    public static final String IN_FLIGHT_GAUGE = "sentinel.sidecar.in_flight";
+    public static final String REJECTED_COUNTER = "sentinel.sidecar.rejected";
+    private static final SidecarHttpClients DEFAULTS = new SidecarHttpClients(null, 5000L, false);
+
+    @Nullable
+    private final MeterRegistry registry;
+    private final long acquireTimeoutMs;
+    private final boolean http2Enabled;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Map<String, Integer> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SidecarHttpClients(
+            ObjectProvider<MeterRegistry> registryProvider,
+            @Value("${sentinel.sidecar-http.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+            @Value("${sentinel.sidecar-http.http2-enabled:false}") boolean http2Enabled) {
+        this(registryProvider.getIfAvailable(), acquireTimeoutMs, http2Enabled);
+    }
+
+    public SidecarHttpClients(@Nullable MeterRegistry registry, long acquireTimeoutMs, boolean http2Enabled) {
+        this.registry = registry;
+        this.acquireTimeoutMs = Math.max(0L, acquireTimeoutMs);
+        this.http2Enabled = http2Enabled;
+    }
+
+    /**
+     * Clients with default settings and no metrics; for components built outside Spring.
+     */
+    public static SidecarHttpClients defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Build a no-redirect RestTemplate for {@code sidecar} on a pooled client. Building again for the same
+     * sidecar (e.g. after a settings change) replaces its connection limit; in-flight requests finish on the
+     * old one. A zero or null timeout means no timeout.
+     */
+    public RestTemplate restTemplate(String sidecar, int maxConnections, Duration connectTimeout, Duration readTimeout) {
+        int limit = Math.max(1, maxConnections);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .version(this.http2Enabled ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+        if (isPositive(connectTimeout)) {
+            builder.connectTimeout(connectTimeout);
+        }
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(builder.build());
+        if (isPositive(readTimeout)) {
+            factory.setReadTimeout(readTimeout);
+        }
+        Semaphore semaphore = new Semaphore(limit, true);
+        this.permits.put(sidecar, semaphore);
+        this.limits.put(sidecar, limit);
+        this.registerGauge(sidecar);
+        RestTemplate restTemplate = new RestTemplate(factory);
+        restTemplate.setInterceptors(List.of(new LimitingInterceptor(sidecar, semaphore)));
+        log.debug("Sidecar HTTP client for {} ready (maxConnections={}, connectTimeout={}, readTimeout={})",
+                sidecar, limit, connectTimeout, readTimeout);
+        return restTemplate;
+    }
+
+    public int getInFlight(String sidecar) {
+        Semaphore semaphore = this.permits.get(sidecar);
+        Integer limit = this.limits.get(sidecar);
+        if (semaphore == null || limit == null) {
+            return 0;
+        }
+        return limit - semaphore.availablePermits();
+    }
+
+    private void registerGauge(String sidecar) {
+        if (this.registry == null) {
+            return;
+        }
+        Gauge.builder(IN_FLIGHT_GAUGE, this, clients -> clients.getInFlight(sidecar))
+                .description("Requests in flight to a sidecar service")
+                .tag("sidecar", sidecar)
+                .register(this.registry);
+    }
+
+    private void recordRequest(String sidecar, String outcome, long elapsedNanos) {
+        if (this.registry == null) {
+            return;
+        }
+        Timer.builder(REQUEST_TIMER)
+                .description("Latency of sidecar service calls, including reading the response")
+                .tag("sidecar", sidecar)
+                .tag("outcome", outcome)
+                .register(this.registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordRejected(String sidecar) {
+        if (this.registry == null) {
+            return;
+        }
+        Counter.builder(REJECTED_COUNTER)
+                .description("Sidecar calls refused because the connection limit stayed exhausted")
+                .tag("sidecar", sidecar)
+                .register(this.registry)
+                .increment();
+    }
+
+    private static boolean isPositive(Duration timeout) {
+        return timeout != null && !timeout.isZero() && !timeout.isNegative();
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status.is2xxSuccessful()) {
+            return "success";
+        }
+        if (status.is3xxRedirection()) {
+            return "redirect";
+        }
+        return status.is4xxClientError() ? "client_error" : "server_error";
+    }
+
+    private final class LimitingInterceptor implements ClientHttpRequestInterceptor {
+        private final String sidecar;
+        private final Semaphore semaphore;
+
+        private LimitingInterceptor(String sidecar, Semaphore semaphore) {
+            this.sidecar = sidecar;
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            boolean acquired;
+            try {
+                acquired = this.semaphore.tryAcquire(SidecarHttpClients.this.acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for a " + this.sidecar + " connection", e);
+            }
+            if (!acquired) {
+                SidecarHttpClients.this.recordRejected(this.sidecar);
+                throw new IOException("Connection limit reached for sidecar " + this.sidecar);
+            }
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                return new ReleasingResponse(response, this.sidecar, this.semaphore, start);
+            } catch (IOException | RuntimeException e) {
+                this.semaphore.release();
+                SidecarHttpClients.this.recordRequest(this.sidecar, "error", System.nanoTime() - start);
+                throw e;
+            }
+        }
+    }
+
+    // Holds the sidecar slot until the body has been read and the response closed.
+    private final class ReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final String sidecar;
+        private final Semaphore semaphore;
+        private final long start;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ReleasingResponse(ClientHttpResponse delegate, String sidecar, Semaphore semaphore, long start) {
+            this.delegate = delegate;
+            this.sidecar = sidecar;
+            this.semaphore = semaphore;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return this.delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return this.delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!this.closed.compareAndSet(false, true)) {
+                return;
+            }
+            String outcome;
+            try {
+                outcome = outcome(this.delegate.getStatusCode());
+            } catch (IOException e) {
+                outcome = "error";
+            }
+            try {
+                this.delegate.close();
+            } finally {
+                this.semaphore.release();
+                SidecarHttpClients.this.recordRequest(this.sidecar, outcome, System.nanoTime() - this.start);
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.jreinhal.mercenary.service;
+
+import com.jreinhal.mercenary.filter.SecurityContext;
+import com.jreinhal.mercenary.model.User;
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dedicated executor for SSE query streams ({@code /api/ask/stream}).
+ *
+ * <p>Streams hold a thread for the full retrieval + token-generation lifetime, so they run on their
+ * own virtual-thread executor instead of the JVM common pool. Admission is bounded globally and per
+ * user / workspace; a stream that cannot be admitted is refused up front rather than queued.</p>
+ *
+ * <p>Each admitted stream gets a {@link StreamHandle} that the controller cancels when the client
+ * disconnects or the emitter times out. Cancelling interrupts the worker, which aborts retrieval waits
+ * and disposes a blocking LLM subscription ({@code blockLast}) so the upstream model stream stops too.
+ * The slot is always released by the worker itself, so a cancelled stream cannot leak capacity.</p>
+ */
+@Component
+public class StreamingExecutor implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(StreamingExecutor.class);
+
+    private final int maxConcurrent;
+    private final int maxPerUser;
+    private final int maxPerWorkspace;
+    private final Semaphore globalPermits;
+    private final ConcurrentHashMap<String, AtomicInteger> perUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> perWorkspace = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong rejectedGlobal = new AtomicLong();
+    private final AtomicLong rejectedUser = new AtomicLong();
+    private final AtomicLong rejectedWorkspace = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final ExecutorService executor;
+
+    public StreamingExecutor(
+            @Value("${sentinel.performance.stream-max-concurrent:64}") int maxConcurrent,
+            @Value("${sentinel.performance.stream-max-per-user:3}") int maxPerUser,
+            @Value("${sentinel.performance.stream-max-per-workspace:32}") int maxPerWorkspace) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxPerUser = Math.max(1, maxPerUser);
+        this.maxPerWorkspace = Math.max(1, maxPerWorkspace);
+        this.globalPermits = new Semaphore(this.maxConcurrent);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-stream-", 0L).factory());
+        log.info("SSE streaming executor initialized: maxConcurrent={}, maxPerUser={}, maxPerWorkspace={}",
+                this.maxConcurrent, this.maxPerUser, this.maxPerWorkspace);
+    }
+
+    /**
+     * Reserve a stream slot for the current user and workspace. Returns {@code null} if any cap is
+     * reached; callers should report the refusal to the client.
+     */
+    public StreamHandle tryAdmit(User user) {
+        String userKey = user != null && user.getId() != null ? user.getId() : "anonymous";
+        String workspaceKey = WorkspaceContext.getCurrentWorkspaceId();
+        if (!this.globalPermits.tryAcquire()) {
+            this.rejectedGlobal.incrementAndGet();
+            return null;
+        }
+        if (!tryIncrement(this.perUser, userKey, this.maxPerUser)) {
+            this.globalPermits.release();
+            this.rejectedUser.incrementAndGet();
+            return null;
+        }
+        if (!tryIncrement(this.perWorkspace, workspaceKey, this.maxPerWorkspace)) {
+            decrement(this.perUser, userKey);
+            this.globalPermits.release();
+            this.rejectedWorkspace.incrementAndGet();
+            return null;
+        }
+        this.active.incrementAndGet();
+        return new StreamHandle(user, userKey, workspaceKey);
+    }
+
+    /**
+     * Run {@code work} for an admitted stream. The caller's user, workspace and logging context (correlation
+     * id) are restored on the worker thread, and the slot is released when the work finishes or fails to start.
+     */
+    public void execute(StreamHandle handle, Runnable work) {
+        Map<String, String> logContext = MDC.getCopyOfContextMap();
+        try {
+            this.executor.execute(() -> {
+                handle.worker.set(Thread.currentThread());
+                SecurityContext.setCurrentUser(handle.user);
+                WorkspaceContext.setCurrentWorkspaceId(handle.workspaceKey);
+                if (logContext != null) {
+                    MDC.setContextMap(logContext);
+                }
+                try {
+                    if (!handle.isCancelled()) {
+                        work.run();
+                    }
+                } finally {
+                    handle.worker.set(null);
+                    Thread.interrupted();
+                    SecurityContext.clear();
+                    WorkspaceContext.clear();
+                    MDC.clear();
+                    handle.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            handle.release();
+            throw e;
+        }
+    }
+
+    public int getActiveStreams() {
+        return this.active.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("sentinel.stream.active", this.active, AtomicInteger::get)
+                .description("SSE query streams currently running")
+                .register(registry);
+        Gauge.builder("sentinel.stream.capacity", this, self -> self.maxConcurrent)
+                .description("Maximum concurrent SSE query streams")
+                .register(registry);
+        FunctionCounter.builder("sentinel.stream.rejected", this.rejectedGlobal, AtomicLong::get)
+                .tag("reason", "global").register(registry);
+        FunctionCounter.builder("sentinel.stream.rejected", this.rejectedUser, AtomicLong::get)
+                .tag("reason", "user").register(registry);
+        FunctionCounter.builder("sentinel.stream.rejected", this.rejectedWorkspace, AtomicLong::get)
+                .tag("reason", "workspace").register(registry);
+        FunctionCounter.builder("sentinel.stream.cancelled", this.cancelled, AtomicLong::get)
+                .description("SSE streams cancelled by client disconnect or timeout")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+        try {
+            this.executor.awaitTermination(5L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean tryIncrement(ConcurrentHashMap<String, AtomicInteger> counts, String key, int limit) {
+        AtomicBoolean admitted = new AtomicBoolean(false);
+        counts.compute(key, (k, current) -> {
+            AtomicInteger value = current != null ? current : new AtomicInteger();
+            if (value.get() < limit) {
+                value.incrementAndGet();
+                admitted.set(true);
+            }
+            return value.get() == 0 ? null : value;
+        });
+        return admitted.get();
+    }
+
+    private static void decrement(ConcurrentHashMap<String, AtomicInteger> counts, String key) {
+        counts.computeIfPresent(key, (k, value) -> value.decrementAndGet() <= 0 ? null : value);
+    }
+
+    /**
+     * Admission slot and cancellation hook for one SSE stream.
+     */
+    public final class StreamHandle {
+        private final User user;
+        private final String userKey;
+        private final String workspaceKey;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private final AtomicBoolean cancelRequested = new AtomicBoolean(false);
+        private final AtomicReference<Thread> worker = new AtomicReference<>();
+
+        private StreamHandle(User user, String userKey, String workspaceKey) {
+            this.user = user;
+            this.userKey = userKey;
+            this.workspaceKey = workspaceKey;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelRequested.get();
+        }
+
+        /**
+         * Stop the stream by interrupting its worker. Idempotent, and a no-op once the stream has finished.
+         */
+        public void cancel() {
+            if (!this.cancelRequested.compareAndSet(false, true)) {
+                return;
+            }
+            if (this.released.get()) {
+                return;
+            }
+            StreamingExecutor.this.cancelled.incrementAndGet();
+            // The worker re-checks the flag after publishing itself, so a cancel that races with
+            // start-up is still observed.
+            Thread running = this.worker.get();
+            if (running != null) {
+                running.interrupt();
+            }
+        }
+
+        /**
+         * Release the admission slot. Safe to call more than once; used directly when the stream
+         * ends before any work was submitted.
+         */
+        public void release() {
+            if (!this.released.compareAndSet(false, true)) {
+                return;
+            }
+            decrement(StreamingExecutor.this.perWorkspace, this.workspaceKey);
+            decrement(StreamingExecutor.this.perUser, this.userKey);
+            StreamingExecutor.this.active.decrementAndGet();
+            StreamingExecutor.this.globalPermits.release();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.jreinhal.mercenary.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jreinhal.mercenary.Department;
 import jakarta.annotation.PostConstruct;
 import java.nio.ByteBuffer;
@@ -20,11 +22,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.CriteriaDefinition;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import com.jreinhal.mercenary.workspace.WorkspaceContext;
 
@@ -55,6 +59,14 @@ public class TokenizationVault {
     private String hmacKeysKms;
     @Value(value="${app.tokenization.aes-keys-kms:}")
     private String aesKeysKms;
+    @Value(value="${app.tokenization.known-token-cache-size:100000}")
+    private long knownTokenCacheSize = 100000L;
+    @Value(value="${app.tokenization.write-behind-batch-size:500}")
+    private int writeBehindBatchSize = 500;
+    // Tokens known to be persisted, keyed by workspace and token; lets repeat values skip the vault round trip.
+    private Cache<String, Boolean> knownTokens;
+    private ThreadLocal<Mac> activeMac;
+    private final ThreadLocal<WriteBatch> currentBatch = new ThreadLocal<>();
     private static final String AES_GCM_ALGORITHM = "AES/GCM/NoPadding";
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
@@ -68,6 +80,9 @@ public class TokenizationVault {
     @PostConstruct
     public void init() {
         this.keyRing = this.buildKeyRing();
+        byte[] activeHmacKey = this.keyRing.activeKey().hmacKey();
+        this.activeMac = ThreadLocal.withInitial(() -> newHmac(activeHmacKey));
+        this.knownTokens = Caffeine.newBuilder().maximumSize(Math.max(0L, this.knownTokenCacheSize)).build();
     }
 
     public String tokenize(String value, String piiType, String userId) {
@@ -75,16 +90,30 @@ public class TokenizationVault {
             return value;
         }
         try {
-            Query query;
             TokenizationKey activeKey = this.keyRing.activeKey();
-            String token = this.generateToken(value, piiType, activeKey.hmacKey());
+            String token = this.generateToken(value, piiType);
+            if (!this.storeOriginals) {
+                return token;
+            }
             String workspaceId = WorkspaceContext.getCurrentWorkspaceId();
-            if (this.storeOriginals && this.mongoTemplate.findOne(query = new Query((CriteriaDefinition)Criteria.where((String)"token").is(token).and("workspaceId").is(workspaceId)), TokenEntry.class) == null) {
-                String encryptedValue = this.encryptValue(value, activeKey.aesKey());
-                TokenEntry entry = new TokenEntry(token, encryptedValue, piiType, userId, workspaceId, this.keyRing.activeKeyId());
-                this.mongoTemplate.save(entry);
-                log.debug("Tokenized {} value, stored in vault", piiType);
+            String knownKey = knownTokenKey(workspaceId, token);
+            if (this.knownTokens.getIfPresent(knownKey) != null) {
+                return token;
+            }
+            WriteBatch batch = this.currentBatch.get();
+            if (batch != null) {
+                if (!batch.pending.containsKey(knownKey)) {
+                    batch.pending.put(knownKey, new TokenEntry(token, this.encryptValue(value, activeKey.aesKey()), piiType, userId, workspaceId, this.keyRing.activeKeyId()));
+                    if (batch.pending.size() >= Math.max(1, this.writeBehindBatchSize)) {
+                        this.flushBatch(batch);
+                    }
+                }
+                return token;
             }
+            TokenEntry entry = new TokenEntry(token, this.encryptValue(value, activeKey.aesKey()), piiType, userId, workspaceId, this.keyRing.activeKeyId());
+            this.mongoTemplate.upsert(entryQuery(entry), insertOnly(entry), TokenEntry.class);
+            this.knownTokens.put(knownKey, Boolean.TRUE);
+            log.debug("Tokenized {} value, stored in vault", piiType);
             return token;
         }
         catch (Exception e) {
@@ -93,6 +122,85 @@ public class TokenizationVault {
         }
     }
 
+    /**
+     * Defer vault writes made by {@link #tokenize} on this thread until {@link #flushBatch()}. New entries are
+     * buffered (deduplicated per workspace and token) and written as unordered bulk upserts of
+     * {@code write-behind-batch-size} entries, instead of a lookup and save per PII match. Callers must
+     * flush before anything that references the tokens is persisted or acknowledged, and always call
+     * {@link #endBatch()}. Nested calls join the outer batch.
+     */
+    public void beginBatch() {
+        WriteBatch batch = this.currentBatch.get();
+        if (batch == null) {
+            this.currentBatch.set(new WriteBatch());
+        } else {
+            batch.depth++;
+        }
+    }
+
+    /**
+     * Write all entries buffered by this thread's batch. Failures propagate and the entries stay buffered.
+     */
+    public void flushBatch() {
+        WriteBatch batch = this.currentBatch.get();
+        if (batch != null) {
+            this.flushBatch(batch);
+        }
+    }
+
+    /**
+     * Close this thread's batch. Entries not yet flushed are dropped, so tokens from an aborted ingest
+     * are never written.
+     */
+    public void endBatch() {
+        WriteBatch batch = this.currentBatch.get();
+        if (batch == null) {
+            return;
+        }
+        if (batch.depth > 0) {
+            batch.depth--;
+            return;
+        }
+        this.currentBatch.remove();
+        if (!batch.pending.isEmpty()) {
+            log.debug("Discarding {} unflushed tokenization vault entries", batch.pending.size());
+        }
+    }
+
+    private void flushBatch(WriteBatch batch) {
+        if (batch.pending.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOps = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TokenEntry.class);
+        for (TokenEntry entry : batch.pending.values()) {
+            bulkOps.upsert(entryQuery(entry), insertOnly(entry));
+        }
+        bulkOps.execute();
+        for (String knownKey : batch.pending.keySet()) {
+            this.knownTokens.put(knownKey, Boolean.TRUE);
+        }
+        log.debug("Flushed {} tokenization vault entries", batch.pending.size());
+        batch.pending.clear();
+    }
+
+    private static Query entryQuery(TokenEntry entry) {
+        return new Query((CriteriaDefinition)Criteria.where((String)"token").is(entry.getToken()).and("workspaceId").is(entry.getWorkspaceId()));
+    }
+
+    // An existing entry for the token keeps its original ciphertext, key id and creation time.
+    private static Update insertOnly(TokenEntry entry) {
+        return new Update()
+                .setOnInsert("encryptedValue", entry.getEncryptedValue())
+                .setOnInsert("piiType", entry.getPiiType())
+                .setOnInsert("keyId", entry.getKeyId())
+                .setOnInsert("createdAt", entry.getCreatedAt())
+                .setOnInsert("createdBy", entry.getCreatedBy());
+    }
+
+    private static String knownTokenKey(String workspaceId, String token) {
+        return workspaceId + '\0' + token;
+    }
+
     public Optional<String> detokenize(String token, String userId) {
         if (!this.enabled || !this.storeOriginals || token == null) {
             return Optional.empty();
@@ -119,10 +227,9 @@ public class TokenizationVault {
         return value != null && value.startsWith("<<TOK:");
     }
 
-    private String generateToken(String value, String piiType, byte[] hmacKey) throws Exception {
-        Mac mac = Mac.getInstance("HmacSHA256");
-        SecretKeySpec keySpec = new SecretKeySpec(hmacKey, "HmacSHA256");
-        mac.init(keySpec);
+    private String generateToken(String value, String piiType) {
+        // doFinal resets the Mac, so each thread reuses one instance keyed with the active HMAC key.
+        Mac mac = this.activeMac.get();
         String input = piiType + ":" + value;
         byte[] hmac = mac.doFinal(input.getBytes(StandardCharsets.UTF_8));
         String base64Hmac = Base64.getUrlEncoder().withoutPadding().encodeToString(hmac);
@@ -285,6 +392,16 @@ public class TokenizationVault {
         return this.activeKeyId;
     }
 
+    private static Mac newHmac(byte[] hmacKey) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(hmacKey, "HmacSHA256"));
+            return mac;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to initialize tokenization HMAC", e);
+        }
+    }
+
     private byte[] deriveKey(byte[] baseKey, String label) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
@@ -306,6 +423,11 @@ public class TokenizationVault {
     private record TokenizationKey(byte[] hmacKey, byte[] aesKey) {
     }
 
+    private static final class WriteBatch {
+        private final Map<String, TokenEntry> pending = new LinkedHashMap<>();
+        private int depth;
+    }
+
     private record TokenizationKeyRing(String activeKeyId, Map<String, TokenizationKey> keys) {
         TokenizationKey activeKey() {
             return this.keys.get(this.activeKeyId);
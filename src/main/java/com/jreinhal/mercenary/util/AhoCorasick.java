@@ -0,0 +1,197 @@
+package com.jreinhal.mercenary.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Multi-keyword substring matcher (Aho-Corasick automaton).
+ *
+ * <p>Finds every occurrence of every keyword in one left-to-right pass over the text, so matching
+ * {@code m} keywords costs O(n + matches) instead of the O(n * m) of looping {@code contains}.
+ * Keywords are identified by their index in the list passed to {@link #of}.</p>
+ *
+ * <p>With {@code ignoreAsciiCase} the automaton folds {@code A-Z} to lower case in both keywords and
+ * text, which is the same case folding as {@link java.util.regex.Pattern#CASE_INSENSITIVE} without
+ * {@code UNICODE_CASE}. Other characters are compared exactly.</p>
+ *
+ * <p>Immutable and thread-safe once built.</p>
+ */
+public final class AhoCorasick {
+    private final int keywordCount;
+    private final int[] keywordLengths;
+    private final boolean ignoreAsciiCase;
+    // Per-state sorted transition labels and targets.
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    // Keyword indices ending at each state, including those inherited through failure links.
+    private final int[][] outputs;
+
+    /**
+     * Receives a keyword occurrence {@code [start, end)}. Return {@code false} to stop scanning.
+     */
+    @FunctionalInterface
+    public interface MatchHandler {
+        boolean onMatch(int keyword, int start, int end);
+    }
+
+    private AhoCorasick(List<String> keywords, boolean ignoreAsciiCase) {
+        this.keywordCount = keywords.size();
+        this.keywordLengths = new int[this.keywordCount];
+        this.ignoreAsciiCase = ignoreAsciiCase;
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        for (int k = 0; k < this.keywordCount; ++k) {
+            String keyword = keywords.get(k);
+            if (keyword == null || keyword.isEmpty()) {
+                throw new IllegalArgumentException("Keywords must be non-empty");
+            }
+            this.keywordLengths[k] = keyword.length();
+            int state = 0;
+            for (int i = 0; i < keyword.length(); ++i) {
+                char c = this.fold(keyword.charAt(i));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ends.get(state).add(k);
+        }
+        int states = trie.size();
+        this.labels = new char[states][];
+        this.targets = new int[states][];
+        for (int s = 0; s < states; ++s) {
+            TreeMap<Character, Integer> edges = trie.get(s);
+            char[] stateLabels = new char[edges.size()];
+            int[] stateTargets = new int[edges.size()];
+            int i = 0;
+            for (var edge : edges.entrySet()) {
+                stateLabels[i] = edge.getKey();
+                stateTargets[i] = edge.getValue();
+                ++i;
+            }
+            this.labels[s] = stateLabels;
+            this.targets[s] = stateTargets;
+        }
+        this.failure = new int[states];
+        this.outputs = new int[states][];
+        this.outputs[0] = toArray(ends.get(0));
+        // Breadth-first so a state's failure target is finalized before its children are visited.
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : this.targets[0]) {
+            this.failure[child] = 0;
+            this.outputs[child] = toArray(ends.get(child));
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < this.labels[state].length; ++i) {
+                char c = this.labels[state][i];
+                int child = this.targets[state][i];
+                int fallback = this.failure[state];
+                while (fallback != 0 && this.transition(fallback, c) < 0) {
+                    fallback = this.failure[fallback];
+                }
+                int target = this.transition(fallback, c);
+                this.failure[child] = target >= 0 ? target : 0;
+                List<Integer> merged = new ArrayList<>(ends.get(child));
+                for (int inherited : this.outputs[this.failure[child]]) {
+                    merged.add(inherited);
+                }
+                this.outputs[child] = toArray(merged);
+                queue.add(child);
+            }
+        }
+    }
+
+    public static AhoCorasick of(List<String> keywords) {
+        return new AhoCorasick(keywords, false);
+    }
+
+    public static AhoCorasick of(List<String> keywords, boolean ignoreAsciiCase) {
+        return new AhoCorasick(keywords, ignoreAsciiCase);
+    }
+
+    public int keywordCount() {
+        return this.keywordCount;
+    }
+
+    /**
+     * Report every keyword occurrence in {@code text}, in order of end position.
+     */
+    public void scan(CharSequence text, MatchHandler handler) {
+        if (text == null) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); ++i) {
+            char c = this.fold(text.charAt(i));
+            int next;
+            while ((next = this.transition(state, c)) < 0 && state != 0) {
+                state = this.failure[state];
+            }
+            state = Math.max(next, 0);
+            for (int keyword : this.outputs[state]) {
+                if (!handler.onMatch(keyword, i + 1 - this.keywordLengths[keyword], i + 1)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Indices of all keywords that occur in {@code text}.
+     */
+    public BitSet matches(CharSequence text) {
+        BitSet found = new BitSet(this.keywordCount);
+        this.scan(text, (keyword, start, end) -> {
+            found.set(keyword);
+            return found.cardinality() < this.keywordCount;
+        });
+        return found;
+    }
+
+    /**
+     * Lowest keyword index that occurs in {@code text}, or {@code -1}; the same answer as checking
+     * {@code text.contains(keyword)} for each keyword in list order.
+     */
+    public int firstKeyword(CharSequence text) {
+        return this.matches(text).nextSetBit(0);
+    }
+
+    public boolean containsAny(CharSequence text) {
+        boolean[] found = new boolean[1];
+        this.scan(text, (keyword, start, end) -> {
+            found[0] = true;
+            return false;
+        });
+        return found[0];
+    }
+
+    private int transition(int state, char c) {
+        int i = Arrays.binarySearch(this.labels[state], c);
+        return i >= 0 ? this.targets[state][i] : -1;
+    }
+
+    private char fold(char c) {
+        return this.ignoreAsciiCase && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+}
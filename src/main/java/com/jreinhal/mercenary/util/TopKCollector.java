@@ -0,0 +1,204 @@
+package com.jreinhal.mercenary.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Bounded top-k selection over scored items, used by the retrieval engines instead of
+ * sorting every candidate and then truncating.
+ *
+ * <p>Keeps a min-heap of at most {@code k} entries with primitive scores, so offering
+ * {@code n} candidates costs O(n log k). Ties are broken by insertion order (earlier wins),
+ * which matches the stable descending sort this replaces.</p>
+ *
+ * <p>Not thread-safe; create one collector per query.</p>
+ */
+public final class TopKCollector<T> {
+    private static final int INITIAL_SLOTS = 16;
+    private final int capacity;
+    private Object[] items;
+    private double[] scores;
+    private long[] sequences;
+    private int size;
+    private long nextSequence;
+
+    public TopKCollector(int k) {
+        this.capacity = Math.max(0, k);
+        // Callers sometimes pass very large k (e.g. "return everything"); grow lazily instead of allocating k slots.
+        int slots = Math.min(this.capacity, INITIAL_SLOTS);
+        this.items = new Object[slots];
+        this.scores = new double[slots];
+        this.sequences = new long[slots];
+    }
+
+    /**
+     * Offer a candidate. Returns {@code true} if it is currently within the top k.
+     */
+    public boolean offer(T item, double score) {
+        long sequence = this.nextSequence++;
+        if (this.capacity == 0) {
+            return false;
+        }
+        if (this.size < this.capacity) {
+            this.ensureSlots(this.size + 1);
+            int idx = this.size++;
+            this.set(idx, item, score, sequence);
+            this.siftUp(idx);
+            return true;
+        }
+        if (!this.isBetter(score, sequence, this.scores[0], this.sequences[0])) {
+            return false;
+        }
+        this.set(0, item, score, sequence);
+        this.siftDown(0);
+        return true;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Visit retained items from best to worst score.
+     */
+    public void forEachSorted(ObjDoubleConsumer<? super T> consumer) {
+        int[] order = this.sortedOrder();
+        for (int idx : order) {
+            consumer.accept(this.itemAt(idx), this.scores[idx]);
+        }
+    }
+
+    /**
+     * Retained items from best to worst score.
+     */
+    public List<T> toSortedList() {
+        int[] order = this.sortedOrder();
+        ArrayList<T> result = new ArrayList<>(order.length);
+        for (int idx : order) {
+            result.add(this.itemAt(idx));
+        }
+        return result;
+    }
+
+    private int[] sortedOrder() {
+        // Heap-sort a copy of the slot indices; k is small so this stays cheap.
+        int n = this.size;
+        int[] heap = new int[n];
+        for (int i = 0; i < n; i++) {
+            heap[i] = i;
+        }
+        int[] order = new int[n];
+        int heapSize = n;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            this.siftDownIndices(heap, i, heapSize);
+        }
+        for (int out = n - 1; out >= 0; out--) {
+            order[out] = heap[0];
+            heap[0] = heap[--heapSize];
+            this.siftDownIndices(heap, 0, heapSize);
+        }
+        return order;
+    }
+
+    private void siftDownIndices(int[] heap, int pos, int heapSize) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < heapSize && this.isWorse(heap[right], heap[left])) {
+                worst = right;
+            }
+            if (!this.isWorse(heap[worst], heap[pos])) {
+                return;
+            }
+            int tmp = heap[pos];
+            heap[pos] = heap[worst];
+            heap[worst] = tmp;
+            pos = worst;
+        }
+    }
+
+    private void siftUp(int pos) {
+        while (pos > 0) {
+            int parent = (pos - 1) / 2;
+            if (!this.isWorse(pos, parent)) {
+                return;
+            }
+            this.swap(pos, parent);
+            pos = parent;
+        }
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int left = 2 * pos + 1;
+            if (left >= this.size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < this.size && this.isWorse(right, left)) {
+                worst = right;
+            }
+            if (!this.isWorse(worst, pos)) {
+                return;
+            }
+            this.swap(pos, worst);
+            pos = worst;
+        }
+    }
+
+    private boolean isWorse(int a, int b) {
+        return this.isBetter(this.scores[b], this.sequences[b], this.scores[a], this.sequences[a]);
+    }
+
+    private boolean isBetter(double score, long sequence, double otherScore, long otherSequence) {
+        int cmp = Double.compare(score, otherScore);
+        if (cmp != 0) {
+            return cmp > 0;
+        }
+        return sequence < otherSequence;
+    }
+
+    private void ensureSlots(int required) {
+        if (required <= this.items.length) {
+            return;
+        }
+        int grown = (int) Math.min((long) this.capacity, Math.max((long) required, (long) this.items.length * 2));
+        this.items = Arrays.copyOf(this.items, grown);
+        this.scores = Arrays.copyOf(this.scores, grown);
+        this.sequences = Arrays.copyOf(this.sequences, grown);
+    }
+
+    private void set(int idx, T item, double score, long sequence) {
+        this.items[idx] = item;
+        this.scores[idx] = score;
+        this.sequences[idx] = sequence;
+    }
+
+    private void swap(int a, int b) {
+        Object item = this.items[a];
+        this.items[a] = this.items[b];
+        this.items[b] = item;
+        double score = this.scores[a];
+        this.scores[a] = this.scores[b];
+        this.scores[b] = score;
+        long sequence = this.sequences[a];
+        this.sequences[a] = this.sequences[b];
+        this.sequences[b] = sequence;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int idx) {
+        return (T) this.items[idx];
+    }
+}
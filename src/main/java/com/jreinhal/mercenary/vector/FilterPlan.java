@@ -0,0 +1,349 @@
+package com.jreinhal.mercenary.vector;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Immutable, precompiled form of a filter expression used by {@link LocalMongoVectorStore}.
+ *
+ * A plan is built once per distinct filter string and holds both the Mongo prefilter
+ * criteria and a specialized in-memory predicate. Conditions whose Mongo semantics are
+ * at least as strict as the Java evaluator ({@code ==}, {@code in} and numeric comparators
+ * on prefilter keys) are marked as covered and are not re-evaluated in Java when the
+ * prefilter is applied. {@code !=} is always re-checked because Mongo {@code $nin} is
+ * case-sensitive while the evaluator compares case-insensitively.
+ */
+final class FilterPlan {
+    private static final String PARSE_FAILURE_ID = "__filter_parse_failure__";
+
+    static final FilterPlan MATCH_ALL = new FilterPlan(null, metadata -> true, Set.of());
+
+    private final CriteriaDefinition prefilterCriteria;
+    private final MetadataPredicate residualPredicate;
+    private final Set<String> residualKeys;
+
+    private FilterPlan(CriteriaDefinition prefilterCriteria, MetadataPredicate residualPredicate, Set<String> residualKeys) {
+        this.prefilterCriteria = prefilterCriteria;
+        this.residualPredicate = residualPredicate;
+        this.residualKeys = residualKeys;
+    }
+
+    static FilterPlan compile(Object filterExpression, Set<String> prefilterKeys) {
+        return compile(FilterExpressionParser.parse(filterExpression), prefilterKeys);
+    }
+
+    static FilterPlan compile(FilterExpressionParser.ParsedFilter parsed, Set<String> prefilterKeys) {
+        if (parsed == null) {
+            return MATCH_ALL;
+        }
+        if (parsed.invalid()) {
+            // Fail closed: if a filter was supplied but couldn't be parsed, return a query that matches nothing.
+            return new FilterPlan(Criteria.where("_id").is(PARSE_FAILURE_ID), metadata -> false, Set.of());
+        }
+        List<List<FilterExpressionParser.Condition>> groups = parsed.orGroups();
+        if (groups == null || groups.isEmpty()) {
+            return MATCH_ALL;
+        }
+        for (List<FilterExpressionParser.Condition> group : groups) {
+            for (FilterExpressionParser.Condition condition : group) {
+                if ("in".equals(condition.op()) && condition.values().isEmpty() && prefilterKeys.contains(condition.key())) {
+                    // Fail closed for "in []" to avoid broad prefilter scans.
+                    return new FilterPlan(Criteria.where("_id").in(List.of()), metadata -> false, Set.of());
+                }
+            }
+        }
+
+        ArrayList<Criteria> orCriteria = new ArrayList<>();
+        ArrayList<List<FilterExpressionParser.Condition>> residualGroups = new ArrayList<>();
+        boolean prefilterable = true;
+        for (List<FilterExpressionParser.Condition> group : groups) {
+            GroupCompilation compiled = compileGroup(group, prefilterKeys);
+            if (compiled == null) {
+                prefilterable = false;
+                break;
+            }
+            orCriteria.add(compiled.criteria());
+            residualGroups.add(compiled.residual());
+        }
+
+        if (!prefilterable) {
+            // No single Mongo query can express the filter; evaluate everything in Java.
+            return new FilterPlan(null, compilePredicate(groups), keysOf(groups));
+        }
+
+        Criteria criteria = orCriteria.size() == 1
+                ? orCriteria.get(0)
+                : new Criteria().orOperator(orCriteria.toArray(new Criteria[0]));
+        if (groups.size() == 1) {
+            List<FilterExpressionParser.Condition> residual = residualGroups.get(0);
+            if (residual.isEmpty()) {
+                return new FilterPlan(criteria, metadata -> true, Set.of());
+            }
+            return new FilterPlan(criteria, compileGroupPredicate(residual), keysOf(List.of(residual)));
+        }
+        // With OR groups, a document may satisfy the prefilter through one group and the
+        // residual conditions through another, so the full predicate must be re-checked.
+        return new FilterPlan(criteria, compilePredicate(groups), keysOf(groups));
+    }
+
+    /**
+     * Returns a fresh Mongo query for this plan, or {@code null} when the collection must be scanned.
+     */
+    Query prefilterQuery() {
+        return this.prefilterCriteria != null ? new Query(this.prefilterCriteria) : null;
+    }
+
+    /**
+     * Metadata keys the residual predicate reads; candidate scans only need to load these.
+     */
+    Set<String> residualKeys() {
+        return this.residualKeys;
+    }
+
+    boolean hasPrefilter() {
+        return this.prefilterCriteria != null;
+    }
+
+    /**
+     * Evaluates the conditions not already enforced by {@link #prefilterQuery()}.
+     */
+    boolean matches(Map<String, Object> metadata) {
+        return this.residualPredicate.matches(metadata);
+    }
+
+    private static GroupCompilation compileGroup(List<FilterExpressionParser.Condition> group, Set<String> prefilterKeys) {
+        if (group.isEmpty()) {
+            return null;
+        }
+        ArrayList<Criteria> andCriteria = new ArrayList<>();
+        ArrayList<FilterExpressionParser.Condition> residual = new ArrayList<>();
+        for (FilterExpressionParser.Condition condition : group) {
+            String key = condition.key();
+            if (!prefilterKeys.contains(key)) {
+                return null;
+            }
+            String field = "metadata." + key;
+            String op = condition.op();
+            List<String> values = condition.values();
+            if ("==".equals(op) && !values.isEmpty()) {
+                andCriteria.add(Criteria.where(field).in(normalizeValuesForQuery(values.get(0))));
+            } else if ("!=".equals(op) && !values.isEmpty()) {
+                andCriteria.add(Criteria.where(field).nin(normalizeValuesForQuery(values.get(0))));
+                residual.add(condition);
+            } else if ("in".equals(op)) {
+                Set<Object> normalized = new HashSet<>();
+                for (String value : values) {
+                    normalized.addAll(normalizeValuesForQuery(value));
+                }
+                andCriteria.add(Criteria.where(field).in(normalized));
+            } else if (isComparator(op) && !values.isEmpty()) {
+                Double numeric = tryParseDouble(values.get(0));
+                if (numeric == null) {
+                    return null;
+                }
+                Object normalizedNumber = normalizeNumberForQuery(numeric);
+                switch (op) {
+                    case ">=" -> andCriteria.add(Criteria.where(field).gte(normalizedNumber));
+                    case "<=" -> andCriteria.add(Criteria.where(field).lte(normalizedNumber));
+                    case ">" -> andCriteria.add(Criteria.where(field).gt(normalizedNumber));
+                    default -> andCriteria.add(Criteria.where(field).lt(normalizedNumber));
+                }
+            }
+        }
+        if (andCriteria.isEmpty()) {
+            return null;
+        }
+        Criteria criteria = andCriteria.size() == 1
+                ? andCriteria.get(0)
+                : new Criteria().andOperator(andCriteria.toArray(new Criteria[0]));
+        return new GroupCompilation(criteria, List.copyOf(residual));
+    }
+
+    private static MetadataPredicate compilePredicate(List<List<FilterExpressionParser.Condition>> groups) {
+        if (groups.size() == 1) {
+            return compileGroupPredicate(groups.get(0));
+        }
+        MetadataPredicate[] alternatives = new MetadataPredicate[groups.size()];
+        for (int i = 0; i < alternatives.length; i++) {
+            alternatives[i] = compileGroupPredicate(groups.get(i));
+        }
+        return metadata -> {
+            for (MetadataPredicate alternative : alternatives) {
+                if (alternative.matches(metadata)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static MetadataPredicate compileGroupPredicate(List<FilterExpressionParser.Condition> group) {
+        if (group.size() == 1) {
+            return compileCondition(group.get(0));
+        }
+        MetadataPredicate[] conjuncts = new MetadataPredicate[group.size()];
+        for (int i = 0; i < conjuncts.length; i++) {
+            conjuncts[i] = compileCondition(group.get(i));
+        }
+        return metadata -> {
+            for (MetadataPredicate conjunct : conjuncts) {
+                if (!conjunct.matches(metadata)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Specializes a single condition so that per-document evaluation does no operator dispatch
+     * and no re-parsing of the right-hand side. Semantics mirror {@link FilterExpressionEvaluator}.
+     */
+    private static MetadataPredicate compileCondition(FilterExpressionParser.Condition condition) {
+        String key = condition.key();
+        String op = condition.op();
+        List<String> values = condition.values();
+        if ("in".equals(op)) {
+            CompiledValue[] candidates = new CompiledValue[values.size()];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = CompiledValue.of(values.get(i));
+            }
+            return metadata -> {
+                Object metaValue = metadata != null ? metadata.get(key) : null;
+                if (metaValue == null) {
+                    return false;
+                }
+                for (CompiledValue candidate : candidates) {
+                    if (candidate.equalsMeta(metaValue)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+        if (values == null || values.isEmpty()) {
+            return metadata -> true;
+        }
+        CompiledValue rhs = CompiledValue.of(values.get(0));
+        if ("==".equals(op)) {
+            return metadata -> {
+                Object metaValue = metadata != null ? metadata.get(key) : null;
+                return metaValue != null && rhs.equalsMeta(metaValue);
+            };
+        }
+        if ("!=".equals(op)) {
+            return metadata -> {
+                Object metaValue = metadata != null ? metadata.get(key) : null;
+                return metaValue == null || !rhs.equalsMeta(metaValue);
+            };
+        }
+        if (isComparator(op)) {
+            if (rhs.numeric == null) {
+                return metadata -> false;
+            }
+            double bound = rhs.numeric;
+            return metadata -> {
+                Double meta = coerceToDouble(metadata != null ? metadata.get(key) : null);
+                if (meta == null) {
+                    return false;
+                }
+                int cmp = Double.compare(meta, bound);
+                return switch (op) {
+                    case ">=" -> cmp >= 0;
+                    case "<=" -> cmp <= 0;
+                    case ">" -> cmp > 0;
+                    default -> cmp < 0;
+                };
+            };
+        }
+        return metadata -> true;
+    }
+
+    private static Set<String> keysOf(List<List<FilterExpressionParser.Condition>> groups) {
+        HashSet<String> keys = new HashSet<>();
+        for (List<FilterExpressionParser.Condition> group : groups) {
+            for (FilterExpressionParser.Condition condition : group) {
+                keys.add(condition.key());
+            }
+        }
+        return Set.copyOf(keys);
+    }
+
+    private static boolean isComparator(String op) {
+        return ">=".equals(op) || "<=".equals(op) || ">".equals(op) || "<".equals(op);
+    }
+
+    private static List<Object> normalizeValuesForQuery(String value) {
+        ArrayList<Object> variants = new ArrayList<>();
+        Double numeric = tryParseDouble(value);
+        if (numeric != null) {
+            if (numeric.doubleValue() == Math.floor(numeric.doubleValue())) {
+                variants.add(numeric.longValue());
+            }
+            variants.add(numeric);
+        }
+        variants.add(value);
+        return variants;
+    }
+
+    private static Object normalizeNumberForQuery(Double numeric) {
+        if (numeric.doubleValue() == Math.floor(numeric.doubleValue())) {
+            return numeric.longValue();
+        }
+        return numeric;
+    }
+
+    private static Double coerceToDouble(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return tryParseDouble(String.valueOf(value));
+    }
+
+    private static Double tryParseDouble(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    interface MetadataPredicate {
+        boolean matches(Map<String, Object> metadata);
+    }
+
+    private record GroupCompilation(Criteria criteria, List<FilterExpressionParser.Condition> residual) {
+    }
+
+    /**
+     * Right-hand side of a comparison with its numeric form parsed once.
+     */
+    private record CompiledValue(String text, Double numeric) {
+        static CompiledValue of(String text) {
+            return new CompiledValue(text, tryParseDouble(text));
+        }
+
+        boolean equalsMeta(Object metaValue) {
+            if (this.text == null) {
+                return metaValue == null;
+            }
+            if (metaValue instanceof Number number && this.numeric != null) {
+                return Double.compare(number.doubleValue(), this.numeric) == 0;
+            }
+            return String.valueOf(metaValue).equalsIgnoreCase(this.text);
+        }
+    }
+}
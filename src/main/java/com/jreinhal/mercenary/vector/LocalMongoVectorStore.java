@@ -1,15 +1,18 @@
 package com.jreinhal.mercenary.vector;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jreinhal.mercenary.service.PipelineMetrics;
+import com.jreinhal.mercenary.util.TopKCollector;
 import com.mongodb.client.result.DeleteResult;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
@@ -30,11 +33,20 @@ implements VectorStore {
     private static final Set<String> PREFILTER_KEYS = Set.of(
             "dept", "workspaceId", "type", "partition_id", "source", "filename", "mimeType",
             "documentYear", "documentDateEpoch");
+    /** Upper bound on distinct compiled filter plans; dept/workspace/type filters repeat heavily. */
+    private static final int FILTER_PLAN_CACHE_SIZE = 512;
+    /** Metadata keys safe to use as projection paths; anything else falls back to loading full metadata. */
+    private static final Pattern PROJECTABLE_KEY = Pattern.compile("[A-Za-z0-9_-]+");
     private final MongoTemplate mongoTemplate;
     private final EmbeddingModel embeddingModel;
     private final int embeddingBatchSize;
     private final int targetEmbeddingDimensions;
     private final boolean multimodalEmbeddingsEnabled;
+    private final Cache<String, FilterPlan> filterPlanCache = Caffeine.newBuilder()
+            .maximumSize(FILTER_PLAN_CACHE_SIZE)
+            .recordStats()
+            .build();
+    private PipelineMetrics pipelineMetrics = PipelineMetrics.noop();
 
     public LocalMongoVectorStore(MongoTemplate mongoTemplate, EmbeddingModel embeddingModel) {
         this(mongoTemplate, embeddingModel, 128, 0, false);
@@ -50,6 +62,15 @@ implements VectorStore {
                 this.embeddingBatchSize, this.targetEmbeddingDimensions, this.multimodalEmbeddingsEnabled);
     }
 
+    /**
+     * Attach pipeline metrics. Stages recorded here are tagged {@link PipelineMetrics#UNSCOPED}; the
+     * sector is attributed by the enclosing retrieval timer.
+     */
+    public void setPipelineMetrics(PipelineMetrics pipelineMetrics) {
+        this.pipelineMetrics = pipelineMetrics != null ? pipelineMetrics : PipelineMetrics.noop();
+        this.pipelineMetrics.monitorCache("vectorstore.filter.plans", this.filterPlanCache);
+    }
+
     @SuppressWarnings("deprecation")
     public void add(List<Document> documents) {
         if (documents == null || documents.isEmpty()) {
@@ -128,41 +149,31 @@ implements VectorStore {
         if (this.targetEmbeddingDimensions > 0 && log.isDebugEnabled()) {
             log.debug("Running similarity search with target embedding dimensions={}", this.targetEmbeddingDimensions);
         }
-        float[] embeddingArray = this.embeddingModel.embed(queryText);
+        float[] embeddingArray = this.pipelineMetrics.time(PipelineMetrics.STAGE_EMBEDDING, PipelineMetrics.UNSCOPED, "query",
+                () -> this.embeddingModel.embed(queryText));
         this.validateEmbeddingDimensions(embeddingArray);
         double queryNorm = this.computeNorm(embeddingArray);
-        FilterExpressionParser.ParsedFilter parsed = FilterExpressionParser.parse(filterExpression);
-        Query prefilterQuery = this.buildPrefilterQuery(parsed);
-        List<MongoDocument> allDocs = prefilterQuery != null ? this.mongoTemplate.find(prefilterQuery, MongoDocument.class, COLLECTION_NAME) : this.mongoTemplate.findAll(MongoDocument.class, COLLECTION_NAME);
+        FilterPlan plan = this.resolveFilterPlan(filterExpression);
+        long scanStart = System.nanoTime();
+        List<MongoDocument> candidates = this.loadCandidates(plan, "embedding", "embeddingNorm");
         if (log.isDebugEnabled()) {
-            log.debug("Total documents found in vector store: {}", allDocs.size());
-        }
-        FilterEvaluator evaluator = this.buildFilterEvaluator(parsed);
-        return allDocs.stream().filter(md -> evaluator.matches(md.getMetadata())).map(md -> {
-            Map<String, Object> metadata = md.getMetadata() != null ? new HashMap<String, Object>(md.getMetadata()) : new HashMap<>();
-            Document doc = new Document(md.getId(), md.getContent(), metadata);
-            return new ScoredDocument(doc, this.calculateCosineSimilarity(embeddingArray, queryNorm, md.getEmbedding(), md.getEmbeddingNorm()));
-        }).filter(scored -> scored.score >= threshold).sorted((a, b) -> Double.compare(b.score, a.score)).limit(topK).map(scored -> {
-            scored.document.getMetadata().put("score", scored.score);
-            return scored.getDocument();
-        }).collect(Collectors.toList());
-    }
-
-    private FilterEvaluator buildFilterEvaluator(FilterExpressionParser.ParsedFilter parsed) {
-        if (parsed == null) {
-            return metadata -> true;
-        }
-        if (parsed.invalid()) {
-            // Fail closed: if a filter was provided but we couldn't safely parse it, return nothing.
-            return metadata -> false;
+            log.debug("Total documents found in vector store: {}", candidates.size());
         }
-        if (parsed.orGroups().isEmpty()) {
-            return metadata -> true;
+        TopKCollector<String> topCandidates = new TopKCollector<>(topK);
+        for (MongoDocument md : candidates) {
+            if (!plan.matches(md.getMetadata())) {
+                continue;
+            }
+            double score = this.calculateCosineSimilarity(embeddingArray, queryNorm, md.getEmbedding(), md.getEmbeddingNorm());
+            if (score >= threshold) {
+                topCandidates.offer(md.getId(), score);
+            }
         }
-        return metadata -> FilterExpressionEvaluator.matches(metadata, parsed);
+        this.pipelineMetrics.record(PipelineMetrics.STAGE_VECTOR_SCAN, PipelineMetrics.UNSCOPED, "dense", System.nanoTime() - scanStart, true);
+        return this.pipelineMetrics.time(PipelineMetrics.STAGE_HYDRATE, PipelineMetrics.UNSCOPED, "dense",
+                () -> this.hydrate(topCandidates, "score"));
     }
 
-
     private double calculateCosineSimilarity(float[] v1, double normA, List<Double> v2, Double normB) {
         if (v1 == null || v2 == null || v1.length == 0 || v2.isEmpty() || v1.length != v2.size()) {
             return 0.0;
@@ -215,30 +226,22 @@ implements VectorStore {
         if (queryWeights == null || queryWeights.isEmpty()) {
             return List.of();
         }
-        FilterExpressionParser.ParsedFilter parsed = FilterExpressionParser.parse(filterExpression);
-        Query prefilterQuery = this.buildPrefilterQuery(parsed);
-        List<MongoDocument> allDocs = prefilterQuery != null
-                ? this.mongoTemplate.find(prefilterQuery, MongoDocument.class, COLLECTION_NAME)
-                : this.mongoTemplate.findAll(MongoDocument.class, COLLECTION_NAME);
-        FilterEvaluator evaluator = this.buildFilterEvaluator(parsed);
-        return allDocs.stream()
-                .filter(md -> evaluator.matches(md.getMetadata()))
-                .filter(md -> md.getSparseWeights() != null && !md.getSparseWeights().isEmpty())
-                .map(md -> {
-                    Map<String, Object> metadata = md.getMetadata() != null
-                            ? new HashMap<String, Object>(md.getMetadata()) : new HashMap<>();
-                    Document doc = new Document(md.getId(), md.getContent(), metadata);
-                    double score = this.calculateSparseDotProduct(queryWeights, md.getSparseWeights());
-                    return new ScoredDocument(doc, score);
-                })
-                .filter(scored -> scored.score >= threshold)
-                .sorted((a, b) -> Double.compare(b.score, a.score))
-                .limit(topK)
-                .map(scored -> {
-                    scored.document.getMetadata().put("sparseScore", scored.score);
-                    return scored.getDocument();
-                })
-                .collect(Collectors.toList());
+        FilterPlan plan = this.resolveFilterPlan(filterExpression);
+        long scanStart = System.nanoTime();
+        List<MongoDocument> candidates = this.loadCandidates(plan, "sparseWeights");
+        TopKCollector<String> topCandidates = new TopKCollector<>(topK);
+        for (MongoDocument md : candidates) {
+            if (!plan.matches(md.getMetadata()) || md.getSparseWeights() == null || md.getSparseWeights().isEmpty()) {
+                continue;
+            }
+            double score = this.calculateSparseDotProduct(queryWeights, md.getSparseWeights());
+            if (score >= threshold) {
+                topCandidates.offer(md.getId(), score);
+            }
+        }
+        this.pipelineMetrics.record(PipelineMetrics.STAGE_VECTOR_SCAN, PipelineMetrics.UNSCOPED, "sparse", System.nanoTime() - scanStart, true);
+        return this.pipelineMetrics.time(PipelineMetrics.STAGE_HYDRATE, PipelineMetrics.UNSCOPED, "sparse",
+                () -> this.hydrate(topCandidates, "sparseScore"));
     }
 
     private double computeNorm(float[] embedding) {
@@ -265,117 +268,67 @@ implements VectorStore {
         return sum;
     }
 
-    private Query buildPrefilterQuery(FilterExpressionParser.ParsedFilter parsed) {
-        if (parsed == null) {
-            return null;
-        }
-        if (parsed.invalid()) {
-            // Fail closed: if a filter was supplied but couldn't be parsed, return a query that matches nothing.
-            return new Query((CriteriaDefinition) Criteria.where((String) "_id").is("__filter_parse_failure__"));
-        }
-        if (parsed.orGroups().isEmpty()) {
-            return null;
+    /**
+     * Resolve the compiled plan for a filter expression, parsing it at most once per distinct string.
+     */
+    FilterPlan resolveFilterPlan(Object filterExpression) {
+        if (filterExpression == null) {
+            return FilterPlan.MATCH_ALL;
         }
-
-        List<List<FilterExpressionParser.Condition>> groups = parsed.orGroups();
-        if (groups.isEmpty()) {
-            return null;
+        String key = String.valueOf(filterExpression).trim();
+        if (key.isBlank()) {
+            return FilterPlan.MATCH_ALL;
         }
+        return this.filterPlanCache.get(key, k -> FilterPlan.compile(k, PREFILTER_KEYS));
+    }
 
-        ArrayList<Criteria> orCriteria = new ArrayList<>();
-        for (List<FilterExpressionParser.Condition> group : groups) {
-            if (group.isEmpty()) {
-                return null;
-            }
-            ArrayList<Criteria> andCriteria = new ArrayList<>();
-            for (FilterExpressionParser.Condition condition : group) {
-                String key = condition.key();
-                if (!PREFILTER_KEYS.contains(key)) {
-                    return null;
-                }
-                String field = "metadata." + key;
-                String op = condition.op();
-                if ("==".equals(op) && !condition.values().isEmpty()) {
-                    andCriteria.add(Criteria.where(field).in(this.normalizeValuesForQuery(condition.values().get(0))));
-                } else if ("!=".equals(op) && !condition.values().isEmpty()) {
-                    andCriteria.add(Criteria.where(field).nin(this.normalizeValuesForQuery(condition.values().get(0))));
-                } else if ("in".equals(op)) {
-                    if (condition.values().isEmpty()) {
-                        // Fail closed for "in []" to avoid broad prefilter scans.
-                        return new Query(Criteria.where("_id").in(List.of()));
-                    }
-                    Set<Object> normalized = new HashSet<>();
-                    for (String value : condition.values()) {
-                        normalized.addAll(this.normalizeValuesForQuery(value));
-                    }
-                    andCriteria.add(Criteria.where(field).in(normalized));
-                } else if ((">=".equals(op) || "<=".equals(op) || ">".equals(op) || "<".equals(op)) && !condition.values().isEmpty()) {
-                    Double numeric = this.tryParseDouble(condition.values().get(0));
-                    if (numeric == null) {
-                        return null;
-                    }
-                    Object normalizedNumber = this.normalizeNumberForQuery(numeric);
-                    if (">=".equals(op)) {
-                        andCriteria.add(Criteria.where(field).gte(normalizedNumber));
-                    } else if ("<=".equals(op)) {
-                        andCriteria.add(Criteria.where(field).lte(normalizedNumber));
-                    } else if (">".equals(op)) {
-                        andCriteria.add(Criteria.where(field).gt(normalizedNumber));
-                    } else if ("<".equals(op)) {
-                        andCriteria.add(Criteria.where(field).lt(normalizedNumber));
-                    }
-                }
-            }
-            if (andCriteria.isEmpty()) {
-                return null;
+    /**
+     * Phase one of a search: load only ids, the scoring fields and the metadata keys the residual
+     * filter still needs. Content and full metadata are fetched later for the winners only.
+     */
+    private List<MongoDocument> loadCandidates(FilterPlan plan, String... scoringFields) {
+        Query prefilterQuery = plan.prefilterQuery();
+        Query scanQuery = prefilterQuery != null ? prefilterQuery : new Query();
+        scanQuery.fields().include("_id").include(scoringFields);
+        Set<String> residualKeys = plan.residualKeys();
+        if (residualKeys.stream().allMatch(key -> PROJECTABLE_KEY.matcher(key).matches())) {
+            for (String key : residualKeys) {
+                scanQuery.fields().include("metadata." + key);
             }
-            Criteria groupCriteria = andCriteria.size() == 1 ? andCriteria.get(0) : new Criteria().andOperator(andCriteria.toArray(new Criteria[0]));
-            orCriteria.add(groupCriteria);
-        }
-        if (orCriteria.isEmpty()) {
-            return null;
-        }
-        Query query = new Query();
-        if (orCriteria.size() == 1) {
-            query.addCriteria(orCriteria.get(0));
         } else {
-            query.addCriteria(new Criteria().orOperator(orCriteria.toArray(new Criteria[0])));
+            scanQuery.fields().include("metadata");
         }
-        return query;
+        return this.mongoTemplate.find(scanQuery, MongoDocument.class, COLLECTION_NAME);
     }
 
-    private List<Object> normalizeValuesForQuery(String value) {
-        java.util.ArrayList<Object> variants = new java.util.ArrayList<>();
-        Double numeric = this.tryParseDouble(value);
-        if (numeric != null) {
-            if (numeric.doubleValue() == Math.floor(numeric.doubleValue())) {
-                variants.add(numeric.longValue());
+    /**
+     * Phase two of a search: fetch content and metadata for the ranked winners, preserving rank order.
+     */
+    private List<Document> hydrate(TopKCollector<String> topCandidates, String scoreKey) {
+        if (topCandidates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        ArrayList<ScoredCandidate> winners = new ArrayList<>(topCandidates.size());
+        topCandidates.forEachSorted((id, score) -> winners.add(new ScoredCandidate(id, score)));
+        List<String> ids = winners.stream().map(ScoredCandidate::id).toList();
+        Query hydrateQuery = new Query((CriteriaDefinition) Criteria.where("_id").in(ids));
+        hydrateQuery.fields().include("_id").include("content").include("metadata");
+        Map<String, MongoDocument> byId = new HashMap<>();
+        for (MongoDocument md : this.mongoTemplate.find(hydrateQuery, MongoDocument.class, COLLECTION_NAME)) {
+            byId.put(md.getId(), md);
+        }
+        ArrayList<Document> results = new ArrayList<>(winners.size());
+        for (ScoredCandidate winner : winners) {
+            MongoDocument md = byId.get(winner.id());
+            if (md == null) {
+                // Deleted between the scan and hydration; skip rather than return a hollow document.
+                continue;
             }
-            variants.add(numeric);
-        }
-        variants.add(value);
-        return variants;
-    }
-
-    private Object normalizeNumberForQuery(Double numeric) {
-        if (numeric == null) {
-            return null;
-        }
-        if (numeric.doubleValue() == Math.floor(numeric.doubleValue())) {
-            return numeric.longValue();
-        }
-        return numeric;
-    }
-
-    private Double tryParseDouble(String value) {
-        if (value == null) {
-            return null;
-        }
-        try {
-            return Double.parseDouble(value.trim());
-        } catch (NumberFormatException e) {
-            return null;
+            Map<String, Object> metadata = md.getMetadata() != null ? new HashMap<String, Object>(md.getMetadata()) : new HashMap<>();
+            metadata.put(scoreKey, winner.score());
+            results.add(new Document(md.getId(), md.getContent(), metadata));
         }
+        return results;
     }
 
     private float[] embedDocumentWithFallback(Document doc) {
@@ -402,7 +355,8 @@ implements VectorStore {
             if (log.isDebugEnabled()) {
                 log.debug("Generating text embeddings in batch (size={})", batch.size());
             }
-            List<float[]> vectors = this.embeddingModel.embed(inputs);
+            List<float[]> vectors = this.pipelineMetrics.time(PipelineMetrics.STAGE_EMBEDDING, PipelineMetrics.UNSCOPED, "documents",
+                    () -> this.embeddingModel.embed(inputs));
             if (vectors.size() != batch.size()) {
                 throw new IllegalStateException("Embedding backend returned " + vectors.size() + " vectors for batch size " + batch.size());
             }
@@ -519,14 +473,6 @@ implements VectorStore {
         }
     }
 
-    private record ScoredDocument(Document document, double score) {
-        public Document getDocument() {
-            return this.document;
-        }
-    }
-
-    @FunctionalInterface
-    private interface FilterEvaluator {
-        boolean matches(Map<String, Object> metadata);
+    private record ScoredCandidate(String id, double score) {
     }
 }
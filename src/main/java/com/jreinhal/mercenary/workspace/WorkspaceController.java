@@ -26,11 +26,13 @@ public class WorkspaceController {
     private final WorkspaceService workspaceService;
     private final WorkspacePolicy workspacePolicy;
     private final WorkspaceUsageService workspaceUsageService;
+    private final WorkspaceQuotaService workspaceQuotaService;
 
-    public WorkspaceController(WorkspaceService workspaceService, WorkspacePolicy workspacePolicy, WorkspaceUsageService workspaceUsageService) {
+    public WorkspaceController(WorkspaceService workspaceService, WorkspacePolicy workspacePolicy, WorkspaceUsageService workspaceUsageService, WorkspaceQuotaService workspaceQuotaService) {
         this.workspaceService = workspaceService;
         this.workspacePolicy = workspacePolicy;
         this.workspaceUsageService = workspaceUsageService;
+        this.workspaceQuotaService = workspaceQuotaService;
     }
 
     @GetMapping
@@ -94,7 +96,9 @@ public class WorkspaceController {
                 request.maxDocuments(),
                 request.maxQueriesPerDay(),
                 request.maxStorageMb());
-        return ResponseEntity.ok(this.workspaceService.updateQuota(workspaceId, quota, actor));
+        Workspace updated = this.workspaceService.updateQuota(workspaceId, quota, actor);
+        this.workspaceQuotaService.applyQuota(updated.id(), updated.quota());
+        return ResponseEntity.ok(updated);
     }
 
     @GetMapping("/{workspaceId}/usage")
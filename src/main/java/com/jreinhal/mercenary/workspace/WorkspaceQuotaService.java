@@ -2,34 +2,88 @@ package com.jreinhal.mercenary.workspace;
 
 import com.jreinhal.mercenary.repository.WorkspaceRepository;
 import com.jreinhal.mercenary.workspace.Workspace.WorkspaceQuota;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+/**
+ * Per-workspace quota enforcement against in-memory usage counters.
+ *
+ * <p>Each workspace's counters hold the usage last read from Mongo (queries today from the usage rollups,
+ * documents and storage from the stored content totals) plus what this node added since. Quota checks only
+ * touch these counters and a cached copy of the workspace quota; the Mongo reads happen when a workspace is
+ * first seen and on the periodic sync, which also picks up other nodes' activity.</p>
+ *
+ * <p>A query reaches the rollups only when its {@code QUERY_EXECUTED} audit event is written, at the end of the
+ * pipeline. Queries are therefore counted in two parts: admitted queries still running ({@link
+ * #enforceQueryQuota} until {@link #releaseQuery}), which a sync never touches, and audited queries ({@link
+ * #recordAuditedQuery}), which a sync drops once the rollups include them. Between syncs a node does not see
+ * its peers' queries, so a workspace can exceed a limit by at most what the other nodes admit within one sync
+ * interval plus the queries they have in flight.</p>
+ */
 @Service
 public class WorkspaceQuotaService {
+    private static final Logger log = LoggerFactory.getLogger(WorkspaceQuotaService.class);
     private static final long BYTES_PER_MB = 1024L * 1024L;
     private final WorkspaceRepository workspaceRepository;
     private final WorkspaceUsageService usageService;
+    private final Map<String, UsageCounters> counters = new ConcurrentHashMap<>();
 
     public WorkspaceQuotaService(WorkspaceRepository workspaceRepository, WorkspaceUsageService usageService) {
         this.workspaceRepository = workspaceRepository;
         this.usageService = usageService;
     }
 
+    /**
+     * Admit one query, counting it as in flight until {@link #releaseQuery} is called for it.
+     */
     public void enforceQueryQuota(String workspaceId) {
-        WorkspaceQuota quota = resolveQuota(workspaceId);
+        UsageCounters usage = countersFor(workspaceId);
+        WorkspaceQuota quota = usage.quota;
         if (quota.maxQueriesPerDay() <= 0) {
+            usage.inFlightQueries.incrementAndGet();
             return;
         }
-        WorkspaceUsageService.WorkspaceUsage usage = usageService.getUsage(workspaceId);
-        if (usage.queriesToday() + 1 > quota.maxQueriesPerDay()) {
-            throw new WorkspaceQuotaExceededException("queries", "Workspace query quota exceeded.");
+        // Check-and-increment in one step so concurrent requests on this node cannot pass the limit together.
+        while (true) {
+            long inFlight = usage.inFlightQueries.get();
+            if (usage.queriesBase + usage.localQueries.get() + inFlight + 1 > quota.maxQueriesPerDay()) {
+                throw new WorkspaceQuotaExceededException("queries", "Workspace query quota exceeded.");
+            }
+            if (usage.inFlightQueries.compareAndSet(inFlight, inFlight + 1)) {
+                return;
+            }
         }
     }
 
+    /**
+     * Count a query whose {@code QUERY_EXECUTED} audit event was written, until the next sync reads it back from
+     * the rollups. Until {@link #releaseQuery} runs for it, the query is counted twice, which only over-counts.
+     */
+    public void recordAuditedQuery(String workspaceId) {
+        countersFor(workspaceId).localQueries.incrementAndGet();
+    }
+
+    /**
+     * End an admitted query, whether or not it was audited. A query that failed before its audit event is no
+     * longer counted at all.
+     */
+    public void releaseQuery(String workspaceId) {
+        countersFor(workspaceId).inFlightQueries.updateAndGet(inFlight -> Math.max(0L, inFlight - 1));
+    }
+
     public void enforceIngestionQuota(String workspaceId, long fileBytes) {
-        WorkspaceQuota quota = resolveQuota(workspaceId);
-        WorkspaceUsageService.WorkspaceUsage usage = usageService.getUsage(workspaceId);
+        UsageCounters usage = countersFor(workspaceId);
+        WorkspaceQuota quota = usage.quota;
         if (quota.maxDocuments() > 0 && usage.documents() + 1 > quota.maxDocuments()) {
             throw new WorkspaceQuotaExceededException("documents", "Workspace document quota exceeded.");
         }
@@ -42,15 +96,146 @@ public class WorkspaceQuotaService {
         }
     }
 
-    private WorkspaceQuota resolveQuota(String workspaceId) {
-        String resolved = workspaceId == null || workspaceId.isBlank()
-                ? WorkspaceContext.getDefaultWorkspaceId()
-                : workspaceId;
-        Optional<Workspace> found = workspaceRepository.findById(resolved);
+    /**
+     * Count a completed ingestion until the next sync reads it back from the stored totals. Re-ingesting an
+     * existing source is counted as new here; the sync corrects it.
+     */
+    public void recordIngestion(String workspaceId, long fileBytes) {
+        UsageCounters usage = countersFor(workspaceId);
+        usage.localDocuments.incrementAndGet();
+        usage.localStorageBytes.addAndGet(Math.max(fileBytes, 0));
+    }
+
+    /**
+     * Use {@code quota} for the workspace right away instead of waiting for the next sync.
+     */
+    public void applyQuota(String workspaceId, WorkspaceQuota quota) {
+        UsageCounters usage = this.counters.get(resolve(workspaceId));
+        if (usage != null) {
+            usage.quota = quota != null ? quota : WorkspaceQuota.unlimited();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedCounters() {
+        try {
+            countersFor(WorkspaceContext.getDefaultWorkspaceId());
+            for (Workspace workspace : this.workspaceRepository.findAll()) {
+                if (workspace != null && workspace.id() != null) {
+                    countersFor(workspace.id());
+                }
+            }
+            log.info("Workspace quota counters seeded for {} workspaces", this.counters.size());
+        } catch (Exception e) {
+            log.warn("Failed to seed workspace quota counters: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sentinel.workspace.quota.counter-sync-interval-ms:10000}")
+    public void syncCounters() {
+        for (Map.Entry<String, UsageCounters> entry : this.counters.entrySet()) {
+            try {
+                sync(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                log.warn("Failed to sync quota counters for {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private UsageCounters countersFor(String workspaceId) {
+        String resolved = resolve(workspaceId);
+        UsageCounters usage = this.counters.get(resolved);
+        if (usage == null) {
+            UsageCounters loaded = new UsageCounters(today());
+            sync(resolved, loaded);
+            usage = this.counters.putIfAbsent(resolved, loaded);
+            if (usage == null) {
+                usage = loaded;
+            }
+        }
+        usage.rollOver(today());
+        return usage;
+    }
+
+    // Replace the Mongo-backed base values and drop the local increments they now include. Only audited queries
+    // are dropped, and only those audited before the rollups were read; in-flight queries stay counted. The base
+    // is updated before the local counts are reduced, so a concurrent check can only over-count.
+    private void sync(String workspaceId, UsageCounters usage) {
+        long queries = usage.localQueries.get();
+        long documents = usage.localDocuments.get();
+        long storageBytes = usage.localStorageBytes.get();
+        LocalDate day = today();
+        long queriesToday = this.usageService.countQueriesToday(workspaceId);
+        WorkspaceUsageService.ContentTotals totals = this.usageService.getContentTotals(workspaceId);
+        usage.quota = loadQuota(workspaceId);
+        usage.documentsBase = totals.documents();
+        usage.localDocuments.addAndGet(-documents);
+        usage.storageBytesBase = totals.storageBytes();
+        usage.localStorageBytes.addAndGet(-storageBytes);
+        synchronized (usage) {
+            usage.rollOver(day);
+            if (day.equals(usage.day)) {
+                usage.queriesBase = queriesToday;
+                usage.localQueries.addAndGet(-queries);
+            }
+        }
+    }
+
+    private WorkspaceQuota loadQuota(String workspaceId) {
+        Optional<Workspace> found = workspaceRepository.findById(workspaceId);
         Workspace workspace = found != null ? found.orElse(null) : null;
         if (workspace == null || workspace.quota() == null) {
             return WorkspaceQuota.unlimited();
         }
         return workspace.quota();
     }
+
+    private static String resolve(String workspaceId) {
+        return workspaceId == null || workspaceId.isBlank()
+                ? WorkspaceContext.getDefaultWorkspaceId()
+                : workspaceId;
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneId.systemDefault());
+    }
+
+    private static final class UsageCounters {
+        private volatile WorkspaceQuota quota = WorkspaceQuota.unlimited();
+        private volatile LocalDate day;
+        private volatile long queriesBase;
+        private volatile long documentsBase;
+        private volatile long storageBytesBase;
+        private final AtomicLong localQueries = new AtomicLong();
+        private final AtomicLong inFlightQueries = new AtomicLong();
+        private final AtomicLong localDocuments = new AtomicLong();
+        private final AtomicLong localStorageBytes = new AtomicLong();
+
+        private UsageCounters(LocalDate day) {
+            this.day = day;
+        }
+
+        private long documents() {
+            return this.documentsBase + this.localDocuments.get();
+        }
+
+        private long storageBytes() {
+            return this.storageBytesBase + this.localStorageBytes.get();
+        }
+
+        // Queries are counted per local day; a new day starts from zero until the next sync. Queries still in
+        // flight stay counted, since their audit events will land in the new day.
+        private void rollOver(LocalDate today) {
+            if (today.equals(this.day)) {
+                return;
+            }
+            synchronized (this) {
+                if (!today.equals(this.day)) {
+                    this.day = today;
+                    this.queriesBase = 0L;
+                    this.localQueries.set(0L);
+                }
+            }
+        }
+    }
 }
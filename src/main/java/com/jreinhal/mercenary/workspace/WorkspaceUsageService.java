@@ -1,9 +1,11 @@
 package com.jreinhal.mercenary.workspace;
 
 import com.jreinhal.mercenary.model.AuditEvent;
+import com.jreinhal.mercenary.reporting.UsageRollupService;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import org.bson.Document;
 import org.slf4j.Logger;
@@ -12,25 +14,117 @@ import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationResults;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
 public class WorkspaceUsageService {
     private static final Logger log = LoggerFactory.getLogger(WorkspaceUsageService.class);
+    static final String TOTALS_COLLECTION = "workspace_usage_totals";
     private final MongoTemplate mongoTemplate;
+    private final UsageRollupService usageRollupService;
 
-    public WorkspaceUsageService(MongoTemplate mongoTemplate) {
+    public WorkspaceUsageService(MongoTemplate mongoTemplate, UsageRollupService usageRollupService) {
         this.mongoTemplate = mongoTemplate;
+        this.usageRollupService = usageRollupService;
     }
 
     public WorkspaceUsage getUsage(String workspaceId) {
         String resolved = workspaceId == null || workspaceId.isBlank()
                 ? WorkspaceContext.getDefaultWorkspaceId()
                 : workspaceId;
-        long docs = countDistinctSources(resolved);
-        long storageBytes = sumStorageBytes(resolved);
+        ContentTotals totals = getContentTotals(resolved);
         long queriesToday = countQueriesToday(resolved);
-        return new WorkspaceUsage(resolved, docs, storageBytes, queriesToday);
+        return new WorkspaceUsage(resolved, totals.documents(), totals.storageBytes(), queriesToday);
+    }
+
+    /**
+     * Stored document, chunk and storage totals for the workspace. They are recomputed from {@code vector_store}
+     * only when missing or when content changed since the last computation (see {@link #markContentChanged}),
+     * so repeated reads between ingests cost one lookup.
+     */
+    public ContentTotals getContentTotals(String workspaceId) {
+        try {
+            Document stored = mongoTemplate.findById(workspaceId, Document.class, TOTALS_COLLECTION);
+            if (stored != null && !isStale(stored)) {
+                return new ContentTotals(asLong(stored.get("documents")), asLong(stored.get("chunks")),
+                        asLong(stored.get("storageBytes")));
+            }
+        } catch (Exception e) {
+            log.warn("Workspace usage: failed to read stored totals for {}: {}", workspaceId, e.getMessage());
+        }
+        return refreshContentTotals(workspaceId);
+    }
+
+    /**
+     * Record that the workspace's stored content changed, so the next read or refresh recomputes its totals.
+     */
+    public void markContentChanged(String workspaceId) {
+        if (workspaceId == null || workspaceId.isBlank()) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(workspaceId)),
+                    new Update().set("changedAt", new Date()), TOTALS_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Workspace usage: failed to mark totals stale for {}: {}", workspaceId, e.getMessage());
+        }
+    }
+
+    public ContentTotals refreshContentTotals(String workspaceId) {
+        // Taken before counting: a change that lands mid-refresh leaves changedAt > computedAt and stays stale.
+        Date computedAt = new Date();
+        ContentTotals totals = new ContentTotals(countDistinctSources(workspaceId), countChunks(workspaceId),
+                sumStorageBytes(workspaceId));
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(workspaceId)),
+                    new Update()
+                            .set("documents", totals.documents())
+                            .set("chunks", totals.chunks())
+                            .set("storageBytes", totals.storageBytes())
+                            .set("computedAt", computedAt),
+                    TOTALS_COLLECTION);
+        } catch (Exception e) {
+            log.warn("Workspace usage: failed to store totals for {}: {}", workspaceId, e.getMessage());
+        }
+        return totals;
+    }
+
+    @Scheduled(fixedDelayString = "${sentinel.workspace.usage-totals.refresh-interval-ms:60000}")
+    public void refreshStaleContentTotals() {
+        refreshContentTotals(true);
+    }
+
+    // Nightly full pass also catches vector_store changes made outside the ingest and connector paths.
+    @Scheduled(cron = "0 50 2 * * *")
+    public void refreshAllContentTotals() {
+        refreshContentTotals(false);
+    }
+
+    private void refreshContentTotals(boolean staleOnly) {
+        try {
+            for (Document stored : mongoTemplate.findAll(Document.class, TOTALS_COLLECTION)) {
+                Object id = stored.get("_id");
+                if (id != null && (!staleOnly || isStale(stored))) {
+                    refreshContentTotals(String.valueOf(id));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Workspace usage: failed to refresh stored totals: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isStale(Document stored) {
+        if (!(stored.get("computedAt") instanceof Date computedAt)) {
+            return true;
+        }
+        return stored.get("changedAt") instanceof Date changedAt && changedAt.after(computedAt);
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
     }
 
     public long countDistinctSources(String workspaceId) {
@@ -46,6 +140,15 @@ public class WorkspaceUsageService {
         }
     }
 
+    public long countChunks(String workspaceId) {
+        try {
+            return mongoTemplate.count(Query.query(Criteria.where("metadata.workspaceId").is(workspaceId)), "vector_store");
+        } catch (Exception e) {
+            log.warn("Workspace usage: failed to count chunks for {}: {}", workspaceId, e.getMessage());
+            return 0L;
+        }
+    }
+
     public long sumStorageBytes(String workspaceId) {
         try {
             Aggregation agg = Aggregation.newAggregation(
@@ -70,20 +173,13 @@ public class WorkspaceUsageService {
     }
 
     public long countQueriesToday(String workspaceId) {
-        try {
-            Instant start = LocalDate.now(ZoneId.systemDefault()).atStartOfDay(ZoneId.systemDefault()).toInstant();
-            return mongoTemplate.count(
-                    org.springframework.data.mongodb.core.query.Query.query(
-                            Criteria.where("workspaceId").is(workspaceId)
-                                    .and("eventType").is(AuditEvent.EventType.QUERY_EXECUTED)
-                                    .and("timestamp").gte(start)),
-                    "audit_log");
-        } catch (Exception e) {
-            log.warn("Workspace usage: failed to count queries for {}: {}", workspaceId, e.getMessage());
-            return 0L;
-        }
+        Instant start = LocalDate.now(ZoneId.systemDefault()).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        return usageRollupService.countSince(workspaceId, AuditEvent.EventType.QUERY_EXECUTED, start);
     }
 
     public record WorkspaceUsage(String workspaceId, long documents, long storageBytes, long queriesToday) {
     }
+
+    public record ContentTotals(long documents, long chunks, long storageBytes) {
+    }
 }
@@ -29,6 +29,7 @@ import com.jreinhal.mercenary.service.QueryDecompositionService;
 import com.jreinhal.mercenary.service.RagOrchestrationService;
 import com.jreinhal.mercenary.service.SecureIngestionService;
 import com.jreinhal.mercenary.service.SourceDocumentService;
+import com.jreinhal.mercenary.service.StreamingExecutor;
 import com.jreinhal.mercenary.service.AuthenticationService;
 import com.jreinhal.mercenary.core.license.LicenseService;
 import com.jreinhal.mercenary.security.ClientIpResolver;
@@ -137,6 +138,8 @@ class MercenaryControllerTest {
     @MockitoBean
     private LicenseService licenseService;
     @MockitoBean
+    private StreamingExecutor streamingExecutor;
+    @MockitoBean
     private ClientIpResolver clientIpResolver;
     @MockitoBean
     private AuthenticationService authenticationService;
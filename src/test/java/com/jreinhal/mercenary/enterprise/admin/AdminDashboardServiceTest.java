@@ -9,9 +9,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.jreinhal.mercenary.Department;
+import com.jreinhal.mercenary.model.AuditEvent;
 import com.jreinhal.mercenary.model.ClearanceLevel;
 import com.jreinhal.mercenary.model.User;
 import com.jreinhal.mercenary.model.UserRole;
+import com.jreinhal.mercenary.reporting.UsageRollupService;
 import com.jreinhal.mercenary.repository.UserRepository;
 import com.jreinhal.mercenary.service.RagOrchestrationService;
 import com.mongodb.client.MongoDatabase;
@@ -33,6 +35,7 @@ class AdminDashboardServiceTest {
     private UserRepository userRepository;
     private MongoTemplate mongoTemplate;
     private RagOrchestrationService ragOrchestrationService;
+    private UsageRollupService usageRollupService;
     private AdminDashboardService service;
 
     @BeforeEach
@@ -40,13 +43,14 @@ class AdminDashboardServiceTest {
         userRepository = mock(UserRepository.class);
         mongoTemplate = mock(MongoTemplate.class);
         ragOrchestrationService = mock(RagOrchestrationService.class);
+        usageRollupService = mock(UsageRollupService.class);
         when(userRepository.findAll()).thenReturn(List.of());
 
         MongoDatabase mockDb = mock(MongoDatabase.class);
         when(mongoTemplate.getDb()).thenReturn(mockDb);
         when(mockDb.runCommand(any(Document.class))).thenReturn(new Document("ok", 1));
 
-        service = new AdminDashboardService(userRepository, mongoTemplate, ragOrchestrationService, "http://localhost:11434");
+        service = new AdminDashboardService(userRepository, mongoTemplate, ragOrchestrationService, usageRollupService, "http://localhost:11434");
     }
 
     @Nested
@@ -86,14 +90,18 @@ class AdminDashboardServiceTest {
         }
 
         @Test
-        @DisplayName("Should count recent queries from chat_history collection, not chat_logs")
-        void shouldCountRecentQueriesFromChatHistory() {
+        @DisplayName("Should count recent queries from usage rollups, not by scanning chat history")
+        void shouldCountRecentQueriesFromUsageRollups() {
             when(ragOrchestrationService.getQueryCount()).thenReturn(100);
-            when(mongoTemplate.count(any(Query.class), eq("chat_history"))).thenReturn(15L);
+            when(usageRollupService.countAllSince(eq(AuditEvent.EventType.QUERY_EXECUTED), any(Instant.class))).thenReturn(15L);
+            when(usageRollupService.countAllByDay(AuditEvent.EventType.QUERY_EXECUTED, 7))
+                    .thenReturn(Map.of("2026-01-01", 15L));
 
             AdminDashboardService.UsageStats stats = service.getUsageStats();
 
             assertThat(stats.queriesLast24h()).isEqualTo(15L);
+            assertThat(stats.queriesByDay()).containsEntry("2026-01-01", 15L);
+            verify(mongoTemplate, never()).count(any(Query.class), eq("chat_history"));
         }
     }
 
@@ -106,7 +114,7 @@ class AdminDashboardServiceTest {
         void shouldReportOllamaDisconnectedWhenUnreachable() {
             // Create a service pointing to a non-existent Ollama URL
             AdminDashboardService unreachableService = new AdminDashboardService(
-                    userRepository, mongoTemplate, ragOrchestrationService,
+                    userRepository, mongoTemplate, ragOrchestrationService, usageRollupService,
                     "http://127.0.0.1:59999");
             AdminDashboardService.HealthStatus health = unreachableService.getHealthStatus();
 
@@ -227,7 +235,7 @@ class AdminDashboardServiceTest {
             pendingUser.setActive(false);
             pendingUser.setCreatedAt(Instant.now());
 
-            when(userRepository.findAll()).thenReturn(List.of(testUser, pendingUser));
+            when(userRepository.findByPendingApprovalTrue()).thenReturn(List.of(pendingUser));
 
             List<AdminDashboardService.UserSummary> pending = service.getPendingApprovals();
 
@@ -351,7 +359,7 @@ class AdminDashboardServiceTest {
             when(failDb.runCommand(any(Document.class))).thenThrow(new RuntimeException("Connection refused"));
 
             AdminDashboardService failService = new AdminDashboardService(
-                    userRepository, mongoTemplate, ragOrchestrationService, "http://127.0.0.1:59999");
+                    userRepository, mongoTemplate, ragOrchestrationService, usageRollupService, "http://127.0.0.1:59999");
 
             AdminDashboardService.HealthStatus health = failService.getHealthStatus();
 
@@ -372,17 +380,14 @@ class AdminDashboardServiceTest {
         @Test
         @DisplayName("Should report active user count correctly")
         void shouldReportActiveUserCount() {
-            User activeUser = new User();
-            activeUser.setActive(true);
-            User inactiveUser = new User();
-            inactiveUser.setActive(false);
-            when(userRepository.findAll()).thenReturn(List.of(activeUser, inactiveUser));
+            when(userRepository.countByActiveTrue()).thenReturn(1L);
             when(userRepository.count()).thenReturn(2L);
 
             AdminDashboardService.UsageStats stats = service.getUsageStats();
 
             assertThat(stats.totalUsers()).isEqualTo(2L);
             assertThat(stats.activeUsers()).isEqualTo(1L);
+            verify(userRepository, never()).findAll();
         }
     }
 }
@@ -0,0 +1,59 @@
+package com.jreinhal.mercenary.enterprise.admin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jreinhal.mercenary.reporting.AuditExportService;
+import com.jreinhal.mercenary.reporting.ExecutiveReportService;
+import com.jreinhal.mercenary.reporting.ReportScheduleService;
+import com.jreinhal.mercenary.reporting.SlaReportService;
+import com.jreinhal.mercenary.service.HipaaPolicy;
+import java.io.OutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ReportingAdminControllerTest {
+
+    private AuditExportService auditExportService;
+    private ReportingAdminController controller;
+
+    @BeforeEach
+    void setUp() {
+        auditExportService = mock(AuditExportService.class);
+        controller = new ReportingAdminController(mock(ExecutiveReportService.class), mock(SlaReportService.class),
+                auditExportService, mock(ReportScheduleService.class), null, mock(HipaaPolicy.class), new ObjectMapper());
+    }
+
+    @Test
+    void streamExportRejectsUnknownFormat() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.streamAuditExport("xml", 30, null, null, null, false, response);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(response.getContentAsString()).contains("Unsupported export format").doesNotContain("xml");
+        verifyNoInteractions(auditExportService);
+    }
+
+    @Test
+    void streamExportServesNdjsonWhenRequested() throws Exception {
+        AuditExportService.ExportRange range = new AuditExportService.ExportRange("ws-1", null, null, null, null);
+        when(auditExportService.resolveRange(any(), any(), any(), any())).thenReturn(range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.streamAuditExport("NDJSON", 30, null, null, null, false, response);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).isEqualTo("application/x-ndjson");
+        verify(auditExportService).streamExport(eq(range), eq(AuditExportService.StreamFormat.NDJSON), anyBoolean(), any(OutputStream.class));
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +19,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CrossEncoderRerankerTest {
@@ -187,6 +192,99 @@ class CrossEncoderRerankerTest {
         assertTrue(ranked.get(0).score() >= 0.49 && ranked.get(0).score() <= 0.51);
     }
 
+    @Test
+    void llmBatchModeShouldScoreGroupWithSingleCall() {
+        AtomicInteger calls = new AtomicInteger();
+        when(this.chatClient.prompt().user(anyString()).call().content()).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            return "[1] 0.2\n[2] 0.9\n[3] 0.5";
+        });
+        this.reranker = this.newReranker(null, true, "llm");
+
+        Document low = new Document("low", Map.of("dept", "ENTERPRISE", "source", "low.pdf"));
+        Document high = new Document("high", Map.of("dept", "ENTERPRISE", "source", "high.pdf"));
+        Document mid = new Document("mid", Map.of("dept", "ENTERPRISE", "source", "mid.pdf"));
+        List<HiFiRagService.ScoredDocument> ranked = this.reranker.rerank("query", List.of(low, high, mid));
+
+        assertEquals(1, calls.get());
+        assertEquals(3, ranked.size());
+        assertEquals("high.pdf", ranked.get(0).document().getMetadata().get("source"));
+        assertEquals("mid.pdf", ranked.get(1).document().getMetadata().get("source"));
+        assertEquals("low.pdf", ranked.get(2).document().getMetadata().get("source"));
+    }
+
+    @Test
+    void llmBatchModeShouldFallbackToPerDocumentScoringOnParseFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        when(this.chatClient.prompt().user(anyString()).call().content()).thenAnswer(invocation ->
+                calls.incrementAndGet() == 1 ? "[1] 0.9" : "0.7");
+        this.reranker = this.newReranker(null, true, "llm");
+
+        Document first = new Document("first", Map.of("dept", "ENTERPRISE", "source", "a.pdf"));
+        Document second = new Document("second", Map.of("dept", "ENTERPRISE", "source", "b.pdf"));
+        List<HiFiRagService.ScoredDocument> ranked = this.reranker.rerank("query", List.of(first, second));
+
+        assertEquals(3, calls.get(), "One group call plus one per-document call for each document");
+        assertEquals(2, ranked.size());
+        assertTrue(ranked.stream().allMatch(sd -> sd.score() >= 0.69 && sd.score() <= 0.71));
+    }
+
+    @Test
+    void llmBatchModeShouldKeepKeywordScoresWhenGroupTimesOut() {
+        AtomicInteger calls = new AtomicInteger();
+        when(this.chatClient.prompt().user(anyString()).call().content()).thenAnswer(invocation -> {
+            calls.incrementAndGet();
+            Thread.sleep(5_000L);
+            return "[1] 0.9\n[2] 0.1";
+        });
+        this.reranker = this.newReranker(null, true, "llm");
+
+        Document nonMatching = new Document("different text", Map.of("dept", "ENTERPRISE", "source", "b.pdf"));
+        Document matching = new Document("alpha report summary", Map.of("dept", "ENTERPRISE", "source", "a.pdf"));
+        List<HiFiRagService.ScoredDocument> ranked = this.reranker.rerank("alpha report", List.of(nonMatching, matching));
+
+        assertEquals(1, calls.get(), "A timed-out group is not re-scored one document at a time");
+        assertEquals(2, ranked.size());
+        assertEquals("a.pdf", ranked.get(0).document().getMetadata().get("source"));
+        assertEquals(1.0, ranked.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void onnxModeShouldScoreWithCrossEncoderAndReuseCache() {
+        OnnxCrossEncoder onnx = mock(OnnxCrossEncoder.class);
+        when(onnx.isAvailable()).thenReturn(true);
+        when(onnx.getBatchSize()).thenReturn(16);
+        when(onnx.score(anyString(), anyList())).thenReturn(new double[]{0.2, 0.9});
+        this.reranker = this.newReranker(null, false, "onnx");
+        ReflectionTestUtils.setField(this.reranker, "onnxCrossEncoder", onnx);
+
+        Document low = new Document("unrelated text", Map.of("dept", "ENTERPRISE", "source", "low.pdf"));
+        Document high = new Document("alpha report summary", Map.of("dept", "ENTERPRISE", "source", "high.pdf"));
+        List<HiFiRagService.ScoredDocument> first = this.reranker.rerank("alpha report", List.of(low, high));
+        List<HiFiRagService.ScoredDocument> second = this.reranker.rerank("alpha report", List.of(low, high));
+
+        assertEquals("high.pdf", first.get(0).document().getMetadata().get("source"));
+        assertEquals(0.9, first.get(0).score(), 1e-9);
+        assertEquals(first.get(0).score(), second.get(0).score(), 1e-9);
+        verify(onnx, times(1)).score(anyString(), anyList());
+    }
+
+    @Test
+    void onnxModeShouldFallbackToKeywordWhenModelUnavailable() {
+        OnnxCrossEncoder onnx = mock(OnnxCrossEncoder.class);
+        when(onnx.isAvailable()).thenReturn(false);
+        this.reranker = this.newReranker(null, false, "onnx");
+        ReflectionTestUtils.setField(this.reranker, "onnxCrossEncoder", onnx);
+
+        Document matching = new Document("alpha report summary", Map.of("dept", "ENTERPRISE", "source", "a.pdf"));
+        Document nonMatching = new Document("different text", Map.of("dept", "ENTERPRISE", "source", "b.pdf"));
+        List<HiFiRagService.ScoredDocument> ranked = this.reranker.rerank("alpha report", List.of(nonMatching, matching));
+
+        assertEquals(2, ranked.size());
+        assertEquals("a.pdf", ranked.get(0).document().getMetadata().get("source"));
+        verify(onnx, never()).score(anyString(), anyList());
+    }
+
     private CrossEncoderReranker newReranker(EmbeddingModel embeddingModel, boolean useLlm, String mode) {
         CrossEncoderReranker rr = new CrossEncoderReranker(this.builder, this.executor, embeddingModel);
         ReflectionTestUtils.setField(rr, "cacheSize", 10);
@@ -195,6 +293,7 @@ class CrossEncoderRerankerTest {
         ReflectionTestUtils.setField(rr, "rerankerMode", mode);
         ReflectionTestUtils.setField(rr, "batchSize", 2);
         ReflectionTestUtils.setField(rr, "timeoutSeconds", 1);
+        ReflectionTestUtils.setField(rr, "llmGroupSize", 8);
         rr.init();
         return rr;
     }
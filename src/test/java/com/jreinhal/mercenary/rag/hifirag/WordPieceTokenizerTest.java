@@ -0,0 +1,62 @@
+package com.jreinhal.mercenary.rag.hifirag;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordPieceTokenizerTest {
+    private static final List<String> VOCAB = List.of(
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "alpha", "report", "un", "##related", "##s", ",", "cafe", "?");
+
+    private static WordPieceTokenizer tokenizer() {
+        Map<String, Integer> vocab = new HashMap<>();
+        for (int i = 0; i < VOCAB.size(); i++) {
+            vocab.put(VOCAB.get(i), i);
+        }
+        return new WordPieceTokenizer(vocab, true);
+    }
+
+    @Test
+    void tokenizeShouldSplitPunctuationAndSubwords() {
+        List<Integer> ids = tokenizer().tokenize("Alpha reports, UNRELATED?");
+
+        assertEquals(List.of(4, 5, 8, 9, 6, 7, 11), ids);
+    }
+
+    @Test
+    void tokenizeShouldStripAccentsAndMapUnknownWordsToUnk() {
+        List<Integer> ids = tokenizer().tokenize("Café zebra");
+
+        assertEquals(List.of(10, 1), ids);
+    }
+
+    @Test
+    void encodePairShouldAddSpecialTokensAndSegmentIds() {
+        WordPieceTokenizer.EncodedPair pair = tokenizer().encodePair("alpha", "report", 16);
+
+        assertArrayEquals(new long[]{2, 4, 3, 5, 3}, pair.inputIds());
+        assertArrayEquals(new long[]{0, 0, 0, 1, 1}, pair.tokenTypeIds());
+    }
+
+    @Test
+    void encodePairShouldTruncateLongerSegmentFirst() {
+        String passage = "report ".repeat(20);
+        WordPieceTokenizer.EncodedPair pair = tokenizer().encodePair("alpha", passage, 8);
+
+        assertEquals(8, pair.inputIds().length);
+        assertEquals(2L, pair.inputIds()[0]);
+        assertEquals(4L, pair.inputIds()[1]);
+        assertEquals(3L, pair.inputIds()[2]);
+        assertEquals(3L, pair.inputIds()[7]);
+    }
+
+    @Test
+    void constructorShouldRejectVocabularyWithoutSpecialTokens() {
+        assertThrows(IllegalArgumentException.class, () -> new WordPieceTokenizer(Map.of("alpha", 0), true));
+    }
+}
@@ -7,6 +7,7 @@ import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -103,6 +104,33 @@ class HybridRagServiceTest {
         }
     }
 
+    @Test
+    void retrieveWithoutExpansionNeverAsksTheModelForVariants() {
+        VectorStore vectorStore = mock(VectorStore.class);
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of());
+
+        QueryExpander queryExpander = mock(QueryExpander.class);
+        ReasoningTracer tracer = mock(ReasoningTracer.class);
+
+        ExecutorService exec = Executors.newFixedThreadPool(1);
+        try {
+            WorkspaceContext.setCurrentWorkspaceId("ws");
+            HybridRagService service = new HybridRagService(vectorStore, queryExpander, tracer, exec);
+            ReflectionTestUtils.setField(service, "enabled", true);
+            ReflectionTestUtils.setField(service, "multiQueryCount", 3);
+            ReflectionTestUtils.setField(service, "temporalFilteringEnabled", false);
+            ReflectionTestUtils.setField(service, "ocrTolerance", false);
+            ReflectionTestUtils.setField(service, "futureTimeoutSeconds", 1);
+
+            service.retrieve("pump maintenance schedule", "MEDICAL", false);
+
+            verify(queryExpander, never()).expand(anyString(), anyInt(), anyString());
+            verify(vectorStore, atLeastOnce()).similaritySearch(any(SearchRequest.class));
+        } finally {
+            exec.shutdownNow();
+        }
+    }
+
     private static boolean hasYearLowerBound(String joined, int year) {
         return joined.contains("documentYear >= " + year)
                 || hasSpringExpression(joined, "documentYear", String.valueOf(year), "GE", "GTE");
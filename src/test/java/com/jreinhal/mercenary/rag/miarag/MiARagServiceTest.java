@@ -0,0 +1,253 @@
+package com.jreinhal.mercenary.rag.miarag;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import com.mongodb.client.result.UpdateResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MiARagServiceTest {
+
+    private static final Pattern CHUNK_ID = Pattern.compile("c\\d+");
+    private static final int SUMMARY_CONCURRENCY = 2;
+
+    private VectorStore vectorStore;
+    private MongoTemplate mongoTemplate;
+    private MindscapeBuilder mindscapeBuilder;
+    private MiARagService service;
+    private final ThreadLocal<String> lastPrompt = new ThreadLocal<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger llmCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        this.vectorStore = mock(VectorStore.class);
+        this.mongoTemplate = mock(MongoTemplate.class);
+        ChatClient.Builder chatClientBuilder = mock(ChatClient.Builder.class);
+        ChatClient chatClient = mock(ChatClient.class);
+        ChatClient.ChatClientRequestSpec request = mock(ChatClient.ChatClientRequestSpec.class);
+        ChatClient.CallResponseSpec call = mock(ChatClient.CallResponseSpec.class);
+        when(chatClientBuilder.build()).thenReturn(chatClient);
+        when(chatClient.prompt()).thenReturn(request);
+        when(request.user(anyString())).thenAnswer(invocation -> {
+            this.lastPrompt.set(invocation.getArgument(0));
+            return request;
+        });
+        when(request.call()).thenReturn(call);
+        // A "summary" is the chunk ids it covers, so the tree shape is visible in the output.
+        when(call.content()).thenAnswer(invocation -> {
+            this.llmCalls.incrementAndGet();
+            int now = this.running.incrementAndGet();
+            this.maxRunning.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(5L);
+                StringBuilder ids = new StringBuilder();
+                Matcher matcher = CHUNK_ID.matcher(this.lastPrompt.get());
+                while (matcher.find()) {
+                    ids.append(matcher.group());
+                }
+                return ids.toString();
+            } finally {
+                this.running.decrementAndGet();
+            }
+        });
+        this.mindscapeBuilder = new MindscapeBuilder(chatClientBuilder, SUMMARY_CONCURRENCY);
+        this.service = new MiARagService(this.vectorStore, this.mongoTemplate, chatClientBuilder, this.mindscapeBuilder, mock(ReasoningTracer.class));
+        ReflectionTestUtils.setField(this.service, "enabled", true);
+        ReflectionTestUtils.setField(this.service, "hierarchyLevels", 3);
+        this.service.init();
+        WorkspaceContext.setCurrentWorkspaceId("ws-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        WorkspaceContext.clear();
+        this.service.shutdown();
+        this.mindscapeBuilder.shutdown();
+    }
+
+    @Test
+    void levelSummariesKeepGroupOrderAndRespectConcurrencyLimit() {
+        List<String> chunks = IntStream.range(0, 12).mapToObj(i -> "c" + i).toList();
+
+        List<String> summaries = this.mindscapeBuilder.summarizeLevel(chunks, 1);
+
+        assertThat(summaries).containsExactly("c0c1c2c3c4", "c5c6c7c8c9", "c10c11");
+        assertThat(this.maxRunning.get()).isBetween(1, SUMMARY_CONCURRENCY);
+    }
+
+    @Test
+    void backgroundBuildQueuesThenPublishesEachLevelAndCompletes() {
+        List<Document> chunks = chunks(30);
+
+        this.service.submitMindscapeBuild(chunks, "big.pdf", "ENTERPRISE");
+
+        verify(this.vectorStore, timeout(5000L)).add(anyList());
+        ArgumentCaptor<MiARagService.Mindscape> saved = ArgumentCaptor.forClass(MiARagService.Mindscape.class);
+        verify(this.mongoTemplate, times(2)).save(saved.capture(), eq("miarag_mindscapes"));
+        MiARagService.Mindscape queued = saved.getAllValues().get(0);
+        MiARagService.Mindscape complete = saved.getAllValues().get(1);
+        assertThat(queued.status()).isEqualTo(MiARagService.MindscapeStatus.QUEUED);
+        assertThat(queued.workspaceId()).isEqualTo("ws-1");
+        // 30 chunks -> 6 -> 2 -> 1 summaries, plus key-concept extraction.
+        assertThat(queued.summariesTotal()).isEqualTo(10);
+        assertThat(complete.status()).isEqualTo(MiARagService.MindscapeStatus.COMPLETE);
+        assertThat(complete.id()).isEqualTo(queued.id());
+        assertThat(complete.hierarchy()).hasSize(4);
+        assertThat(complete.hierarchy().get(0)).hasSize(30).startsWith("id0", "id1");
+        assertThat(complete.nodeHashes()).extracting(List::size).containsExactly(30, 6, 2, 1);
+        assertThat(complete.documentSummary()).startsWith("c0c1").endsWith("c29");
+        assertThat(complete.summariesDone()).isEqualTo(10);
+        // One push per finished level.
+        verify(this.mongoTemplate, times(3)).updateFirst(any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().containsKey("$push")), eq("miarag_mindscapes"));
+    }
+
+    @Test
+    void retrievalUsesPartialMindscapeOfDocumentStillBuilding() {
+        Document local = new Document("chunk text", Map.of("source", "big.pdf"));
+        when(this.vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(), List.of(local));
+        MiARagService.Mindscape partial = new MiARagService.Mindscape("m-1", "big.pdf", "ENTERPRISE", "ws-1", "",
+                List.of(List.of("id0", "id1"), List.of("first section", "second section")), null, List.of(), 2, 1L,
+                MiARagService.MindscapeStatus.BUILDING, 2, 4);
+        when(this.mongoTemplate.find(any(Query.class), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes")))
+                .thenReturn(List.of(partial));
+
+        MiARagService.MindscapeRetrievalResult result = this.service.retrieve("what happened", "ENTERPRISE");
+
+        assertThat(result.mindscapes()).containsExactly(partial);
+        assertThat(result.globalContext()).contains("first section").contains("second section");
+        assertThat(result.localDocs()).containsExactly(local);
+        ArgumentCaptor<Query> lookup = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).find(lookup.capture(), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes"));
+        org.bson.Document fields = lookup.getValue().getFieldsObject();
+        assertThat(fields.get("hierarchy", org.bson.Document.class)).containsEntry("$slice", -2);
+        assertThat(fields).doesNotContainKeys("nodeHashes", "keyConcepts");
+    }
+
+    @Test
+    void startupMarksAbandonedBuildsFailed() {
+        when(this.mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq("miarag_mindscapes")))
+                .thenReturn(UpdateResult.acknowledged(2L, 2L, null));
+
+        this.service.recoverStaleBuilds();
+
+        ArgumentCaptor<Query> stale = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(this.mongoTemplate).updateMulti(stale.capture(), update.capture(), eq("miarag_mindscapes"));
+        String criteria = stale.getValue().getQueryObject().toString();
+        assertThat(criteria).contains("QUEUED").contains("BUILDING").contains("heartbeatAt").contains("timestamp");
+        assertThat(update.getValue().getUpdateObject().get("$set", org.bson.Document.class))
+                .containsEntry("status", MiARagService.MindscapeStatus.FAILED);
+    }
+
+    @Test
+    void buildStatusReportsStoredProgress() {
+        MiARagService.Mindscape building = new MiARagService.Mindscape("m-2", "big.pdf", "ENTERPRISE", "ws-1", "",
+                List.of(List.of("id0"), List.of("s")), null, List.of(), 1, 1L, MiARagService.MindscapeStatus.BUILDING, 1, 3);
+        when(this.mongoTemplate.findOne(any(Query.class), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes")))
+                .thenReturn(building);
+
+        MiARagService.MindscapeBuildStatus status = this.service.getBuildStatus("big.pdf", "ENTERPRISE");
+
+        assertThat(status.status()).isEqualTo(MiARagService.MindscapeStatus.BUILDING);
+        assertThat(status.levelsBuilt()).isEqualTo(1);
+        assertThat(status.summariesDone()).isEqualTo(1);
+        assertThat(status.summariesTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuildOnlySummarizesSubtreesWhoseChunksChanged() {
+        MiARagService.Mindscape previous = this.service.buildMindscape(chunks(30), "big.pdf", "ENTERPRISE");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes")))
+                .thenReturn(previous);
+        List<Document> edited = new ArrayList<>(chunks(30));
+        edited.set(29, new Document("id29-v2", "c99", new HashMap<>()));
+        clearInvocations(this.mongoTemplate);
+        this.llmCalls.set(0);
+
+        MiARagService.Mindscape rebuilt = this.service.buildMindscape(edited, "big.pdf", "ENTERPRISE");
+
+        // Only the last group, its parent and the root change, plus key-concept extraction.
+        assertThat(this.llmCalls.get()).isEqualTo(4);
+        assertThat(rebuilt.summariesTotal()).isEqualTo(4);
+        assertThat(rebuilt.id()).isNotEqualTo(previous.id());
+        assertThat(rebuilt.hierarchy().get(1)).startsWith(previous.hierarchy().get(1).subList(0, 5).toArray(String[]::new));
+        assertThat(rebuilt.hierarchy().get(1).get(5)).isEqualTo("c25c26c27c28c99");
+        assertThat(rebuilt.documentSummary()).endsWith("c99");
+        ArgumentCaptor<Query> retired = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).findAllAndRemove(retired.capture(), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes"));
+        // Only finished mindscapes are retired; older builds still running are left to discard themselves.
+        assertThat(retired.getValue().getQueryObject().toString()).contains("COMPLETE").contains("FAILED").doesNotContain("BUILDING");
+    }
+
+    @Test
+    void buildSupersededByNewerIngestIsDiscarded() {
+        when(this.mongoTemplate.exists(any(Query.class), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes")))
+                .thenReturn(true);
+
+        MiARagService.Mindscape result = this.service.buildMindscape(chunks(6), "big.pdf", "ENTERPRISE");
+
+        assertThat(result).isNull();
+        ArgumentCaptor<MiARagService.Mindscape> saved = ArgumentCaptor.forClass(MiARagService.Mindscape.class);
+        verify(this.mongoTemplate).save(saved.capture(), eq("miarag_mindscapes"));
+        assertThat(saved.getValue().status()).isEqualTo(MiARagService.MindscapeStatus.BUILDING);
+        verify(this.mongoTemplate).remove(any(Query.class), eq("miarag_mindscapes"));
+        verify(this.vectorStore, never()).add(anyList());
+    }
+
+    @Test
+    void unchangedDocumentIsNotResummarized() {
+        MiARagService.Mindscape previous = this.service.buildMindscape(chunks(12), "small.pdf", "ENTERPRISE");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(MiARagService.Mindscape.class), eq("miarag_mindscapes")))
+                .thenReturn(previous);
+        clearInvocations(this.mongoTemplate, this.vectorStore);
+        this.llmCalls.set(0);
+
+        MiARagService.Mindscape result = this.service.buildMindscape(chunks(12), "small.pdf", "ENTERPRISE");
+
+        assertThat(result).isSameAs(previous);
+        assertThat(this.llmCalls.get()).isZero();
+        verify(this.mongoTemplate, never()).save(any(MiARagService.Mindscape.class), anyString());
+        verify(this.vectorStore, never()).add(anyList());
+        verify(this.mongoTemplate).updateFirst(any(Query.class),
+                argThat((Update update) -> update.getUpdateObject().get("$set").toString().contains("hierarchy.0")), eq("miarag_mindscapes"));
+    }
+
+    private static List<Document> chunks(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Document("id" + i, "c" + i, new HashMap<>())).toList();
+    }
+}
@@ -11,7 +11,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -19,6 +22,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -392,6 +397,99 @@ class DomainThesaurusTest {
         }
     }
 
+    @Test
+    void expandQueryMatchesTermsOnWordBoundariesIgnoringCase() {
+        DomainThesaurusProperties props = new DomainThesaurusProperties();
+        props.setEnabled(true);
+        props.setUnitConversionEnabled(false);
+        props.setMaxQueryVariants(10);
+        props.setEntries(Map.of("GLOBAL", Map.of(
+                "BP", List.of("blood pressure"),
+                "C++", List.of("C plus plus")
+        )));
+
+        DomainThesaurus thesaurus = new DomainThesaurus(props, null);
+        thesaurus.init();
+
+        assertTrue(thesaurus.expandQuery("bp_monitor and BPM readings", "MEDICAL", 5).isEmpty());
+        assertTrue(thesaurus.expandQuery("check bp-level", "MEDICAL", 5).stream()
+                .anyMatch(v -> v.contains("blood pressure")));
+        // Terms that are not plain words match anywhere, as with their non-bounded pattern.
+        assertTrue(thesaurus.expandQuery("modern c++guide", "MEDICAL", 5).stream()
+                .anyMatch(v -> v.contains("C plus plus")));
+    }
+
+    @Test
+    void expandQueryOnlySeesGlobalAndOwnDepartmentEntries() {
+        DomainThesaurusProperties props = new DomainThesaurusProperties();
+        props.setEnabled(true);
+        props.setUnitConversionEnabled(false);
+        props.setMaxQueryVariants(10);
+        props.setEntries(Map.of(
+                "GLOBAL", Map.of("HIPAA", List.of("Health Insurance Portability and Accountability Act")),
+                "GOVERNMENT", Map.of("LOX", List.of("Liquid Oxygen"))
+        ));
+
+        DomainThesaurus thesaurus = new DomainThesaurus(props, null);
+        thesaurus.init();
+
+        assertTrue(thesaurus.expandQuery("LOX tank", "MEDICAL", 5).isEmpty());
+        assertFalse(thesaurus.expandQuery("LOX tank", "government", 5).isEmpty());
+        assertFalse(thesaurus.expandQuery("HIPAA and LOX", "FINANCE", 5).isEmpty());
+        assertFalse(thesaurus.expandQuery("HIPAA rules", null, 5).isEmpty());
+    }
+
+    @Test
+    void expandQueryAgreesWithPerEntryPatternsOnLargeThesaurus() {
+        Map<String, List<String>> terms = new LinkedHashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            terms.put("T" + Integer.toString(i, 36).toUpperCase(), List.of("term " + i));
+        }
+        terms.put("U.S.", List.of("United States"));
+        DomainThesaurusProperties props = new DomainThesaurusProperties();
+        props.setEnabled(true);
+        props.setUnitConversionEnabled(false);
+        props.setMaxQueryVariants(50);
+        props.setEntries(Map.of("GOVERNMENT", terms));
+
+        DomainThesaurus thesaurus = new DomainThesaurus(props, null);
+        thesaurus.init();
+
+        List<String> queries = List.of(
+                "status of t1 and T1Z in the U.S. report",
+                "t2s-t3a_t4b, tzz; u.s. only",
+                "nothing relevant here",
+                "T10 T100 T1000 t10");
+        for (String query : queries) {
+            assertEquals(expandWithPatterns(terms, query, 50), thesaurus.expandQuery(query, "GOVERNMENT", 50), query);
+        }
+    }
+
+    // The per-entry regex scan that the term automaton replaced.
+    private static List<String> expandWithPatterns(Map<String, List<String>> terms, String query, int cap) {
+        LinkedHashSet<String> variants = new LinkedHashSet<>();
+        for (Map.Entry<String, List<String>> entry : terms.entrySet()) {
+            String term = entry.getKey();
+            Pattern pattern = Pattern.compile(term.matches("[A-Za-z0-9_]{2,}")
+                    ? "(?i)\\b" + Pattern.quote(term) + "\\b"
+                    : "(?i)" + Pattern.quote(term));
+            if (variants.size() >= cap || !pattern.matcher(query).find()) {
+                continue;
+            }
+            for (String expansion : entry.getValue()) {
+                String replaced = pattern.matcher(query).replaceAll(Matcher.quoteReplacement(expansion));
+                if (variants.size() < cap && !replaced.equalsIgnoreCase(query)) {
+                    variants.add(replaced);
+                }
+                String annotated = pattern.matcher(query).replaceAll(Matcher.quoteReplacement(term + " (" + expansion + ")"));
+                if (variants.size() < cap && !annotated.equalsIgnoreCase(query)) {
+                    variants.add(annotated);
+                }
+            }
+        }
+        return new ArrayList<>(variants);
+    }
+
     @Test
     void normalizeTermKeyReturnsEmptyForNull() {
         Object normalized = ReflectionTestUtils.invokeMethod(DomainThesaurus.class, "normalizeTermKey", new Object[]{null});
@@ -0,0 +1,79 @@
+package com.jreinhal.mercenary.reasoning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ReasoningTracerTest {
+
+    private ReasoningTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        this.tracer = new ReasoningTracer();
+        ReflectionTestUtils.setField(this.tracer, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.tracer.endTrace();
+    }
+
+    @Test
+    @DisplayName("Scratch traces from worker threads merge in caller order with suffixed labels")
+    void scratchTracesMergeInCallerOrder() {
+        ReasoningTrace parent = this.tracer.startTrace("compound query", "ENTERPRISE", "user-1");
+
+        // The second sub-query finishes first; merge order still follows sub-query order.
+        ReasoningTrace second = CompletableFuture.supplyAsync(() -> this.recordOnWorker(parent, "Graph traversal")).join();
+        ReasoningTrace first = CompletableFuture.supplyAsync(() -> this.recordOnWorker(parent, "Hybrid search")).join();
+        this.tracer.mergeScratchTrace(first, " [1/2]");
+        this.tracer.mergeScratchTrace(second, " [2/2]");
+
+        List<String> labels = parent.getSteps().stream().map(ReasoningStep::label).toList();
+        assertThat(labels).containsExactly("Hybrid search [1/2]", "Graph traversal [2/2]");
+        assertThat(parent.getMetrics()).containsEntry("Graph traversal", 1);
+        assertThat(this.tracer.getCurrentTrace()).isSameAs(parent);
+    }
+
+    @Test
+    @DisplayName("Scratch trace is not bound when the request is untraced")
+    void noScratchTraceWithoutParent() {
+        assertThat(this.tracer.bindScratchTrace(null)).isNull();
+        this.tracer.mergeScratchTrace(null, " [1/2]");
+        assertThat(this.tracer.getCurrentTrace()).isNull();
+    }
+
+    @Test
+    @DisplayName("Sandboxed steps are kept only when the sandbox is closed with keep")
+    void sandboxDiscardsOrKeepsSteps() {
+        ReasoningTrace parent = this.tracer.startTrace("query", "ENTERPRISE", "user-1");
+
+        ReasoningTracer.Sandbox discarded = this.tracer.openSandbox();
+        this.tracer.addStep(ReasoningStep.StepType.RETRIEVAL, "Discarded retrieval", "detail", 5L);
+        this.tracer.closeSandbox(discarded, false);
+        ReasoningTracer.Sandbox kept = this.tracer.openSandbox();
+        this.tracer.addStep(ReasoningStep.StepType.RETRIEVAL, "Kept retrieval", "detail", 5L);
+        this.tracer.closeSandbox(kept, true);
+
+        assertThat(parent.getSteps()).extracting(ReasoningStep::label).containsExactly("Kept retrieval");
+        assertThat(this.tracer.getCurrentTrace()).isSameAs(parent);
+    }
+
+    private ReasoningTrace recordOnWorker(ReasoningTrace parent, String label) {
+        ReasoningTrace scratch = this.tracer.bindScratchTrace(parent);
+        try {
+            this.tracer.addStep(ReasoningStep.StepType.RETRIEVAL, label, "detail", 5L);
+            this.tracer.addMetric(label, 1);
+            return scratch;
+        } finally {
+            this.tracer.unbindScratchTrace();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.jreinhal.mercenary.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jreinhal.mercenary.model.AuditEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AuditExportServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private AuditExportService service;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.service = new AuditExportService(this.mongoTemplate, mapper);
+    }
+
+    @Test
+    void initCreatesTheWorkspaceTimestampIdIndexTheStreamingExportSortsOn() {
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(this.mongoTemplate.indexOps("audit_log")).thenReturn(indexOps);
+
+        this.service.init();
+
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(indexOps).ensureIndex(index.capture());
+        assertThat(List.copyOf(index.getValue().getIndexKeys().entrySet()))
+                .extracting(entry -> entry.getKey() + ":" + entry.getValue())
+                .containsExactly("workspaceId:1", "timestamp:1", "_id:1");
+    }
+
+    @Test
+    void streamsCsvRowsWithEventIdsOldestFirst() throws Exception {
+        when(this.mongoTemplate.stream(any(Query.class), eq(AuditEvent.class), eq("audit_log")))
+                .thenReturn(Stream.of(event("e1", "login, first"), event("e2", "query")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = this.service.streamExport(new AuditExportService.ExportRange("ws", null, null, null, null),
+                AuditExportService.StreamFormat.CSV, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(2L);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("id,timestamp,eventType");
+        assertThat(lines.get(1)).startsWith("e1,").contains("\"login, first\"");
+        assertThat(lines.get(2)).startsWith("e2,");
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).stream(query.capture(), eq(AuditEvent.class), eq("audit_log"));
+        assertThat(query.getValue().getSortObject().toJson()).contains("\"timestamp\": 1").contains("\"id\": 1");
+    }
+
+    @Test
+    void gzipNdjsonRoundTrips() throws Exception {
+        List<AuditEvent> events = List.of(event("e1", "a"), event("e2", "b"), event("e3", "c"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        this.service.writeEvents(events.iterator(), AuditExportService.StreamFormat.NDJSON, true, out);
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(2)).startsWith("{").contains("\"id\":\"e3\"");
+    }
+
+    @Test
+    void resumeStartsAfterTheLastReceivedEvent() {
+        AuditEvent last = event("e7", "query");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(AuditEvent.class), eq("audit_log"))).thenReturn(last);
+
+        AuditExportService.ExportRange range = this.service.resolveRange("ws", null, null, "e7");
+
+        assertThat(range.afterTimestamp()).isEqualTo(last.getTimestamp());
+        assertThat(range.afterId()).isEqualTo("e7");
+    }
+
+    @Test
+    void unknownResumePositionIsRejected() {
+        assertThatThrownBy(() -> this.service.resolveRange("ws", null, null, "missing"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AuditEvent event(String id, String action) {
+        AuditEvent event = AuditEvent.create(AuditEvent.EventType.QUERY_EXECUTED, "user-1", action).withWorkspace("ws");
+        ReflectionTestUtils.setField(event, "id", id);
+        ReflectionTestUtils.setField(event, "timestamp", Instant.parse("2026-01-01T00:00:00Z"));
+        return event;
+    }
+}
@@ -0,0 +1,159 @@
+package com.jreinhal.mercenary.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class LatencyRollupServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private LatencyRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        this.service = new LatencyRollupService(this.mongoTemplate);
+    }
+
+    @Test
+    void recordUpsertsTheHourBucketAtomically() {
+        Instant hour = Instant.parse("2026-03-10T14:00:00Z");
+
+        this.service.record("ws-1", hour.plusSeconds(1_234L), 250L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(this.mongoTemplate).upsert(query.capture(), update.capture(), eq(LatencyRollupService.ROLLUP_COLLECTION));
+        assertThat(query.getValue().getQueryObject().get("_id")).isEqualTo("ws-1|" + hour.toEpochMilli());
+        Document applied = update.getValue().getUpdateObject();
+        assertThat(applied.get("$setOnInsert", Document.class))
+                .containsEntry("workspaceId", "ws-1")
+                .containsEntry("hour", Date.from(hour));
+        assertThat(applied.get("$inc", Document.class))
+                .containsEntry("count", 1L)
+                .containsEntry("sumMs", 250L)
+                .containsEntry("buckets." + LatencySketch.bucketIndex(250L), 1L);
+        assertThat(applied.get("$max", Document.class)).containsEntry("maxMs", 250L);
+    }
+
+    @Test
+    void recordSkipsTracesCoveredByTheBackfill() {
+        Instant countingSince = Instant.parse("2026-03-10T12:00:00Z");
+        startCountingAt(countingSince);
+
+        this.service.record("ws-1", countingSince.minusSeconds(5L), 100L);
+        this.service.record(null, countingSince.plusSeconds(5L), 100L);
+
+        verify(this.mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(LatencyRollupService.ROLLUP_COLLECTION));
+    }
+
+    @Test
+    void loadMergesLiveAndBackfilledHoursFromTheStartOfTheHour() {
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq(LatencyRollupService.ROLLUP_COLLECTION)))
+                .thenReturn(List.of(
+                        hourPart(new long[]{100L, 100L}),
+                        hourPart(new long[]{1_000L}).append("backfill", hourPart(new long[]{50L}))));
+
+        LatencySketch sketch = this.service.load("ws-1", Instant.parse("2026-03-10T14:35:00Z"));
+
+        assertThat(sketch.count()).isEqualTo(4L);
+        assertThat(sketch.sum()).isEqualTo(1_250L);
+        assertThat(sketch.max()).isEqualTo(1_000L);
+        assertThat((double) sketch.percentile(0.50)).isCloseTo(100.0, within(100.0 * LatencySketch.RELATIVE_ACCURACY + 1.0));
+        assertThat((double) sketch.percentile(0.25)).isCloseTo(50.0, within(50.0 * LatencySketch.RELATIVE_ACCURACY + 1.0));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).find(query.capture(), eq(Document.class), eq(LatencyRollupService.ROLLUP_COLLECTION));
+        assertThat(query.getValue().getQueryObject().get("hour", Document.class))
+                .containsEntry("$gte", Date.from(Instant.parse("2026-03-10T14:00:00Z")));
+    }
+
+    @Test
+    void backfillSetsHourSketchesFromTracesUnderLeaseAndMarksCompletion() {
+        Instant countingSince = Instant.parse("2026-03-10T12:30:00Z");
+        startCountingAt(countingSince);
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Document.class), eq(LatencyRollupService.STATE_COLLECTION)))
+                .thenReturn(new Document("_id", "traces"));
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(this.mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(LatencyRollupService.ROLLUP_COLLECTION))).thenReturn(bulk);
+        when(this.mongoTemplate.stream(any(Query.class), eq(Document.class), eq(LatencyRollupService.TRACES_COLLECTION)))
+                .thenReturn(Stream.of(
+                        trace("2026-03-10T11:05:00Z", 300L),
+                        trace("2026-03-10T11:50:00Z", 500L),
+                        trace("2026-03-10T12:10:00Z", 700L)));
+
+        this.service.backfill();
+
+        ArgumentCaptor<Query> hours = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(hours.capture(), updates.capture());
+        List<Object> hourIds = hours.getAllValues().stream().map(q -> q.getQueryObject().get("_id")).toList();
+        String elevenOClock = "ws-1|" + Instant.parse("2026-03-10T11:00:00Z").toEpochMilli();
+        assertThat(hourIds).containsExactlyInAnyOrder(elevenOClock, "ws-1|" + Instant.parse("2026-03-10T12:00:00Z").toEpochMilli());
+        assertThat(updates.getAllValues()).allSatisfy(update -> assertThat(update.getUpdateObject()).doesNotContainKey("$inc"));
+        Document elevenBackfill = updates.getAllValues().get(hourIds.indexOf(elevenOClock))
+                .getUpdateObject().get("$set", Document.class).get("backfill", Document.class);
+        assertThat(elevenBackfill).containsEntry("sumMs", 800L).containsEntry("maxMs", 500L);
+        ArgumentCaptor<Update> completion = ArgumentCaptor.forClass(Update.class);
+        verify(this.mongoTemplate).updateFirst(any(Query.class), completion.capture(), eq(LatencyRollupService.STATE_COLLECTION));
+        assertThat(completion.getValue().getUpdateObject().get("$set", Document.class)).containsKey("backfilledAt");
+        ArgumentCaptor<Query> traces = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).stream(traces.capture(), eq(Document.class), eq(LatencyRollupService.TRACES_COLLECTION));
+        assertThat(traces.getValue().getQueryObject().get("timestamp", Document.class))
+                .containsEntry("$lt", Date.from(countingSince));
+    }
+
+    @Test
+    void backfillIsSkippedWhenAnotherNodeHoldsTheLease() {
+        startCountingAt(Instant.parse("2026-03-10T12:30:00Z"));
+
+        this.service.backfill();
+
+        verify(this.mongoTemplate, never()).stream(any(Query.class), eq(Document.class), eq(LatencyRollupService.TRACES_COLLECTION));
+        verify(this.mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(LatencyRollupService.STATE_COLLECTION));
+    }
+
+    private void startCountingAt(Instant countingSince) {
+        when(this.mongoTemplate.indexOps(LatencyRollupService.ROLLUP_COLLECTION))
+                .thenReturn(mock(IndexOperations.class));
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(LatencyRollupService.STATE_COLLECTION)))
+                .thenReturn(new Document("_id", "traces").append("countingSince", Date.from(countingSince)));
+        this.service.init();
+    }
+
+    private static Document hourPart(long[] durations) {
+        LatencySketch sketch = new LatencySketch();
+        for (long duration : durations) {
+            sketch.record(duration);
+        }
+        Document buckets = new Document();
+        sketch.buckets().forEach((bucket, count) -> buckets.append(String.valueOf(bucket), count));
+        return new Document("sumMs", sketch.sum()).append("maxMs", sketch.max()).append("buckets", buckets);
+    }
+
+    private static Document trace(String timestamp, long durationMs) {
+        return new Document("workspaceId", "ws-1")
+                .append("timestamp", Date.from(Instant.parse(timestamp)))
+                .append("durationMs", durationMs);
+    }
+}
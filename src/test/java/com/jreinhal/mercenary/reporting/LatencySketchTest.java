@@ -0,0 +1,69 @@
+package com.jreinhal.mercenary.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class LatencySketchTest {
+
+    @Test
+    void percentilesStayWithinRelativeAccuracyOfExactValues() {
+        SplittableRandom rng = new SplittableRandom(42L);
+        long[] samples = new long[50_000];
+        LatencySketch sketch = new LatencySketch();
+        for (int i = 0; i < samples.length; i++) {
+            // Log-normal around ~800ms with a long tail.
+            samples[i] = Math.round(Math.exp(6.7 + rng.nextGaussian() * 0.9));
+            sketch.record(samples[i]);
+        }
+        Arrays.sort(samples);
+
+        for (double p : new double[]{0.50, 0.95, 0.99}) {
+            long exact = samples[(int) Math.ceil(p * samples.length) - 1];
+            assertThat((double) sketch.percentile(p))
+                    .isCloseTo(exact, within(exact * LatencySketch.RELATIVE_ACCURACY + 1.0));
+        }
+        assertThat(sketch.count()).isEqualTo(samples.length);
+        assertThat(sketch.max()).isEqualTo(samples[samples.length - 1]);
+        assertThat(sketch.mean()).isCloseTo(Arrays.stream(samples).average().orElseThrow(), within(1e-6));
+    }
+
+    @Test
+    void mergedSketchesMatchOneSketchOverAllSamples() {
+        SplittableRandom rng = new SplittableRandom(7L);
+        LatencySketch all = new LatencySketch();
+        LatencySketch first = new LatencySketch();
+        LatencySketch second = new LatencySketch();
+        for (int i = 0; i < 10_000; i++) {
+            long duration = rng.nextLong(0L, 30_000L);
+            all.record(duration);
+            (i % 3 == 0 ? first : second).record(duration);
+        }
+
+        LatencySketch merged = new LatencySketch();
+        merged.merge(first);
+        merged.merge(second.buckets(), (long) (second.mean() * second.count()), second.max());
+
+        assertThat(merged.buckets()).isEqualTo(all.buckets());
+        assertThat(merged.percentile(0.95)).isEqualTo(all.percentile(0.95));
+        assertThat(merged.max()).isEqualTo(all.max());
+    }
+
+    @Test
+    void handlesEmptyZeroAndSingleSamples() {
+        LatencySketch sketch = new LatencySketch();
+        assertThat(sketch.percentile(0.99)).isZero();
+        assertThat(sketch.mean()).isZero();
+
+        sketch.record(0L);
+        assertThat(sketch.percentile(0.50)).isZero();
+
+        sketch.record(1L);
+        sketch.record(1L);
+        assertThat(sketch.percentile(0.99)).isEqualTo(1L);
+        assertThat(LatencySketch.bucketIndex(-5L)).isZero();
+    }
+}
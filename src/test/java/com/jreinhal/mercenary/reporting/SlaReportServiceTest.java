@@ -0,0 +1,82 @@
+package com.jreinhal.mercenary.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.jreinhal.mercenary.core.license.LicenseService;
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+class SlaReportServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private LatencyRollupService latencyRollupService;
+    private SlaReportService service;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        this.latencyRollupService = mock(LatencyRollupService.class);
+        LicenseService licenseService = mock(LicenseService.class);
+        when(licenseService.getEdition()).thenReturn(LicenseService.Edition.ENTERPRISE);
+        this.service = new SlaReportService(this.mongoTemplate, licenseService, this.latencyRollupService);
+        WorkspaceContext.setCurrentWorkspaceId("ws-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        WorkspaceContext.clear();
+    }
+
+    @Test
+    void reportPercentilesComeFromTheMergedRollupSketch() {
+        LatencySketch latency = new LatencySketch();
+        for (long ms = 1L; ms <= 1_000L; ms++) {
+            latency.record(ms);
+        }
+        when(this.latencyRollupService.load(eq("ws-1"), any(Instant.class))).thenReturn(latency);
+        when(this.mongoTemplate.count(any(Query.class), eq("audit_log"))).thenReturn(1_200L);
+
+        SlaReport report = this.service.buildReport(7);
+
+        assertThat(report.workspaceId()).isEqualTo("ws-1");
+        assertThat(report.edition()).isEqualTo("ENTERPRISE");
+        assertThat(report.windowDays()).isEqualTo(7);
+        assertThat(report.totalTraces()).isEqualTo(1_000L);
+        assertThat(report.totalQueries()).isEqualTo(1_200L);
+        assertThat(report.avgLatencyMs()).isCloseTo(500.5, within(1e-9));
+        assertThat((double) report.p50LatencyMs()).isCloseTo(500.0, within(500.0 * LatencySketch.RELATIVE_ACCURACY + 1.0));
+        assertThat((double) report.p95LatencyMs()).isCloseTo(950.0, within(950.0 * LatencySketch.RELATIVE_ACCURACY + 1.0));
+        assertThat((double) report.p99LatencyMs()).isCloseTo(990.0, within(990.0 * LatencySketch.RELATIVE_ACCURACY + 1.0));
+        assertThat(report.maxLatencyMs()).isEqualTo(1_000L);
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(this.latencyRollupService).load(eq("ws-1"), since.capture());
+        assertThat(since.getValue()).isCloseTo(Instant.now().minus(7L, ChronoUnit.DAYS), within(1L, ChronoUnit.MINUTES));
+    }
+
+    @Test
+    void emptyWindowReportsZeroLatency() {
+        when(this.latencyRollupService.load(eq("ws-1"), any(Instant.class))).thenReturn(new LatencySketch());
+
+        SlaReport report = this.service.buildReport(0);
+
+        assertThat(report.windowDays()).isEqualTo(1);
+        assertThat(report.totalTraces()).isZero();
+        assertThat(report.avgLatencyMs()).isZero();
+        assertThat(report.p50LatencyMs()).isZero();
+        assertThat(report.p99LatencyMs()).isZero();
+        assertThat(report.maxLatencyMs()).isZero();
+    }
+}
@@ -0,0 +1,181 @@
+package com.jreinhal.mercenary.reporting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.jreinhal.mercenary.model.AuditEvent;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class UsageRollupServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private UsageRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        this.service = new UsageRollupService(this.mongoTemplate);
+    }
+
+    @Test
+    void recordIncrementsDailyBucketForWorkspaceAndDepartment() {
+        AuditEvent event = AuditEvent.create(AuditEvent.EventType.QUERY_EXECUTED, "user-1", "query")
+                .withWorkspace("ws-1")
+                .withMetadata("sector", "MEDICAL");
+
+        this.service.record(event);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(this.mongoTemplate).upsert(query.capture(), update.capture(), eq(UsageRollupService.ROLLUP_COLLECTION));
+        String day = event.getTimestamp().truncatedTo(ChronoUnit.DAYS).toString().substring(0, 10);
+        assertThat(query.getValue().getQueryObject().get("_id")).isEqualTo("ws-1|MEDICAL|" + day);
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc).containsEntry("events.QUERY_EXECUTED", 1L);
+    }
+
+    @Test
+    void recordNeverThrows() {
+        when(this.mongoTemplate.upsert(any(Query.class), any(Update.class), eq(UsageRollupService.ROLLUP_COLLECTION)))
+                .thenThrow(new RuntimeException("down"));
+
+        this.service.record(AuditEvent.create(AuditEvent.EventType.AUTH_FAILURE, "user-1", "login"));
+    }
+
+    @Test
+    void windowStartingAtMidnightReadsOnlyRollups() {
+        Instant since = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(2L, ChronoUnit.DAYS);
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq(UsageRollupService.ROLLUP_COLLECTION)))
+                .thenReturn(List.of(rollup(since, 3L), rollup(since.plus(1L, ChronoUnit.DAYS), 4L)));
+
+        long count = this.service.countSince("ws-1", AuditEvent.EventType.QUERY_EXECUTED, since);
+
+        assertThat(count).isEqualTo(7L);
+        verify(this.mongoTemplate, never()).count(any(Query.class), eq("audit_log"));
+    }
+
+    @Test
+    void partialFirstDayIsCountedFromAuditLog() {
+        Instant since = Instant.now().minus(24L, ChronoUnit.HOURS);
+        when(this.mongoTemplate.count(any(Query.class), eq("audit_log"))).thenReturn(5L);
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq(UsageRollupService.ROLLUP_COLLECTION)))
+                .thenReturn(List.of(rollup(Instant.now().truncatedTo(ChronoUnit.DAYS), 2L)));
+
+        long count = this.service.countAllSince(AuditEvent.EventType.QUERY_EXECUTED, since);
+
+        assertThat(count).isEqualTo(7L);
+        ArgumentCaptor<Query> live = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).count(live.capture(), eq("audit_log"));
+        Document timestamp = live.getValue().getQueryObject().get("timestamp", Document.class);
+        assertThat(timestamp.get("$lt")).isEqualTo(since.truncatedTo(ChronoUnit.DAYS).plus(1L, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void countByDayIncludesEmptyDays() {
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq(UsageRollupService.ROLLUP_COLLECTION)))
+                .thenReturn(List.of(rollup(today, 2L), rollup(today, 1L)));
+
+        Map<String, Long> byDay = this.service.countAllByDay(AuditEvent.EventType.QUERY_EXECUTED, 3);
+
+        assertThat(byDay).hasSize(3);
+        assertThat(byDay.values()).containsExactly(0L, 0L, 3L);
+        assertThat(byDay).containsKey(today.toString().substring(0, 10));
+    }
+
+    @Test
+    void backfilledCountsAreAddedToLiveCounts() {
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq(UsageRollupService.ROLLUP_COLLECTION)))
+                .thenReturn(List.of(rollup(today, 2L).append("backfill", new Document(AuditEvent.EventType.QUERY_EXECUTED.name(), 5L))));
+
+        long count = this.service.countAllSince(AuditEvent.EventType.QUERY_EXECUTED, today);
+
+        assertThat(count).isEqualTo(7L);
+    }
+
+    @Test
+    void backfillSetsCountsUnderLeaseAndMarksCompletion() {
+        Instant countingSince = Instant.parse("2026-03-10T12:00:00Z");
+        startCountingAt(countingSince);
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Document.class), eq(UsageRollupService.STATE_COLLECTION)))
+                .thenReturn(new Document("_id", "audit"));
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(this.mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(UsageRollupService.ROLLUP_COLLECTION))).thenReturn(bulk);
+        when(this.mongoTemplate.aggregateStream(any(Aggregation.class), eq("audit_log"), eq(Document.class)))
+                .thenReturn(Stream.of(row("2026-03-09", 4), row("2026-03-10", 3)));
+
+        this.service.backfill();
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(any(Query.class), updates.capture());
+        Document earlier = updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        Document startDay = updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+        assertThat(earlier).containsEntry("events.QUERY_EXECUTED", 4L);
+        assertThat(startDay).containsEntry("backfill.QUERY_EXECUTED", 3L);
+        assertThat(updates.getAllValues()).allSatisfy(update -> assertThat(update.getUpdateObject()).doesNotContainKey("$inc"));
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).findAndModify(claim.capture(), any(Update.class), eq(Document.class), eq(UsageRollupService.STATE_COLLECTION));
+        assertThat(claim.getValue().getQueryObject().get("backfilledAt", Document.class)).containsEntry("$exists", false);
+        ArgumentCaptor<Update> completion = ArgumentCaptor.forClass(Update.class);
+        verify(this.mongoTemplate).updateFirst(any(Query.class), completion.capture(), eq(UsageRollupService.STATE_COLLECTION));
+        assertThat(completion.getValue().getUpdateObject().get("$set", Document.class)).containsKey("backfilledAt");
+    }
+
+    @Test
+    void failedBackfillReleasesLeaseWithoutMarkingCompletion() {
+        startCountingAt(Instant.parse("2026-03-10T12:00:00Z"));
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Document.class), eq(UsageRollupService.STATE_COLLECTION)))
+                .thenReturn(new Document("_id", "audit"));
+        when(this.mongoTemplate.aggregateStream(any(Aggregation.class), eq("audit_log"), eq(Document.class)))
+                .thenThrow(new RuntimeException("cursor killed"));
+
+        this.service.backfill();
+
+        ArgumentCaptor<Update> release = ArgumentCaptor.forClass(Update.class);
+        verify(this.mongoTemplate).updateFirst(any(Query.class), release.capture(), eq(UsageRollupService.STATE_COLLECTION));
+        assertThat(release.getValue().getUpdateObject().get("$unset", Document.class)).containsKey("backfillLeaseUntil");
+        assertThat(release.getValue().getUpdateObject()).doesNotContainKey("$set");
+    }
+
+    private void startCountingAt(Instant countingSince) {
+        when(this.mongoTemplate.indexOps(UsageRollupService.ROLLUP_COLLECTION))
+                .thenReturn(mock(IndexOperations.class));
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Document.class), eq(UsageRollupService.STATE_COLLECTION)))
+                .thenReturn(new Document("_id", "audit").append("countingSince", Date.from(countingSince)));
+        this.service.init();
+    }
+
+    private static Document row(String day, int count) {
+        return new Document("_id", new Document("workspaceId", "ws-1").append("department", "MEDICAL")
+                .append("day", day).append("eventType", AuditEvent.EventType.QUERY_EXECUTED.name()))
+                .append("count", count);
+    }
+
+    private static Document rollup(Instant day, long queries) {
+        return new Document("day", Date.from(day))
+                .append("events", new Document(AuditEvent.EventType.QUERY_EXECUTED.name(), queries));
+    }
+}
@@ -0,0 +1,63 @@
+package com.jreinhal.mercenary.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class PromptInjectionMatcherTest {
+
+    private static final String[] FRAGMENTS = {
+        "ignore", "IGNORE", "all", "previous", "instructions", "show", "me", "the", "system", "prompt", "what", "are",
+        "your", "rules", "you", "now", "a", "act", "as", "if", "pretend", "to", "be", "roleplay", "DAN", "mode",
+        "developer", "enabled", "bypass", "safety", "```", "assistant", ":", "[INST]", "<<SYS>>", "<", "/", ">",
+        "admin", "start", "response", "with", "tell", "hidden", "guidelines", "how", "were", "programmed", "forget",
+        "context", "repeat", "everything", "above", "new", "override", "pump", "budget", "\n", "İgnore"
+    };
+
+    @Test
+    void findsSamePatternAsSequentialRegexScan() {
+        PromptInjectionMatcher matcher = PromptInjectionMatcher.getDefault();
+        Random random = new Random(42);
+        int injections = 0;
+        for (int i = 0; i < 20_000; ++i) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 1 + random.nextInt(10); j > 0; --j) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]).append(random.nextBoolean() ? " " : "");
+            }
+            Pattern expected = sequentialScan(text.toString());
+            assertThat(matcher.findFirst(text)).as(text.toString()).isSameAs(expected);
+            injections += expected != null ? 1 : 0;
+        }
+        assertThat(injections).isPositive();
+    }
+
+    @Test
+    void benignAndEmptyTextDoNotMatch() {
+        PromptInjectionMatcher matcher = PromptInjectionMatcher.getDefault();
+
+        assertThat(matcher.findFirst("What is the maintenance interval for the pump?")).isNull();
+        assertThat(matcher.findFirst("")).isNull();
+        assertThat(matcher.findFirst(null)).isNull();
+    }
+
+    @Test
+    void ruleWithoutAnchorIsRejected() {
+        PromptInjectionPatterns.InjectionRule rule = new PromptInjectionPatterns.InjectionRule(Pattern.compile("x"), List.of());
+
+        assertThatThrownBy(() -> PromptInjectionMatcher.compile(List.of(rule)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Pattern sequentialScan(String text) {
+        for (Pattern pattern : PromptInjectionPatterns.getPatterns()) {
+            if (pattern.matcher(text).find()) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+}
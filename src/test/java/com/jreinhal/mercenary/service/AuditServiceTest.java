@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import com.jreinhal.mercenary.Department;
 import com.jreinhal.mercenary.model.AuditEvent;
 import com.jreinhal.mercenary.model.User;
+import com.jreinhal.mercenary.reporting.UsageRollupService;
 import com.jreinhal.mercenary.security.ClientIpResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
@@ -22,6 +23,7 @@ class AuditServiceTest {
     private MongoTemplate mongoTemplate;
     private ClientIpResolver clientIpResolver;
     private HipaaPolicy hipaaPolicy;
+    private UsageRollupService usageRollupService;
     private AuditService auditService;
 
     @BeforeEach
@@ -31,10 +33,11 @@ class AuditServiceTest {
         Environment environment = mock(Environment.class);
         hipaaPolicy = mock(HipaaPolicy.class);
         PiiRedactionService piiRedactionService = mock(PiiRedactionService.class);
+        usageRollupService = mock(UsageRollupService.class);
         when(environment.getActiveProfiles()).thenReturn(new String[0]);
         when(hipaaPolicy.isStrict(any(Department.class))).thenReturn(false);
         when(clientIpResolver.resolveClientIp(any())).thenReturn("127.0.0.1");
-        auditService = new AuditService(mongoTemplate, clientIpResolver, environment, hipaaPolicy, piiRedactionService);
+        auditService = new AuditService(mongoTemplate, clientIpResolver, environment, hipaaPolicy, piiRedactionService, usageRollupService);
     }
 
     @Test
@@ -43,6 +46,12 @@ class AuditServiceTest {
         verify(mongoTemplate).save(any(AuditEvent.class), eq("audit_log"));
     }
 
+    @Test
+    void loggedEventIsCountedInUsageRollups() {
+        auditService.logAccessDenied(null, "/api/admin/users", "Forbidden", null);
+        verify(usageRollupService).record(any(AuditEvent.class));
+    }
+
     @Test
     void logAccessDeniedIncludesSessionWhenRequestPresent() {
         HttpServletRequest request = mock(HttpServletRequest.class);
@@ -0,0 +1,114 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jreinhal.mercenary.model.Feedback;
+import com.jreinhal.mercenary.repository.FeedbackRepository;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+class FeedbackServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private FeedbackRepository feedbackRepository;
+    private HipaaPolicy hipaaPolicy;
+    private ObjectMapper objectMapper;
+    private FeedbackService service;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        this.feedbackRepository = mock(FeedbackRepository.class);
+        this.hipaaPolicy = mock(HipaaPolicy.class);
+        this.objectMapper = new ObjectMapper();
+        this.service = new FeedbackService(this.feedbackRepository, mock(AuditService.class), this.hipaaPolicy,
+                this.mongoTemplate, this.objectMapper);
+    }
+
+    @Test
+    void summaryIsBuiltFromFacetResult() {
+        Document facets = new Document("byType", List.of(
+                        new Document("_id", "POSITIVE").append("count", 6).append("timedMs", 1200L).append("timed", 4),
+                        new Document("_id", "NEGATIVE").append("count", 2).append("timedMs", 900L).append("timed", 2)))
+                .append("categories", List.of(new Document("_id", "HALLUCINATION").append("count", 2)))
+                .append("open", List.of(new Document("count", 2)))
+                .append("topIssues", List.of(new Document("query", "latest"), new Document("_id", "no-query")));
+        when(this.mongoTemplate.aggregate(any(Aggregation.class), eq("feedback"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(facets), new Document()));
+
+        Instant now = Instant.now();
+        FeedbackService.FeedbackSummary summary = this.service.summarize("ws-1", "MEDICAL", now.minus(30L, ChronoUnit.DAYS), now);
+
+        assertThat(summary.total()).isEqualTo(8L);
+        assertThat(summary.positive()).isEqualTo(6L);
+        assertThat(summary.satisfactionRate()).isEqualTo(75.0);
+        assertThat(summary.avgResponseTimePositive()).isEqualTo(300.0);
+        assertThat(summary.avgResponseTimeNegative()).isEqualTo(450.0);
+        assertThat(summary.categoryBreakdown()).containsEntry(Feedback.FeedbackCategory.HALLUCINATION, 2L);
+        assertThat(summary.openIssues()).isEqualTo(2L);
+        assertThat(summary.topIssueQueries()).containsExactly("latest");
+        verify(this.feedbackRepository, never()).findBySectorAndTimestampBetweenAndWorkspaceId(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void emptyWindowSummarizesToZero() {
+        when(this.mongoTemplate.aggregate(any(Aggregation.class), eq("feedback"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        Instant now = Instant.now();
+        FeedbackService.FeedbackSummary summary = this.service.summarize("ws-1", null, now.minus(1L, ChronoUnit.DAYS), now);
+
+        assertThat(summary.total()).isZero();
+        assertThat(summary.satisfactionRate()).isZero();
+        assertThat(summary.topIssueQueries()).isEmpty();
+    }
+
+    @Test
+    void trainingExportStreamsJsonArray() throws Exception {
+        Feedback good = Feedback.positive("user-1", "m1", "what is x", "x is y");
+        Feedback incomplete = Feedback.positive("user-1", "m2", "no answer", null);
+        when(this.mongoTemplate.stream(any(Query.class), eq(Feedback.class), eq("feedback")))
+                .thenReturn(Stream.of(good, incomplete));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = this.service.writeTrainingData("ENTERPRISE", Feedback.FeedbackType.POSITIVE, out);
+
+        assertThat(written).isEqualTo(1L);
+        JsonNode json = this.objectMapper.readTree(out.toByteArray());
+        assertThat(json.isArray()).isTrue();
+        assertThat(json).hasSize(1);
+        assertThat(json.get(0).get("query").asText()).isEqualTo("what is x");
+        assertThat(json.get(0).get("reward").asDouble()).isEqualTo(1.0);
+    }
+
+    @Test
+    void trainingExportIsEmptyWhenFeedbackDisabled() throws Exception {
+        when(this.hipaaPolicy.shouldDisableFeedback("MEDICAL")).thenReturn(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = this.service.writeTrainingData("MEDICAL", Feedback.FeedbackType.POSITIVE, out);
+
+        assertThat(written).isZero();
+        assertThat(out.toString()).isEqualTo("[]");
+        verify(this.mongoTemplate, never()).stream(any(Query.class), eq(Feedback.class), eq("feedback"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LlmCallCoalescerTest {
+
+    private SimpleMeterRegistry registry;
+    private LlmCallCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        this.registry = new SimpleMeterRegistry();
+        this.coalescer = new LlmCallCoalescer(true, this.registry);
+        this.executor = Executors.newFixedThreadPool(4);
+        WorkspaceContext.setCurrentWorkspaceId("workspace_a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+        WorkspaceContext.clear();
+    }
+
+    @Test
+    void identicalConcurrentCallsShareOneUpstreamCall() throws Exception {
+        LlmCallCoalescer.Key key = this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "ENTERPRISE", "system", "question");
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = this.executor.submit(() -> this.coalescer.execute(key, () -> {
+            upstreamCalls.incrementAndGet();
+            await(release);
+            return "answer";
+        }));
+        awaitInFlight();
+        Future<String> follower = this.executor.submit(() -> this.coalescer.execute(key, () -> {
+            upstreamCalls.incrementAndGet();
+            return "duplicate";
+        }));
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("answer");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("answer");
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(this.registry.get(LlmCallCoalescer.COALESCED_COUNTER).tag("call", "answer").counter().count()).isEqualTo(1.0);
+        assertThat(this.coalescer.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void keysDifferBySecurityScopeAndPrompt() {
+        LlmCallCoalescer.Key base = this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "ENTERPRISE", "system", "question");
+
+        assertThat(this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "ENTERPRISE", "system", "question")).isEqualTo(base);
+        assertThat(this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "MEDICAL", "system", "question")).isNotEqualTo(base);
+        assertThat(this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "ENTERPRISE", "system", "other question")).isNotEqualTo(base);
+        assertThat(this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "ENTERPRISE", "systemq", "uestion")).isNotEqualTo(base);
+        WorkspaceContext.setCurrentWorkspaceId("workspace_b");
+        assertThat(this.coalescer.key(LlmCallCoalescer.CALL_ANSWER, "ENTERPRISE", "system", "question")).isNotEqualTo(base);
+    }
+
+    @Test
+    void sharedFailureIsRethrownToWaitingCallers() throws Exception {
+        LlmCallCoalescer.Key key = this.coalescer.key(LlmCallCoalescer.CALL_HYDE, null, "question");
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = this.executor.submit(() -> this.coalescer.execute(key, () -> {
+            await(release);
+            throw new IllegalStateException("model offline");
+        }));
+        awaitInFlight();
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> this.coalescer.execute(key, () -> "unused"), this.executor);
+        awaitCoalesced(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("model offline");
+        assertThat(this.coalescer.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void sequentialCallsAreNotCached() {
+        LlmCallCoalescer.Key key = this.coalescer.key(LlmCallCoalescer.CALL_ROUTER, null, "question");
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        this.coalescer.execute(key, upstreamCalls::incrementAndGet);
+        this.coalescer.execute(key, upstreamCalls::incrementAndGet);
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(this.coalescer.getCoalescedCount()).isZero();
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.coalescer.getInFlightCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertThat(this.coalescer.getInFlightCount()).isEqualTo(1);
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.coalescer.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertThat(this.coalescer.getCoalescedCount()).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
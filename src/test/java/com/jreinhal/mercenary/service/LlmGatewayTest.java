@@ -0,0 +1,177 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LlmGatewayTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void freedSlotGoesToHighestPriorityLane() throws Exception {
+        LlmGateway gateway = new LlmGateway(1, 10, 5_000L);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<?> holder = this.executor.submit(() -> gateway.call(LlmGateway.Lane.BACKGROUND, () -> await(release)));
+        awaitInFlight(gateway, 1);
+        Future<?> background = this.executor.submit(() -> gateway.call(LlmGateway.Lane.BACKGROUND, () -> order.add("background")));
+        awaitQueued(gateway, LlmGateway.Lane.BACKGROUND, 1);
+        Future<?> rerank = this.executor.submit(() -> gateway.call(LlmGateway.Lane.RERANK, () -> order.add("rerank")));
+        awaitQueued(gateway, LlmGateway.Lane.RERANK, 1);
+        Future<?> interactive = this.executor.submit(() -> gateway.call(LlmGateway.Lane.INTERACTIVE, () -> order.add("interactive")));
+        awaitQueued(gateway, LlmGateway.Lane.INTERACTIVE, 1);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        interactive.get(5, TimeUnit.SECONDS);
+        rerank.get(5, TimeUnit.SECONDS);
+        background.get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly("interactive", "rerank", "background");
+        assertThat(gateway.getInFlight()).isZero();
+    }
+
+    @Test
+    void fullLaneShedsNewCalls() throws Exception {
+        LlmGateway gateway = new LlmGateway(1, 1, 5_000L);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = this.executor.submit(() -> gateway.call(LlmGateway.Lane.INTERACTIVE, () -> await(release)));
+        awaitInFlight(gateway, 1);
+        Future<?> queued = this.executor.submit(() -> gateway.call(LlmGateway.Lane.BACKGROUND, () -> "queued"));
+        awaitQueued(gateway, LlmGateway.Lane.BACKGROUND, 1);
+
+        assertThatThrownBy(() -> gateway.call(LlmGateway.Lane.BACKGROUND, () -> "shed"))
+                .isInstanceOf(LlmGatewayRejectedException.class)
+                .hasMessageContaining("queue full");
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void queuedCallFailsAfterQueueTimeout() throws Exception {
+        LlmGateway gateway = new LlmGateway(1, 10, 50L);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = this.executor.submit(() -> gateway.call(LlmGateway.Lane.INTERACTIVE, () -> await(release)));
+        awaitInFlight(gateway, 1);
+
+        assertThatThrownBy(() -> gateway.call(LlmGateway.Lane.RERANK, () -> "late"))
+                .isInstanceOf(LlmGatewayRejectedException.class)
+                .hasMessageContaining("timeout");
+        assertThat(gateway.getQueued(LlmGateway.Lane.RERANK)).isZero();
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(gateway.getInFlight()).isZero();
+    }
+
+    @Test
+    void failedCallReleasesSlot() {
+        LlmGateway gateway = new LlmGateway(1, 10, 1_000L);
+
+        assertThatThrownBy(() -> gateway.call(LlmGateway.Lane.CONTROL, () -> {
+            throw new IllegalStateException("model offline");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(gateway.call(LlmGateway.Lane.CONTROL, () -> "ok")).isEqualTo("ok");
+        assertThat(gateway.getInFlight()).isZero();
+    }
+
+    @Test
+    void callerDeadlineShortensQueueWait() throws Exception {
+        LlmGateway gateway = new LlmGateway(1, 10, 30_000L);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = this.executor.submit(() -> gateway.call(LlmGateway.Lane.INTERACTIVE, () -> await(release)));
+        awaitInFlight(gateway, 1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> gateway.call(LlmGateway.Lane.CONTROL, Duration.ofMillis(50L), () -> "late"))
+                .isInstanceOf(LlmGatewayRejectedException.class)
+                .hasMessageContaining("timeout");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(gateway.getQueued(LlmGateway.Lane.CONTROL)).isZero();
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void cancellingSubmittedCallWithdrawsItFromTheQueue() throws Exception {
+        LlmGateway gateway = new LlmGateway(1, 10, 30_000L);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            Future<?> holder = this.executor.submit(() -> gateway.call(LlmGateway.Lane.INTERACTIVE, () -> await(release)));
+            awaitInFlight(gateway, 1);
+            Future<String> abandoned = gateway.submit(() -> gateway.call(LlmGateway.Lane.CONTROL, Duration.ofSeconds(30L), () -> {
+                ran.set(true);
+                return "abandoned";
+            }));
+            awaitQueued(gateway, LlmGateway.Lane.CONTROL, 1);
+
+            abandoned.cancel(true);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (gateway.getQueued(LlmGateway.Lane.CONTROL) > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5L);
+            }
+            assertThat(gateway.getQueued(LlmGateway.Lane.CONTROL)).isZero();
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+
+            assertThat(ran).isFalse();
+            assertThat(gateway.getInFlight()).isZero();
+        } finally {
+            gateway.shutdown();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void awaitInFlight(LlmGateway gateway, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gateway.getInFlight() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertThat(gateway.getInFlight()).isEqualTo(expected);
+    }
+
+    private static void awaitQueued(LlmGateway gateway, LlmGateway.Lane lane, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gateway.getQueued(lane) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertThat(gateway.getQueued(lane)).isEqualTo(expected);
+    }
+}
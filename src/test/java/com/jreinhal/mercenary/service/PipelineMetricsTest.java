@@ -0,0 +1,75 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PipelineMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private PipelineMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        this.registry = new SimpleMeterRegistry();
+        this.metrics = new PipelineMetrics(this.registry);
+    }
+
+    @Test
+    void timeRecordsStageWithDepartmentAndStrategyTags() {
+        String result = this.metrics.time(PipelineMetrics.STAGE_RETRIEVAL, "medical", "HybridRAG", () -> "ok");
+
+        assertThat(result).isEqualTo("ok");
+        Timer timer = this.registry.find(PipelineMetrics.STAGE_TIMER)
+                .tags("stage", "retrieval", "department", "MEDICAL", "strategy", "HybridRAG", "outcome", "success")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1L);
+    }
+
+    @Test
+    void timeRecordsErrorOutcomeAndRethrows() {
+        assertThatThrownBy(() -> this.metrics.time(PipelineMetrics.STAGE_LLM, "ENTERPRISE", "answer", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Timer timer = this.registry.find(PipelineMetrics.STAGE_TIMER).tags("outcome", "error").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1L);
+    }
+
+    @Test
+    void unknownDepartmentsCollapseToBoundedTagValues() {
+        assertThat(PipelineMetrics.normalizeDepartment(null)).isEqualTo(PipelineMetrics.UNSCOPED);
+        assertThat(PipelineMetrics.normalizeDepartment("government")).isEqualTo("GOVERNMENT");
+        assertThat(PipelineMetrics.normalizeDepartment("user-supplied-value")).isEqualTo("OTHER");
+    }
+
+    @Test
+    void noopRunsWorkWithoutRecording() {
+        Integer value = PipelineMetrics.noop().time(PipelineMetrics.STAGE_RERANK, "MEDICAL", "llm", () -> 42);
+
+        assertThat(value).isEqualTo(42);
+        assertThat(this.registry.getMeters()).isEmpty();
+    }
+
+    @Test
+    void monitorCachePublishesHitAndMissCounts() {
+        Cache<String, String> cache = Caffeine.newBuilder().maximumSize(10).recordStats().build();
+        this.metrics.monitorCache("test.cache", cache);
+        cache.put("a", "1");
+        cache.getIfPresent("a");
+        cache.getIfPresent("b");
+
+        assertThat(this.registry.get("cache.gets").tags("cache", "test.cache", "result", "hit").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(this.registry.get("cache.gets").tags("cache", "test.cache", "result", "miss").functionCounter().count())
+                .isEqualTo(1.0);
+    }
+}
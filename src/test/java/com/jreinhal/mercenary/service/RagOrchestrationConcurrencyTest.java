@@ -0,0 +1,321 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jreinhal.mercenary.config.SectorConfig;
+import com.jreinhal.mercenary.core.license.LicenseService;
+import com.jreinhal.mercenary.dto.EnhancedAskResponse;
+import com.jreinhal.mercenary.filter.CorrelationIdFilter;
+import com.jreinhal.mercenary.filter.SecurityContext;
+import com.jreinhal.mercenary.model.User;
+import com.jreinhal.mercenary.rag.ModalityRouter;
+import com.jreinhal.mercenary.rag.adaptiverag.AdaptiveRagService;
+import com.jreinhal.mercenary.rag.agentic.AgenticRagOrchestrator;
+import com.jreinhal.mercenary.rag.birag.BidirectionalRagService;
+import com.jreinhal.mercenary.rag.crag.RewriteService;
+import com.jreinhal.mercenary.rag.hifirag.HiFiRagService;
+import com.jreinhal.mercenary.rag.hgmem.HGMemQueryEngine;
+import com.jreinhal.mercenary.rag.hybridrag.HybridRagService;
+import com.jreinhal.mercenary.rag.megarag.MegaRagService;
+import com.jreinhal.mercenary.rag.miarag.MiARagService;
+import com.jreinhal.mercenary.rag.qucorag.QuCoRagService;
+import com.jreinhal.mercenary.rag.ragpart.RagPartService;
+import com.jreinhal.mercenary.reasoning.ReasoningStep;
+import com.jreinhal.mercenary.reasoning.ReasoningTrace;
+import com.jreinhal.mercenary.reasoning.ReasoningTracer;
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import com.jreinhal.mercenary.workspace.WorkspaceQuotaService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RagOrchestrationConcurrencyTest {
+
+    private static final String QUERY = "What is the operating pressure?";
+
+    private final AuditService auditService = mock(AuditService.class);
+    private final AdaptiveRagService adaptiveRagService = mock(AdaptiveRagService.class);
+    private final QuCoRagService quCoRagService = mock(QuCoRagService.class);
+    private final PromptGuardrailService guardrailService = mock(PromptGuardrailService.class);
+    private final PiiRedactionService piiRedactionService = mock(PiiRedactionService.class);
+    private final RagPartService ragPartService = mock(RagPartService.class);
+    private final QueryDecompositionService queryDecompositionService = mock(QueryDecompositionService.class);
+    private final HipaaPolicy hipaaPolicy = mock(HipaaPolicy.class);
+    private final HipaaAuditProvider hipaaAuditService = mock(HipaaAuditProvider.class);
+    private final ChatClient chatClient = mock(ChatClient.class);
+    private final RewriteService rewriteService = mock(RewriteService.class);
+    private final HybridRagService hybridRagService = mock(HybridRagService.class);
+    private final HiFiRagService hiFiRagService = mock(HiFiRagService.class);
+    private final AgenticRagOrchestrator agenticRagOrchestrator = mock(AgenticRagOrchestrator.class);
+    private final ReasoningTracer reasoningTracer = new ReasoningTracer();
+    private User user;
+    private RagOrchestrationService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(this.reasoningTracer, "enabled", true);
+        when(this.piiRedactionService.redact(anyString(), any()))
+                .thenAnswer(inv -> new PiiRedactionService.RedactionResult(inv.getArgument(0), Map.of()));
+        when(this.guardrailService.analyze(anyString())).thenReturn(PromptGuardrailService.GuardrailResult.safe());
+        when(this.quCoRagService.analyzeQueryUncertainty(anyString()))
+                .thenReturn(new QuCoRagService.UncertaintyResult(0.0, List.of(), "test"));
+        when(this.adaptiveRagService.shouldSkipRetrieval(any())).thenReturn(true);
+        this.user = User.devUser("analyst");
+        SecurityContext.setCurrentUser(this.user);
+        WorkspaceContext.setCurrentWorkspaceId("ws_alpha");
+        this.service = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.service.shutdown();
+        SecurityContext.clear();
+        WorkspaceContext.clear();
+        MDC.clear();
+    }
+
+    @Test
+    void understandingWorkersSeeCallerContextAndTheirStepsAreMergedIntoTheTrace() {
+        AtomicReference<User> workerUser = new AtomicReference<>();
+        AtomicReference<String> workerWorkspace = new AtomicReference<>();
+        AtomicReference<String> workerThread = new AtomicReference<>();
+        AtomicReference<String> workerCorrelationId = new AtomicReference<>();
+        MDC.put(CorrelationIdFilter.MDC_KEY, "corr-7");
+        when(this.adaptiveRagService.route(QUERY)).thenAnswer(inv -> {
+            workerUser.set(SecurityContext.getCurrentUser());
+            workerWorkspace.set(WorkspaceContext.getCurrentWorkspaceId());
+            workerThread.set(Thread.currentThread().getName());
+            workerCorrelationId.set(MDC.get(CorrelationIdFilter.MDC_KEY));
+            this.reasoningTracer.addStep(ReasoningStep.StepType.QUERY_ROUTING, "Routing probe", "recorded on worker", 1L);
+            return new AdaptiveRagService.RoutingResult(AdaptiveRagService.RoutingDecision.NO_RETRIEVAL, "test", 1.0, Map.of());
+        });
+
+        EnhancedAskResponse response = this.service.askEnhanced(QUERY, "ENTERPRISE", List.of(), null, null, false, null);
+
+        assertThat(workerUser.get()).isSameAs(this.user);
+        assertThat(workerWorkspace.get()).isEqualTo("ws_alpha");
+        assertThat(workerThread.get()).startsWith("rag-understand-");
+        assertThat(workerCorrelationId.get()).isEqualTo("corr-7");
+        assertThat(response.reasoning()).extracting(step -> step.get("label")).contains("Routing probe");
+    }
+
+    @Test
+    void guardrailBlockCancelsRunningUnderstandingWorkers() throws Exception {
+        CountDownLatch routingStarted = new CountDownLatch(1);
+        CountDownLatch routingInterrupted = new CountDownLatch(1);
+        when(this.adaptiveRagService.route(QUERY)).thenAnswer(inv -> blockUntilInterrupted(routingStarted, routingInterrupted));
+        when(this.guardrailService.analyze(QUERY)).thenAnswer(inv -> {
+            routingStarted.await(5, TimeUnit.SECONDS);
+            return PromptGuardrailService.GuardrailResult.blocked("injection", "INJECTION", 1.0, Map.of());
+        });
+
+        EnhancedAskResponse response = this.service.askEnhanced(QUERY, "ENTERPRISE", List.of(), null, null, false, null);
+
+        assertThat(response.answer()).startsWith("SECURITY ALERT");
+        assertThat(routingInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(this.auditService).logPromptInjection(eq(this.user), eq(QUERY), any());
+        verify(this.adaptiveRagService, never()).shouldSkipRetrieval(any());
+    }
+
+    @Test
+    void understandingPastItsDeadlineIsCancelledAndFallsBackToChunkRouting() throws Exception {
+        ReflectionTestUtils.setField(this.service, "queryUnderstandingTimeoutSeconds", 1);
+        CountDownLatch routingStarted = new CountDownLatch(1);
+        CountDownLatch routingInterrupted = new CountDownLatch(1);
+        when(this.adaptiveRagService.route(QUERY)).thenAnswer(inv -> blockUntilInterrupted(routingStarted, routingInterrupted));
+
+        this.service.askEnhanced(QUERY, "ENTERPRISE", List.of(), null, null, false, null);
+
+        assertThat(routingInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        verify(this.adaptiveRagService).shouldSkipRetrieval(AdaptiveRagService.RoutingDecision.CHUNK);
+    }
+
+    @Test
+    void subQueryWorkersCarryCallerContextAndMissedDeadlinesKeepPartialResults() throws Exception {
+        ReflectionTestUtils.setField(this.service, "subQueryTimeoutSeconds", 1);
+        MDC.put(CorrelationIdFilter.MDC_KEY, "corr-42");
+        Map<String, String> workerContext = new ConcurrentHashMap<>();
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+        when(this.ragPartService.isEnabled()).thenReturn(true);
+        when(this.ragPartService.retrieve(anyString(), eq("ENTERPRISE"))).thenAnswer(inv -> {
+            String subQuery = inv.getArgument(0);
+            workerContext.put(subQuery, SecurityContext.getCurrentUser().getId() + "|" + WorkspaceContext.getCurrentWorkspaceId()
+                    + "|" + MDC.get(CorrelationIdFilter.MDC_KEY) + "|" + Thread.currentThread().getName());
+            if (subQuery.startsWith("valve")) {
+                blockUntilInterrupted(slowStarted, slowInterrupted);
+            }
+            return new RagPartService.RagPartResult(List.of(new Document(subQuery, Map.of("source", "pumps.pdf"))), List.of(), Map.of());
+        });
+        AdaptiveRagService.RoutingResult routing = new AdaptiveRagService.RoutingResult(AdaptiveRagService.RoutingDecision.CHUNK, "test", 1.0, Map.of());
+
+        List<?> retrievals = ReflectionTestUtils.invokeMethod(this.service, "retrieveSubQueries",
+                List.of("pump pressure limits", "valve inspection schedule"), "ENTERPRISE", List.of(), routing, false, false,
+                RagOrchestrationService.RetrievalOverrides.DEFAULTS);
+
+        assertThat(retrievals).hasSize(2);
+        assertThat((Boolean) ReflectionTestUtils.invokeMethod(retrievals.get(0), "timedOut")).isFalse();
+        assertThat(documentsOf(retrievals.get(0))).extracting(Document::getContent).containsExactly("pump pressure limits");
+        assertThat((Boolean) ReflectionTestUtils.invokeMethod(retrievals.get(1), "timedOut")).isTrue();
+        assertThat(documentsOf(retrievals.get(1))).isEmpty();
+        assertThat(slowInterrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(workerContext.values()).hasSize(2).allSatisfy(context -> assertThat(context)
+                .startsWith(this.user.getId() + "|ws_alpha|corr-42|rag-subquery-"));
+        assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isEqualTo("corr-42");
+    }
+
+    @Test
+    void askMergesSubQueryWorkerStepsIntoTheCallersTrace() {
+        when(this.adaptiveRagService.route(QUERY))
+                .thenReturn(new AdaptiveRagService.RoutingResult(AdaptiveRagService.RoutingDecision.CHUNK, "test", 1.0, Map.of()));
+        when(this.queryDecompositionService.decompose(QUERY)).thenReturn(List.of("pump pressure limits", "valve inspection schedule"));
+        when(this.ragPartService.isEnabled()).thenReturn(true);
+        when(this.ragPartService.retrieve(anyString(), eq("ENTERPRISE"))).thenAnswer(inv -> {
+            String subQuery = inv.getArgument(0);
+            this.reasoningTracer.addStep(ReasoningStep.StepType.RETRIEVAL, "Sub-query probe", subQuery, 1L);
+            return new RagPartService.RagPartResult(List.of(new Document(subQuery, Map.of("source", "pumps.pdf"))), List.of(), Map.of());
+        });
+        ReasoningTrace trace = this.reasoningTracer.startTrace(QUERY, "ENTERPRISE");
+
+        this.service.ask(QUERY, "ENTERPRISE", List.of(), null, null);
+
+        assertThat(trace.getSteps()).extracting(ReasoningStep::label)
+                .contains("Sub-query probe [1/2]", "Sub-query probe [2/2]");
+    }
+
+    @Test
+    void speculativeRetrievalBlockedByGuardrailProducesNoAnswerOrQueryRecords() {
+        ReflectionTestUtils.setField(this.service, "speculativeRetrieval", true);
+        when(this.hipaaPolicy.isStrict(any())).thenReturn(true);
+        CompletableFuture<PromptGuardrailService.GuardrailResult> verdict = new CompletableFuture<>();
+        when(this.guardrailService.analyzeAsync(eq(QUERY), any())).thenReturn(new PromptGuardrailService.PendingGuardrail(verdict));
+        when(this.adaptiveRagService.route(QUERY))
+                .thenReturn(new AdaptiveRagService.RoutingResult(AdaptiveRagService.RoutingDecision.CHUNK, "test", 1.0, Map.of()));
+        when(this.adaptiveRagService.shouldSkipRetrieval(any())).thenReturn(false);
+        when(this.queryDecompositionService.decompose(QUERY)).thenReturn(List.of(QUERY));
+        when(this.ragPartService.isEnabled()).thenReturn(true);
+        when(this.ragPartService.retrieve(eq(QUERY), eq("ENTERPRISE"))).thenAnswer(inv -> {
+            // The LLM layer decides while retrieval is still running.
+            verdict.complete(PromptGuardrailService.GuardrailResult.blocked("injection", "INJECTION", 1.0, Map.of("layer", "llm")));
+            return new RagPartService.RagPartResult(List.of(new Document("operating pressure is 40 bar", Map.of("source", "pumps.pdf"))), List.of(), Map.of());
+        });
+
+        EnhancedAskResponse response = this.service.askEnhanced(QUERY, "ENTERPRISE", List.of(), null, null, false, null);
+
+        assertThat(response.answer()).startsWith("SECURITY ALERT").doesNotContain("40 bar");
+        assertThat(response.sources()).isEmpty();
+        assertThat(response.reasoning()).extracting(step -> step.get("label")).containsExactly("Security Scan");
+        verify(this.ragPartService).retrieve(QUERY, "ENTERPRISE");
+        verify(this.auditService).logPromptInjection(eq(this.user), eq(QUERY), any());
+        verify(this.auditService, never()).logQuery(any(), any(), any(), any(), any());
+        verify(this.hipaaAuditService, never()).logPhiQuery(any(), any(), anyInt(), any());
+        verify(this.chatClient, never()).prompt();
+    }
+
+    @Test
+    void speculativeRetrievalKeepsTheUnvettedQueryOutOfModelPrompts() {
+        ReflectionTestUtils.setField(this.service, "speculativeRetrieval", true);
+        when(this.hipaaPolicy.isStrict(any())).thenReturn(true);
+        CompletableFuture<PromptGuardrailService.GuardrailResult> verdict = new CompletableFuture<>();
+        when(this.guardrailService.analyzeAsync(eq(QUERY), any())).thenReturn(new PromptGuardrailService.PendingGuardrail(verdict));
+        when(this.adaptiveRagService.route(QUERY))
+                .thenReturn(new AdaptiveRagService.RoutingResult(AdaptiveRagService.RoutingDecision.DOCUMENT, "test", 1.0, Map.of()));
+        when(this.adaptiveRagService.shouldSkipRetrieval(any())).thenReturn(false);
+        when(this.queryDecompositionService.decompose(QUERY)).thenReturn(List.of(QUERY));
+        when(this.hiFiRagService.isEnabled()).thenReturn(true);
+        when(this.agenticRagOrchestrator.isEnabled()).thenReturn(true);
+        when(this.hybridRagService.isEnabled()).thenReturn(true);
+        when(this.hybridRagService.retrieve(anyString(), anyString(), anyBoolean())).thenAnswer(inv -> {
+            verdict.complete(PromptGuardrailService.GuardrailResult.blocked("injection", "INJECTION", 1.0, Map.of("layer", "llm")));
+            return new HybridRagService.HybridRetrievalResult(List.of(), Map.of());
+        });
+
+        EnhancedAskResponse response = this.service.askEnhanced(QUERY, "ENTERPRISE", List.of(), null, null, false, null, false, null, null);
+
+        assertThat(response.answer()).startsWith("SECURITY ALERT");
+        verify(this.hybridRagService, never()).retrieve(anyString(), anyString(), eq(true));
+        verify(this.hybridRagService, atLeastOnce()).retrieve(QUERY, "ENTERPRISE", false);
+        verify(this.hiFiRagService, never()).retrieve(anyString(), anyString());
+        verify(this.agenticRagOrchestrator, never()).process(anyString(), anyString(), anyBoolean());
+        verify(this.rewriteService, never()).rewriteQuery(anyString());
+    }
+
+    private static List<Document> documentsOf(Object retrieval) {
+        Object context = ReflectionTestUtils.invokeMethod(retrieval, "context");
+        return new ArrayList<>(ReflectionTestUtils.<List<Document>>invokeMethod(context, "textDocuments"));
+    }
+
+    private static AdaptiveRagService.RoutingResult blockUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) throws InterruptedException {
+        started.countDown();
+        try {
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw e;
+        }
+        throw new AssertionError("unreachable");
+    }
+
+    private RagOrchestrationService newService() {
+        ChatClient.Builder builder = mock(ChatClient.Builder.class);
+        when(builder.build()).thenReturn(this.chatClient);
+
+        return new RagOrchestrationService(
+                builder,
+                mock(VectorStore.class),
+                this.auditService,
+                this.queryDecompositionService,
+                this.reasoningTracer,
+                this.quCoRagService,
+                this.adaptiveRagService,
+                this.rewriteService,
+                this.ragPartService,
+                this.hybridRagService,
+                this.hiFiRagService,
+                mock(MiARagService.class),
+                mock(MegaRagService.class),
+                mock(HGMemQueryEngine.class),
+                this.agenticRagOrchestrator,
+                mock(BidirectionalRagService.class),
+                mock(ModalityRouter.class),
+                mock(SectorConfig.class),
+                this.guardrailService,
+                null,
+                null,
+                mock(LicenseService.class),
+                this.piiRedactionService,
+                this.hipaaPolicy,
+                this.hipaaAuditService,
+                Caffeine.newBuilder().maximumSize(10).build(),
+                mock(WorkspaceQuotaService.class),
+                "llama3.1:8b",
+                0.0,
+                256,
+                4096
+        );
+    }
+}
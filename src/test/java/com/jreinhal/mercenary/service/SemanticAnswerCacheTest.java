@@ -0,0 +1,166 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.jreinhal.mercenary.Department;
+import com.jreinhal.mercenary.model.ClearanceLevel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class SemanticAnswerCacheTest {
+
+    private EmbeddingModel embeddingModel;
+    private SemanticAnswerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        this.embeddingModel = mock(EmbeddingModel.class);
+        when(this.embeddingModel.embed(anyString())).thenReturn(new float[] {1.0f, 0.0f, 0.0f});
+        when(this.embeddingModel.embed("what is the maintenance interval for the pump"))
+                .thenReturn(new float[] {0.99f, 0.1f, 0.0f});
+        when(this.embeddingModel.embed("who approved the budget")).thenReturn(new float[] {0.0f, 1.0f, 0.0f});
+        this.cache = new SemanticAnswerCache(true, 0.95, 100, 8, 60, this.embeddingModel, null);
+    }
+
+    @Test
+    void exactRepeatHitsWithoutEmbedding() {
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+        this.cache.store(this.cache.lookup(scope, "What is the pump interval?"), answer("500 hours"));
+
+        SemanticAnswerCache.Lookup lookup = this.cache.lookup(scope, "  what is the PUMP interval  ");
+
+        assertThat(lookup.isHit()).isTrue();
+        assertThat(lookup.hit().response()).isEqualTo("500 hours");
+        assertThat(lookup.similarity()).isEqualTo(1.0);
+    }
+
+    @Test
+    void paraphraseAboveThresholdHits() {
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+        this.cache.store(this.cache.lookup(scope, "What is the pump interval?"), answer("500 hours"));
+
+        SemanticAnswerCache.Lookup paraphrase = this.cache.lookup(scope, "What is the maintenance interval for the pump?");
+        SemanticAnswerCache.Lookup unrelated = this.cache.lookup(scope, "Who approved the budget?");
+
+        assertThat(paraphrase.isHit()).isTrue();
+        assertThat(paraphrase.similarity()).isGreaterThanOrEqualTo(0.95);
+        assertThat(unrelated.isHit()).isFalse();
+    }
+
+    @Test
+    void neverServesAcrossSectorClearanceOrFileScope() {
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of("a.pdf", "b.pdf"));
+        this.cache.store(this.cache.lookup(scope, "What is the pump interval?"), answer("500 hours"));
+
+        assertThat(this.cache.lookup(scope("ws_a", Department.GOVERNMENT, ClearanceLevel.SECRET, List.of("a.pdf", "b.pdf")), "What is the pump interval?").isHit()).isFalse();
+        assertThat(this.cache.lookup(scope("ws_a", Department.ENTERPRISE, ClearanceLevel.CUI, List.of("a.pdf", "b.pdf")), "What is the pump interval?").isHit()).isFalse();
+        assertThat(this.cache.lookup(scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of()), "What is the pump interval?").isHit()).isFalse();
+        assertThat(this.cache.lookup(scope("ws_b", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of("a.pdf", "b.pdf")), "What is the pump interval?").isHit()).isFalse();
+        assertThat(this.cache.lookup(scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of("b.pdf", "a.pdf")), "What is the pump interval?").isHit()).isTrue();
+    }
+
+    @Test
+    void invalidationDropsWorkspaceAndRejectsInFlightStores() {
+        SemanticAnswerCache.Scope scopeA = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+        SemanticAnswerCache.Scope scopeB = scope("ws_b", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+        this.cache.store(this.cache.lookup(scopeA, "What is the pump interval?"), answer("500 hours"));
+        this.cache.store(this.cache.lookup(scopeB, "What is the pump interval?"), answer("750 hours"));
+        SemanticAnswerCache.Lookup inFlight = this.cache.lookup(scopeA, "Who approved the budget?");
+
+        this.cache.invalidateWorkspace("ws_a");
+        this.cache.store(inFlight, answer("stale"));
+
+        assertThat(this.cache.lookup(scopeA, "What is the pump interval?").isHit()).isFalse();
+        assertThat(this.cache.lookup(scopeA, "Who approved the budget?").isHit()).isFalse();
+        assertThat(this.cache.lookup(scopeB, "What is the pump interval?").isHit()).isTrue();
+    }
+
+    @Test
+    void invalidationOnAnotherNodeStopsHitsAtTheNextLookup() {
+        AtomicLong sharedGeneration = new AtomicLong();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(SemanticAnswerCache.GENERATIONS_COLLECTION)))
+                .thenAnswer(invocation -> new Document("_id", "ws_a").append("generation", sharedGeneration.get()));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SemanticAnswerCache.GENERATIONS_COLLECTION)))
+                .thenAnswer(invocation -> {
+                    sharedGeneration.incrementAndGet();
+                    return null;
+                });
+        SemanticAnswerCache serving = new SemanticAnswerCache(true, 0.95, 100, 8, 60, null, mongoTemplate);
+        SemanticAnswerCache ingesting = new SemanticAnswerCache(true, 0.95, 100, 8, 60, null, mongoTemplate);
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+        serving.store(serving.lookup(scope, "What is the pump interval?"), answer("500 hours"));
+        SemanticAnswerCache.Lookup inFlight = serving.lookup(scope, "Who approved the budget?");
+        assertThat(serving.lookup(scope, "What is the pump interval?").isHit()).isTrue();
+
+        ingesting.invalidateWorkspace("ws_a");
+        serving.store(inFlight, answer("stale"));
+
+        assertThat(serving.lookup(scope, "What is the pump interval?").isHit()).isFalse();
+        assertThat(serving.lookup(scope, "Who approved the budget?").isHit()).isFalse();
+        serving.store(serving.lookup(scope, "What is the pump interval?"), answer("600 hours"));
+        assertThat(serving.lookup(scope, "What is the pump interval?").hit().response()).isEqualTo("600 hours");
+    }
+
+    @Test
+    void unreadableGenerationBypassesTheCache() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(SemanticAnswerCache.GENERATIONS_COLLECTION)))
+                .thenThrow(new IllegalStateException("mongo down"));
+        SemanticAnswerCache unreachable = new SemanticAnswerCache(true, 0.95, 100, 8, 60, this.embeddingModel, mongoTemplate);
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+
+        unreachable.store(unreachable.lookup(scope, "What is the pump interval?"), answer("500 hours"));
+
+        assertThat(unreachable.lookup(scope, "What is the pump interval?").isHit()).isFalse();
+        assertThat(unreachable.getScopes().getIfPresent(scope)).isNull();
+        verify(this.embeddingModel, never()).embed(anyString());
+    }
+
+    @Test
+    void disabledCacheNeverEmbedsOrStores() {
+        SemanticAnswerCache disabled = new SemanticAnswerCache(false, 0.95, 100, 8, 60, this.embeddingModel, null);
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+
+        disabled.store(disabled.lookup(scope, "What is the pump interval?"), answer("500 hours"));
+
+        assertThat(disabled.lookup(scope, "What is the pump interval?").isHit()).isFalse();
+        verify(this.embeddingModel, never()).embed(anyString());
+    }
+
+    @Test
+    void scopeKeepsMostRecentEntriesWithinLimit() {
+        SemanticAnswerCache small = new SemanticAnswerCache(true, 0.95, 100, 2, 60, null, null);
+        SemanticAnswerCache.Scope scope = scope("ws_a", Department.ENTERPRISE, ClearanceLevel.SECRET, List.of());
+        small.store(small.lookup(scope, "first"), answer("1"));
+        small.store(small.lookup(scope, "second"), answer("2"));
+        small.store(small.lookup(scope, "third"), answer("3"));
+
+        assertThat(small.lookup(scope, "first").isHit()).isFalse();
+        assertThat(small.lookup(scope, "third").hit().response()).isEqualTo("3");
+        assertThat(small.getScopes().getIfPresent(scope).size()).isEqualTo(2);
+    }
+
+    private static SemanticAnswerCache.Scope scope(String workspace, Department department, ClearanceLevel clearance, List<String> files) {
+        return SemanticAnswerCache.scope(workspace, department, clearance, files, "false");
+    }
+
+    private static SemanticAnswerCache.CachedAnswer answer(String response) {
+        return new SemanticAnswerCache.CachedAnswer(response, List.of("manual.pdf"), Map.of("answerable", true));
+    }
+}
@@ -0,0 +1,121 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+class SidecarHttpClientsTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final Set<Object> remotePorts = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+    private final CountDownLatch slowStarted = new CountDownLatch(1);
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/ok", exchange -> {
+            this.remotePorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        this.server.createContext("/redirect", exchange -> {
+            exchange.getResponseHeaders().add("Location", this.baseUrl + "/ok");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        this.server.createContext("/slow", exchange -> {
+            this.slowStarted.countDown();
+            try {
+                this.releaseSlow.await(5L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.start();
+        this.baseUrl = "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.releaseSlow.countDown();
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void redirectsAreReturnedNotFollowed() {
+        RestTemplate restTemplate = new SidecarHttpClients(null, 1000L, false)
+                .restTemplate("test", 2, Duration.ofSeconds(2), Duration.ofSeconds(2));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(this.baseUrl + "/redirect", String.class);
+
+        assertThat(response.getStatusCode().is3xxRedirection()).isTrue();
+        assertThat(this.remotePorts).isEmpty();
+    }
+
+    @Test
+    void sequentialCallsReuseOneConnection() {
+        RestTemplate restTemplate = new SidecarHttpClients(null, 1000L, false)
+                .restTemplate("test", 2, Duration.ofSeconds(2), Duration.ofSeconds(2));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForObject(this.baseUrl + "/ok", String.class)).isEqualTo("ok");
+        }
+
+        assertThat(this.remotePorts).hasSize(1);
+    }
+
+    @Test
+    void callsBeyondTheConnectionLimitAreRejectedAndCounted() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SidecarHttpClients clients = new SidecarHttpClients(registry, 50L, false);
+        RestTemplate restTemplate = clients.restTemplate("test", 1, Duration.ofSeconds(2), Duration.ofSeconds(5));
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> slow = caller.submit(() -> restTemplate.getForEntity(this.baseUrl + "/slow", String.class));
+            assertThat(this.slowStarted.await(5L, TimeUnit.SECONDS)).isTrue();
+            assertThat(clients.getInFlight("test")).isEqualTo(1);
+
+            assertThatThrownBy(() -> restTemplate.getForObject(this.baseUrl + "/ok", String.class))
+                    .isInstanceOf(ResourceAccessException.class);
+
+            this.releaseSlow.countDown();
+            slow.get(5L, TimeUnit.SECONDS);
+        } finally {
+            caller.shutdownNow();
+        }
+
+        assertThat(clients.getInFlight("test")).isZero();
+        assertThat(registry.get(SidecarHttpClients.REJECTED_COUNTER).tag("sidecar", "test").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get(SidecarHttpClients.REQUEST_TIMER).tag("sidecar", "test").tag("outcome", "success").timer().count())
+                .isEqualTo(1L);
+    }
+}
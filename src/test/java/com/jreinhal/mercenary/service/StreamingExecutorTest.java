@@ -0,0 +1,132 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.jreinhal.mercenary.filter.CorrelationIdFilter;
+import com.jreinhal.mercenary.filter.SecurityContext;
+import com.jreinhal.mercenary.model.User;
+import com.jreinhal.mercenary.workspace.WorkspaceContext;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+class StreamingExecutorTest {
+
+    private StreamingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        this.executor = new StreamingExecutor(3, 2, 10);
+        WorkspaceContext.setCurrentWorkspaceId("workspace_a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdown();
+        WorkspaceContext.clear();
+        MDC.clear();
+    }
+
+    @Test
+    void capsConcurrentStreamsPerUser() {
+        User alice = user("alice");
+        StreamingExecutor.StreamHandle first = this.executor.tryAdmit(alice);
+        StreamingExecutor.StreamHandle second = this.executor.tryAdmit(alice);
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(this.executor.tryAdmit(alice)).isNull();
+        assertThat(this.executor.tryAdmit(user("bob"))).isNotNull();
+
+        first.release();
+        first.release();
+        assertThat(this.executor.tryAdmit(alice)).isNotNull();
+    }
+
+    @Test
+    void capsConcurrentStreamsGlobally() {
+        assertThat(this.executor.tryAdmit(user("a"))).isNotNull();
+        assertThat(this.executor.tryAdmit(user("b"))).isNotNull();
+        assertThat(this.executor.tryAdmit(user("c"))).isNotNull();
+        assertThat(this.executor.tryAdmit(user("d"))).isNull();
+        assertThat(this.executor.getActiveStreams()).isEqualTo(3);
+    }
+
+    @Test
+    void capsConcurrentStreamsPerWorkspace() {
+        StreamingExecutor perWorkspace = new StreamingExecutor(10, 5, 1);
+        try {
+            assertThat(perWorkspace.tryAdmit(user("a"))).isNotNull();
+            assertThat(perWorkspace.tryAdmit(user("b"))).isNull();
+            WorkspaceContext.setCurrentWorkspaceId("workspace_b");
+            assertThat(perWorkspace.tryAdmit(user("b"))).isNotNull();
+        } finally {
+            perWorkspace.shutdown();
+        }
+    }
+
+    @Test
+    void runsWorkWithCallerContextAndReleasesSlot() throws Exception {
+        User alice = user("alice");
+        StreamingExecutor.StreamHandle handle = this.executor.tryAdmit(alice);
+        AtomicReference<String> seenWorkspace = new AtomicReference<>();
+        AtomicReference<User> seenUser = new AtomicReference<>();
+        AtomicReference<String> seenCorrelationId = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        MDC.put(CorrelationIdFilter.MDC_KEY, "corr-123");
+
+        this.executor.execute(handle, () -> {
+            seenWorkspace.set(WorkspaceContext.getCurrentWorkspaceId());
+            seenUser.set(SecurityContext.getCurrentUser());
+            seenCorrelationId.set(MDC.get(CorrelationIdFilter.MDC_KEY));
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(seenWorkspace.get()).isEqualTo("workspace_a");
+        assertThat(seenUser.get()).isSameAs(alice);
+        assertThat(seenCorrelationId.get()).isEqualTo("corr-123");
+        awaitIdle();
+    }
+
+    @Test
+    void cancelInterruptsRunningStream() throws Exception {
+        StreamingExecutor.StreamHandle handle = this.executor.tryAdmit(user("alice"));
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+
+        this.executor.execute(handle, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(30_000L);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        handle.cancel();
+        awaitIdle();
+        assertThat(handle.isCancelled()).isTrue();
+        assertThat(interrupted.get()).isTrue();
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.executor.getActiveStreams() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertThat(this.executor.getActiveStreams()).isZero();
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,93 @@
+package com.jreinhal.mercenary.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TokenizationVaultTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOps;
+    private TokenizationVault vault;
+
+    @BeforeEach
+    void setUp() {
+        this.mongoTemplate = mock(MongoTemplate.class);
+        this.bulkOps = mock(BulkOperations.class);
+        when(this.mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(TokenizationVault.TokenEntry.class)))
+                .thenReturn(this.bulkOps);
+        this.vault = new TokenizationVault(this.mongoTemplate, mock(HipaaPolicy.class), mock(KeyMaterialLoader.class));
+        ReflectionTestUtils.setField(this.vault, "enabled", true);
+        ReflectionTestUtils.setField(this.vault, "storeOriginals", true);
+        ReflectionTestUtils.setField(this.vault, "baseKey", TokenizationVault.generateSecretKey());
+        this.vault.init();
+    }
+
+    @Test
+    void repeatedValueIsWrittenOnce() {
+        String first = this.vault.tokenize("123-45-6789", "SSN", "user-1");
+        String second = this.vault.tokenize("123-45-6789", "SSN", "user-1");
+
+        assertThat(second).isEqualTo(first).startsWith("<<TOK:SSN:");
+        verify(this.mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(TokenizationVault.TokenEntry.class));
+    }
+
+    @Test
+    void batchBuffersUntilFlushAndDeduplicates() {
+        this.vault.beginBatch();
+        try {
+            this.vault.tokenize("123-45-6789", "SSN", "user-1");
+            this.vault.tokenize("123-45-6789", "SSN", "user-1");
+            this.vault.tokenize("jane@example.com", "EMAIL", "user-1");
+            verify(this.bulkOps, never()).execute();
+
+            this.vault.flushBatch();
+        } finally {
+            this.vault.endBatch();
+        }
+
+        verify(this.bulkOps, times(2)).upsert(any(Query.class), any(Update.class));
+        verify(this.bulkOps, times(1)).execute();
+        // Flushed tokens are known, so a later synchronous tokenize skips the vault.
+        this.vault.tokenize("jane@example.com", "EMAIL", "user-1");
+        verify(this.mongoTemplate, never()).upsert(any(Query.class), any(Update.class), eq(TokenizationVault.TokenEntry.class));
+    }
+
+    @Test
+    void batchFlushesAtConfiguredSize() {
+        ReflectionTestUtils.setField(this.vault, "writeBehindBatchSize", 2);
+        this.vault.beginBatch();
+        try {
+            this.vault.tokenize("123-45-6789", "SSN", "user-1");
+            this.vault.tokenize("987-65-4321", "SSN", "user-1");
+            verify(this.bulkOps, times(1)).execute();
+        } finally {
+            this.vault.endBatch();
+        }
+    }
+
+    @Test
+    void endingBatchWithoutFlushDropsEntries() {
+        this.vault.beginBatch();
+        this.vault.tokenize("123-45-6789", "SSN", "user-1");
+        this.vault.endBatch();
+
+        verify(this.mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(TokenizationVault.TokenEntry.class));
+        // Not marked known, so the next synchronous call still writes it.
+        this.vault.tokenize("123-45-6789", "SSN", "user-1");
+        verify(this.mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(TokenizationVault.TokenEntry.class));
+    }
+}
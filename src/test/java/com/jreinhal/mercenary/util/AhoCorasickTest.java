@@ -0,0 +1,55 @@
+package com.jreinhal.mercenary.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class AhoCorasickTest {
+
+    @Test
+    void reportsOverlappingMatchesWithPositions() {
+        AhoCorasick matcher = AhoCorasick.of(List.of("he", "she", "his", "hers"));
+        List<String> found = new ArrayList<>();
+
+        matcher.scan("ushers", (keyword, start, end) -> found.add(keyword + "@" + start + "-" + end));
+
+        assertThat(found).containsExactly("1@1-4", "0@2-4", "3@2-6");
+    }
+
+    @Test
+    void firstKeywordFollowsListOrderNotTextOrder() {
+        AhoCorasick matcher = AhoCorasick.of(List.of("bypass", "jailbreak"));
+
+        assertThat(matcher.firstKeyword("jailbreak then bypass")).isZero();
+        assertThat(matcher.firstKeyword("only jailbreak")).isEqualTo(1);
+        assertThat(matcher.firstKeyword("nothing here")).isEqualTo(-1);
+    }
+
+    @Test
+    void ignoreAsciiCaseFoldsOnlyAscii() {
+        AhoCorasick matcher = AhoCorasick.of(List.of("ignore"), true);
+
+        assertThat(matcher.containsAny("Please IGNORE this")).isTrue();
+        assertThat(matcher.containsAny("İGNORE")).isFalse();
+        assertThat(AhoCorasick.of(List.of("ignore")).containsAny("IGNORE")).isFalse();
+    }
+
+    @Test
+    void agreesWithContainsOnRandomText() {
+        List<String> keywords = List.of("ab", "abc", "bca", "c", "aab", "cab");
+        AhoCorasick matcher = AhoCorasick.of(keywords);
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; ++i) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; --j) {
+                text.append((char) ('a' + random.nextInt(4)));
+            }
+            for (int k = 0; k < keywords.size(); ++k) {
+                assertThat(matcher.matches(text).get(k)).as("%s in %s", keywords.get(k), text).isEqualTo(text.toString().contains(keywords.get(k)));
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.jreinhal.mercenary.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class TopKCollectorTest {
+
+    @Test
+    void keepsHighestScoresInDescendingOrder() {
+        TopKCollector<String> collector = new TopKCollector<>(3);
+        collector.offer("a", 0.1);
+        collector.offer("b", 0.9);
+        collector.offer("c", 0.5);
+        collector.offer("d", 0.7);
+        collector.offer("e", 0.2);
+
+        assertThat(collector.toSortedList()).containsExactly("b", "d", "c");
+    }
+
+    @Test
+    void breaksTiesByInsertionOrder() {
+        TopKCollector<String> collector = new TopKCollector<>(2);
+        collector.offer("first", 0.5);
+        collector.offer("second", 0.5);
+        collector.offer("third", 0.5);
+
+        assertThat(collector.toSortedList()).containsExactly("first", "second");
+    }
+
+    @Test
+    void zeroCapacityRetainsNothing() {
+        TopKCollector<String> collector = new TopKCollector<>(0);
+        assertThat(collector.offer("a", 1.0)).isFalse();
+        assertThat(collector.isEmpty()).isTrue();
+        assertThat(collector.toSortedList()).isEmpty();
+    }
+
+    @Test
+    void forEachSortedExposesScores() {
+        TopKCollector<String> collector = new TopKCollector<>(Integer.MAX_VALUE);
+        collector.offer("low", 0.25);
+        collector.offer("high", 0.75);
+
+        List<Double> scores = new ArrayList<>();
+        collector.forEachSorted((item, score) -> scores.add(score));
+
+        assertThat(scores).containsExactly(0.75, 0.25);
+    }
+
+    @Test
+    void matchesStableFullSortOnRandomInput() {
+        Random random = new Random(42);
+        List<double[]> candidates = IntStream.range(0, 5_000)
+                .mapToObj(i -> new double[]{i, Math.floor(random.nextDouble() * 100) / 100})
+                .collect(Collectors.toList());
+        TopKCollector<Integer> collector = new TopKCollector<>(25);
+        for (double[] candidate : candidates) {
+            collector.offer((int) candidate[0], candidate[1]);
+        }
+
+        List<Integer> expected = candidates.stream()
+                .sorted(Comparator.comparingDouble((double[] c) -> c[1]).reversed())
+                .limit(25)
+                .map(c -> (int) c[0])
+                .collect(Collectors.toList());
+        assertThat(collector.toSortedList()).isEqualTo(expected);
+    }
+}
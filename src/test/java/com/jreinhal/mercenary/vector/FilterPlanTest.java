@@ -0,0 +1,74 @@
+package com.jreinhal.mercenary.vector;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class FilterPlanTest {
+
+    private static final Set<String> PREFILTER_KEYS = Set.of("dept", "workspaceId", "type", "documentYear");
+
+    @Test
+    void coveredConditionsAreNotReEvaluatedInJava() {
+        FilterPlan plan = FilterPlan.compile("dept == 'MEDICAL' && documentYear >= 2020", PREFILTER_KEYS);
+
+        assertTrue(plan.hasPrefilter());
+        assertTrue(plan.prefilterQuery().toString().contains("metadata.dept"));
+        // The prefilter already enforces both conditions, so the residual predicate accepts anything Mongo returns.
+        assertTrue(plan.matches(Map.of("dept", "ENTERPRISE", "documentYear", 2010)));
+    }
+
+    @Test
+    void notEqualsRemainsInResidualPredicate() {
+        FilterPlan plan = FilterPlan.compile("dept == 'MEDICAL' && type != 'thesaurus'", PREFILTER_KEYS);
+
+        assertTrue(plan.hasPrefilter());
+        assertFalse(plan.matches(Map.of("dept", "MEDICAL", "type", "THESAURUS")), "Case-insensitive '!=' must be re-checked");
+        assertTrue(plan.matches(Map.of("dept", "MEDICAL")));
+    }
+
+    @Test
+    void nonPrefilterKeysFallBackToFullJavaEvaluation() {
+        FilterPlan plan = FilterPlan.compile("dept == 'MEDICAL' && customField == 'x'", PREFILTER_KEYS);
+
+        assertFalse(plan.hasPrefilter());
+        assertNull(plan.prefilterQuery());
+        assertTrue(plan.matches(Map.of("dept", "medical", "customField", "X")));
+        assertFalse(plan.matches(Map.of("dept", "ENTERPRISE", "customField", "x")));
+    }
+
+    @Test
+    void orGroupsReEvaluateFullPredicate() {
+        FilterPlan plan = FilterPlan.compile(
+                "dept == 'MEDICAL' && documentYear == 2021 || dept == 'GOVERNMENT' && documentYear == 2020", PREFILTER_KEYS);
+
+        assertTrue(plan.hasPrefilter());
+        assertTrue(plan.matches(Map.of("dept", "GOVERNMENT", "documentYear", 2020)));
+        assertFalse(plan.matches(Map.of("dept", "GOVERNMENT", "documentYear", 2021)));
+    }
+
+    @Test
+    void failsClosedForUnparseableFilterAndEmptyIn() {
+        FilterPlan invalid = FilterPlan.compile("this is not a filter", PREFILTER_KEYS);
+        assertNotNull(invalid.prefilterQuery());
+        assertTrue(invalid.prefilterQuery().toString().contains("__filter_parse_failure__"));
+        assertFalse(invalid.matches(Map.of("dept", "MEDICAL")));
+
+        FilterPlan emptyIn = FilterPlan.compile("dept in []", PREFILTER_KEYS);
+        assertNotNull(emptyIn.prefilterQuery());
+        assertFalse(emptyIn.matches(Map.of("dept", "MEDICAL")));
+    }
+
+    @Test
+    void noFilterMatchesEverythingWithoutPrefilter() {
+        FilterPlan plan = FilterPlan.compile(null, PREFILTER_KEYS);
+
+        assertFalse(plan.hasPrefilter());
+        assertTrue(plan.matches(Map.of()));
+    }
+}
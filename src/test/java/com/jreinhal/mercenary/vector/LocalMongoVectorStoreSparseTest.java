@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 
 class LocalMongoVectorStoreSparseTest {
 
@@ -81,7 +82,7 @@ class LocalMongoVectorStoreSparseTest {
         doc4.setEmbeddingDimensions(2);
         // No sparse weights set
 
-        when(mongoTemplate.findAll(eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
+        when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
                 .thenReturn(List.of(doc1, doc2, doc3, doc4));
 
         // Query for "cyber threat"
@@ -115,7 +116,7 @@ class LocalMongoVectorStoreSparseTest {
         doc1.setEmbeddingDimensions(2);
         doc1.setSparseWeights(Map.of("minor", 0.01f));
 
-        when(mongoTemplate.findAll(eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
+        when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
                 .thenReturn(List.of(doc1));
 
         // Query with high threshold
@@ -150,7 +151,7 @@ class LocalMongoVectorStoreSparseTest {
         doc2.setEmbeddingDimensions(2);
         doc2.setSparseWeights(Map.of("test", 0.5f));
 
-        when(mongoTemplate.findAll(eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
+        when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
                 .thenReturn(List.of(doc1, doc2));
 
         Map<String, Float> queryWeights = Map.of("test", 1.0f);
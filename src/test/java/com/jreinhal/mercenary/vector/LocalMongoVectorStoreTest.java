@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -137,8 +138,9 @@ class LocalMongoVectorStoreTest {
         outOfRange.setEmbedding(List.of(1.0, 0.0));
         outOfRange.setEmbeddingNorm(1.0);
 
+        // Covered conditions are enforced by the Mongo prefilter, so the mock returns what Mongo would.
         when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), anyString()))
-                .thenReturn(List.of(inRange, outOfRange));
+                .thenReturn(List.of(inRange));
 
         String filter = "dept == 'MEDICAL' && workspaceId == 'ws' && documentYear >= 2020 && documentYear <= 2022";
         FilterExpressionParser.ParsedFilter parsed = FilterExpressionParser.parse(filter);
@@ -165,11 +167,30 @@ class LocalMongoVectorStoreTest {
         assertEquals(1, results.size());
         assertEquals("IN_RANGE", results.get(0).getContent());
 
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store"));
+        String queryString = queryCaptor.getAllValues().get(0).toString();
+        assertTrue(queryString.contains("metadata.documentYear"));
+        assertTrue(queryString.contains("$gte"));
+        assertTrue(queryString.contains("$lte"));
         verify(mongoTemplate, never()).findAll(eq(LocalMongoVectorStore.MongoDocument.class), anyString());
     }
 
     @Test
-    void similaritySearchUsesFindAllWhenNoFilterExpressionProvided() {
+    void similaritySearchReusesCompiledFilterPlanForRepeatedFilters() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        LocalMongoVectorStore store = new LocalMongoVectorStore(mongoTemplate, embeddingModel);
+
+        FilterPlan first = store.resolveFilterPlan("dept == 'MEDICAL' && workspaceId == 'ws'");
+        FilterPlan second = store.resolveFilterPlan("  dept == 'MEDICAL' && workspaceId == 'ws' ");
+
+        assertSame(first, second);
+        assertSame(FilterPlan.MATCH_ALL, store.resolveFilterPlan(null));
+    }
+
+    @Test
+    void similaritySearchScansWithoutCriteriaWhenNoFilterExpressionProvided() {
         MongoTemplate mongoTemplate = mock(MongoTemplate.class);
         EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
         when(embeddingModel.embed(anyString())).thenReturn(new float[]{1.0f, 0.0f});
@@ -182,14 +203,59 @@ class LocalMongoVectorStoreTest {
         doc.setMetadata(Map.of("dept", "MEDICAL"));
         doc.setEmbedding(List.of(1.0, 0.0));
         doc.setEmbeddingNorm(1.0);
-        when(mongoTemplate.findAll(LocalMongoVectorStore.MongoDocument.class, "vector_store"))
+        when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
                 .thenReturn(List.of(doc));
 
         List<Document> results = store.similaritySearch(SearchRequest.query("q").withTopK(5).withSimilarityThreshold(0.0));
 
         assertEquals(1, results.size());
-        verify(mongoTemplate).findAll(LocalMongoVectorStore.MongoDocument.class, "vector_store");
-        verify(mongoTemplate, never()).find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), anyString());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store"));
+        assertTrue(queryCaptor.getAllValues().get(0).getQueryObject().isEmpty());
+        verify(mongoTemplate, never()).findAll(LocalMongoVectorStore.MongoDocument.class, "vector_store");
+    }
+
+    @Test
+    void similaritySearchProjectsScanAndHydratesOnlyWinners() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(anyString())).thenReturn(new float[]{1.0f, 0.0f});
+
+        LocalMongoVectorStore store = new LocalMongoVectorStore(mongoTemplate, embeddingModel);
+
+        LocalMongoVectorStore.MongoDocument best = new LocalMongoVectorStore.MongoDocument();
+        best.setId("best");
+        best.setEmbedding(List.of(1.0, 0.0));
+        best.setEmbeddingNorm(1.0);
+        LocalMongoVectorStore.MongoDocument worst = new LocalMongoVectorStore.MongoDocument();
+        worst.setId("worst");
+        worst.setEmbedding(List.of(0.0, 1.0));
+        worst.setEmbeddingNorm(1.0);
+        LocalMongoVectorStore.MongoDocument hydrated = new LocalMongoVectorStore.MongoDocument();
+        hydrated.setId("best");
+        hydrated.setContent("BEST");
+        hydrated.setMetadata(Map.of("dept", "MEDICAL"));
+
+        when(mongoTemplate.find(any(Query.class), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store")))
+                .thenReturn(List.of(best, worst))
+                .thenReturn(List.of(hydrated));
+
+        List<Document> results = store.similaritySearch(SearchRequest.query("q")
+                .withTopK(1)
+                .withSimilarityThreshold(0.0)
+                .withFilterExpression("dept == 'MEDICAL'"));
+
+        assertEquals(1, results.size());
+        assertEquals("BEST", results.get(0).getContent());
+        assertEquals(1.0, (Double) results.get(0).getMetadata().get("score"), 1e-9);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queryCaptor.capture(), eq(LocalMongoVectorStore.MongoDocument.class), eq("vector_store"));
+        org.bson.Document scanFields = queryCaptor.getAllValues().get(0).getFieldsObject();
+        assertTrue(scanFields.containsKey("embedding"));
+        assertFalse(scanFields.containsKey("content"));
+        assertTrue(queryCaptor.getAllValues().get(1).toString().contains("best"));
+        assertFalse(queryCaptor.getAllValues().get(1).toString().contains("worst"));
     }
 
     @Test
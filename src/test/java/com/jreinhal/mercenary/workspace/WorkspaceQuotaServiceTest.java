@@ -0,0 +1,109 @@
+package com.jreinhal.mercenary.workspace;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.jreinhal.mercenary.repository.WorkspaceRepository;
+import com.jreinhal.mercenary.workspace.Workspace.WorkspaceQuota;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WorkspaceQuotaServiceTest {
+
+    private static final String WORKSPACE = "ws-quota";
+
+    private WorkspaceRepository workspaceRepository;
+    private WorkspaceUsageService usageService;
+    private WorkspaceQuotaService quotaService;
+
+    @BeforeEach
+    void setUp() {
+        this.workspaceRepository = mock(WorkspaceRepository.class);
+        this.usageService = mock(WorkspaceUsageService.class);
+        when(this.usageService.getContentTotals(WORKSPACE)).thenReturn(new WorkspaceUsageService.ContentTotals(0L, 0L, 0L));
+        this.quotaService = new WorkspaceQuotaService(this.workspaceRepository, this.usageService);
+    }
+
+    @Test
+    void queryQuotaIsEnforcedFromCountersWithoutRereadingMongo() {
+        withQuota(new WorkspaceQuota(0, 3, 0));
+        when(this.usageService.countQueriesToday(WORKSPACE)).thenReturn(1L);
+
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+
+        assertThatThrownBy(() -> this.quotaService.enforceQueryQuota(WORKSPACE))
+                .isInstanceOf(WorkspaceQuotaExceededException.class);
+        verify(this.usageService, times(1)).countQueriesToday(WORKSPACE);
+        verify(this.workspaceRepository, times(1)).findById(WORKSPACE);
+    }
+
+    @Test
+    void syncKeepsAdmittedQueriesThatAreNotAuditedYet() {
+        withQuota(new WorkspaceQuota(0, 2, 0));
+        when(this.usageService.countQueriesToday(WORKSPACE)).thenReturn(0L);
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+
+        // Both queries are still running, so neither is in the rollups yet.
+        this.quotaService.syncCounters();
+
+        assertThatThrownBy(() -> this.quotaService.enforceQueryQuota(WORKSPACE))
+                .isInstanceOf(WorkspaceQuotaExceededException.class);
+    }
+
+    @Test
+    void syncReplacesAuditedCountsWithMongoValuesAndFailedQueriesFreeTheirSlot() {
+        withQuota(new WorkspaceQuota(0, 2, 0));
+        when(this.usageService.countQueriesToday(WORKSPACE)).thenReturn(0L);
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+        this.quotaService.recordAuditedQuery(WORKSPACE);
+        this.quotaService.releaseQuery(WORKSPACE);
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+        assertThatThrownBy(() -> this.quotaService.enforceQueryQuota(WORKSPACE))
+                .isInstanceOf(WorkspaceQuotaExceededException.class);
+
+        // The second query failed before it was audited; the rollups hold only the first.
+        this.quotaService.releaseQuery(WORKSPACE);
+        when(this.usageService.countQueriesToday(WORKSPACE)).thenReturn(1L);
+        this.quotaService.syncCounters();
+
+        assertThatCode(() -> this.quotaService.enforceQueryQuota(WORKSPACE)).doesNotThrowAnyException();
+        assertThatThrownBy(() -> this.quotaService.enforceQueryQuota(WORKSPACE))
+                .isInstanceOf(WorkspaceQuotaExceededException.class);
+    }
+
+    @Test
+    void recordedIngestionCountsTowardDocumentQuotaBeforeSync() {
+        withQuota(new WorkspaceQuota(2, 0, 0));
+        when(this.usageService.getContentTotals(WORKSPACE)).thenReturn(new WorkspaceUsageService.ContentTotals(1L, 4L, 100L));
+
+        this.quotaService.enforceIngestionQuota(WORKSPACE, 10L);
+        this.quotaService.recordIngestion(WORKSPACE, 10L);
+
+        assertThatThrownBy(() -> this.quotaService.enforceIngestionQuota(WORKSPACE, 10L))
+                .isInstanceOf(WorkspaceQuotaExceededException.class);
+    }
+
+    @Test
+    void appliedQuotaTakesEffectImmediately() {
+        withQuota(WorkspaceQuota.unlimited());
+        this.quotaService.enforceQueryQuota(WORKSPACE);
+
+        this.quotaService.applyQuota(WORKSPACE, new WorkspaceQuota(0, 1, 0));
+
+        assertThatThrownBy(() -> this.quotaService.enforceQueryQuota(WORKSPACE))
+                .isInstanceOf(WorkspaceQuotaExceededException.class);
+    }
+
+    private void withQuota(WorkspaceQuota quota) {
+        Workspace workspace = new Workspace(WORKSPACE, "Quota", "", "admin", Instant.now(), Instant.now(), quota, true);
+        when(this.workspaceRepository.findById(WORKSPACE)).thenReturn(Optional.of(workspace));
+    }
+}
@@ -13,6 +13,7 @@ Configuration via environment variables:
     DEVICE      - cpu or cuda (default: cpu)
     PORT        - Server port (default: 8091)
     MAX_LENGTH  - Max token length (default: 8192)
+    KEEP_ALIVE  - Idle keep-alive seconds for pooled client connections (default: 75)
 """
 
 import os
@@ -32,6 +33,7 @@ MODEL_NAME = os.getenv("MODEL_NAME", "BAAI/bge-m3")
 DEVICE = os.getenv("DEVICE", "cpu")
 MAX_LENGTH = int(os.getenv("MAX_LENGTH", "8192"))
 PORT = int(os.getenv("PORT", "8091"))
+KEEP_ALIVE = int(os.getenv("KEEP_ALIVE", "75"))
 
 model = None
 model_loaded = False
@@ -138,4 +140,4 @@ def embed_sparse(req: EmbedSparseRequest):
 
 
 if __name__ == "__main__":
-    uvicorn.run(app, host="0.0.0.0", port=PORT, log_level="info")
+    uvicorn.run(app, host="0.0.0.0", port=PORT, log_level="info", timeout_keep_alive=KEEP_ALIVE)